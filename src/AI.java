@@ -1,4 +1,6 @@
-import java.util.Random; // For RandomAI
+import java.util.Arrays; // For SimpleAI and BelligerentAI
+import java.util.SplittableRandom; // For the random choices of every AI
+import java.util.concurrent.TimeUnit; // For CompetitiveAI
 
 /**
  * A class which contains and calls upon all of its children AI classes
@@ -17,21 +19,226 @@ public class AI {
     /** The associated intelligent AI object with this AI object. It is associated with the same
      * board. */
     private IntelligentAI intelligentAI;
+    /** The associated belligerent AI object with this AI object. It is associated with the same
+     * board. */
+    private BelligerentAI belligerentAI;
     /** The associated competitive AI object with this AI object. It is associated with the same
      * board. */
     private CompetitiveAI competitiveAI;
+    /** The associated Monte Carlo AI object with this AI object. It is associated with the same
+     * board. */
+    private MonteCarloAI monteCarloAI;
+    /** The associated perfect AI object with this AI object. It is associated with the same
+     * board. */
+    private PerfectAI perfectAI;
+    /** The game board that this AI is controlling players on. */
+    private GameBoard board;
     /** The list of the players that are participating in the game that this AI is controlling. */
     private Player[] players;
+    /** The statistics of the last search by the competitive or Monte Carlo AI. */
+    private SearchStatistics lastStatistics;
+    /** The book of early moves consulted before searching, or null if there isn't one. */
+    private OpeningBook openingBook;
+    /** The solved endgame positions consulted before searching, or null if there aren't any. */
+    private Tablebase tablebase;
+    /** The search for forced wins by threats, or null if it hasn't been needed yet or the game
+     * doesn't have two players. */
+    private ThreatSpaceSearch threatSpaceSearch;
 
     /**
      * Creates this AI object that simply contains its specific children AI
      * objects.
      */
     public AI(GameBoard board, Player[] players) {
-        this.randomAI = new RandomAI(board);
-        this.simpleAI = new SimpleAI(board);
-        this.intelligentAI = new IntelligentAI(board);
+        // Each game gets its own stream, and each child AI its own part of it
+        SplittableRandom random = RandomService.split();
+        this.randomAI = new RandomAI(board, random.split());
+        this.simpleAI = new SimpleAI(board, random.split());
+        this.intelligentAI = new IntelligentAI(board, players, random.split());
+        this.belligerentAI = new BelligerentAI(board, players, random.split());
         this.competitiveAI = new CompetitiveAI(board, players);
+        this.monteCarloAI = new MonteCarloAI(board, players, random.split());
+        this.perfectAI = new PerfectAI(board, players);
+        this.board = board;
+        this.players = players;
+    }
+
+    /**
+     * Sets how many moves ahead the competitive AI searches.
+     * @param depth The number of moves to search ahead.
+     * @throws IllegalArgumentException When the depth is less than {@value
+     *     NegamaxSearch#MIN_DEPTH}.
+     */
+    public void setSearchDepth(int depth) {
+        competitiveAI.setSearchDepth(depth);
+    }
+
+    /**
+     * Sets how long the competitive and Monte Carlo AIs may take to decide
+     * each move. With a time limit, the competitive AI searches deeper and
+     * deeper until the time runs out, instead of searching to a fixed depth.
+     * @param millis The number of milliseconds each move may take, or
+     *     {@value NegamaxSearch#NO_LIMIT} for no limit.
+     * @throws IllegalArgumentException When the time limit is negative.
+     */
+    public void setTimeLimit(long millis) {
+        competitiveAI.setTimeLimit(millis);
+        monteCarloAI.setTimeLimit(millis);
+    }
+
+    /**
+     * Sets how many positions the competitive AI may search to decide each
+     * move. With a node limit, the AI searches deeper and deeper until the
+     * limit is reached, instead of searching to a fixed depth.
+     * @param nodes The number of positions each move may search, or {@value
+     *     NegamaxSearch#NO_LIMIT} for no limit.
+     * @throws IllegalArgumentException When the node limit is negative.
+     */
+    public void setNodeLimit(long nodes) {
+        competitiveAI.setNodeLimit(nodes);
+    }
+
+    /**
+     * Sets how many points the simple AI gives each of a player's tokens near
+     * the cell it would drop a token into, by distance. The distance is the
+     * larger of the row and column distances.
+     * @param distancePoints The points of a token at each distance, from 0
+     *     up to the furthest distance checked.
+     * @throws IllegalArgumentException When there are no points.
+     */
+    public void setSimpleDistancePoints(int[] distancePoints) {
+        simpleAI.setDistancePoints(distancePoints);
+    }
+
+    /**
+     * Sets how the competitive AI searches in games with more than two
+     * players.
+     * @param mode The search mode. (MultiPlayerSearch.MAX_N or
+     *     MultiPlayerSearch.PARANOID)
+     * @throws IllegalArgumentException When the mode isn't recognized.
+     */
+    public void setMultiPlayerMode(byte mode) {
+        competitiveAI.setMultiPlayerMode(mode);
+    }
+
+    /**
+     * Sets how many games the Monte Carlo AI may play out to decide each move.
+     * @param playouts The number of games each move may play out, or {@value
+     *     MonteCarloSearch#NO_LIMIT} for no limit.
+     * @throws IllegalArgumentException When the playout limit is negative.
+     */
+    public void setPlayoutLimit(long playouts) {
+        monteCarloAI.setPlayoutLimit(playouts);
+    }
+
+    /**
+     * Sets how many threads the competitive and Monte Carlo AIs search with.
+     * With more than one thread, every thread searches its own copy of the
+     * game board.
+     * @param threads The number of threads to search with.
+     * @throws IllegalArgumentException When the number of threads is less
+     *     than {@value ParallelSearch#MIN_THREADS}.
+     */
+    public void setThreadCount(int threads) {
+        competitiveAI.setThreadCount(threads);
+        monteCarloAI.setThreadCount(threads);
+    }
+
+    /**
+     * Sets how many entries the transposition table of the competitive AI
+     * holds in two-player games. The table is shared by its parallel search
+     * and its ponderer. A table that has already been made is replaced by an
+     * empty one.
+     * @param capacity The number of entries, rounded down to a power of two.
+     *     TranspositionTable.capacityFor() finds it for a number of bytes.
+     * @throws IllegalArgumentException When the capacity is out of range.
+     */
+    public void setTranspositionTableCapacity(int capacity) {
+        if (capacity < TranspositionTable.MIN_CAPACITY || capacity > TranspositionTable.MAX_CAPACITY) {
+            throw new IllegalArgumentException(TranspositionTable.CAPACITY_ERROR_MESSAGE);
+        }
+        competitiveAI.setTableCapacity(capacity);
+    }
+
+    /**
+     * Accessor Method
+     * @return The transposition table of the competitive AI, which holds its
+     *     hit rate and occupancy, or null if it hasn't searched a two-player
+     *     game yet.
+     */
+    public TranspositionTable getTranspositionTable() {
+        return competitiveAI.search == null ? null : competitiveAI.search.getTranspositionTable();
+    }
+
+    /**
+     * Turns pondering on or off. While pondering, the competitive AI keeps
+     * searching on its opponent's time, from the position after the move the
+     * opponent is guessed to play. Pondering only works in two-player games.
+     * @param pondering Whether or not the competitive AI ponders.
+     */
+    public void setPondering(boolean pondering) {
+        competitiveAI.setPondering(pondering);
+    }
+
+    /**
+     * Accessor Method
+     * @return The ponderer of the competitive AI, which holds the ponder hit
+     *     rate and the time saved, or null if it isn't pondering or hasn't
+     *     searched yet.
+     */
+    public Ponderer getPonderer() {
+        return competitiveAI.ponderer;
+    }
+
+    /**
+     * Starts pondering for the given player while the player before them
+     * decides their move. Nothing happens unless pondering is on and the
+     * player is a competitive AI.
+     * @param player The player whose turn is next.
+     */
+    public void startPondering(Player player) {
+        if (player.getPlayerType() == Player.COMPETITIVE_AI) {
+            competitiveAI.startPondering(player);
+        }
+    }
+
+    /**
+     * Stops pondering, such as when the game is over.
+     */
+    public void stopPondering() {
+        if (competitiveAI.ponderer != null) {
+            competitiveAI.ponderer.cancel();
+        }
+    }
+
+    /**
+     * Sets the book of early moves that the competitive, Monte Carlo and
+     * perfect AIs play from before searching. The book is only used if it was
+     * made for this game's board and number of players.
+     * @param openingBook The opening book, or null to always search.
+     */
+    public void setOpeningBook(OpeningBook openingBook) {
+        this.openingBook = openingBook;
+    }
+
+    /**
+     * Sets the tablebase of solved endgame positions that the competitive,
+     * Monte Carlo and perfect AIs play from instead of searching, once the
+     * board has at least as many tokens as the tablebase's threshold. The
+     * tablebase is only used if it was made for this game's board.
+     * @param tablebase The tablebase, or null to always search.
+     */
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * Accessor Method
+     * @return The statistics of the last search by the competitive or Monte
+     *     Carlo AI, or null if neither has searched yet.
+     */
+    public SearchStatistics getLastStatistics() {
+        return lastStatistics;
     }
 
     /**
@@ -39,26 +246,113 @@ public class AI {
      * playing on the AI's associated game board. It does this based of the
      * player's type.
      * @param player The player that the AI is deciding the action for.
+     * @return The move the player should make.
      * @throws IllegalArgumentException When the given player does not have a
      *     recognized player type. (e.g. human)
      */
-    public String decideAction(Player player) {
+    public Action decideAction(Player player) {
+        byte type = player.getPlayerType();
+        if (type == Player.COMPETITIVE_AI) {
+            // A ponder hit is as good as searching, and a miss frees the thread
+            Action ponderedAction = competitiveAI.ponderAction(player);
+            if (ponderedAction != null) {
+                return ponderedAction;
+            }
+        }
+        if (type == Player.COMPETITIVE_AI || type == Player.MONTE_CARLO_AI || type == Player.PERFECT_AI) {
+            Action knownAction = bookAction();
+            if (knownAction == null) {
+                knownAction = tablebaseAction();
+            }
+            // The perfect AI already finds the quickest win
+            if (knownAction == null && type != Player.PERFECT_AI) {
+                knownAction = threatAction(player);
+            }
+            if (knownAction != null) {
+                return knownAction;
+            }
+        }
+
         if (player.getPlayerType() == Player.RANDOM_AI) {
             return randomAI.decideAction();
         } else if (player.getPlayerType() == Player.SIMPLE_AI) {
             return simpleAI.decideAction(player);
         } else if (player.getPlayerType() == Player.INTELLIGENT_AI) {
             return intelligentAI.decideAction(player);
+        } else if (player.getPlayerType() == Player.BELLIGERENT_AI) {
+            return belligerentAI.decideAction(player);
         } else if (player.getPlayerType() == Player.COMPETITIVE_AI) {
-            return intelligentAI.decideAction(player);
+            return competitiveAI.decideAction(player);
+        } else if (player.getPlayerType() == Player.MONTE_CARLO_AI) {
+            return monteCarloAI.decideAction(player);
+        } else if (player.getPlayerType() == Player.PERFECT_AI) {
+            return perfectAI.decideAction(player);
         } else {
             throw new IllegalArgumentException("Invalid player type");
         }
     }
 
     /**
-     * The AI for players with the Player.RANDOM_AI type. This AI returns a random column index in
-     * the range of the GameBoard.
+     * Looks up the current position in the opening book.
+     * @return The book's column, or null if there is no book or it doesn't
+     *     have the position.
+     */
+    private Action bookAction() {
+        long start = System.nanoTime();
+        int col = openingBook == null ? OpeningBook.NOT_FOUND : openingBook.findMove(board, players);
+        if (col == OpeningBook.NOT_FOUND) {
+            return null;
+        }
+
+        int score = openingBook.getScore(openingBook.find(OpeningBook.keyOf(board, players)));
+        lastStatistics = new SearchStatistics(col, score, 0, 0, System.nanoTime() - start);
+        return Action.move(col);
+    }
+
+    /**
+     * Looks up the best move of the current position in the tablebase.
+     * @return The tablebase's column, or null if there is no tablebase or it
+     *     doesn't cover the position.
+     */
+    private Action tablebaseAction() {
+        long start = System.nanoTime();
+        int col = tablebase == null ? Tablebase.NOT_FOUND : tablebase.bestMove(board, players);
+        if (col == Tablebase.NOT_FOUND) {
+            return null;
+        }
+
+        // Scored 1 for a win, 0 for a draw and -1 for a loss, as deep as the end of the game
+        int value = tablebase.probe(board, players);
+        lastStatistics = new SearchStatistics(col, Tablebase.getResult(value) - Tablebase.DRAW,
+                Tablebase.getDistance(value), 0, System.nanoTime() - start);
+        return Action.move(col);
+    }
+
+    /**
+     * Looks for a win forced by a sequence of threats, which the normal
+     * searches can miss when it is many moves deep.
+     * @param player The player that the AI is deciding the action for.
+     * @return The first column of the forced win, or null if none was found
+     *     or the game doesn't have two players.
+     */
+    private Action threatAction(Player player) {
+        if (players == null || players.length != NegamaxSearch.NUMBER_OF_PLAYERS) {
+            return null;
+        }
+        if (threatSpaceSearch == null) {
+            threatSpaceSearch = new ThreatSpaceSearch(board, players);
+        }
+        int col = threatSpaceSearch.findWin(player);
+        if (col == ThreatSpaceSearch.NO_WIN) {
+            return null;
+        }
+        lastStatistics = threatSpaceSearch.getStatistics();
+        return Action.move(col);
+    }
+
+    /**
+     * The AI for players with the Player.RANDOM_AI type. This AI returns a random column index of
+     * the GameBoard which isn't full.
      * @author Eli W. Hunter
      */
     private class RandomAI {
@@ -71,25 +365,24 @@ public class AI {
         /**
          * Random number generator used for the random number generation in this AI.
          */
-        private Random rand;
+        private SplittableRandom rand;
 
         /**
          * Creates a random AI that is associated with a given game board.
          * @param board The game board that this AI is associated with.
+         * @param rand The random number generator which picks the columns.
          */
-        public RandomAI(GameBoard board) {
+        public RandomAI(GameBoard board, SplittableRandom rand) {
             this.board = board;
-            this.rand = new Random();
+            this.rand = rand;
         }
 
         /**
-         * Returns a random column in the given game board.
-         * @return A random column in the range of columns of the given game board.
+         * Returns a random column in the given game board which isn't full.
+         * @return A random legal column of the given game board.
          */
-        public String decideAction() {
-            int max = board.getWidth();
-            int col = rand.nextInt(max);
-            return Integer.toString(col);
+        public Action decideAction() {
+            return Action.move(board.getRandomLegalMove(rand));
         }
 
     }
@@ -100,12 +393,9 @@ public class AI {
      * @author Eli W. Hunter
      */
     private class SimpleAI {
-        /** How far to the left and right and up and down the AI should check when scoring
-         * columns. */
-        private final int RADIUS = 1;
-        /** Determines how many points a match with a distance given by the index is worth. This
-          must have RADIUS + 1 ({@value #RADIUS + 1}) entries. */
-        private final int[] DISTANCE_POINTS = {0, 1};
+        /** Determines how many points a match with a distance given by the index is worth, by
+         * default. The furthest distance checked is the last index. */
+        private final int[] DEFAULT_DISTANCE_POINTS = {0, 1};
         /** Determines how many points a full column should be given. */
         private final int FULL_COLUMN_SCORE = -1;
 
@@ -113,98 +403,79 @@ public class AI {
          * given player. It is also used the bounds for the {@link #decideColumns(Player, int[],
          * int)}. */
         private GameBoard board;
+        /** The points of every player's tokens around every cell of the board, kept up to date
+         * as tokens are added and removed. */
+        private DensityMap densityMap;
+        /** The random number generator which breaks ties between columns. */
+        private SplittableRandom random;
 
         /**
          * Creates a simple AI that is associated with a given game board.
          * @param board The game board that this AI is associated with.
+         * @param random The random number generator which breaks ties between columns.
          */
-        public SimpleAI(GameBoard board) {
+        public SimpleAI(GameBoard board, SplittableRandom random) {
             this.board = board;
+            this.random = random;
+            this.densityMap = new DensityMap(board, DEFAULT_DISTANCE_POINTS);
+        }
+
+        /**
+         * Mutator Method
+         * @param distancePoints How many points a match with a distance given by the index is
+         *     worth. The furthest distance checked is the last index.
+         * @throws IllegalArgumentException When there are no points.
+         */
+        public void setDistancePoints(int[] distancePoints) {
+            this.densityMap = new DensityMap(board, distancePoints);
         }
 
         /**
          * Scores each column by how many tokens of the given player's type are
-         * in the constant radius ({@value #RADIUS}) and then randomly chooses
-         * from the highest scored column.
+         * around the cell it would be dropped into, weighted by distance, and
+         * then randomly chooses from the highest scored column.
          * @return The highest score column if there is a single column with the
          *     highest score. If there is tie, a randomly chosen one.
          */
-        public String decideAction(Player player) {
+        public Action decideAction(Player player) {
             int[] scores = scoreColumns(player);
             int highestScore = Utils.max(scores);
             int[] highestScoreIndexes = Utils.indexesOf(scores, highestScore);
-            int randomIndex = Utils.randomPick(highestScoreIndexes);
-            return Integer.toString(randomIndex);
+            int randomIndex = Utils.randomPick(highestScoreIndexes, random);
+            return Action.move(randomIndex);
         }
 
         /**
-         * Scores each column by counting the number of adjacent tokens to the
-         * position where the next token in that row would be added.
+         * Scores each column by the points of the given player's tokens
+         * around the position where the next token in that column would be
+         * added.
          * @param player The player for whom the columns are being scored.
          * @return An integer array of the scores of each column, with the index
          *     corresponding to the number of that column.
          */
         private int[] scoreColumns(Player player) {
+            densityMap.update();
+            int playerIndex = Token.indexOf(player);
             int[] scores = new int[board.getWidth()];
-            for (int col = 0; col < scores.length; col++) {
-                scores[col] = scoreColumn(player, col);
+            Arrays.fill(scores, FULL_COLUMN_SCORE);
+            for (int i = 0; i < board.getNumberOfLegalMoves(); i++) {
+                int col = board.getLegalMove(i);
+                scores[col] = scoreColumn(playerIndex, col);
             }
             return scores;
         }
 
         /**
-         * Scores an individual column by counting the number of adjacent
-         * tokens to the position where the next token in that row would be
-         * added.
-         * @param player The player for whom the columns are being scored.
-         * @param col The index of the column which is currently being scored.
-         * @return The score of the column, determined by the weightings in
-         *     DISTANCE_WEIGHTS.
-         */
-        private int scoreColumn(Player player, int col) {
-            Token playerToken = new Token(player);
-
-            Column scoringColumn = board.getColumn(col);
-            int row = scoringColumn.getNextRow();
-            if (scoringColumn.isFull()) {
-                return FULL_COLUMN_SCORE;
-            }
-
-            int score = 0;
-            for (int deltaRow = -1 * RADIUS; deltaRow <= RADIUS; deltaRow++) {
-                for (int deltaCol = -1 * RADIUS; deltaCol <= RADIUS; deltaCol++) {
-                    try {
-                        Token currentToken = board.getToken(row + deltaRow, col + deltaCol);
-                        if (playerToken.equals(currentToken)) {
-                            score += findPointValue(deltaRow, deltaCol);
-                        }
-                    } catch (IllegalArgumentException e) {
-                        continue; // Ignore all bad locations
-                    }
-                }
-            }
-
-            return score;
-        }
-
-        /**
-         * Finds how many points a certain match should be worth given the
-         * difference in the two tokens locations.
-         * @param deltaRow How many rows apart the two token locations are.
-         * @param deltaCol How many columns apart the two token locations are.
-         * @return The number of points the match is worth
+         * Scores an individual column by the points of the player's tokens
+         * around the position where the next token in that column would be
+         * added, which the density map has already added up.
+         * @param playerIndex The owner index of the player for whom the columns are being scored.
+         * @param col The index of the column which is currently being scored, which isn't full.
+         * @return The score of the column, determined by the weightings in the
+         *     distance points.
          */
-        private int findPointValue(int deltaRow, int deltaCol) {
-            // This method cannot be static, even though it would make sense
-            // to, because there is no way to safely access a static method
-            // inside a non-static inner class. This is because the static
-            // method can reference non-static parts of the outer class, since
-            // an inner class is inherently associated with an instance of the
-            // outer class.
-            int rowDistance = Math.abs(deltaRow);
-            int colDistance = Math.abs(deltaCol);
-            int distance = Math.max(rowDistance, colDistance);
-            return DISTANCE_POINTS[distance];
+        private int scoreColumn(int playerIndex, int col) {
+            return densityMap.getDensity(playerIndex, board.getNextRow(col), col);
         }
 
     }
@@ -219,70 +490,515 @@ public class AI {
         /** What checking sequence length the AI should start from. */
         private static final int STARTING_CHECK_LENGTH = 2;
         /** The game board that the AI uses to find the maximum token sequence for the given player.
-         * It is also used the bounds for the {@link #decideColumns(Player, int[], int)}. */
+         * It is also used the bounds for the columns. */
         private GameBoard board;
+        /** The list of all players that are participating in the game that the AI is
+         * controlling. */
+        private Player[] players;
+        /** The scanner which finds the sequence every column would make, or null if it hasn't
+         * been needed yet. */
+        private DropScanner scanner;
+        /** The random number generator which breaks ties between columns. */
+        private SplittableRandom random;
 
         /**
          * Creates an intelligent AI that is associated with a given game board.
          * @param board The game board that this AI is associated with.
+         * @param players The players participating in the game.
+         * @param random The random number generator which breaks ties between columns.
          */
-        public IntelligentAI(GameBoard board) {
+        public IntelligentAI(GameBoard board, Player[] players, SplittableRandom random) {
             this.board = board;
+            this.players = players;
+            this.random = random;
         }
 
-        public String decideAction(Player player) {
-            int[] columns = Utils.range(board.getWidth());
-            columns = decideColumns(player, columns, STARTING_CHECK_LENGTH);
-            int chosenColumn = Utils.randomPick(columns);
+        public Action decideAction(Player player) {
+            int[] columns = decideColumns(player);
+            int chosenColumn = Utils.randomPick(columns, random);
 
-            return Integer.toString(chosenColumn);
+            return Action.move(chosenColumn);
         }
 
-        public int[] decideColumns(Player player, int[] columns, int checkLength) {
-            Token playerToken = new Token(player);
+        /**
+         * Finds the columns where the player would make their longest
+         * sequence. The scanner finds the sequence of every column from the
+         * sequences next to it in a single pass, without placing any tokens.
+         * @param player The player that the AI is deciding the action for.
+         * @return The columns with the longest sequence, or every column which
+         *     isn't full if no sequence would be at least {@value
+         *     #STARTING_CHECK_LENGTH} long.
+         */
+        public int[] decideColumns(Player player) {
+            if (scanner == null) {
+                scanner = new DropScanner(board, players);
+            }
+            scanner.scan();
 
-            // Filter by finding which of the given columns pass the check
-            // length
-            boolean[] hasSequenceLength = new boolean[columns.length];
-            for (int i = 0; i < columns.length; i++) {
-                int col = columns[i];
-                int row = board.getColumn(col).getNextRow();
+            int longest = scanner.getLongestLength(player);
+            if (longest < STARTING_CHECK_LENGTH) {
+                // If nothing can be built on, every legal column is as good
+                return board.getLegalMoves();
+            }
+            return scanner.getColumnsWithLength(player, longest);
+        }
 
-                try {
-                    board.addToken(playerToken, col);
-                    hasSequenceLength[i] = board.hasSequence(row, col, checkLength);
-                    board.removeToken(col);
-                } catch (IllegalArgumentException e) {
-                    // If anything fails, it's a bad column
-                    hasSequenceLength[i] = false;
-                }
+    }
+
+    /**
+     * The AI for players with the Player.BELLIGERENT_AI type. This AI minimizes the length of the
+     * sequences its opponents could make with their next token, without any regard to its own.
+     * @author Eli W. Hunter
+     */
+    private class BelligerentAI {
+
+        /** The game board that the AI finds its opponents' sequences on. */
+        private GameBoard board;
+        /** The list of all players that are participating in the game that the AI is
+         * controlling. */
+        private Player[] players;
+        /** The scanner which finds every player's sequences at once, or null if it hasn't been
+         * needed yet. */
+        private DropScanner scanner;
+        /** The random number generator which breaks ties between columns. */
+        private SplittableRandom random;
+
+        /**
+         * Creates a belligerent AI that is associated with a given game board.
+         * @param board The game board that this AI is associated with.
+         * @param players The players participating in the game.
+         * @param random The random number generator which breaks ties between columns.
+         */
+        public BelligerentAI(GameBoard board, Player[] players, SplittableRandom random) {
+            this.board = board;
+            this.players = players;
+            this.random = random;
+        }
+
+        /**
+         * Chooses the column which leaves the opponents the shortest longest
+         * sequence they could make next. Among equals, the column where an
+         * opponent could make the longest sequence is taken from them, and
+         * any remaining tie is broken randomly.
+         * @param player The player that the AI is deciding the action for.
+         * @return The chosen column.
+         */
+        public Action decideAction(Player player) {
+            if (scanner == null) {
+                scanner = new DropScanner(board, players);
             }
-            int[] goodColumns = Utils.filter(columns, hasSequenceLength);
+            scanner.scan();
 
-            if (goodColumns.length == 0) {
-                // If this round gave nothing, the last round was good
-                return columns;
-            } else {
-                return decideColumns(player, goodColumns, checkLength + 1);
+            int[] scores = new int[board.getWidth()];
+            Arrays.fill(scores, Integer.MIN_VALUE);
+            int bestScore = Integer.MIN_VALUE;
+            for (int i = 0; i < board.getNumberOfLegalMoves(); i++) {
+                int col = board.getLegalMove(i);
+                // Lower opponent lengths afterwards are better, then longer lengths blocked
+                int after = scanner.getLongestOpponentLengthAfter(col, player);
+                int blocked = scanner.getLongestOpponentLength(col, player);
+                scores[col] = -after * (board.getHeight() + board.getWidth()) + blocked;
+                bestScore = Math.max(bestScore, scores[col]);
             }
+
+            int[] bestColumns = Utils.indexesOf(scores, bestScore);
+            return Action.move(Utils.randomPick(bestColumns, random));
         }
 
     }
 
+    /**
+     * The AI for players with the Player.COMPETITIVE_AI type. This AI searches a number of moves
+     * ahead with a negamax search, assuming its opponent always plays their best move. When it has
+     * a time or node limit, it instead searches deeper and deeper until the limit is reached. It
+     * can also search with several threads at once, each on its own copy of the board. In games
+     * with more than two players, it uses a max^n or paranoid search instead, on one thread.
+     * @author Eli W. Hunter
+     */
     private class CompetitiveAI {
 
         /** The game board that the AI uses to min/max the sequence of tokens for other players and
-         * for itself. It is also used the bounds for the {@link #decideColumns(Player, int[],
-         * int)}. */
+         * for itself. */
         private GameBoard board;
         /** The list of all players that are participating in the game that the AI is
          * controlling. */
         private Player[] players;
+        /** Whether the searches have been made. Their tables are large, so they are only made
+         * when the AI first searches. */
+        private boolean searchesCreated;
+        /** The search used to find moves, or null if it hasn't been made or the game doesn't
+         * have two players. */
+        private NegamaxSearch search;
+        /** The search used to find moves with more than one thread, or null if it isn't used. */
+        private ParallelSearch parallelSearch;
+        /** The search used to find moves in games with more than two players, or null if it
+         * hasn't been made or the game doesn't have more than two players. */
+        private MultiPlayerSearch multiPlayerSearch;
+        /** The mode of the search used in games with more than two players. */
+        private byte multiPlayerMode;
+        /** How many threads the AI searches with. */
+        private int threads;
+        /** Whether or not the AI ponders. */
+        private boolean pondering;
+        /** The number of entries in the transposition table of two-player searches. */
+        private int tableCapacity;
+        /** How many moves ahead the AI searches. */
+        private int searchDepth;
+        /** How long each move may take, in nanoseconds. */
+        private long timeLimitNanos;
+        /** How many positions each move may search. */
+        private long nodeLimit;
+        /** The search on the opponent's time, or null if pondering is off. */
+        private Ponderer ponderer;
 
+        /**
+         * Creates a competitive AI that is associated with a given game board.
+         * @param board The game board that this AI is associated with.
+         * @param players The players participating in the game.
+         */
         public CompetitiveAI(GameBoard board, Player[] players) {
             this.board = board;
             this.players = players;
+            this.searchDepth = NegamaxSearch.DEFAULT_DEPTH;
+            if (players != null && players.length > NegamaxSearch.NUMBER_OF_PLAYERS) {
+                this.searchDepth = MultiPlayerSearch.DEFAULT_DEPTH;
+            }
+            this.multiPlayerMode = MultiPlayerSearch.MAX_N;
+            this.threads = ParallelSearch.MIN_THREADS;
+            this.tableCapacity = TranspositionTable.DEFAULT_CAPACITY;
+            this.timeLimitNanos = NegamaxSearch.NO_LIMIT;
+            this.nodeLimit = NegamaxSearch.NO_LIMIT;
+        }
+
+        /**
+         * Mutator Method
+         * @param depth How many moves ahead the AI searches.
+         * @throws IllegalArgumentException When the depth is too low.
+         */
+        public void setSearchDepth(int depth) {
+            NegamaxSearch.checkDepth(depth);
+            this.searchDepth = depth;
+        }
+
+        /**
+         * Mutator Method
+         * @param millis How long each move may take, in milliseconds.
+         * @throws IllegalArgumentException When the time limit is negative.
+         */
+        public void setTimeLimit(long millis) {
+            if (millis < 0) {
+                throw new IllegalArgumentException("The time limit cannot be negative.");
+            }
+            this.timeLimitNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+        }
+
+        /**
+         * Mutator Method
+         * @param nodes How many positions each move may search.
+         * @throws IllegalArgumentException When the node limit is negative.
+         */
+        public void setNodeLimit(long nodes) {
+            if (nodes < 0) {
+                throw new IllegalArgumentException("The node limit cannot be negative.");
+            }
+            this.nodeLimit = nodes;
+        }
+
+        /**
+         * Sets the mode of the search used in games with more than two players.
+         * @param mode The search mode. (MultiPlayerSearch.MAX_N or MultiPlayerSearch.PARANOID)
+         * @throws IllegalArgumentException When the mode isn't recognized.
+         */
+        public void setMultiPlayerMode(byte mode) {
+            MultiPlayerSearch.checkMode(mode);
+            this.multiPlayerMode = mode;
+            if (multiPlayerSearch != null) {
+                multiPlayerSearch.setMode(mode);
+            }
+        }
+
+        /**
+         * Sets how many threads the AI searches with. Parallel searches share
+         * the transposition table of the single-threaded search.
+         * @param threads The number of threads to search with.
+         * @throws IllegalArgumentException When the number of threads is too low.
+         */
+        public void setThreadCount(int threads) {
+            if (threads < ParallelSearch.MIN_THREADS) {
+                throw new IllegalArgumentException(ParallelSearch.THREADS_ERROR_MESSAGE);
+            }
+            this.threads = threads;
+            if (parallelSearch != null) {
+                parallelSearch.shutdown();
+                parallelSearch = null;
+            }
+            if (search != null && threads > 1) {
+                parallelSearch = new ParallelSearch(board, players, threads, search.getTranspositionTable());
+            }
+        }
+
+        /**
+         * Mutator Method<br>
+         * If the two-player search has been made, it is made again with an
+         * empty table of the new capacity, along with the parallel search
+         * and the ponderer which share it.
+         * @param capacity The number of entries in the transposition table.
+         */
+        public void setTableCapacity(int capacity) {
+            this.tableCapacity = capacity;
+            if (search != null) {
+                search = new NegamaxSearch(board, players, new TranspositionTable(capacity));
+                setThreadCount(threads);
+                setPondering(pondering);
+            }
+        }
+
+        /**
+         * Turns pondering on or off. The ponderer shares the transposition
+         * table of the single-threaded search.
+         * @param pondering Whether or not the AI ponders.
+         */
+        public void setPondering(boolean pondering) {
+            this.pondering = pondering;
+            if (ponderer != null) {
+                ponderer.shutdown();
+                ponderer = null;
+            }
+            if (pondering && search != null) {
+                ponderer = new Ponderer(board, players, search.getTranspositionTable());
+            }
+        }
+
+        /**
+         * Starts pondering for the given player, with the same depth and node
+         * limit as its own searches.
+         * @param player The player whose turn is next.
+         */
+        public void startPondering(Player player) {
+            if (pondering) {
+                createSearches();
+            }
+            if (ponderer == null) {
+                return;
+            }
+            boolean unlimited = timeLimitNanos == NegamaxSearch.NO_LIMIT && nodeLimit == NegamaxSearch.NO_LIMIT;
+            ponderer.start(player, unlimited ? searchDepth : NegamaxSearch.MAX_DEPTH, nodeLimit);
+        }
+
+        /**
+         * Finishes pondering for the given player.
+         * @param player The player that the AI is deciding the action for.
+         * @return The pondered column, or null if the opponent didn't play the
+         *     guessed move or the AI wasn't pondering.
+         */
+        public Action ponderAction(Player player) {
+            if (ponderer == null) {
+                return null;
+            }
+            int col = ponderer.finish(player, timeLimitNanos);
+            if (col == Ponderer.NO_RESULT) {
+                return null;
+            }
+            lastStatistics = ponderer.getStatistics();
+            return Action.move(col);
+        }
+
+        /**
+         * Searches for the best column for the given player.
+         * @param player The player that the AI is deciding the action for.
+         * @return The best column found by the search.
+         */
+        public Action decideAction(Player player) {
+            createSearches();
+            boolean unlimited = timeLimitNanos == NegamaxSearch.NO_LIMIT && nodeLimit == NegamaxSearch.NO_LIMIT;
+            int maxDepth = unlimited ? searchDepth : NegamaxSearch.MAX_DEPTH;
+
+            int col;
+            if (multiPlayerSearch != null) {
+                if (unlimited) {
+                    col = multiPlayerSearch.search(player, searchDepth);
+                } else {
+                    col = multiPlayerSearch.searchIteratively(player, maxDepth, timeLimitNanos, nodeLimit);
+                }
+                lastStatistics = multiPlayerSearch.getStatistics();
+            } else if (search == null) {
+                return intelligentAI.decideAction(player);
+            } else if (parallelSearch != null) {
+                col = parallelSearch.searchIteratively(player, maxDepth, timeLimitNanos, nodeLimit);
+                lastStatistics = parallelSearch.getStatistics();
+            } else if (unlimited) {
+                col = search.search(player, searchDepth);
+                lastStatistics = search.getStatistics();
+            } else {
+                col = search.searchIteratively(player, maxDepth, timeLimitNanos, nodeLimit);
+                lastStatistics = search.getStatistics();
+            }
+            return Action.move(col);
+        }
+
+        /**
+         * Makes the searches for the game's number of players, with the
+         * threads, pondering and mode that have been set, unless they have
+         * already been made.
+         */
+        private void createSearches() {
+            if (searchesCreated) {
+                return;
+            }
+            searchesCreated = true;
+            if (players != null && players.length == NegamaxSearch.NUMBER_OF_PLAYERS) {
+                search = new NegamaxSearch(board, players, new TranspositionTable(tableCapacity));
+                setThreadCount(threads);
+                setPondering(pondering);
+            } else if (players != null && players.length > NegamaxSearch.NUMBER_OF_PLAYERS) {
+                multiPlayerSearch = new MultiPlayerSearch(board, players, multiPlayerMode);
+            }
+        }
+
+    }
+
+    /**
+     * The AI for players with the Player.MONTE_CARLO_AI type. This AI plays out random games with
+     * a Monte Carlo tree search, and plays the column that was played out the most. It supports
+     * any number of players and any size of board.
+     * @author Eli W. Hunter
+     */
+    private class MonteCarloAI {
+
+        /** The game board that the AI plays out games on copies of. */
+        private GameBoard board;
+        /** The list of all players that are participating in the game that the AI is
+         * controlling. */
+        private Player[] players;
+        /** The search used to find moves. */
+        private MonteCarloSearch search;
+        /** How long each move may take, in nanoseconds. */
+        private long timeLimitNanos;
+        /** How many games each move may play out. */
+        private long playoutLimit;
+        /** The random number generator that each search's playouts are split from. */
+        private SplittableRandom random;
+
+        /**
+         * Creates a Monte Carlo AI that is associated with a given game board.
+         * @param board The game board that this AI is associated with.
+         * @param players The players participating in the game.
+         * @param random The random number generator that each search's playouts are split from.
+         */
+        public MonteCarloAI(GameBoard board, Player[] players, SplittableRandom random) {
+            this.board = board;
+            this.players = players;
+            this.random = random;
+            this.timeLimitNanos = MonteCarloSearch.NO_LIMIT;
+            this.playoutLimit = MonteCarloSearch.DEFAULT_PLAYOUTS;
         }
+
+        /**
+         * Mutator Method
+         * @param millis How long each move may take, in milliseconds.
+         * @throws IllegalArgumentException When the time limit is negative.
+         */
+        public void setTimeLimit(long millis) {
+            if (millis < 0) {
+                throw new IllegalArgumentException("The time limit cannot be negative.");
+            }
+            this.timeLimitNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+        }
+
+        /**
+         * Mutator Method
+         * @param playouts How many games each move may play out.
+         * @throws IllegalArgumentException When the playout limit is negative.
+         */
+        public void setPlayoutLimit(long playouts) {
+            if (playouts < 0) {
+                throw new IllegalArgumentException("The playout limit cannot be negative.");
+            }
+            this.playoutLimit = playouts;
+        }
+
+        /**
+         * Sets how many threads the AI plays out games with.
+         * @param threads The number of threads to play out games with.
+         * @throws IllegalArgumentException When the number of threads is too low.
+         */
+        public void setThreadCount(int threads) {
+            if (threads < MonteCarloSearch.MIN_THREADS) {
+                throw new IllegalArgumentException(MonteCarloSearch.THREADS_ERROR_MESSAGE);
+            }
+            if (search != null) {
+                search.shutdown();
+            }
+            search = new MonteCarloSearch(board, players, threads, MonteCarloSearch.DEFAULT_NODE_CAPACITY, random.split());
+        }
+
+        /**
+         * Plays out games until the time or playout limit is reached, and then
+         * chooses the column which was played out the most. Without either
+         * limit, the default number of playouts is used.
+         * @param player The player that the AI is deciding the action for.
+         * @return The chosen column.
+         */
+        public Action decideAction(Player player) {
+            if (search == null) {
+                search = new MonteCarloSearch(board, players, MonteCarloSearch.MIN_THREADS,
+                    MonteCarloSearch.DEFAULT_NODE_CAPACITY, random.split());
+            }
+            long playouts = playoutLimit;
+            if (timeLimitNanos == MonteCarloSearch.NO_LIMIT && playouts == MonteCarloSearch.NO_LIMIT) {
+                playouts = MonteCarloSearch.DEFAULT_PLAYOUTS;
+            }
+
+            int col = search.search(player, timeLimitNanos, playouts);
+            lastStatistics = search.getStatistics();
+            return Action.move(col);
+        }
+
+    }
+
+    /**
+     * The AI for players with the Player.PERFECT_AI type. This AI solves the game to the end and
+     * never makes a mistake, but it can only do so in two player games of connect 4 on a 7 by 6
+     * board. In any other game it plays like the competitive AI.
+     * @author Eli W. Hunter
+     */
+    private class PerfectAI {
+
+        /** The game board that the AI solves. */
+        private GameBoard board;
+        /** The solver used to find moves, or null if it hasn't been needed yet. */
+        private Solver solver;
+        /** Whether the game can be solved. */
+        private boolean solvable;
+
+        /**
+         * Creates a perfect AI that is associated with a given game board.
+         * @param board The game board that this AI is associated with.
+         * @param players The players participating in the game.
+         */
+        public PerfectAI(GameBoard board, Player[] players) {
+            this.board = board;
+            this.solvable = Solver.canSolve(board, players);
+        }
+
+        /**
+         * Solves the game to find the best column for the given player.
+         * @param player The player that the AI is deciding the action for.
+         * @return The best column.
+         */
+        public Action decideAction(Player player) {
+            if (!solvable) {
+                return competitiveAI.decideAction(player);
+            }
+            if (solver == null) {
+                solver = new Solver(); // the table is large, so only make it when it's used
+            }
+
+            int col = solver.bestMove(board, player);
+            lastStatistics = solver.getStatistics();
+            return Action.move(col);
+        }
+
     }
 
 }
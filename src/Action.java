@@ -0,0 +1,126 @@
+/**
+ * Defines an action that a player takes on their turn. This is either a move,
+ * which drops a token into a column, or a control action, which doesn't use
+ * up the turn.<br>
+ * Actions are immutable. The control actions and the moves into the first
+ * {@value #SHARED_MOVES} columns are shared, so deciding an action doesn't
+ * create any objects. Only user interfaces turn text into actions.
+ * @author Eli W. Hunter
+ */
+public class Action {
+
+    // ACTION TYPES
+    // The actual value doesn't matter as long as its consistent.
+    /** The type of an action which drops a token into a column. */
+    public static final byte MOVE = 0;
+    /** The type of an action which displays the help message. */
+    public static final byte HELP = 1;
+    /** The type of an action which displays the board. */
+    public static final byte DISPLAY = 2;
+    /** The type of an action which ends the game. */
+    public static final byte QUIT = 3;
+
+    /** The column of an action which isn't a move. */
+    public static final int NO_COLUMN = -1;
+    /** The number of columns whose moves are shared. */
+    public static final int SHARED_MOVES = 256;
+
+    /** The shared action which displays the help message. */
+    public static final Action HELP_ACTION = new Action(HELP, NO_COLUMN);
+    /** The shared action which displays the board. */
+    public static final Action DISPLAY_ACTION = new Action(DISPLAY, NO_COLUMN);
+    /** The shared action which ends the game. */
+    public static final Action QUIT_ACTION = new Action(QUIT, NO_COLUMN);
+
+    /** The shared move into each of the first SHARED_MOVES columns. */
+    private static final Action[] MOVES = new Action[SHARED_MOVES];
+    static {
+        for (int col = 0; col < SHARED_MOVES; col++) {
+            MOVES[col] = new Action(MOVE, col);
+        }
+    }
+
+    /** The type of this action. (e.g. MOVE) */
+    private final byte type;
+    /** The column of this move, or NO_COLUMN if it isn't a move. */
+    private final int column;
+
+    /**
+     * Creates an action of the given type.
+     * @param type The type of the action.
+     * @param column The column of the move, or NO_COLUMN if it isn't a move.
+     */
+    private Action(byte type, int column) {
+        this.type = type;
+        this.column = column;
+    }
+
+    /**
+     * Finds the move which drops a token into the given column. The column
+     * isn't checked here, since whether it can be played depends on the
+     * board.
+     * @param col The column of the move.
+     * @return The move, which is shared if the column is from 0 to
+     *     SHARED_MOVES - 1.
+     */
+    public static Action move(int col) {
+        if (col >= 0 && col < SHARED_MOVES) {
+            return MOVES[col];
+        }
+        return new Action(MOVE, col);
+    }
+
+    /**
+     * Accessor Method
+     * @return The type of this action. (e.g. MOVE)
+     */
+    public byte getType() {
+        return type;
+    }
+
+    /**
+     * Accessor Method
+     * @return The column of this move, or {@value #NO_COLUMN} if it isn't a
+     *     move.
+     */
+    public int getColumn() {
+        return column;
+    }
+
+    /**
+     * Accessor Method
+     * @return True if this action drops a token into a column.
+     */
+    public boolean isMove() {
+        return type == MOVE;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof Action)) {
+            return false;
+        }
+        Action action = (Action) other;
+        return type == action.type && column == action.column;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * type + column;
+    }
+
+    @Override
+    public String toString() {
+        switch (type) {
+            case MOVE:
+                return "Move " + column;
+            case HELP:
+                return "Help";
+            case DISPLAY:
+                return "Display";
+            default:
+                return "Quit";
+        }
+    }
+
+}
@@ -0,0 +1,374 @@
+import java.util.Arrays;
+
+/**
+ * Describes a 2D GameBoard of Tokens through one 64-bit bitboard per player.
+ * <br>
+ * Each column is given height + 1 consecutive bits, with the bit for row 0 of
+ * column 0 being the least significant bit. The extra bit at the top of each
+ * column is never set, which stops sequences from wrapping from one column
+ * into the next. Because of this the board can only be used when
+ * width * (height + 1) fits within a single long ({@value #MAX_BITS} bits).
+ * <br>
+ * Sequences are found with shift-and-mask operations on a player's bitboard
+ * instead of walking individual cells.
+ * @author Eli W. Hunter
+ */
+public class BitBoard extends GameBoard {
+
+    /** The number of bits available in a single bitboard. */
+    public static final int MAX_BITS = Long.SIZE;
+
+    // ERROR MESSAGES
+    /** The error message displayed when the board does not fit in a long. */
+    public static final String TOO_LARGE_ERROR_MESSAGE =
+        "width * (height + 1) must be at most " + MAX_BITS + " for a bitboard.";
+    /** The error message displayed when an empty token is added. */
+    public static final String EMPTY_TOKEN_ERROR_MESSAGE =
+        "An empty token cannot be added to the board.";
+    /** The error message displayed when an empty column has a token removed. */
+    public static final String EMPTY_COLUMN_ERROR_MESSAGE =
+        "An empty column cannot have tokens removed";
+
+    /** The number of players that bitboards are initially allocated for. */
+    private static final int INITIAL_PLAYER_CAPACITY = 2;
+
+    /**
+     * The number of bits between the same row of adjacent columns. This is
+     * one more than the height because of the empty separator bit.
+     */
+    private final int columnStride;
+    /** The bitboard of every player, indexed by the order they were seen in. */
+    private long[] playerBoards;
+    /**
+     * A token for every player with a bitboard. These are the tokens returned
+     * by {@link #getToken(int, int)}.
+     */
+    private Token[] playerTokens;
+    /** The number of players that have been given a bitboard. */
+    private int numberOfPlayers;
+    /** The bitboard of every occupied cell, regardless of its owner. */
+    private long occupied;
+    /** The number of tokens in each column. */
+    private int[] heights;
+
+    /**
+     * Determines whether a board of the given size can be represented by a
+     * BitBoard.
+     * @param width The width of the board.
+     * @param height The height of the board.
+     * @return True if width * (height + 1) fits within a single long.
+     */
+    public static boolean fits(int width, int height) {
+        return (long) width * (height + 1) <= MAX_BITS;
+    }
+
+    /**
+     * Generates a BitBoard object with the given width, height, and number of
+     * tokens to connect.
+     * @param width The width of the BitBoard. (i.e. The number of columns.)
+     * @param height The height of the BitBoard. (i.e. The max number of tokens
+     *     in each column).
+     * @param tokensToConnect The number of tokens that must be connected for
+     *     the board to be considered won.
+     * @throws IllegalArgumentException When the specified height or width is
+     *     less than the number of tokens to connect, or when the board does
+     *     not fit in a single long.
+     */
+    public BitBoard(int width, int height, int tokensToConnect) {
+        super(width, height, tokensToConnect, false);
+        if (!fits(width, height)) {
+            throw new IllegalArgumentException(TOO_LARGE_ERROR_MESSAGE);
+        }
+
+        this.columnStride = height + 1;
+        this.playerBoards = new long[INITIAL_PLAYER_CAPACITY];
+        this.playerTokens = new Token[INITIAL_PLAYER_CAPACITY];
+        this.heights = new int[width];
+        this.empty();
+    }
+
+    /**
+     * Finds and returns a snapshot of the Column at the specified column. The
+     * returned Column is not backed by this board, so changes to either are not
+     * reflected in the other.
+     * @param col The index of the desired Column.
+     * @return A copy of the Column at the specifed index.
+     * @throws IllegalArgumentException When the specified index is not valid.
+     */
+    @Override
+    public Column getColumn(int col) {
+        checkColumn(col);
+
+        Column column = new Column(getHeight());
+        for (int row = 0; row < heights[col]; row++) {
+            column.addToken(getToken(row, col));
+        }
+        return column;
+    }
+
+    @Override
+    public int getNextRow(int col) {
+        checkColumn(col);
+        return heights[col];
+    }
+
+    @Override
+    public boolean isColumnFull(int col) {
+        checkColumn(col);
+        return heights[col] >= getHeight();
+    }
+
+    @Override
+    public Token getToken(int row, int col) {
+        checkColumn(col);
+        if (row < 0 || row >= getHeight()) {
+            throw new IllegalArgumentException(Column.INVALID_ROW_ERROR_MESSAGE);
+        }
+
+        int player = playerAt(bitIndex(row, col));
+        return player < 0 ? Token.EMPTY : playerTokens[player];
+    }
+
+    @Override
+    public int getOwnerIndex(int row, int col) {
+        return getToken(row, col).getOwnerIndex();
+    }
+
+    @Override
+    public boolean addToken(Token token, int col) {
+        checkColumn(col);
+        if (token.equals(Token.EMPTY)) {
+            throw new IllegalArgumentException(EMPTY_TOKEN_ERROR_MESSAGE);
+        }
+        if (heights[col] >= getHeight()) {
+            throw new IllegalArgumentException(Column.FULL_COLUMN_ERROR_MESSAGE);
+        }
+
+        int player = playerIndexOf(token);
+        int index = bitIndex(heights[col], col);
+        long bit = 1L << index;
+        playerBoards[player] |= bit;
+        occupied |= bit;
+        toggleHash(heights[col], col, playerTokens[player].getOwnerIndex());
+        heights[col]++;
+        numberOfTokens++;
+        if (heights[col] == getHeight()) {
+            fillColumn(col);
+        }
+
+        return hasAnySequence(playerBoards[player], index, getTokensToConnect());
+    }
+
+    @Override
+    public void removeToken(int col) {
+        checkColumn(col);
+        if (heights[col] <= 0) {
+            throw new IllegalArgumentException(EMPTY_COLUMN_ERROR_MESSAGE);
+        }
+
+        if (heights[col] == getHeight()) {
+            unfillColumn(col);
+        }
+        heights[col]--;
+        long bit = 1L << bitIndex(heights[col], col);
+        toggleHash(heights[col], col, getOwnerIndex(heights[col], col));
+        for (int player = 0; player < numberOfPlayers; player++) {
+            playerBoards[player] &= ~bit;
+        }
+        occupied &= ~bit;
+        numberOfTokens--;
+    }
+
+    @Override
+    public void empty() {
+        Arrays.fill(playerBoards, 0L);
+        Arrays.fill(heights, 0);
+        occupied = 0L;
+        numberOfTokens = 0;
+        resetHash();
+        resetLegalMoves();
+    }
+
+    @Override
+    protected GameBoard createEmptyBoard() {
+        return new BitBoard(getWidth(), getHeight(), getTokensToConnect());
+    }
+
+    @Override
+    public boolean isWinningPosition(int row, int col) {
+        return hasSequence(row, col, getTokensToConnect());
+    }
+
+    @Override
+    public boolean hasSequence(int row, int col, int length) {
+        if (length < MIN_SEQUENCE_LENGTH) {
+            throw new IllegalArgumentException(INVALID_LENGTH_ERROR_MESSAGE);
+        }
+        // getToken() does the bounds checking
+        if (getToken(row, col).equals(Token.EMPTY)) {
+            return false;
+        }
+
+        int index = bitIndex(row, col);
+        return hasAnySequence(playerBoards[playerAt(index)], index, length);
+    }
+
+    /**
+     * Checks if the given row and column is part of the the specified
+     * arbitrary sequence. Sequences between adjacent cells (i.e. where both
+     * step sizes are -1, 0, or 1) are checked with shift-and-mask operations.
+     * All others fall back to {@link GameBoard#checkSequence(int, int, int,
+     * int, int)}.
+     * @param anchorRow The center row of the sequence.
+     * @param anchorCol The center column of the sequence.
+     * @param rowStepSize The difference in row values between each adjacent
+     *     cell in the sequence.
+     * @param colStepSize The difference in column values between each
+     *     adjacent cell in the sequence.
+     * @param numberOfTokens The number of tokens to be checked.
+     * @return True if the anchor row and anchor column are part of a winning
+     *     sequence in the specified sequence.  False otherwise.
+     */
+    @Override
+    public boolean checkSequence(int anchorRow, int anchorCol, int rowStepSize, int colStepSize, int numberOfTokens) {
+        boolean isAdjacentStep = Math.abs(rowStepSize) <= 1 && Math.abs(colStepSize) <= 1
+                                 && (rowStepSize != 0 || colStepSize != 0);
+        if (!isAdjacentStep) {
+            return super.checkSequence(anchorRow, anchorCol, rowStepSize, colStepSize, numberOfTokens);
+        }
+
+        if (getToken(anchorRow, anchorCol).equals(Token.EMPTY)) {
+            return false;
+        }
+
+        int index = bitIndex(anchorRow, anchorCol);
+        // A sequence is the same forwards and backwards, so only the size of the
+        // shift matters
+        int shift = Math.abs(colStepSize * columnStride + rowStepSize);
+        return hasSequence(playerBoards[playerAt(index)], index, shift, numberOfTokens);
+    }
+
+    /**
+     * Checks whether the given bit is part of a sequence of the given length
+     * in any of the four directions.
+     * @param board The bitboard being checked.
+     * @param index The index of the bit that must be part of the sequence.
+     * @param length The length of the sequence.
+     * @return True if the bit is part of a sequence of the given length.
+     */
+    private boolean hasAnySequence(long board, int index, int length) {
+        return hasSequence(board, index, 1, length)                    // vertical
+               || hasSequence(board, index, columnStride, length)     // horizontal
+               || hasSequence(board, index, columnStride + 1, length) // positive diagonal
+               || hasSequence(board, index, columnStride - 1, length); // negative diagonal
+    }
+
+    /**
+     * Checks whether the given bit is part of a sequence of set bits, each
+     * separated by the given shift.<br>
+     * This first finds every bit which begins a sequence by repeatedly and-ing
+     * the board with shifted copies of itself, doubling the covered length each
+     * time. It then spreads those starting bits back over the length of the
+     * sequence in the same way, and checks the given bit.
+     * @param board The bitboard being checked.
+     * @param index The index of the bit that must be part of the sequence.
+     * @param shift The distance between adjacent bits in the sequence.
+     * @param length The length of the sequence.
+     * @return True if the bit is part of such a sequence.
+     */
+    private static boolean hasSequence(long board, int index, int shift, int length) {
+        long starts = board;
+        for (int covered = 1; covered < length && starts != 0; ) {
+            int step = Math.min(covered, length - covered);
+            starts &= shiftRight(starts, step * shift);
+            covered += step;
+        }
+
+        long members = starts;
+        for (int covered = 1; covered < length && members != 0; ) {
+            int step = Math.min(covered, length - covered);
+            members |= shiftLeft(members, step * shift);
+            covered += step;
+        }
+
+        return (members >>> index & 1L) != 0;
+    }
+
+    /**
+     * Shifts the bits of the board right, treating shifts of a long's size or
+     * more as clearing the board. (Java would otherwise only use the low six
+     * bits of the distance.)
+     */
+    private static long shiftRight(long board, int distance) {
+        return distance >= MAX_BITS ? 0L : board >>> distance;
+    }
+
+    /**
+     * Shifts the bits of the board left, treating shifts of a long's size or
+     * more as clearing the board.
+     */
+    private static long shiftLeft(long board, int distance) {
+        return distance >= MAX_BITS ? 0L : board << distance;
+    }
+
+    /**
+     * Finds the index of the bit for the given row and column.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return The index of the bit representing the cell.
+     */
+    private int bitIndex(int row, int col) {
+        return col * columnStride + row;
+    }
+
+    /**
+     * Finds which player owns the given bit.
+     * @param index The index of the bit.
+     * @return The index of the player's bitboard, or -1 when the bit is empty.
+     */
+    private int playerAt(int index) {
+        long bit = 1L << index;
+        if ((occupied & bit) == 0) {
+            return -1;
+        }
+        for (int player = 0; player < numberOfPlayers; player++) {
+            if ((playerBoards[player] & bit) != 0) {
+                return player;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the index of the bitboard belonging to the given token's owner,
+     * giving them a new bitboard if they do not have one yet.
+     * @param token A token owned by the player.
+     * @return The index of the player's bitboard.
+     */
+    private int playerIndexOf(Token token) {
+        for (int player = 0; player < numberOfPlayers; player++) {
+            if (playerTokens[player].equals(token)) {
+                return player;
+            }
+        }
+
+        if (numberOfPlayers == playerBoards.length) {
+            playerBoards = Arrays.copyOf(playerBoards, numberOfPlayers * 2);
+            playerTokens = Arrays.copyOf(playerTokens, numberOfPlayers * 2);
+        }
+        playerTokens[numberOfPlayers] = token;
+        return numberOfPlayers++;
+    }
+
+    /**
+     * Throws an error if the given column is not a valid index.
+     * @param col The column index being checked.
+     * @throws IllegalArgumentException When the column is not a valid index.
+     */
+    private void checkColumn(int col) {
+        if (col < 0 || col >= getWidth()) {
+            throw new IllegalArgumentException(INVALID_COL_ERROR_MESSAGE);
+        }
+    }
+
+}
@@ -1,5 +1,9 @@
 import java.util.Scanner;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 /**
  * An command line interface for Connect-N.
@@ -15,7 +19,26 @@ public class CLI extends GameInterface {
         "\n" +
         "OPTIONS:\n" +
         "  --no-color      Use if your terminal does not support ANSI escape sequences\n" +
-        "                  because otherwise tokens will display wrongly.";
+        "                  because otherwise tokens will display wrongly.\n" +
+        "  --bitboard      Use a bitboard instead of an array of columns for the game\n" +
+        "                  board.\n" +
+        "  --book          Let computer players play from an opening book, if one has\n" +
+        "                  been made for the board by OpeningBookGenerator.\n" +
+        "  --tablebase     Let computer players play endgames from a tablebase, if one\n" +
+        "                  has been made for the board by TablebaseGenerator.\n" +
+        "  --ponder        Let competitive computer players think on their opponent's\n" +
+        "                  time, and show how often it paid off after the game.\n" +
+        "  --cache-stats   Show how often computer players found a position's score in\n" +
+        "                  the evaluation cache after the game.\n" +
+        "  --tt-mb=MB      Give the competitive computer player's transposition table\n" +
+        "                  MB mebibytes, instead of 16.\n" +
+        "  --tt-stats      Show the hit rate and occupancy of the competitive computer\n" +
+        "                  player's transposition table after the game.\n" +
+        "  --seed=SEED     Make the same random choices as the game which showed SEED\n" +
+        "                  as its random seed.";
+
+    /** The error message displayed when an action isn't understood. */
+    private static final String MISUNDERSTOOD_ACTION_ERROR = "Misunderstood input";
 
     /**
      * A list of all the command line arguments which are understood
@@ -23,8 +46,21 @@ public class CLI extends GameInterface {
      */
     private static final String[] REGISTERED_ARGS = {
         "--no-color",
+        "--bitboard",
+        "--book",
+        "--tablebase",
+        "--ponder",
+        "--cache-stats",
+        "--tt-stats",
     };
 
+    /** The start of the command line argument which sets the random seed. */
+    private static final String SEED_ARG = "--seed=";
+    /** The start of the command line argument which sets the transposition table's size. */
+    private static final String TABLE_SIZE_ARG = "--tt-mb=";
+    /** The number of bytes in a mebibyte, the unit of the transposition table's size. */
+    private static final long BYTES_PER_MEBIBYTE = 1L << 20;
+
     /** The ANSI escape sequence representing the normal color to be
      *  displayed. */
     private static final ANSIColor NORMAL_COLOR = new ANSIColor(ANSIColor.WHITE, ANSIColor.BLACK);
@@ -187,12 +223,41 @@ public class CLI extends GameInterface {
     }
 
     /**
-     * Requests an action from the user and returns that as a String.
-     * @return The user-inputted action as a String.
+     * Requests an action from the user, asking again until it is understood.
+     * @return The user-inputted action.
      */
-    public String requestUserAction() {
-        output.print("Enter action: ");
-        return input.next();
+    public Action requestUserAction() {
+        Action action;
+        do {
+            output.print("Enter action: ");
+            action = parseAction(input.next());
+            if (action == null) {
+                output.println(MISUNDERSTOOD_ACTION_ERROR);
+            }
+        } while (action == null);
+        return action;
+    }
+
+    /**
+     * Parses the given string action, which is a move if it is an integer,
+     * and otherwise one of the letters of the control actions.
+     * @param text The action string to be parsed.
+     * @return The action, or null if it isn't understood.
+     */
+    public static Action parseAction(String text) {
+        if (Utils.isInt(text)) {
+            return Action.move(Integer.parseInt(text));
+        }
+        switch (text.toUpperCase()) {
+            case "Q":
+                return Action.QUIT_ACTION;
+            case "D":
+                return Action.DISPLAY_ACTION;
+            case "H":
+                return Action.HELP_ACTION;
+            default:
+                return null;
+        }
     }
 
     /**
@@ -207,7 +272,9 @@ public class CLI extends GameInterface {
             output.printf("Player %d's Name: ", playerNumber);
             String name = input.next();
 
-            output.println("H = human; R = random CPU; S = simple CPU; I = intelligent CPU");
+            output.println("H = human; R = random CPU; S = simple CPU; I = intelligent CPU;");
+            output.println("B = belligerent CPU; C = competitive CPU; M = Monte Carlo CPU;");
+            output.println("P = perfect CPU");
             output.printf("Player %d's Type: ", playerNumber);
             String typeInput = input.next();
             byte playerType;
@@ -224,6 +291,18 @@ public class CLI extends GameInterface {
                 case("I"):
                     playerType = Player.INTELLIGENT_AI;
                     break;
+                case("B"):
+                    playerType = Player.BELLIGERENT_AI;
+                    break;
+                case("C"):
+                    playerType = Player.COMPETITIVE_AI;
+                    break;
+                case("M"):
+                    playerType = Player.MONTE_CARLO_AI;
+                    break;
+                case("P"):
+                    playerType = Player.PERFECT_AI;
+                    break;
                 default:
                     throw new IllegalArgumentException("Invalid player type.");
             }
@@ -334,6 +413,117 @@ public class CLI extends GameInterface {
         output.print(VERTICAL_PADDING);
     }
 
+    /**
+     * Creates a game board with the given dimensions, using a bitboard if one
+     * was requested. Boards which are too large for a single-word bitboard use
+     * a multi-word bitboard.
+     * @param width The width of the board.
+     * @param height The height of the board.
+     * @param tokensToConnect The number of tokens to connect on the board.
+     * @param useBitBoard Whether or not a bitboard should be used.
+     * @return The created game board.
+     */
+    public static GameBoard createBoard(int width, int height, int tokensToConnect, boolean useBitBoard) {
+        if (!useBitBoard) {
+            return new GameBoard(width, height, tokensToConnect);
+        } else if (BitBoard.fits(width, height)) {
+            return new BitBoard(width, height, tokensToConnect);
+        } else {
+            return new LargeBitBoard(width, height, tokensToConnect);
+        }
+    }
+
+    /**
+     * Loads the opening book for the board from the working directory, if
+     * there is one, and gives it to the AI.
+     * @param ai The AI to give the book to.
+     * @param width The width of the board.
+     * @param height The height of the board.
+     * @param tokensToConnect The number of tokens to connect on the board.
+     */
+    public void loadOpeningBook(AI ai, int width, int height, int tokensToConnect) {
+        Path file = Paths.get(OpeningBook.defaultFileName(width, height, tokensToConnect));
+        if (!Files.exists(file)) {
+            output.println("No opening book found at " + file);
+            return;
+        }
+        try {
+            ai.setOpeningBook(OpeningBook.open(file));
+        } catch (IOException | IllegalArgumentException e) {
+            output.println("Could not open the opening book: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Loads the tablebase for the board from the working directory, if there
+     * is one, and gives it to the AI.
+     * @param ai The AI to give the tablebase to.
+     * @param width The width of the board.
+     * @param height The height of the board.
+     * @param tokensToConnect The number of tokens to connect on the board.
+     */
+    public void loadTablebase(AI ai, int width, int height, int tokensToConnect) {
+        Path file = Paths.get(Tablebase.defaultFileName(width, height, tokensToConnect));
+        if (!Files.exists(file)) {
+            output.println("No tablebase found at " + file);
+            return;
+        }
+        try {
+            ai.setTablebase(Tablebase.open(file));
+        } catch (IOException | IllegalArgumentException e) {
+            output.println("Could not open the tablebase: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Displays how often pondering guessed the opponent's move, and how much
+     * time it saved.
+     * @param ponderer The ponderer to display, or null if there isn't one.
+     */
+    public void displayPonderStatistics(Ponderer ponderer) {
+        if (ponderer == null) {
+            return;
+        }
+        this.setColor(NORMAL_COLOR);
+        output.println(String.format("Ponder hits: %d of %d (%.0f%%), time saved: %.2f s",
+                ponderer.getHits(), ponderer.getHits() + ponderer.getMisses(), 100 * ponderer.getHitRate(),
+                ponderer.getSavedNanos() / 1e9));
+    }
+
+    /**
+     * Displays how often scores were found in the evaluation cache.
+     * @param cache The cache to display.
+     */
+    public void displayCacheStatistics(EvaluationCache cache) {
+        this.setColor(NORMAL_COLOR);
+        output.println(String.format("Evaluation cache hits: %d of %d (%.0f%%), evictions: %d",
+                cache.getHits(), cache.getProbes(), 100 * cache.getHitRate(), cache.getEvictions()));
+    }
+
+    /**
+     * Displays how often positions were found in the transposition table,
+     * and how full it is.
+     * @param table The table to display, or null if there wasn't a search.
+     */
+    public void displayTranspositionStatistics(TranspositionTable table) {
+        if (table == null) {
+            return;
+        }
+        this.setColor(NORMAL_COLOR);
+        output.println(String.format("Transposition table hits: %d of %d (%.0f%%), occupancy: %.0f%% of %d entries",
+                table.getHits(), table.getProbes(), 100 * table.getHitRate(), 100 * table.getOccupancy(),
+                table.getCapacity()));
+    }
+
+    /**
+     * Displays the random seed of the game, so it can be played again.
+     * @param seed The master seed of the game's random choices.
+     */
+    public void displaySeed(long seed) {
+        this.setColor(NORMAL_COLOR);
+        output.println(String.format("Random seed: %d (replay with %s%d)", seed, SEED_ARG, seed));
+    }
+
     /**
      * Runs through a single human player's turn by requesting action.
      */
@@ -344,12 +534,11 @@ public class CLI extends GameInterface {
         String currentPlayerName = currentPlayer.getName();
         output.println(String.format(PLAYER_PROMPT, currentPlayerName));
 
-        try {
-            worker.takeTurn();
-
-        } catch (Exception e) {
-            output.println(e.getMessage());
-            this.nextTurn();
+        byte result = worker.takeTurn();
+        while (GameController.isIllegal(result)) {
+            output.println(result == GameController.FULL_COLUMN
+                    ? Column.FULL_COLUMN_ERROR_MESSAGE : GameBoard.INVALID_COL_ERROR_MESSAGE);
+            result = worker.takeTurn();
         }
     }
 
@@ -391,7 +580,22 @@ public class CLI extends GameInterface {
      */
     public static void main(String[] args) {
         // make sure the only inputted args are registered args
+        int tableCapacity = TranspositionTable.DEFAULT_CAPACITY;
         for (String arg : args) {
+            if (arg.startsWith(TABLE_SIZE_ARG) && Utils.isInt(arg.substring(TABLE_SIZE_ARG.length()))
+                    && Integer.parseInt(arg.substring(TABLE_SIZE_ARG.length())) > 0) {
+                long megabytes = Integer.parseInt(arg.substring(TABLE_SIZE_ARG.length()));
+                tableCapacity = TranspositionTable.capacityFor(megabytes * BYTES_PER_MEBIBYTE);
+                continue;
+            }
+            if (arg.startsWith(SEED_ARG)) {
+                try {
+                    RandomService.setMasterSeed(RandomService.parseSeed(arg.substring(SEED_ARG.length())));
+                    continue;
+                } catch (IllegalArgumentException e) {
+                    System.out.println(e.getMessage());
+                }
+            }
             if (!Utils.containsString(REGISTERED_ARGS, arg)) {
                 System.out.println(USAGE_ERROR);
                 System.exit(1);
@@ -399,6 +603,12 @@ public class CLI extends GameInterface {
         }
         // parse args
         boolean inColor = !Utils.containsString(args, "--no-color");
+        boolean useBitBoard = Utils.containsString(args, "--bitboard");
+        boolean useBook = Utils.containsString(args, "--book");
+        boolean useTablebase = Utils.containsString(args, "--tablebase");
+        boolean usePonder = Utils.containsString(args, "--ponder");
+        boolean showCacheStats = Utils.containsString(args, "--cache-stats");
+        boolean showTableStats = Utils.containsString(args, "--tt-stats");
 
         CLI viewer = new CLI(inColor);
         // These methods are segmented to allow immediate error checking, even if
@@ -406,9 +616,19 @@ public class CLI extends GameInterface {
         int tokensToConnect = viewer.requestTokensToConnect();
         int width = viewer.requestWidth(tokensToConnect);
         int height = viewer.requestHeight(tokensToConnect);
-        GameBoard game = new GameBoard(width, height, tokensToConnect);
+        GameBoard game = createBoard(width, height, tokensToConnect, useBitBoard);
         viewer.setGame(game);
         GameController controller = new GameController(game, viewer.requestPlayers());
+        if (useBook) {
+            viewer.loadOpeningBook(controller.getAI(), width, height, tokensToConnect);
+        }
+        if (useTablebase) {
+            viewer.loadTablebase(controller.getAI(), width, height, tokensToConnect);
+        }
+        if (usePonder) {
+            controller.getAI().setPondering(true);
+        }
+        controller.getAI().setTranspositionTableCapacity(tableCapacity);
 
         viewer.setController(controller);
         controller.setInterface(viewer);
@@ -418,6 +638,16 @@ public class CLI extends GameInterface {
             viewer.displayBoard();
             viewer.nextTurn();
         }
+        if (usePonder) {
+            viewer.displayPonderStatistics(controller.getAI().getPonderer());
+        }
+        if (showCacheStats) {
+            viewer.displayCacheStatistics(EvaluationCache.getShared());
+        }
+        if (showTableStats) {
+            viewer.displayTranspositionStatistics(controller.getAI().getTranspositionTable());
+        }
+        viewer.displaySeed(RandomService.getMasterSeed());
     }
 
 }
@@ -1,6 +1,9 @@
 /**
  * Describes a column of tokens. Its size is constant and tokens cannot be
- * removed.
+ * removed.<br>
+ * The tokens are stored as the owner index of each token (see {@link
+ * Token#getOwnerIndex()}), and are only turned back into Token objects by
+ * {@link #getToken(int)}, through the TokenTable of the Column's board.
  * @author Eli W. Hunter
  */
 public class Column {
@@ -17,19 +20,33 @@ public class Column {
 
     /** The maximum possible number of tokens in the Column. */
     private final int height;
-    /** The array of Token objects that make up this Column. */
-    private Token[] tokens;
+    /** The owner indexes of the tokens that make up this Column. */
+    private short[] tokens;
     /** The number of tokens currently in the Column. */
     private int numberOfTokens;
+    /** The tokens of the owner indexes in this Column, shared with the rest of its board. */
+    private final TokenTable tokenTable;
 
     /**
-     * Generates a Column with the specified height.
+     * Generates a Column with the specified height, which isn't part of a
+     * board.
      * @param height The height of the column, is associated with the
      *     maximum number of tokens a column can contain.
      */
     public Column(int height) {
+        this(height, new TokenTable());
+    }
+
+    /**
+     * Generates a Column of a board with the specified height.
+     * @param height The height of the column, is associated with the
+     *     maximum number of tokens a column can contain.
+     * @param tokenTable The tokens of the owner indexes on the board.
+     */
+    public Column(int height, TokenTable tokenTable) {
         this.height = height;
-        this.tokens = new Token[height];
+        this.tokenTable = tokenTable;
+        this.tokens = new short[height];
         this.numberOfTokens = 0;
     }
 
@@ -67,6 +84,18 @@ public class Column {
      *     index for the Token Array.
      */
     public Token getToken(int row) {
+        return tokenTable.get(getOwnerIndex(row));
+    }
+
+    /**
+     * Accessor Method
+     * @param row The row (i.e. index) that the desired token is at.
+     * @return The owner index of the token at the specifed row of this
+     *     Column, which is Token.EMPTY_INDEX if there is no token there.
+     * @throws IllegalArgumentException When the row is not a valid
+     *     index for the Token Array.
+     */
+    public int getOwnerIndex(int row) {
         if (row < 0 || row >= height)
             throw new IllegalArgumentException(INVALID_ROW_ERROR_MESSAGE);
 
@@ -86,7 +115,8 @@ public class Column {
             throw new IllegalArgumentException("Column is full");
 
         // TODO: Refactor this so that getNextRow() is used by the gamecontroller.
-        tokens[numberOfTokens] = token;
+        // The table lets getToken() turn the index back into the token
+        tokens[numberOfTokens] = (short) tokenTable.add(token);
         return numberOfTokens++;
     }
 
@@ -98,7 +128,7 @@ public class Column {
             throw new IllegalArgumentException("An empty column cannot have tokens removed");
         }
 
-        tokens[--numberOfTokens] = Token.EMPTY;
+        tokens[--numberOfTokens] = Token.EMPTY_INDEX;
     }
 
     /**
@@ -106,7 +136,7 @@ public class Column {
      */
     public void empty() {
         for (int i = 0; i < tokens.length; i++) {
-            tokens[i] = Token.EMPTY;
+            tokens[i] = Token.EMPTY_INDEX;
         }
         numberOfTokens = 0;
     }
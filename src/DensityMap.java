@@ -0,0 +1,183 @@
+import java.util.Arrays;
+
+/**
+ * Keeps, for every cell of a board and every owner, the weighted number of
+ * the owner's tokens around the cell, so it can be read without looking at
+ * the neighbourhood.<br>
+ * A token at a Chebyshev distance of d from a cell (the larger of the row and
+ * column distances) adds weights[d] to the cell's density, and tokens further
+ * than the radius, weights.length - 1, add nothing. The densities are the
+ * board convolved with the weights, and are kept up to date one token at a
+ * time: adding or removing a token only changes the cells within the radius
+ * of it. Reading a density then takes the same time for any radius.<br>
+ * The map mirrors the height and top tokens of each column, along with the
+ * Zobrist hash of the tokens it has counted. update() finds what changed by
+ * comparing the mirror with the board, and when the hashes still don't match
+ * afterwards, it counts the whole board again.
+ * @author Eli W. Hunter
+ */
+public class DensityMap {
+
+    // ERROR MESSAGES
+    /** The error message displayed when there are no weights. */
+    public static final String WEIGHTS_ERROR_MESSAGE = "There must be a weight for a distance of 0.";
+
+    /** The game board whose densities are kept. */
+    private final GameBoard board;
+    /** The width of the board. */
+    private final int width;
+    /** The height of the board. */
+    private final int height;
+    /** The weight of a token at each distance from a cell. */
+    private final int[] weights;
+    /** The furthest distance a token adds to a cell's density. */
+    private final int radius;
+    /** The keys used to hash the counted tokens, the same as the board's. */
+    private final ZobristKeys zobristKeys;
+    /** The number of counted tokens in each column. */
+    private final int[] heights;
+    /** The owner index of each counted token, indexed by col * height + row. */
+    private final int[] owners;
+    /**
+     * The density of every cell for each owner, indexed by owner index and
+     * then by col * height + row. Rows are made the first time an owner's
+     * token is counted.
+     */
+    private int[][] densities;
+    /** The Zobrist hash of the counted tokens. */
+    private long hash;
+
+    /**
+     * Creates a density map of the given board. Nothing is counted until
+     * update() is called.
+     * @param board The game board whose densities are kept.
+     * @param weights The weight of a token at each distance from a cell, from
+     *     0 up to the radius.
+     * @throws IllegalArgumentException When there are no weights.
+     */
+    public DensityMap(GameBoard board, int[] weights) {
+        if (weights == null || weights.length == 0) {
+            throw new IllegalArgumentException(WEIGHTS_ERROR_MESSAGE);
+        }
+        this.board = board;
+        this.width = board.getWidth();
+        this.height = board.getHeight();
+        this.weights = weights.clone();
+        this.radius = weights.length - 1;
+        this.zobristKeys = new ZobristKeys(width * height);
+        this.heights = new int[width];
+        this.owners = new int[width * height];
+        this.densities = new int[0][];
+    }
+
+    /**
+     * Accessor Method
+     * @return The furthest distance a token adds to a cell's density.
+     */
+    public int getRadius() {
+        return radius;
+    }
+
+    /**
+     * Accessor Method
+     * @param ownerIndex The owner index of the tokens being counted.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return The weighted number of the owner's tokens around the cell, as of
+     *     the last update().
+     */
+    public int getDensity(int ownerIndex, int row, int col) {
+        if (ownerIndex >= densities.length || densities[ownerIndex] == null) {
+            return 0;
+        }
+        return densities[ownerIndex][col * height + row];
+    }
+
+    /**
+     * Brings the densities up to date with the board. Nothing is done if the
+     * board's hash hasn't changed. Otherwise, each column's tokens are
+     * removed down to the last one which still matches the board, and the
+     * board's tokens above it are added.
+     */
+    public void update() {
+        if (hash == board.getHash()) {
+            return;
+        }
+
+        for (int col = 0; col < width; col++) {
+            int boardHeight = board.getNextRow(col);
+            int matching = Math.min(heights[col], boardHeight);
+            while (matching > 0 && owners[col * height + matching - 1] != board.getOwnerIndex(matching - 1, col)) {
+                matching--;
+            }
+            while (heights[col] > matching) {
+                heights[col]--;
+                count(heights[col], col, -1);
+            }
+            while (heights[col] < boardHeight) {
+                owners[col * height + heights[col]] = board.getOwnerIndex(heights[col], col);
+                count(heights[col], col, 1);
+                heights[col]++;
+            }
+        }
+
+        // Tokens changed below the top of a column are only found by the hash
+        if (hash != board.getHash()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Forgets every counted token and counts the whole board again.
+     */
+    private void rebuild() {
+        densities = new int[0][];
+        hash = 0L;
+        for (int col = 0; col < width; col++) {
+            heights[col] = board.getNextRow(col);
+            for (int row = 0; row < heights[col]; row++) {
+                owners[col * height + row] = board.getOwnerIndex(row, col);
+                count(row, col, 1);
+            }
+        }
+    }
+
+    /**
+     * Adds or removes the weights of a counted token to the densities of the
+     * cells around it.
+     * @param row The row of the token.
+     * @param col The column of the token.
+     * @param sign 1 to add the token, or -1 to remove it.
+     */
+    private void count(int row, int col, int sign) {
+        int owner = owners[col * height + row];
+        hash ^= zobristKeys.getKey(owner, col * height + row);
+        int[] density = densityOf(owner);
+
+        int firstCol = Math.max(0, col - radius);
+        int lastCol = Math.min(width - 1, col + radius);
+        int firstRow = Math.max(0, row - radius);
+        int lastRow = Math.min(height - 1, row + radius);
+        for (int c = firstCol; c <= lastCol; c++) {
+            int colDistance = Math.abs(c - col);
+            for (int r = firstRow; r <= lastRow; r++) {
+                int distance = Math.max(colDistance, Math.abs(r - row));
+                density[c * height + r] += sign * weights[distance];
+            }
+        }
+    }
+
+    /**
+     * Finds the densities of an owner, making them if there aren't any yet.
+     */
+    private int[] densityOf(int owner) {
+        if (owner >= densities.length) {
+            densities = Arrays.copyOf(densities, owner + 1);
+        }
+        if (densities[owner] == null) {
+            densities[owner] = new int[width * height];
+        }
+        return densities[owner];
+    }
+
+}
@@ -0,0 +1,268 @@
+import java.util.Arrays;
+
+/**
+ * Finds, for every column and every player at once, the length of the longest
+ * sequence the player would make by dropping a token into the column.<br>
+ * A token only joins the sequences which end next to its cell, so the length
+ * for a player in a direction is one plus the sequences of that player's
+ * tokens on either side. A single scan therefore looks at the two neighbours
+ * of each empty cell in each direction, whoever owns them, and fills in the
+ * lengths of every player together. This takes the same time no matter how
+ * many players there are, unlike placing and removing a token for each
+ * player and column.<br>
+ * The scan also finds the lengths in the cell above each column's next cell,
+ * as if another player had dropped a token into the column, which is what a
+ * player's opponents could reach after the player moves there.
+ * @author Eli W. Hunter
+ */
+public class DropScanner {
+
+    /** The length reported for a column which is full, or a cell off the board. */
+    public static final int NO_CELL = 0;
+
+    /** The game board that is scanned. */
+    private final GameBoard board;
+    /** The players of the game. */
+    private final Player[] players;
+    /** The slot of each player in the lengths, by owner index, or -1 for other owners. */
+    private final int[] slotOfOwner;
+    /** The lengths in each column's next cell, indexed by col * players + slot. */
+    private final int[] lengths;
+    /** The lengths in the cell above each column's next cell, indexed like lengths. */
+    private final int[] lengthsAbove;
+
+    /**
+     * Creates a scanner for the given board and players. Nothing is scanned
+     * until scan() is called.
+     * @param board The game board to scan.
+     * @param players The players of the game.
+     */
+    public DropScanner(GameBoard board, Player[] players) {
+        this.board = board;
+        this.players = players;
+        int maxOwner = Token.EMPTY_INDEX;
+        for (Player player : players) {
+            maxOwner = Math.max(maxOwner, Token.indexOf(player));
+        }
+        this.slotOfOwner = new int[maxOwner + 1];
+        Arrays.fill(slotOfOwner, -1);
+        for (int slot = 0; slot < players.length; slot++) {
+            slotOfOwner[Token.indexOf(players[slot])] = slot;
+        }
+        this.lengths = new int[board.getWidth() * players.length];
+        this.lengthsAbove = new int[board.getWidth() * players.length];
+    }
+
+    /**
+     * Scans the whole board. This must be called again whenever the board
+     * changes.
+     */
+    public void scan() {
+        for (int col = 0; col < board.getWidth(); col++) {
+            int row = board.getNextRow(col);
+            scanCell(row, col, lengths);
+            // The cell below is still empty, so it joins no sequences, as if it were another player's
+            scanCell(row + 1, col, lengthsAbove);
+        }
+    }
+
+    /**
+     * Accessor Method
+     * @param col The column to drop a token into.
+     * @param player The player who drops it.
+     * @return The length of the longest sequence the token would be part of,
+     *     or {@value #NO_CELL} if the column is full.
+     * @throws IllegalArgumentException When the player is not part of this
+     *     scanner.
+     */
+    public int getLength(int col, Player player) {
+        return lengths[col * players.length + slotOf(player)];
+    }
+
+    /**
+     * Accessor Method
+     * @param col The column which another player drops a token into first.
+     * @param player The player who drops a token on top of it.
+     * @return The length of the longest sequence the second token would be
+     *     part of, or {@value #NO_CELL} if there isn't room for both.
+     * @throws IllegalArgumentException When the player is not part of this
+     *     scanner.
+     */
+    public int getLengthAbove(int col, Player player) {
+        return lengthsAbove[col * players.length + slotOf(player)];
+    }
+
+    /**
+     * Finds the longest sequence the given player would make by dropping a
+     * token into any column.
+     * @param player The player who drops it.
+     * @return The longest length in any column, or {@value #NO_CELL} if every
+     *     column is full.
+     * @throws IllegalArgumentException When the player is not part of this
+     *     scanner.
+     */
+    public int getLongestLength(Player player) {
+        int slot = slotOf(player);
+        int longest = NO_CELL;
+        for (int col = 0; col < board.getWidth(); col++) {
+            longest = Math.max(longest, lengths[col * players.length + slot]);
+        }
+        return longest;
+    }
+
+    /**
+     * Finds every column where the given player would make a sequence of the
+     * given length, and no longer, by dropping a token into it.
+     * @param player The player who drops it.
+     * @param length The length of the sequence.
+     * @return The columns, in increasing order.
+     * @throws IllegalArgumentException When the player is not part of this
+     *     scanner.
+     */
+    public int[] getColumnsWithLength(Player player, int length) {
+        int slot = slotOf(player);
+        boolean[] matches = new boolean[board.getWidth()];
+        for (int col = 0; col < matches.length; col++) {
+            matches[col] = lengths[col * players.length + slot] == length;
+        }
+        return Utils.filter(Utils.range(matches.length), matches);
+    }
+
+    /**
+     * Finds the longest sequence any of the given player's opponents would
+     * make by dropping a token into the column.
+     * @param col The column to drop a token into.
+     * @param player The player whose opponents are considered.
+     * @return The longest length of any opponent, or {@value #NO_CELL} if the
+     *     column is full.
+     * @throws IllegalArgumentException When the player is not part of this
+     *     scanner.
+     */
+    public int getLongestOpponentLength(int col, Player player) {
+        return longestOther(lengths, col, slotOf(player));
+    }
+
+    /**
+     * Finds the longest sequence any of the given player's opponents could
+     * make with their next token, anywhere on the board, after the player
+     * drops a token into the column. The player's token takes the column's
+     * cell away from the opponents, and opens the cell above it to them.
+     * @param col The column the player drops a token into, which must not be
+     *     full.
+     * @param player The player who drops it.
+     * @return The longest length any opponent could make.
+     * @throws IllegalArgumentException When the player is not part of this
+     *     scanner.
+     */
+    public int getLongestOpponentLengthAfter(int col, Player player) {
+        int slot = slotOf(player);
+        int longest = longestOther(lengthsAbove, col, slot);
+        for (int other = 0; other < board.getWidth(); other++) {
+            if (other != col) {
+                longest = Math.max(longest, longestOther(lengths, other, slot));
+            }
+        }
+        return longest;
+    }
+
+    /**
+     * Finds the lengths of every player in an empty cell and stores them in
+     * the given lengths, at the cell's column.
+     * @param row The row of the cell, which may be above the top of the board.
+     * @param col The column of the cell.
+     * @param cellLengths The lengths to store the cell's lengths in.
+     */
+    private void scanCell(int row, int col, int[] cellLengths) {
+        if (row >= board.getHeight()) {
+            fill(col, cellLengths, NO_CELL);
+            return;
+        }
+        fill(col, cellLengths, 1);
+
+        int offset = col * players.length;
+        for (int direction = 0; direction < RunLengthIndex.NUMBER_OF_DIRECTIONS; direction++) {
+            int rowStep = RunLengthIndex.getRowStep(direction);
+            int colStep = RunLengthIndex.getColStep(direction);
+            int beforeOwner = ownerAt(row - rowStep, col - colStep);
+            int afterOwner = ownerAt(row + rowStep, col + colStep);
+
+            // The sequences next to an empty cell end there, so each is on one side only
+            int beforeLength = runAt(row - rowStep, col - colStep, beforeOwner, direction);
+            int afterLength = runAt(row + rowStep, col + colStep, afterOwner, direction);
+            if (beforeOwner == afterOwner) {
+                update(cellLengths, offset, beforeOwner, 1 + beforeLength + afterLength);
+            } else {
+                update(cellLengths, offset, beforeOwner, 1 + beforeLength);
+                update(cellLengths, offset, afterOwner, 1 + afterLength);
+            }
+        }
+    }
+
+    /**
+     * Raises the length of the player who owns the given owner index, if it
+     * is one of the players.
+     */
+    private void update(int[] cellLengths, int offset, int owner, int length) {
+        if (owner == Token.EMPTY_INDEX || owner >= slotOfOwner.length || slotOfOwner[owner] < 0) {
+            return;
+        }
+        int index = offset + slotOfOwner[owner];
+        cellLengths[index] = Math.max(cellLengths[index], length);
+    }
+
+    /**
+     * Finds the owner of a cell, which is empty if it is off the board.
+     */
+    private int ownerAt(int row, int col) {
+        if (row < 0 || row >= board.getHeight() || col < 0 || col >= board.getWidth()) {
+            return Token.EMPTY_INDEX;
+        }
+        return board.getOwnerIndex(row, col);
+    }
+
+    /**
+     * Finds the length of the sequence through a cell with the given owner,
+     * which is 0 if it is empty or off the board.
+     */
+    private int runAt(int row, int col, int owner, int direction) {
+        return owner == Token.EMPTY_INDEX ? 0 : board.getRunLength(row, col, direction);
+    }
+
+    /**
+     * Sets every player's length in a column to the given length.
+     */
+    private void fill(int col, int[] cellLengths, int length) {
+        int offset = col * players.length;
+        for (int slot = 0; slot < players.length; slot++) {
+            cellLengths[offset + slot] = length;
+        }
+    }
+
+    /**
+     * Finds the longest length in a column of any player but the given one.
+     */
+    private int longestOther(int[] cellLengths, int col, int slot) {
+        int offset = col * players.length;
+        int longest = NO_CELL;
+        for (int other = 0; other < players.length; other++) {
+            if (other != slot) {
+                longest = Math.max(longest, cellLengths[offset + other]);
+            }
+        }
+        return longest;
+    }
+
+    /**
+     * Finds the slot of a player in the lengths.
+     * @throws IllegalArgumentException When the player is not part of this
+     *     scanner.
+     */
+    private int slotOf(Player player) {
+        int owner = Token.indexOf(player);
+        if (owner >= slotOfOwner.length || slotOfOwner[owner] < 0) {
+            throw new IllegalArgumentException(NegamaxSearch.UNKNOWN_PLAYER_ERROR_MESSAGE);
+        }
+        return slotOfOwner[owner];
+    }
+
+}
@@ -0,0 +1,130 @@
+import java.util.Random;
+
+/**
+ * Measures how long the scalar and vector evaluation kernels take to score a
+ * board.<br>
+ * Usage: java --add-modules jdk.incubator.vector EvaluationBenchmark [millis]<br>
+ * A standard 7 by 6 board and a 100 by 100 board are half filled with random
+ * moves of two players, and each kernel scores them over and over for the
+ * given time, after warming up for as long. The time per board and the
+ * vector kernel's speedup are printed, and the kernels are checked to give
+ * the same scores. Without the vector module, or without the vector kernel
+ * compiled, only the scalar kernel is measured.
+ * @author Eli W. Hunter
+ */
+public class EvaluationBenchmark {
+
+    /** The width, height and number of tokens to connect of each benchmark board. */
+    private static final int[][] BOARDS = {
+        {7, 6, 4},
+        {100, 100, 5},
+    };
+    /** The number of milliseconds each kernel is measured for if none is given. */
+    private static final long DEFAULT_MILLIS = 1000;
+    /** The number of players on the benchmark boards. */
+    private static final int PLAYERS = 2;
+    /** The seed of the random moves, so every run scores the same boards. */
+    private static final long SEED = 173;
+
+    /**
+     * Runs the benchmark.
+     * @param args The number of milliseconds to measure each kernel for,
+     *     which is optional.
+     */
+    public static void main(String[] args) {
+        long millis = DEFAULT_MILLIS;
+        if (args.length > 0 && Utils.isInt(args[0])) {
+            millis = Integer.parseInt(args[0]);
+        }
+        if (!EvaluationKernel.isVectorAvailable()) {
+            System.out.println("The vector kernel is not available, so only the scalar kernel is measured.");
+        }
+
+        System.out.printf("%-12s %-20s %14s %10s%n", "board", "kernel", "ns per board", "speedup");
+        for (int[] dimensions : BOARDS) {
+            int width = dimensions[0];
+            int height = dimensions[1];
+            int tokensToConnect = dimensions[2];
+            String name = width + "x" + height;
+
+            EvaluationKernel scalar = EvaluationKernel.createScalar(width, height, tokensToConnect);
+            int[] scalarScores = new int[PLAYERS];
+            double scalarNanos = measure(scalar, randomCells(scalar, width, height), scalarScores, millis);
+            System.out.printf("%-12s %-20s %14.0f %10s%n", name, scalar.getName(), scalarNanos, "");
+
+            if (EvaluationKernel.isVectorAvailable()) {
+                EvaluationKernel vector = EvaluationKernel.create(width, height, tokensToConnect);
+                int[] vectorScores = new int[PLAYERS];
+                double vectorNanos = measure(vector, randomCells(vector, width, height), vectorScores, millis);
+                System.out.printf("%-12s %-20s %14.0f %9.2fx%n", name, vector.getName(), vectorNanos,
+                        scalarNanos / vectorNanos);
+                if (scalarScores[0] != vectorScores[0] || scalarScores[1] != vectorScores[1]) {
+                    System.out.println("The kernels gave different scores!");
+                }
+            }
+        }
+    }
+
+    /**
+     * Scores the cells over and over, first to warm up and then to measure.
+     * @param kernel The kernel to measure.
+     * @param cells The cells to score.
+     * @param scores The array the scores of the last run are left in.
+     * @param millis How long to warm up for, and then to measure for.
+     * @return The average number of nanoseconds per run.
+     */
+    private static double measure(EvaluationKernel kernel, byte[] cells, int[] scores, long millis) {
+        run(kernel, cells, scores, millis * 1_000_000);
+        long start = System.nanoTime();
+        long runs = run(kernel, cells, scores, millis * 1_000_000);
+        return (double) (System.nanoTime() - start) / runs;
+    }
+
+    /**
+     * Scores the cells over and over for the given time.
+     * @return The number of times the cells were scored.
+     */
+    private static long run(EvaluationKernel kernel, byte[] cells, int[] scores, long nanos) {
+        long deadline = System.nanoTime() + nanos;
+        long runs = 0;
+        do {
+            // Check the time only every so often, since small boards are quick
+            for (int i = 0; i < 64; i++) {
+                scores[0] = 0;
+                scores[1] = 0;
+                kernel.scoreWindows(cells, PLAYERS, scores);
+            }
+            runs += 64;
+        } while (System.nanoTime() < deadline);
+        return runs;
+    }
+
+    /**
+     * Half fills a board with random moves of every player, and copies it
+     * into cells for the given kernel. The moves are the same every time, but
+     * kernels pad their cells differently, so each kernel needs its own.
+     * @param kernel The kernel that will score the cells.
+     * @param width The width of the board.
+     * @param height The height of the board.
+     * @return The cells, made by the kernel's createCells().
+     */
+    static byte[] randomCells(EvaluationKernel kernel, int width, int height) {
+        Random random = new Random(SEED);
+        byte[] cells = kernel.createCells();
+        int[] heights = new int[width];
+        for (int move = 0; move < width * height / 2; move++) {
+            int col = random.nextInt(width);
+            if (heights[col] < height) {
+                cells[kernel.cellIndex(heights[col]++, col)] = (byte) (1 + move % PLAYERS);
+            }
+        }
+        // The rest of the board is empty rather than blocked
+        for (int col = 0; col < width; col++) {
+            for (int row = heights[col]; row < height; row++) {
+                cells[kernel.cellIndex(row, col)] = EvaluationKernel.EMPTY;
+            }
+        }
+        return cells;
+    }
+
+}
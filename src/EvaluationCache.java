@@ -0,0 +1,286 @@
+import java.util.Arrays;
+
+/**
+ * A fixed-size, lossy cache of heuristic scores, indexed by a position hash,
+ * so that the Evaluator doesn't score a position again when it is reached in
+ * a sibling subtree or in the search of a later move.<br>
+ * The cache is made of flat arrays split into sets of {@value #WAYS} slots,
+ * and each key can only be in the set its hash picks. When a set is full,
+ * the slot to replace is picked by the CLOCK algorithm: a hand sweeps around
+ * the set, and a slot that was read since the hand last passed it is given a
+ * second chance instead of being replaced.<br>
+ * Like the TranspositionTable, each key is stored exclusive-ored with its
+ * entry, so an entry torn by two threads writing at once is read as a miss,
+ * and the cache can be shared without locking. The shared cache returned by
+ * getShared() is used by every Evaluator by default, so scores are kept from
+ * one game to the next. The counters and reference bits aren't synchronized,
+ * so they are only approximate when the cache is shared between threads.
+ * @author Eli W. Hunter
+ */
+public class EvaluationCache {
+
+    /** The default number of entries in a cache, which takes about 2 MiB. */
+    public static final int DEFAULT_CAPACITY = 1 << 17;
+    /** The number of slots in each set. */
+    public static final int WAYS = 4;
+    /** The smallest number of entries in a cache. */
+    public static final int MIN_CAPACITY = WAYS;
+    /** The largest number of entries in a cache. */
+    public static final int MAX_CAPACITY = 1 << 28;
+    /** The number of bytes each entry takes. */
+    public static final int BYTES_PER_ENTRY = 2 * Long.BYTES + 1;
+
+    // ERROR MESSAGES
+    /** The error message displayed when the capacity is out of range. */
+    public static final String CAPACITY_ERROR_MESSAGE =
+        "The capacity must be between " + MIN_CAPACITY + " and " + MAX_CAPACITY + ".";
+
+    /** The entry of an empty slot. */
+    private static final long EMPTY = 0;
+    /** The bit set in every entry, so no score is ever stored as EMPTY. */
+    private static final long USED_BIT = 1L << 32;
+
+    /** The cache shared by every Evaluator which isn't given its own. */
+    private static final EvaluationCache SHARED = new EvaluationCache();
+
+    /** The key of every slot, exclusive-ored with its entry. */
+    private final long[] keys;
+    /** The entry of every slot, which is its score and the USED_BIT. */
+    private final long[] entries;
+    /** Whether or not each slot has been read since the hand last passed it. */
+    private final boolean[] referenced;
+    /** The slot of each set that its hand points to, from 0 to WAYS - 1. */
+    private final byte[] hands;
+    /** The set bits of a key, since the number of sets is a power of two. */
+    private final int setMask;
+
+    /** The number of times the cache has been probed. */
+    private long probes;
+    /** The number of probes that found their position. */
+    private long hits;
+    /** The number of scores stored. */
+    private long stores;
+    /** The number of entries replaced by a different position. */
+    private long evictions;
+    /** The number of slots which hold an entry. */
+    private int usedSlots;
+
+    /**
+     * Creates a cache with the default capacity ({@value #DEFAULT_CAPACITY}).
+     */
+    public EvaluationCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a cache with the given capacity, rounded down to a power of two.
+     * @param capacity The number of entries in the cache.
+     * @throws IllegalArgumentException When the capacity is out of range.
+     */
+    public EvaluationCache(int capacity) {
+        if (capacity < MIN_CAPACITY || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException(CAPACITY_ERROR_MESSAGE);
+        }
+        capacity = Integer.highestOneBit(capacity);
+        this.keys = new long[capacity];
+        this.entries = new long[capacity];
+        this.referenced = new boolean[capacity];
+        this.hands = new byte[capacity / WAYS];
+        this.setMask = capacity / WAYS - 1;
+    }
+
+    /**
+     * Accessor Method
+     * @return The cache shared by every Evaluator in this JVM which isn't
+     *     given its own.
+     */
+    public static EvaluationCache getShared() {
+        return SHARED;
+    }
+
+    /**
+     * Accessor Method
+     * @return The number of entries in the cache.
+     */
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    /**
+     * Looks up the score of the given position.
+     * @param key The hash of the position.
+     * @return The entry of the position, or {@value #EMPTY} if it isn't in
+     *     the cache. The score is read with getScore().
+     */
+    public long probe(long key) {
+        probes++;
+        int first = setOf(key);
+        for (int slot = first; slot < first + WAYS; slot++) {
+            long entry = entries[slot];
+            if (entry != EMPTY && (keys[slot] ^ entry) == key) {
+                hits++;
+                referenced[slot] = true;
+                return entry;
+            }
+        }
+        return EMPTY;
+    }
+
+    /**
+     * Determines whether or not an entry returned by probe() was found.
+     * @param entry The entry returned by probe().
+     * @return True if the position was in the cache.
+     */
+    public static boolean isHit(long entry) {
+        return entry != EMPTY;
+    }
+
+    /**
+     * Accessor Method
+     * @param entry An entry returned by probe() which was a hit.
+     * @return The score of the entry.
+     */
+    public static int getScore(long entry) {
+        return (int) entry;
+    }
+
+    /**
+     * Stores the score of the given position, replacing its old score, an
+     * empty slot of its set, or the slot the set's CLOCK hand stops at.
+     * @param key The hash of the position.
+     * @param score The score of the position.
+     */
+    public void store(long key, int score) {
+        stores++;
+        long entry = (score & 0xFFFFFFFFL) | USED_BIT;
+        int first = setOf(key);
+
+        int empty = -1;
+        for (int slot = first; slot < first + WAYS; slot++) {
+            long old = entries[slot];
+            if (old == EMPTY) {
+                empty = (empty < 0) ? slot : empty;
+            } else if ((keys[slot] ^ old) == key) {
+                write(slot, key, entry);
+                return;
+            }
+        }
+        if (empty >= 0) {
+            usedSlots++;
+            write(empty, key, entry);
+            return;
+        }
+
+        evictions++;
+        write(advanceHand(first), key, entry);
+    }
+
+    /**
+     * Empties every slot of the cache and resets its counters.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(entries, EMPTY);
+        Arrays.fill(referenced, false);
+        Arrays.fill(hands, (byte) 0);
+        probes = 0;
+        hits = 0;
+        stores = 0;
+        evictions = 0;
+        usedSlots = 0;
+    }
+
+    /**
+     * Accessor Method
+     * @return The number of times the cache has been probed.
+     */
+    public long getProbes() {
+        return probes;
+    }
+
+    /**
+     * Accessor Method
+     * @return The number of probes that found their position.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Accessor Method
+     * @return The number of probes that didn't find their position.
+     */
+    public long getMisses() {
+        return probes - hits;
+    }
+
+    /**
+     * Accessor Method
+     * @return The number of scores stored.
+     */
+    public long getStores() {
+        return stores;
+    }
+
+    /**
+     * Accessor Method
+     * @return The number of entries replaced by a different position.
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Finds the fraction of probes that found their position.
+     * @return The hit rate, from 0 to 1, or 0 if there were no probes.
+     */
+    public double getHitRate() {
+        return probes == 0 ? 0 : (double) hits / probes;
+    }
+
+    /**
+     * Finds the fraction of slots that hold an entry.
+     * @return The occupancy of the cache, from 0 to 1.
+     */
+    public double getOccupancy() {
+        return (double) usedSlots / keys.length;
+    }
+
+    /**
+     * Sweeps the hand of a full set until it reaches a slot which hasn't been
+     * read since it was last passed, clearing the reference bit of every
+     * slot it gives a second chance. The hand is left just past that slot.
+     * @param first The first slot of the set.
+     * @return The slot to replace.
+     */
+    private int advanceHand(int first) {
+        int set = first / WAYS;
+        int hand = hands[set];
+        // After one sweep every bit is clear, unless another thread set one
+        for (int i = 0; i < WAYS && referenced[first + hand]; i++) {
+            referenced[first + hand] = false;
+            hand = (hand + 1) % WAYS;
+        }
+        hands[set] = (byte) ((hand + 1) % WAYS);
+        return first + hand;
+    }
+
+    /**
+     * Writes an entry into a slot. New entries start unreferenced, so they
+     * are replaced first unless they are read again.
+     */
+    private void write(int slot, long key, long entry) {
+        entries[slot] = entry;
+        keys[slot] = key ^ entry;
+        referenced[slot] = false;
+    }
+
+    /**
+     * Finds the first slot of the set of the given key.
+     */
+    private int setOf(long key) {
+        // The high bits are the best mixed in a Zobrist hash
+        return ((int) (key >>> 32) & setMask) * WAYS;
+    }
+
+}
@@ -0,0 +1,182 @@
+import java.lang.reflect.Constructor;
+import java.util.Arrays;
+
+/**
+ * Adds up the scores of the open windows of a board, which is the inner loop
+ * of the Evaluator.<br>
+ * A window is any tokensToConnect cells in a row, in any of the four
+ * directions, and it is open for a player when it has at least one of their
+ * tokens and none of anybody else's. Kernels work on a primitive copy of the
+ * board, made with createCells(), where each row is followed by
+ * tokensToConnect - 1 blocked cells and the rows are followed by as many
+ * blocked rows. Every window starting on the board then lies in the array,
+ * so the window starting at index i in a direction covers i, i + step,
+ * i + 2 * step and so on, and the windows which don't fit on the board are
+ * blocked, with no bounds checks needed. Kernels which read further than
+ * the last window, like the vector kernel, add blocked cells to the end
+ * with getMargin().<br>
+ * The scalar kernel slides each window along its line one cell at a time.
+ * The vector kernel, VectorEvaluationKernel, uses the jdk.incubator.vector
+ * module to score many windows at once. It is compiled separately from
+ * src/vector and loaded by name, so the rest of the program builds and runs
+ * without the module, and create() falls back to the scalar kernel when it
+ * can't be loaded.
+ * @author Eli W. Hunter
+ */
+public abstract class EvaluationKernel {
+
+    /** The value of cells which block every window. */
+    public static final byte BLOCKED = Byte.MAX_VALUE;
+    /** The value of empty cells. */
+    public static final byte EMPTY = 0;
+    /** The name of the vector kernel's class. */
+    public static final String VECTOR_KERNEL_CLASS = "VectorEvaluationKernel";
+    /** The largest window length the vector kernel can count, since it counts in bytes. */
+    public static final int MAX_VECTOR_WINDOW = Byte.MAX_VALUE - 1;
+
+    /** The constructor of the vector kernel, or null if it couldn't be loaded. */
+    private static final Constructor<? extends EvaluationKernel> VECTOR_CONSTRUCTOR = loadVectorConstructor();
+
+    /** The width of the boards being scored. */
+    protected final int width;
+    /** The height of the boards being scored. */
+    protected final int height;
+    /** The length of each window. */
+    protected final int tokensToConnect;
+    /** The distance between the same column of adjacent rows in the cells. */
+    protected final int stride;
+    /** The distance between adjacent cells of a window in each direction. (|, -, /, \) */
+    protected final int[] steps;
+    /**
+     * The score of an open window, indexed by the number of tokens in it. A
+     * window's score grows with the cube of its number of tokens.
+     */
+    protected final int[] lineScores;
+
+    /**
+     * Creates a kernel for boards with the given dimensions.
+     * @param width The width of the boards.
+     * @param height The height of the boards.
+     * @param tokensToConnect The number of tokens that must be connected.
+     */
+    protected EvaluationKernel(int width, int height, int tokensToConnect) {
+        this.width = width;
+        this.height = height;
+        this.tokensToConnect = tokensToConnect;
+        this.stride = width + tokensToConnect - 1;
+        this.steps = new int[] {stride, 1, stride + 1, stride - 1};
+        this.lineScores = new int[tokensToConnect + 1];
+        for (int count = 1; count <= tokensToConnect; count++) {
+            lineScores[count] = count * count * count;
+        }
+    }
+
+    /**
+     * Creates the fastest kernel available for boards with the given
+     * dimensions: the vector kernel if it can be loaded and can count windows
+     * of this length, and the scalar kernel otherwise.
+     * @param width The width of the boards.
+     * @param height The height of the boards.
+     * @param tokensToConnect The number of tokens that must be connected.
+     * @return The kernel.
+     */
+    public static EvaluationKernel create(int width, int height, int tokensToConnect) {
+        if (VECTOR_CONSTRUCTOR != null && tokensToConnect <= MAX_VECTOR_WINDOW) {
+            try {
+                return VECTOR_CONSTRUCTOR.newInstance(width, height, tokensToConnect);
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Fall back to the scalar kernel
+            }
+        }
+        return createScalar(width, height, tokensToConnect);
+    }
+
+    /**
+     * Creates the scalar kernel for boards with the given dimensions.
+     * @param width The width of the boards.
+     * @param height The height of the boards.
+     * @param tokensToConnect The number of tokens that must be connected.
+     * @return The kernel.
+     */
+    public static EvaluationKernel createScalar(int width, int height, int tokensToConnect) {
+        return new ScalarEvaluationKernel(width, height, tokensToConnect);
+    }
+
+    /**
+     * Determines whether the vector kernel can be used. It needs to be
+     * compiled from src/vector, and the program needs to be run with
+     * --add-modules jdk.incubator.vector.
+     * @return True if create() can return the vector kernel.
+     */
+    public static boolean isVectorAvailable() {
+        return VECTOR_CONSTRUCTOR != null;
+    }
+
+    /**
+     * Accessor Method
+     * @return The name of this kernel, for benchmarks.
+     */
+    public abstract String getName();
+
+    /**
+     * Accessor Method
+     * @return The number of blocked cells added after the blocked rows, for
+     *     kernels which read past the last window. There are none by default.
+     */
+    protected int getMargin() {
+        return 0;
+    }
+
+    /**
+     * Creates the primitive copy of a board that this kernel scores, with
+     * every cell blocked.
+     * @return The cells, which should be filled in with cellIndex().
+     */
+    public byte[] createCells() {
+        byte[] cells = new byte[(height + tokensToConnect - 1) * stride + getMargin()];
+        Arrays.fill(cells, BLOCKED);
+        return cells;
+    }
+
+    /**
+     * Finds the index of a cell of the board in the cells.<br>
+     * Precondition: The row and column are on the board.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return The index of the cell.
+     */
+    public int cellIndex(int row, int col) {
+        return row * stride + col;
+    }
+
+    /**
+     * Adds the score of every open window to the score of its player.
+     * @param cells The cells of the board, made by createCells(). Each cell
+     *     on the board holds {@value #EMPTY}, or the player of its token,
+     *     counted from 1. Players greater than the number of players block
+     *     windows like {@value #BLOCKED} does.
+     * @param players The number of players being scored.
+     * @param scores The score of each player, indexed from 0, which are added
+     *     to.
+     */
+    public abstract void scoreWindows(byte[] cells, int players, int[] scores);
+
+    /**
+     * Loads the vector kernel's constructor, if the kernel was compiled and
+     * the vector module is present.
+     * @return The constructor, or null if it couldn't be loaded.
+     */
+    private static Constructor<? extends EvaluationKernel> loadVectorConstructor() {
+        try {
+            Class<? extends EvaluationKernel> kernelClass =
+                Class.forName(VECTOR_KERNEL_CLASS).asSubclass(EvaluationKernel.class);
+            Constructor<? extends EvaluationKernel> constructor =
+                kernelClass.getConstructor(int.class, int.class, int.class);
+            constructor.newInstance(1, 1, 1); // fails here when the module is missing
+            return constructor;
+        } catch (ReflectiveOperationException | LinkageError | ClassCastException e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,234 @@
+/**
+ * Scores board positions for the AIs by counting open lines.<br>
+ * A line is any window of tokensToConnect cells in a row, in any of the four
+ * directions. A line is open for a player when it contains at least one of
+ * their tokens and none of anybody else's, because the player could still
+ * complete it. Each open line is worth more the more tokens it already has.<br>
+ * The lines are scored by an EvaluationKernel, which uses vector instructions
+ * when they are available. Scores from evaluate() are kept in an
+ * EvaluationCache, the shared one unless another is given, so positions
+ * reached again aren't scored again.
+ * @author Eli W. Hunter
+ */
+public class Evaluator {
+
+    /**
+     * The score of a won position. Searches subtract the number of moves it
+     * takes to win, so quicker wins score higher. Heuristic scores are always
+     * kept well below this.
+     */
+    public static final int WIN_SCORE = 1_000_000_000;
+    /** The largest heuristic score a position can be given. */
+    public static final int MAX_HEURISTIC_SCORE = WIN_SCORE / 2;
+    /** The largest number of players that can be scored at once. */
+    public static final int MAX_PLAYERS = Byte.MAX_VALUE - 1;
+
+    /** The width of the boards being scored. */
+    private final int width;
+    /** The height of the boards being scored. */
+    private final int height;
+    /** The number of tokens that must be connected on the boards being scored. */
+    private final int tokensToConnect;
+    /** The kernel which scores the lines. */
+    private final EvaluationKernel kernel;
+    /**
+     * The player of every cell of the board being scored, laid out by the
+     * kernel. This holds 1 + the index of the player in the list being
+     * scored, or 0 for empty cells.
+     */
+    private final byte[] cells;
+    /** The cache of scores from evaluate(), or null if they aren't cached. */
+    private EvaluationCache cache;
+    /** The score of each player, used by evaluate() on a cache miss. */
+    private int[] scores;
+
+    /**
+     * Creates an evaluator for boards with the given dimensions.
+     * @param width The width of the boards.
+     * @param height The height of the boards.
+     * @param tokensToConnect The number of tokens that must be connected.
+     */
+    public Evaluator(int width, int height, int tokensToConnect) {
+        this(width, height, tokensToConnect, EvaluationKernel.create(width, height, tokensToConnect));
+    }
+
+    /**
+     * Creates an evaluator for boards with the given dimensions, which scores
+     * lines with the given kernel.
+     * @param width The width of the boards.
+     * @param height The height of the boards.
+     * @param tokensToConnect The number of tokens that must be connected.
+     * @param kernel The kernel, which must have been made for the same
+     *     dimensions.
+     */
+    public Evaluator(int width, int height, int tokensToConnect, EvaluationKernel kernel) {
+        this.width = width;
+        this.height = height;
+        this.tokensToConnect = tokensToConnect;
+        this.kernel = kernel;
+        this.cells = kernel.createCells();
+        this.cache = EvaluationCache.getShared();
+        this.scores = new int[0];
+    }
+
+    /**
+     * Accessor Method
+     * @return The kernel which scores the lines.
+     */
+    public EvaluationKernel getKernel() {
+        return kernel;
+    }
+
+    /**
+     * Accessor Method
+     * @return The cache of scores from evaluate(), or null if they aren't
+     *     cached.
+     */
+    public EvaluationCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Mutator Method
+     * @param cache The cache to keep scores from evaluate() in, or null to
+     *     score every position.
+     */
+    public void setCache(EvaluationCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Scores the given board for every given player, by adding up the scores
+     * of each player's open lines.
+     * @param board The board being scored.
+     * @param ownerIndexes The owner index of every player being scored. Tokens
+     *     of anybody else are treated as blocking every line.
+     * @param scores The array the score of each player is written to. This
+     *     must be at least as long as ownerIndexes.
+     * @throws IllegalArgumentException When there are more than {@value
+     *     #MAX_PLAYERS} players.
+     */
+    public void scoreLines(GameBoard board, int[] ownerIndexes, int[] scores) {
+        if (ownerIndexes.length > MAX_PLAYERS) {
+            throw new IllegalArgumentException("At most " + MAX_PLAYERS + " players can be scored.");
+        }
+        loadCells(board, ownerIndexes);
+
+        // Players are numbered from 1, and anybody else is the extra last player
+        int players = ownerIndexes.length;
+        for (int player = 0; player < players; player++) {
+            scores[player] = 0;
+        }
+        kernel.scoreWindows(cells, players, scores);
+
+        for (int player = 0; player < players; player++) {
+            scores[player] = Math.min(scores[player], MAX_HEURISTIC_SCORE);
+        }
+    }
+
+    /**
+     * Scores the given board for one player, as their own score minus the
+     * scores of everybody else.
+     * @param board The board being scored.
+     * @param ownerIndexes The owner index of every player being scored.
+     * @param player The index in ownerIndexes of the player the board is
+     *     being scored for.
+     * @return The score of the board for the player.
+     */
+    public int evaluate(GameBoard board, int[] ownerIndexes, int player) {
+        long key = 0;
+        if (cache != null) {
+            key = board.getHash() ^ contextKey(ownerIndexes, player);
+            long entry = cache.probe(key);
+            if (EvaluationCache.isHit(entry)) {
+                return EvaluationCache.getScore(entry);
+            }
+        }
+
+        if (scores.length < ownerIndexes.length) {
+            scores = new int[ownerIndexes.length];
+        }
+        scoreLines(board, ownerIndexes, scores);
+        int score = relativeScore(scores, ownerIndexes.length, player);
+        if (cache != null) {
+            cache.store(key, score);
+        }
+        return score;
+    }
+
+    /**
+     * Finds a player's score relative to everybody else's.
+     * @param scores The score of every player.
+     * @param player The index of the player.
+     * @return The player's score minus everybody else's, kept within the
+     *     bounds of a heuristic score.
+     */
+    public static int relativeScore(int[] scores, int player) {
+        return relativeScore(scores, scores.length, player);
+    }
+
+    /**
+     * Finds a player's score relative to the other players at the start of
+     * an array of scores.
+     * @param scores The score of every player.
+     * @param players The number of players.
+     * @param player The index of the player.
+     * @return The player's score minus everybody else's, kept within the
+     *     bounds of a heuristic score.
+     */
+    private static int relativeScore(int[] scores, int players, int player) {
+        long score = scores[player];
+        for (int other = 0; other < players; other++) {
+            if (other != player) {
+                score -= scores[other];
+            }
+        }
+        return (int) Math.max(-MAX_HEURISTIC_SCORE, Math.min(MAX_HEURISTIC_SCORE, score));
+    }
+
+    /**
+     * Finds the key exclusive-ored into a position's hash to make its key in
+     * the cache. A score also depends on the board's dimensions, on who is
+     * scored and in what order, and on who it is for, so all of these are
+     * hashed in, and one cache can hold scores from any game.
+     * @param ownerIndexes The owner index of every player being scored.
+     * @param player The index in ownerIndexes of the player being scored for.
+     * @return The key.
+     */
+    private long contextKey(int[] ownerIndexes, int player) {
+        long key = ZobristKeys.generateKey(width, height);
+        key = ZobristKeys.generateKey(tokensToConnect, (int) key & Integer.MAX_VALUE) ^ key;
+        key = ZobristKeys.generateKey(player, (int) key & Integer.MAX_VALUE) ^ key;
+        for (int ownerIndex : ownerIndexes) {
+            key = ZobristKeys.generateKey(ownerIndex, (int) key & Integer.MAX_VALUE) ^ key;
+        }
+        return key;
+    }
+
+    /**
+     * Copies the player of every cell of the board into the cells array.
+     * @param board The board being copied.
+     * @param ownerIndexes The owner index of every player being scored.
+     */
+    private void loadCells(GameBoard board, int[] ownerIndexes) {
+        int other = ownerIndexes.length + 1;
+        for (int col = 0; col < width; col++) {
+            int tokens = board.getNextRow(col);
+            for (int row = 0; row < height; row++) {
+                byte player = 0;
+                if (row < tokens) {
+                    int owner = board.getOwnerIndex(row, col);
+                    player = (byte) other;
+                    for (int i = 0; i < ownerIndexes.length; i++) {
+                        if (ownerIndexes[i] == owner) {
+                            player = (byte) (i + 1);
+                            break;
+                        }
+                    }
+                }
+                cells[kernel.cellIndex(row, col)] = player;
+            }
+        }
+    }
+
+}
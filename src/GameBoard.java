@@ -1,4 +1,5 @@
 import java.util.*; // For Arrays
+import java.util.random.RandomGenerator; // For picking legal moves
 
 /**
  * Describes a 2D GameBoard of Tokens through a 1D array of Columns.
@@ -8,6 +9,8 @@ public class GameBoard {
 
     /** The minimum length of a sequence to be checked. */
     public static final int MIN_SEQUENCE_LENGTH = 2;
+    /** The column returned when there are no legal moves. */
+    public static final int NO_LEGAL_MOVE = -1;
 
     // ERROR MESSAGES
     /**
@@ -27,6 +30,12 @@ public class GameBoard {
         "Column is out of bounds.";
     public static final String INVALID_LENGTH_ERROR_MESSAGE =
         "The length must be creater than " + MIN_SEQUENCE_LENGTH;
+    /** The error message displayed when the index of a legal move is invalid. */
+    public static final String INVALID_LEGAL_MOVE_ERROR_MESSAGE =
+        "There aren't that many legal moves.";
+    /** The error message displayed when the direction of a sequence is invalid. */
+    public static final String INVALID_DIRECTION_ERROR_MESSAGE =
+        "The direction must be one of those defined by RunLengthIndex.";
 
     /** The (permanent) width of the GameBoard. (i.e. The number of columns.) */
     private final int width;
@@ -40,10 +49,34 @@ public class GameBoard {
      * to be won.
      */
     private final int tokensToConnect;
-    /** The array of Column objects. Describes the GameBoard. */
+    /**
+     * The array of Column objects. Describes the GameBoard. This is null for
+     * subclasses which store their tokens some other way.
+     */
     private Column[] columns;
+    /**
+     * The length of every sequence on the GameBoard. This is null for
+     * subclasses which find sequences some other way.
+     */
+    private RunLengthIndex runs;
     /** The number of tokens that have been added to the GameBoard. */
-    private int numberOfTokens;
+    protected int numberOfTokens;
+    /** The keys used to hash the position of the GameBoard. */
+    private final ZobristKeys zobristKeys;
+    /**
+     * The Zobrist hash of the current position, which is the exclusive-or of
+     * the keys of every token on the GameBoard.
+     */
+    private long hash;
+    /**
+     * The columns which aren't full, in no particular order. Only the first
+     * numberOfLegalMoves are meaningful.
+     */
+    private final int[] legalMoves;
+    /** The index of each column in legalMoves, or -1 if the column is full. */
+    private final int[] legalMoveSlots;
+    /** The number of columns which aren't full. */
+    private int numberOfLegalMoves;
 
     /**
      * Generates a GameBoard object with the given width, height,
@@ -57,6 +90,25 @@ public class GameBoard {
      *     less than the number of tokens to connect.
      */
     public GameBoard(int width, int height, int tokensToConnect) {
+        this(width, height, tokensToConnect, true);
+    }
+
+    /**
+     * Generates a GameBoard object with the given width, height, and number
+     * of tokens to connect, optionally without allocating any Columns. This is
+     * used by subclasses which store their tokens in another representation,
+     * and which must therefore override every method that touches the Columns.
+     * @param width The width of the GameBoard. (i.e. The number of columns.)
+     * @param height The height of the GameBoard. (i.e. The max number of tokens
+     *     in each column).
+     * @param tokensToConnect The number of tokens that must be connected for
+     *     the board to be considered won.
+     * @param allocateColumns Whether or not the array of Columns should be
+     *     created.
+     * @throws IllegalArgumentException When the specified height or width is
+     *     less than the number of tokens to connect.
+     */
+    protected GameBoard(int width, int height, int tokensToConnect, boolean allocateColumns) {
         if (width < tokensToConnect) {
             throw new IllegalArgumentException(INVALID_WIDTH_ERROR_MESSAGE);
         }
@@ -65,16 +117,22 @@ public class GameBoard {
         }
 
         this.width = width;
-        this.columns = new Column[width];
-
         this.height = height;
-        for (int i = 0; i < width; i++) {
-            columns[i] = new Column(height);
-        }
-
-        this.empty();
-
         this.tokensToConnect = tokensToConnect;
+        this.zobristKeys = new ZobristKeys(width * height);
+        this.legalMoves = new int[width];
+        this.legalMoveSlots = new int[width];
+        this.resetLegalMoves();
+
+        if (allocateColumns) {
+            this.columns = new Column[width];
+            TokenTable tokenTable = new TokenTable();
+            for (int i = 0; i < width; i++) {
+                columns[i] = new Column(height, tokenTable);
+            }
+            this.runs = new RunLengthIndex(width, height);
+            this.empty();
+        }
     }
 
     /**
@@ -121,6 +179,122 @@ public class GameBoard {
         return width * height;
     }
 
+    /**
+     * Accessor Method
+     * @return The Zobrist hash of the current position. Equal positions always
+     *     have equal hashes, no matter which moves led to them, which kind of
+     *     GameBoard they are on, or which run of the program it is.
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Updates the hash for a token being added to or removed from a cell.
+     * Adding and removing the same token are the same operation.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @param ownerIndex The owner index of the token.
+     */
+    protected void toggleHash(int row, int col, int ownerIndex) {
+        hash ^= zobristKeys.getKey(ownerIndex, col * height + row);
+    }
+
+    /**
+     * Resets the hash to that of the empty GameBoard.
+     */
+    protected void resetHash() {
+        hash = 0L;
+    }
+
+    /**
+     * Accessor Method
+     * @return The number of columns which aren't full.
+     */
+    public int getNumberOfLegalMoves() {
+        return numberOfLegalMoves;
+    }
+
+    /**
+     * Finds one of the columns which aren't full, so they can be iterated
+     * over without checking every column. The order changes as columns fill
+     * up and empty.
+     * @param index The index of the legal move, from 0 to
+     *     getNumberOfLegalMoves() - 1.
+     * @return The column.
+     * @throws IllegalArgumentException When the index is out of range.
+     */
+    public int getLegalMove(int index) {
+        if (index < 0 || index >= numberOfLegalMoves) {
+            throw new IllegalArgumentException(INVALID_LEGAL_MOVE_ERROR_MESSAGE);
+        }
+        return legalMoves[index];
+    }
+
+    /**
+     * Finds every column which isn't full.
+     * @return A new array of the columns, in no particular order.
+     */
+    public int[] getLegalMoves() {
+        return Arrays.copyOf(legalMoves, numberOfLegalMoves);
+    }
+
+    /**
+     * Picks a random column which isn't full, in constant time.
+     * @param random The random number generator to pick with.
+     * @return The column, or {@value #NO_LEGAL_MOVE} if every column is full.
+     */
+    public int getRandomLegalMove(RandomGenerator random) {
+        if (numberOfLegalMoves == 0) {
+            return NO_LEGAL_MOVE;
+        }
+        return legalMoves[random.nextInt(numberOfLegalMoves)];
+    }
+
+    /**
+     * Determines whether or not a token can be added to the given column.
+     * @param col The index of the column, which may be off the board.
+     * @return True if the column is on the board and isn't full.
+     */
+    public boolean isLegalMove(int col) {
+        return col >= 0 && col < width && legalMoveSlots[col] >= 0;
+    }
+
+    /**
+     * Takes a column which has just filled up out of the legal moves, by
+     * moving the last legal move into its place. Subclasses call this
+     * whenever they fill a column.
+     * @param col The column which is now full.
+     */
+    protected void fillColumn(int col) {
+        int slot = legalMoveSlots[col];
+        int last = legalMoves[--numberOfLegalMoves];
+        legalMoves[slot] = last;
+        legalMoveSlots[last] = slot;
+        legalMoveSlots[col] = -1;
+    }
+
+    /**
+     * Adds a column which is no longer full to the end of the legal moves.
+     * Subclasses call this whenever a token is removed from a full column.
+     * @param col The column which is no longer full.
+     */
+    protected void unfillColumn(int col) {
+        legalMoveSlots[col] = numberOfLegalMoves;
+        legalMoves[numberOfLegalMoves++] = col;
+    }
+
+    /**
+     * Makes every column a legal move, as on the empty GameBoard.
+     */
+    protected void resetLegalMoves() {
+        for (int col = 0; col < width; col++) {
+            legalMoves[col] = col;
+            legalMoveSlots[col] = col;
+        }
+        numberOfLegalMoves = width;
+    }
+
     /**
      * Finds and returns the Column at the specified column.
      * @param col The index of the desired Column.
@@ -134,6 +308,28 @@ public class GameBoard {
         return columns[col];
     }
 
+    /**
+     * Finds the row that the next token added to the specified column will
+     * occupy.
+     * @param col The index of the column.
+     * @return The row of the next token to be added to the column.
+     * @throws IllegalArgumentException When the specified index is not valid.
+     */
+    public int getNextRow(int col) {
+        return getColumn(col).getNextRow();
+    }
+
+    /**
+     * Determines if the specified column is full, i.e. whether it can
+     * contain any more tokens.
+     * @param col The index of the column.
+     * @return True if the column is full. False otherwise.
+     * @throws IllegalArgumentException When the specified index is not valid.
+     */
+    public boolean isColumnFull(int col) {
+        return getColumn(col).isFull();
+    }
+
     /**
      * Finds and returns the Token at the specified row and column.
      * @param row The row (i.e. index in the column) that the desired token is at.
@@ -146,6 +342,20 @@ public class GameBoard {
         return getColumn(col).getToken(row);
     }
 
+    /**
+     * Finds the owner index of the token at the specified row and column,
+     * without creating a Token object.
+     * @param row The row (i.e. index in the column) that the desired token is at.
+     * @param col The column that the desired token is at.
+     * @return The owner index of the token at the specifed column and row, which
+     *     is Token.EMPTY_INDEX if there is no token there.
+     * @throws IllegalArgumentException When the column or row is not a valid
+     *     index.
+     */
+    public int getOwnerIndex(int row, int col) {
+        return getColumn(col).getOwnerIndex(row);
+    }
+
     /**
      * Adds the specified token to the specified column by calling the addToken()
      * method on that Column.
@@ -164,6 +374,14 @@ public class GameBoard {
         // Putting this after the add token statement prevents this number from
         // being incremented upon failure
         numberOfTokens++;
+        if (row == height - 1) {
+            fillColumn(col);
+        }
+        int owner = token.getOwnerIndex();
+        if (owner != RunLengthIndex.EMPTY_OWNER) {
+            runs.add(row, col, owner);
+            toggleHash(row, col, owner);
+        }
 
         return this.isWinningPosition(row, col);
     }
@@ -181,10 +399,19 @@ public class GameBoard {
             throw new IllegalArgumentException(INVALID_COL_ERROR_MESSAGE);
         }
 
+        int row = columns[col].getNextRow() - 1;
+        int owner = row >= 0 ? columns[col].getOwnerIndex(row) : Token.EMPTY_INDEX;
         columns[col].removeToken();
         // Putting this after the add token statement prevents this number from
         // being decremented upon failure
         numberOfTokens--;
+        if (row == height - 1) {
+            unfillColumn(col);
+        }
+        runs.remove(row, col);
+        if (owner != Token.EMPTY_INDEX) {
+            toggleHash(row, col, owner);
+        }
     }
 
     /**
@@ -195,7 +422,36 @@ public class GameBoard {
         for (int i = 0; i < columns.length; i++) {
             columns[i].empty();
         }
+        runs.clear();
         this.numberOfTokens = 0;
+        this.resetHash();
+        this.resetLegalMoves();
+    }
+
+    /**
+     * Creates an independent copy of this GameBoard, with the same dimensions
+     * and tokens. Changes to either board are not reflected in the other, so
+     * a copy can be used by another thread while this board keeps changing.
+     * @return A copy of this GameBoard, of the same kind.
+     */
+    public GameBoard copy() {
+        GameBoard copy = createEmptyBoard();
+        for (int col = 0; col < width; col++) {
+            int tokens = getNextRow(col);
+            for (int row = 0; row < tokens; row++) {
+                copy.addToken(getToken(row, col), col);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Creates an empty GameBoard of the same kind and dimensions as this one.
+     * Subclasses override this so that copy() returns a board of their kind.
+     * @return An empty GameBoard.
+     */
+    protected GameBoard createEmptyBoard() {
+        return new GameBoard(width, height, tokensToConnect);
     }
 
     /**
@@ -213,9 +469,9 @@ public class GameBoard {
      *     value (i.e. less than 0 and greater than the width or height).
      */
     public boolean isWinningPosition(int row, int col) {
-        if (row < 0 || row > height)
+        if (row < 0 || row >= height)
             throw new IllegalArgumentException(Column.INVALID_ROW_ERROR_MESSAGE);
-        if (col < 0 || col > width)
+        if (col < 0 || col >= width)
             throw new IllegalArgumentException(INVALID_COL_ERROR_MESSAGE);
 
         return checkVerticalSequence(row, col, this.tokensToConnect)
@@ -228,7 +484,8 @@ public class GameBoard {
      * Checks if the given row and column is part of any winning sequences of
      * the given length. That is, if the position is part of a sequence in
      * either the vertical, horizontal, positive diagonal, or negative diagonal
-     * direction
+     * direction. With the run length index, this is constant time for any
+     * cell.
      * @param row The row to be checked to see if it is part of any winning
      *     sequences.
      * @param col The column to be checked to see if it is part of any winning
@@ -241,10 +498,10 @@ public class GameBoard {
      *     Or when the length is less than the minimum.
      */
     public boolean hasSequence(int row, int col, int length) {
-        if (row < 0 || row > height) {
+        if (row < 0 || row >= height) {
             throw new IllegalArgumentException(Column.INVALID_ROW_ERROR_MESSAGE);
         }
-        if (col < 0 || col > width) {
+        if (col < 0 || col >= width) {
             throw new IllegalArgumentException(INVALID_COL_ERROR_MESSAGE);
         }
         if (length < MIN_SEQUENCE_LENGTH) {
@@ -257,6 +514,57 @@ public class GameBoard {
                || checkNegativeDiagonalSequence(row, col, length);
     }
 
+    /**
+     * Finds the length of the sequence of same-owner tokens through the given
+     * cell in the given direction. This is looked up in the run length index,
+     * or found by walking the board in subclasses without one.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @param direction The direction of the sequence, as defined by
+     *     RunLengthIndex. (e.g. RunLengthIndex.HORIZONTAL)
+     * @return The length of the sequence, or 0 if the cell is empty.
+     * @throws IllegalArgumentException When the row, column or direction is
+     *     not a valid value.
+     */
+    public int getRunLength(int row, int col, int direction) {
+        if (row < 0 || row >= height) {
+            throw new IllegalArgumentException(Column.INVALID_ROW_ERROR_MESSAGE);
+        }
+        if (col < 0 || col >= width) {
+            throw new IllegalArgumentException(INVALID_COL_ERROR_MESSAGE);
+        }
+        if (direction < 0 || direction >= RunLengthIndex.NUMBER_OF_DIRECTIONS) {
+            throw new IllegalArgumentException(INVALID_DIRECTION_ERROR_MESSAGE);
+        }
+        if (runs != null) {
+            return runs.runLength(row, col, direction);
+        }
+
+        int owner = getOwnerIndex(row, col);
+        if (owner == Token.EMPTY_INDEX) {
+            return 0;
+        }
+        int rowStep = RunLengthIndex.getRowStep(direction);
+        int colStep = RunLengthIndex.getColStep(direction);
+        return 1 + countOwned(row, col, rowStep, colStep, owner) + countOwned(row, col, -rowStep, -colStep, owner);
+    }
+
+    /**
+     * Counts the tokens of the given owner in a row from the given cell, not
+     * including it, in a single direction.
+     */
+    private int countOwned(int row, int col, int rowStep, int colStep, int owner) {
+        int count = 0;
+        row += rowStep;
+        col += colStep;
+        while (row >= 0 && row < height && col >= 0 && col < width && getOwnerIndex(row, col) == owner) {
+            count++;
+            row += rowStep;
+            col += colStep;
+        }
+        return count;
+    }
+
     /**
      * Checks if the given row and column is part of any sequence of the given
      * length in the vertical direction.<br>
@@ -271,7 +579,7 @@ public class GameBoard {
      */
     public boolean checkVerticalSequence(int row, int col, int length) {
         // i.e. |. row is variable. col is constant.
-        return checkSequence(row, col, 1, 0, length);
+        return checkRun(row, col, RunLengthIndex.VERTICAL, 1, 0, length);
     }
 
     /**
@@ -288,7 +596,7 @@ public class GameBoard {
      */
     public boolean checkHorizontalSequence(int row, int col, int length) {
         // i.e. -. col is variable. row is constant.
-        return checkSequence(row, col, 0, 1, length);
+        return checkRun(row, col, RunLengthIndex.HORIZONTAL, 0, 1, length);
     }
 
     /**
@@ -305,7 +613,7 @@ public class GameBoard {
      */
     public boolean checkPositiveDiagonalSequence(int row, int col, int length) {
         // i.e. /. row is increasing. col is increasing.
-        return checkSequence(row, col, 1, 1, length);
+        return checkRun(row, col, RunLengthIndex.POSITIVE_DIAGONAL, 1, 1, length);
     }
 
     /**
@@ -322,7 +630,30 @@ public class GameBoard {
      */
     public boolean checkNegativeDiagonalSequence(int row, int col, int length) {
         // i.e. \. row is increasing. col is decreasing.
-        return checkSequence(row, col, 1, -1, length);
+        return checkRun(row, col, RunLengthIndex.NEGATIVE_DIAGONAL, 1, -1, length);
+    }
+
+    /**
+     * Checks if the given row and column is part of any sequence of the given
+     * length in the given direction by looking up the length of the sequence
+     * in the run length index. Subclasses without an index fall back to
+     * {@link #checkSequence(int, int, int, int, int)}.<br>
+     * Precondition: The row and column are valid.
+     * @param row The row to be checked.
+     * @param col The column to be checked.
+     * @param direction The direction of the sequence, as defined by
+     *     RunLengthIndex.
+     * @param rowStepSize The row step size of the direction.
+     * @param colStepSize The column step size of the direction.
+     * @param length The length of the sequence to be checked.
+     * @return True if the row and column are part of a sequence of at least
+     *     the given length. False otherwise.
+     */
+    private boolean checkRun(int row, int col, int direction, int rowStepSize, int colStepSize, int length) {
+        if (runs == null) {
+            return checkSequence(row, col, rowStepSize, colStepSize, length);
+        }
+        return runs.runLength(row, col, direction) >= length;
     }
 
     /**
@@ -354,10 +685,10 @@ public class GameBoard {
         // sequence with row step-size rowStepSize and column step-size colStepSize that contains your
         // current row (anchorRow) and current column (anchorCol).
 
-        // You look at the token you're standing on and memorize it.
-        Token anchorToken = this.getToken(anchorRow, anchorCol);
+        // You look at the token you're standing on and memorize its owner.
+        int anchorOwner = this.getOwnerIndex(anchorRow, anchorCol);
         // Empty tokens don't count
-        if (anchorToken.equals(Token.EMPTY)) {
+        if (anchorOwner == Token.EMPTY_INDEX) {
             return false;
         }
 
@@ -378,8 +709,7 @@ public class GameBoard {
                 int col = startingCol + stepsTaken * colStepSize;
 
                 try {
-                    Token currentToken = this.getToken(row, col);
-                    if (!anchorToken.equals(currentToken))
+                    if (anchorOwner != this.getOwnerIndex(row, col))
                         badSequence = true;
 
                 } catch (IllegalArgumentException e) {
@@ -32,6 +32,23 @@ public class GameController {
     public static final String LOW_TOKENS_ERROR_MESSAGE =
         String.format("The number of tokens cannot be less than the the minimum. (%d)", MIN_TOKENS_TO_CONNECT);
 
+    // RESULTS
+    // The actual value doesn't matter as long as its consistent.
+    /** The result of a move which didn't end the game, so it's the next player's turn. */
+    public static final byte MOVED = 0;
+    /** The result of a move which won the game. */
+    public static final byte WON = 1;
+    /** The result of a move which filled the board without a win. */
+    public static final byte DRAWN = 2;
+    /** The result of a control action, which doesn't use up the turn. */
+    public static final byte CONTROLLED = 3;
+    /** The result of quitting the game. */
+    public static final byte QUIT = 4;
+    /** The result of a move into a column which isn't on the board. */
+    public static final byte INVALID_COLUMN = 5;
+    /** The result of a move into a column which is full. */
+    public static final byte FULL_COLUMN = 6;
+
     /** The GameInterface object connected to this GameController. */
     private GameInterface client;
     /** The GameBoard object connected to this GameController. */
@@ -65,6 +82,14 @@ public class GameController {
         this.isRunning = true;
     }
 
+    /**
+     * Accessor Method
+     * @return The AI which decides the actions of the computer players.
+     */
+    public AI getAI() {
+        return ai;
+    }
+
     /**
      * Accessor Method
      * @return The current player in the players array, as determined by the
@@ -116,79 +141,96 @@ public class GameController {
     }
 
     /**
-     * Adds a token to the given column. The token is owned by the current
-     * player.
+     * Adds a token to the given column, if it is a legal move. The token is
+     * owned by the current player.
      * @param col The column to which the token should be added.
-     * @throws IllegalArgumentException If the given column is invalid for the
-     *      associated game board or if the column is full.
+     * @return The result of the move: MOVED, WON or DRAWN if the token was
+     *     added, or INVALID_COLUMN or FULL_COLUMN if it couldn't be, in
+     *     which case it is still the current player's turn.
      */
-    public void addToken(int col) {
+    public byte addToken(int col) {
+        if (col < 0 || col >= board.getWidth()) {
+            return INVALID_COLUMN;
+        }
+        if (!board.isLegalMove(col)) {
+            return FULL_COLUMN;
+        }
+
         Player currentPlayer = players[playerPointer];
-        Token currentPlayerToken = new Token(currentPlayer);
+        Token currentPlayerToken = Token.of(currentPlayer);
 
         boolean isWinningMove = board.addToken(currentPlayerToken, col);
 
         if (isWinningMove) {
             this.isRunning = false;
+            ai.stopPondering();
             client.displayWin(currentPlayer);
+            return WON;
 
         } else if (board.getNumberOfTokens() >= board.getMaxNumberOfTokens()) {
             this.isRunning = false;
+            ai.stopPondering();
             client.displayGameOver();
+            return DRAWN;
 
         } else {
-            this.nextPlayer(); // We only increment the pointer if we consider the input successful
+            this.nextPlayer(); // We only increment the pointer if the move was legal
+            return MOVED;
         }
     }
 
     /**
-     * Parses the given string action, adding a column if the action is parsable
-     * as an integer, and otherwise doing an action based off of the string.
-     * @param action The action string to be parsed and had action taken based
-     *     off of it.
-     * @throws IllegalArgumentException
-     *     If the action is a an integer (and therefore a column) and that
-     *     integer is not a valid column in the associated GameBoard.<br>
-     *     If the given action is not a valid, understood action.
+     * Takes the given action, adding a token if it is a move, and otherwise
+     * doing the control action.
+     * @param action The action to take.
+     * @return The result of the action. (e.g. MOVED or FULL_COLUMN)
      */
-    private void parseAction(String action) {
-        if (Utils.isInt(action)) {
-            int col = Integer.parseInt(action);
-            this.addToken(col);
-
-        } else {
-            action = action.toUpperCase();
-            switch(action) {
-                case "Q":
-                    System.exit(0);
-                    break;
-                case "D":
-                    client.displayBoard();
-                    break;
-                case "H":
-                    client.displayHelp();
-                    break;
-                default:
-                    throw new IllegalArgumentException("Misunderstood input");
-            }
+    public byte takeAction(Action action) {
+        switch (action.getType()) {
+            case Action.MOVE:
+                return this.addToken(action.getColumn());
+            case Action.DISPLAY:
+                client.displayBoard();
+                return CONTROLLED;
+            case Action.HELP:
+                client.displayHelp();
+                return CONTROLLED;
+            default:
+                this.isRunning = false;
+                ai.stopPondering();
+                return QUIT;
         }
     }
 
     /**
-     * Iterates through a single turn by receiving user input and then acting
-     * on that.
+     * Determines whether or not the given result is of an action which
+     * couldn't be taken.
+     * @param result The result of an action.
+     * @return True if the action was illegal, so the player should choose
+     *     another.
+     */
+    public static boolean isIllegal(byte result) {
+        return result == INVALID_COLUMN || result == FULL_COLUMN;
+    }
+
+    /**
+     * Iterates through a single turn by receiving the current player's action
+     * and then acting on that.
+     * @return The result of the action. (e.g. MOVED or FULL_COLUMN)
      */
-    public void takeTurn() {
-        String action;
+    public byte takeTurn() {
+        Action action;
 
         Player currentPlayer = this.getCurrentPlayer();
+        // The next player can think while the current one decides
+        ai.startPondering(players[(playerPointer + 1) % this.getNumberOfPlayers()]);
         if (currentPlayer.getPlayerType() == Player.HUMAN) {
             action = client.requestUserAction();
         } else {
             action = ai.decideAction(currentPlayer);
         }
 
-        this.parseAction(action);
+        return this.takeAction(action);
     }
 
 }
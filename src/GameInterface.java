@@ -37,10 +37,10 @@ public abstract class GameInterface {
     public abstract void displayBoard();
 
     /**
-     * Requests user input and returns that in the form of a String.
-     * @return The user's action as a String.
+     * Requests user input and returns the action it stands for.
+     * @return The user's action.
      */
-    public abstract String requestUserAction();
+    public abstract Action requestUserAction();
 
     /**
      * Requests a list of players from the user and returns that
@@ -0,0 +1,483 @@
+import java.util.Arrays;
+
+/**
+ * Describes a 2D GameBoard of Tokens through one multi-word bitboard (an
+ * array of longs) per player. Unlike {@link BitBoard}, this can represent a
+ * board of any size allowed by the GameBoard constructor.<br>
+ * The bits are laid out exactly like a BitBoard's: each column is given
+ * height + 1 consecutive bits, the last of which is an empty separator, and
+ * bit i of the board is bit (i % 64) of word (i / 64).<br>
+ * Sequences through a cell are found by copying the bits that could be part
+ * of the sequence into a small window, and then using the same
+ * shift-and-mask operations as a BitBoard. The shifts are done a whole word
+ * at a time, carrying bits across word boundaries.
+ * @author Eli W. Hunter
+ */
+public class LargeBitBoard extends GameBoard {
+
+    /** The number of bits in each word of a bitboard. */
+    private static final int WORD_SIZE = Long.SIZE;
+    /** log2(WORD_SIZE), used to find the word of a bit. */
+    private static final int WORD_SHIFT = 6;
+    /** WORD_SIZE - 1, used to find the position of a bit within its word. */
+    private static final int WORD_MASK = WORD_SIZE - 1;
+    /** The number of players that bitboards are initially allocated for. */
+    private static final int INITIAL_PLAYER_CAPACITY = 2;
+
+    /**
+     * The number of bits between the same row of adjacent columns. This is
+     * one more than the height because of the empty separator bit.
+     */
+    private final int columnStride;
+    /** The total number of bits used by each bitboard. */
+    private final int numberOfBits;
+    /** The number of words in each bitboard. */
+    private final int numberOfWords;
+    /** The bitboard of every player, indexed by the order they were seen in. */
+    private long[][] playerBoards;
+    /**
+     * A token for every player with a bitboard. These are the tokens returned
+     * by {@link #getToken(int, int)}.
+     */
+    private Token[] playerTokens;
+    /** The number of players that have been given a bitboard. */
+    private int numberOfPlayers;
+    /** The bitboard of every occupied cell, regardless of its owner. */
+    private long[] occupied;
+    /** The number of tokens in each column. */
+    private int[] heights;
+
+    // Scratch space for sequence checks, which is grown as needed and reused
+    // to avoid allocating on every check.
+    /** The bits around the cell being checked. */
+    private long[] window = new long[0];
+    /** The bits which begin a sequence within the window. */
+    private long[] starts = new long[0];
+    /** The bits which are a member of a sequence within the window. */
+    private long[] members = new long[0];
+    /** A shifted copy of either starts or members. */
+    private long[] shifted = new long[0];
+
+    /**
+     * Generates a LargeBitBoard object with the given width, height, and
+     * number of tokens to connect.
+     * @param width The width of the board. (i.e. The number of columns.)
+     * @param height The height of the board. (i.e. The max number of tokens
+     *     in each column).
+     * @param tokensToConnect The number of tokens that must be connected for
+     *     the board to be considered won.
+     * @throws IllegalArgumentException When the specified height or width is
+     *     less than the number of tokens to connect.
+     */
+    public LargeBitBoard(int width, int height, int tokensToConnect) {
+        super(width, height, tokensToConnect, false);
+
+        this.columnStride = height + 1;
+        this.numberOfBits = width * columnStride;
+        this.numberOfWords = (numberOfBits + WORD_MASK) >>> WORD_SHIFT;
+        this.playerBoards = new long[INITIAL_PLAYER_CAPACITY][];
+        this.playerTokens = new Token[INITIAL_PLAYER_CAPACITY];
+        this.occupied = new long[numberOfWords];
+        this.heights = new int[width];
+        this.empty();
+    }
+
+    /**
+     * Finds and returns a snapshot of the Column at the specified column. The
+     * returned Column is not backed by this board, so changes to either are not
+     * reflected in the other.
+     * @param col The index of the desired Column.
+     * @return A copy of the Column at the specifed index.
+     * @throws IllegalArgumentException When the specified index is not valid.
+     */
+    @Override
+    public Column getColumn(int col) {
+        checkColumn(col);
+
+        Column column = new Column(getHeight());
+        for (int row = 0; row < heights[col]; row++) {
+            column.addToken(getToken(row, col));
+        }
+        return column;
+    }
+
+    @Override
+    public int getNextRow(int col) {
+        checkColumn(col);
+        return heights[col];
+    }
+
+    @Override
+    public boolean isColumnFull(int col) {
+        checkColumn(col);
+        return heights[col] >= getHeight();
+    }
+
+    @Override
+    public Token getToken(int row, int col) {
+        checkColumn(col);
+        if (row < 0 || row >= getHeight()) {
+            throw new IllegalArgumentException(Column.INVALID_ROW_ERROR_MESSAGE);
+        }
+
+        int player = playerAt(bitIndex(row, col));
+        return player < 0 ? Token.EMPTY : playerTokens[player];
+    }
+
+    @Override
+    public int getOwnerIndex(int row, int col) {
+        return getToken(row, col).getOwnerIndex();
+    }
+
+    @Override
+    public boolean addToken(Token token, int col) {
+        checkColumn(col);
+        if (token.equals(Token.EMPTY)) {
+            throw new IllegalArgumentException(BitBoard.EMPTY_TOKEN_ERROR_MESSAGE);
+        }
+        if (heights[col] >= getHeight()) {
+            throw new IllegalArgumentException(Column.FULL_COLUMN_ERROR_MESSAGE);
+        }
+
+        int player = playerIndexOf(token);
+        int index = bitIndex(heights[col], col);
+        setBit(playerBoards[player], index);
+        setBit(occupied, index);
+        toggleHash(heights[col], col, playerTokens[player].getOwnerIndex());
+        heights[col]++;
+        numberOfTokens++;
+        if (heights[col] == getHeight()) {
+            fillColumn(col);
+        }
+
+        return hasAnySequence(playerBoards[player], index, getTokensToConnect());
+    }
+
+    @Override
+    public void removeToken(int col) {
+        checkColumn(col);
+        if (heights[col] <= 0) {
+            throw new IllegalArgumentException(BitBoard.EMPTY_COLUMN_ERROR_MESSAGE);
+        }
+
+        if (heights[col] == getHeight()) {
+            unfillColumn(col);
+        }
+        heights[col]--;
+        int index = bitIndex(heights[col], col);
+        toggleHash(heights[col], col, getOwnerIndex(heights[col], col));
+        for (int player = 0; player < numberOfPlayers; player++) {
+            clearBit(playerBoards[player], index);
+        }
+        clearBit(occupied, index);
+        numberOfTokens--;
+    }
+
+    @Override
+    public void empty() {
+        for (int player = 0; player < numberOfPlayers; player++) {
+            Arrays.fill(playerBoards[player], 0L);
+        }
+        Arrays.fill(occupied, 0L);
+        Arrays.fill(heights, 0);
+        numberOfTokens = 0;
+        resetHash();
+        resetLegalMoves();
+    }
+
+    @Override
+    protected GameBoard createEmptyBoard() {
+        return new LargeBitBoard(getWidth(), getHeight(), getTokensToConnect());
+    }
+
+    @Override
+    public boolean isWinningPosition(int row, int col) {
+        return hasSequence(row, col, getTokensToConnect());
+    }
+
+    @Override
+    public boolean hasSequence(int row, int col, int length) {
+        if (length < MIN_SEQUENCE_LENGTH) {
+            throw new IllegalArgumentException(INVALID_LENGTH_ERROR_MESSAGE);
+        }
+        // getToken() does the bounds checking
+        if (getToken(row, col).equals(Token.EMPTY)) {
+            return false;
+        }
+
+        int index = bitIndex(row, col);
+        return hasAnySequence(playerBoards[playerAt(index)], index, length);
+    }
+
+    /**
+     * Checks if the given row and column is part of the the specified
+     * arbitrary sequence. Sequences between adjacent cells (i.e. where both
+     * step sizes are -1, 0, or 1) are checked with shift-and-mask operations.
+     * All others fall back to {@link GameBoard#checkSequence(int, int, int,
+     * int, int)}.
+     * @param anchorRow The center row of the sequence.
+     * @param anchorCol The center column of the sequence.
+     * @param rowStepSize The difference in row values between each adjacent
+     *     cell in the sequence.
+     * @param colStepSize The difference in column values between each
+     *     adjacent cell in the sequence.
+     * @param numberOfTokens The number of tokens to be checked.
+     * @return True if the anchor row and anchor column are part of a winning
+     *     sequence in the specified sequence.  False otherwise.
+     */
+    @Override
+    public boolean checkSequence(int anchorRow, int anchorCol, int rowStepSize, int colStepSize, int numberOfTokens) {
+        boolean isAdjacentStep = Math.abs(rowStepSize) <= 1 && Math.abs(colStepSize) <= 1
+                                 && (rowStepSize != 0 || colStepSize != 0);
+        if (!isAdjacentStep) {
+            return super.checkSequence(anchorRow, anchorCol, rowStepSize, colStepSize, numberOfTokens);
+        }
+
+        if (getToken(anchorRow, anchorCol).equals(Token.EMPTY)) {
+            return false;
+        }
+
+        int index = bitIndex(anchorRow, anchorCol);
+        // A sequence is the same forwards and backwards, so only the size of the
+        // shift matters
+        int shift = Math.abs(colStepSize * columnStride + rowStepSize);
+        return hasSequence(playerBoards[playerAt(index)], index, shift, numberOfTokens);
+    }
+
+    /**
+     * Checks whether the given bit is part of a sequence of the given length
+     * in any of the four directions.
+     * @param board The bitboard being checked.
+     * @param index The index of the bit that must be part of the sequence.
+     * @param length The length of the sequence.
+     * @return True if the bit is part of a sequence of the given length.
+     */
+    private boolean hasAnySequence(long[] board, int index, int length) {
+        return hasSequence(board, index, 1, length)                    // vertical
+               || hasSequence(board, index, columnStride, length)     // horizontal
+               || hasSequence(board, index, columnStride + 1, length) // positive diagonal
+               || hasSequence(board, index, columnStride - 1, length); // negative diagonal
+    }
+
+    /**
+     * Checks whether the given bit is part of a sequence of set bits, each
+     * separated by the given shift.<br>
+     * Only the bits within (length - 1) shifts of the given bit can be part
+     * of such a sequence, so those are copied into a window first. The window
+     * is then checked the same way as {@link BitBoard}, by and-ing it with
+     * shifted copies of itself to find the bits which begin a sequence, and
+     * spreading those back over the length of the sequence.
+     * @param board The bitboard being checked.
+     * @param index The index of the bit that must be part of the sequence.
+     * @param shift The distance between adjacent bits in the sequence.
+     * @param length The length of the sequence.
+     * @return True if the bit is part of such a sequence.
+     */
+    private boolean hasSequence(long[] board, int index, int shift, int length) {
+        long span = (long) (length - 1) * shift;
+        int low = (int) Math.max(0, index - span);
+        int high = (int) Math.min(numberOfBits - 1, index + span);
+        int bits = high - low + 1;
+        int words = (bits + WORD_MASK) >>> WORD_SHIFT;
+        ensureScratchCapacity(words);
+
+        extractBits(board, low, bits, window);
+        System.arraycopy(window, 0, starts, 0, words);
+        for (int covered = 1; covered < length; ) {
+            int step = Math.min(covered, length - covered);
+            shiftRight(starts, words, step * shift, shifted);
+            if (!and(starts, shifted, words)) {
+                return false; // no sequences begin anywhere in the window
+            }
+            covered += step;
+        }
+
+        System.arraycopy(starts, 0, members, 0, words);
+        for (int covered = 1; covered < length; ) {
+            int step = Math.min(covered, length - covered);
+            shiftLeft(members, words, step * shift, shifted);
+            or(members, shifted, words);
+            covered += step;
+        }
+
+        return testBit(members, index - low);
+    }
+
+    /**
+     * Grows the scratch arrays so they can hold the given number of words.
+     * @param words The number of words needed.
+     */
+    private void ensureScratchCapacity(int words) {
+        if (window.length < words) {
+            window = new long[words];
+            starts = new long[words];
+            members = new long[words];
+            shifted = new long[words];
+        }
+    }
+
+    /**
+     * Copies a range of bits from the board into the start of the destination,
+     * clearing any bits after the range in the last word.
+     * @param board The bitboard to copy from.
+     * @param from The index of the first bit to copy.
+     * @param bits The number of bits to copy.
+     * @param dest The array the bits are copied into.
+     */
+    private void extractBits(long[] board, int from, int bits, long[] dest) {
+        int words = (bits + WORD_MASK) >>> WORD_SHIFT;
+        int wordOffset = from >>> WORD_SHIFT;
+        int bitOffset = from & WORD_MASK;
+        for (int i = 0; i < words; i++) {
+            int source = wordOffset + i;
+            long word = board[source] >>> bitOffset;
+            if (bitOffset != 0 && source + 1 < numberOfWords) {
+                word |= board[source + 1] << (WORD_SIZE - bitOffset);
+            }
+            dest[i] = word;
+        }
+        int remainingBits = bits & WORD_MASK;
+        if (remainingBits != 0) {
+            dest[words - 1] &= (1L << remainingBits) - 1;
+        }
+    }
+
+    /**
+     * Shifts a multi-word bitboard towards its least significant bit.
+     * @param source The bitboard being shifted.
+     * @param words The number of words in the bitboard.
+     * @param distance The number of bits to shift by.
+     * @param dest The array the shifted bitboard is written to.
+     */
+    private static void shiftRight(long[] source, int words, int distance, long[] dest) {
+        int wordShift = distance >>> WORD_SHIFT;
+        int bitShift = distance & WORD_MASK;
+        for (int i = 0; i < words; i++) {
+            int from = i + wordShift;
+            long word = from < words ? source[from] >>> bitShift : 0L;
+            if (bitShift != 0 && from + 1 < words) {
+                word |= source[from + 1] << (WORD_SIZE - bitShift);
+            }
+            dest[i] = word;
+        }
+    }
+
+    /**
+     * Shifts a multi-word bitboard towards its most significant bit. Bits
+     * shifted past the last word are discarded.
+     * @param source The bitboard being shifted.
+     * @param words The number of words in the bitboard.
+     * @param distance The number of bits to shift by.
+     * @param dest The array the shifted bitboard is written to.
+     */
+    private static void shiftLeft(long[] source, int words, int distance, long[] dest) {
+        int wordShift = distance >>> WORD_SHIFT;
+        int bitShift = distance & WORD_MASK;
+        for (int i = 0; i < words; i++) {
+            int from = i - wordShift;
+            long word = from >= 0 ? source[from] << bitShift : 0L;
+            if (bitShift != 0 && from - 1 >= 0) {
+                word |= source[from - 1] >>> (WORD_SIZE - bitShift);
+            }
+            dest[i] = word;
+        }
+    }
+
+    /**
+     * Ands the second bitboard into the first.
+     * @return True if any bits are still set in the first bitboard.
+     */
+    private static boolean and(long[] target, long[] other, int words) {
+        long any = 0L;
+        for (int i = 0; i < words; i++) {
+            target[i] &= other[i];
+            any |= target[i];
+        }
+        return any != 0L;
+    }
+
+    /**
+     * Ors the second bitboard into the first.
+     */
+    private static void or(long[] target, long[] other, int words) {
+        for (int i = 0; i < words; i++) {
+            target[i] |= other[i];
+        }
+    }
+
+    /** Determines whether the given bit is set in the bitboard. */
+    private static boolean testBit(long[] board, int index) {
+        return (board[index >>> WORD_SHIFT] >>> (index & WORD_MASK) & 1L) != 0;
+    }
+
+    /** Sets the given bit in the bitboard. */
+    private static void setBit(long[] board, int index) {
+        board[index >>> WORD_SHIFT] |= 1L << (index & WORD_MASK);
+    }
+
+    /** Clears the given bit in the bitboard. */
+    private static void clearBit(long[] board, int index) {
+        board[index >>> WORD_SHIFT] &= ~(1L << (index & WORD_MASK));
+    }
+
+    /**
+     * Finds the index of the bit for the given row and column.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return The index of the bit representing the cell.
+     */
+    private int bitIndex(int row, int col) {
+        return col * columnStride + row;
+    }
+
+    /**
+     * Finds which player owns the given bit.
+     * @param index The index of the bit.
+     * @return The index of the player's bitboard, or -1 when the bit is empty.
+     */
+    private int playerAt(int index) {
+        if (!testBit(occupied, index)) {
+            return -1;
+        }
+        for (int player = 0; player < numberOfPlayers; player++) {
+            if (testBit(playerBoards[player], index)) {
+                return player;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the index of the bitboard belonging to the given token's owner,
+     * giving them a new bitboard if they do not have one yet.
+     * @param token A token owned by the player.
+     * @return The index of the player's bitboard.
+     */
+    private int playerIndexOf(Token token) {
+        for (int player = 0; player < numberOfPlayers; player++) {
+            if (playerTokens[player].equals(token)) {
+                return player;
+            }
+        }
+
+        if (numberOfPlayers == playerBoards.length) {
+            playerBoards = Arrays.copyOf(playerBoards, numberOfPlayers * 2);
+            playerTokens = Arrays.copyOf(playerTokens, numberOfPlayers * 2);
+        }
+        playerBoards[numberOfPlayers] = new long[numberOfWords];
+        playerTokens[numberOfPlayers] = token;
+        return numberOfPlayers++;
+    }
+
+    /**
+     * Throws an error if the given column is not a valid index.
+     * @param col The column index being checked.
+     * @throws IllegalArgumentException When the column is not a valid index.
+     */
+    private void checkColumn(int col) {
+        if (col < 0 || col >= getWidth()) {
+            throw new IllegalArgumentException(INVALID_COL_ERROR_MESSAGE);
+        }
+    }
+
+}
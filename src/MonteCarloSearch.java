@@ -0,0 +1,557 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A Monte Carlo tree search (UCT) for any number of players and any size of
+ * board.<br>
+ * Each playout walks down the tree, choosing the child with the best upper
+ * confidence bound for the player to move, adds a child when it reaches the
+ * edge of the tree, and then plays random moves until the game ends. The
+ * result is added to the reward vector of every node on the path, which holds
+ * one total per player, so every player is assumed to play for themselves.
+ * <br>
+ * The tree is stored in a pool of primitive arrays, indexed by node, and no
+ * objects are created during playouts. Several threads can play out at once:
+ * they share the tree under a lock, and each plays its moves on its own copy
+ * of the game board. Threads add a virtual loss to every node on their path
+ * until their playout is finished, so the others are steered elsewhere.
+ * @author Eli W. Hunter
+ */
+public class MonteCarloSearch {
+
+    /** The default number of nodes the tree can hold. */
+    public static final int DEFAULT_NODE_CAPACITY = 1 << 18;
+    /** The default number of games played out for each move. */
+    public static final long DEFAULT_PLAYOUTS = 20_000;
+    /** The value of a time or playout budget which means there is no limit. */
+    public static final long NO_LIMIT = 0;
+    /** The smallest number of threads a search can use. */
+    public static final int MIN_THREADS = 1;
+    /** How much the upper confidence bound favours rarely played moves. */
+    public static final double EXPLORATION = Math.sqrt(2);
+
+    // ERROR MESSAGES
+    /** The error message displayed when the number of threads is too low. */
+    public static final String THREADS_ERROR_MESSAGE =
+        "A Monte Carlo search needs at least " + MIN_THREADS + " thread.";
+    /** The error message displayed when neither budget is limited. */
+    public static final String BUDGET_ERROR_MESSAGE =
+        "A Monte Carlo search needs a time or playout limit.";
+    /** The error message displayed when the node capacity is too low. */
+    public static final String CAPACITY_ERROR_MESSAGE =
+        "The tree must be able to hold the root and all of its children.";
+
+    /** The outcome of a node whose game isn't over yet. */
+    private static final byte UNDECIDED = 0;
+    /** The outcome of a node whose move won the game. */
+    private static final byte WON = 1;
+    /** The outcome of a node whose move filled the board. */
+    private static final byte DRAWN = 2;
+    /** The index of the root node. */
+    private static final int ROOT = 0;
+
+    /** The game board that is searched. */
+    private final GameBoard board;
+    /** The players of the game, in the order they take turns. */
+    private final Player[] players;
+    /** The token of each player. */
+    private final Token[] tokens;
+    /** The number of threads used, including the calling thread. */
+    private final int threads;
+    /** The threads that run the helper playouts, or null if there are none. */
+    private final ExecutorService helpers;
+    /** The generator that every thread's random generator is split from. */
+    private final SplittableRandom seedRandom;
+
+    // NODE POOL
+    /** The number of nodes the tree can hold. */
+    private final int capacity;
+    /** The parent of each node, or -1 for the root. */
+    private int[] parents;
+    /** The index of the first child of each node. Children are stored together. */
+    private int[] firstChildren;
+    /** The number of children of each node, which is 0 until it is expanded. */
+    private int[] childCounts;
+    /** The column played to reach each node. */
+    private int[] moves;
+    /** The number of finished playouts through each node. */
+    private int[] visits;
+    /** The number of unfinished playouts through each node. */
+    private int[] virtualLosses;
+    /** Whether each node's move won the game, drew it, or neither. */
+    private byte[] outcomes;
+    /** The total reward of each player over the playouts through each node, indexed by
+     * node * players.length + player. */
+    private double[] rewards;
+    /** The number of nodes in use. */
+    private int nodeCount;
+    /** The depth of the deepest node reached. */
+    private int treeDepth;
+    /** The lock which must be held to read or change the tree. */
+    private final Object treeLock = new Object();
+
+    /** The statistics of the last finished search. */
+    private SearchStatistics statistics;
+
+    /**
+     * Creates a single-threaded search of the given board between the given
+     * players, with a tree of the default capacity.
+     * @param board The game board to search.
+     * @param players The players of the game, in the order they take turns.
+     */
+    public MonteCarloSearch(GameBoard board, Player[] players) {
+        this(board, players, MIN_THREADS, DEFAULT_NODE_CAPACITY);
+    }
+
+    /**
+     * Creates a search of the given board between the given players.
+     * @param board The game board to search.
+     * @param players The players of the game, in the order they take turns.
+     * @param threads The number of threads to use, including the calling
+     *     thread.
+     * @param capacity The number of nodes the tree can hold. Once it is full,
+     *     playouts start from the edge of the tree.
+     * @throws IllegalArgumentException When the number of threads is too low,
+     *     or when the capacity can't hold the root and its children.
+     */
+    public MonteCarloSearch(GameBoard board, Player[] players, int threads, int capacity) {
+        this(board, players, threads, capacity, RandomService.split());
+    }
+
+    /**
+     * Creates a search of the given board between the given players, whose
+     * playouts are random from the given generator. A single-threaded search
+     * makes the same choices whenever it is given an equal generator.
+     * @param board The game board to search.
+     * @param players The players of the game, in the order they take turns.
+     * @param threads The number of threads to use, including the calling
+     *     thread.
+     * @param capacity The number of nodes the tree can hold. Once it is full,
+     *     playouts start from the edge of the tree.
+     * @param random The generator that every thread's random generator is
+     *     split from. It is kept by the search.
+     * @throws IllegalArgumentException When the number of threads is too low,
+     *     or when the capacity can't hold the root and its children.
+     */
+    public MonteCarloSearch(GameBoard board, Player[] players, int threads, int capacity, SplittableRandom random) {
+        if (threads < MIN_THREADS) {
+            throw new IllegalArgumentException(THREADS_ERROR_MESSAGE);
+        }
+        if (capacity <= board.getWidth()) {
+            throw new IllegalArgumentException(CAPACITY_ERROR_MESSAGE);
+        }
+
+        this.board = board;
+        this.players = players;
+        this.tokens = new Token[players.length];
+        for (int i = 0; i < players.length; i++) {
+            tokens[i] = Token.of(players[i]);
+        }
+        this.threads = threads;
+        this.capacity = capacity;
+        this.seedRandom = random;
+        if (threads > 1) {
+            this.helpers = Executors.newFixedThreadPool(threads - 1, runnable -> {
+                Thread thread = new Thread(runnable, "playout-helper");
+                thread.setDaemon(true); // never keep the game running
+                return thread;
+            });
+        } else {
+            this.helpers = null;
+        }
+    }
+
+    /**
+     * Accessor Method
+     * @return The number of threads used, including the calling thread.
+     */
+    public int getThreadCount() {
+        return threads;
+    }
+
+    /**
+     * Accessor Method
+     * @return The statistics of the last finished search, or null if there
+     *     has not been one. The nodes are the number of playouts, the depth is
+     *     that of the deepest node of the tree, and the score is the chosen
+     *     column's average reward for the player, in thousandths.
+     */
+    public SearchStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Plays out random games until the budget runs out, and then chooses the
+     * column which was played out the most.
+     * @param player The player whose move it is.
+     * @param timeLimitNanos How long the search may take, in nanoseconds, or
+     *     {@value #NO_LIMIT} for no limit.
+     * @param playoutLimit How many games may be played out, or {@value
+     *     #NO_LIMIT} for no limit.
+     * @return The best column for the player.
+     * @throws IllegalArgumentException When the player isn't playing, when
+     *     neither budget is limited, or when there are no legal moves.
+     */
+    public int search(Player player, long timeLimitNanos, long playoutLimit) {
+        if (timeLimitNanos == NO_LIMIT && playoutLimit == NO_LIMIT) {
+            throw new IllegalArgumentException(BUDGET_ERROR_MESSAGE);
+        }
+        int rootPlayer = indexOf(player);
+
+        long start = System.nanoTime();
+        long deadline = (timeLimitNanos == NO_LIMIT) ? Long.MAX_VALUE : start + timeLimitNanos;
+        long maxPlayouts = (playoutLimit == NO_LIMIT) ? Long.MAX_VALUE : playoutLimit;
+        AtomicLong playouts = new AtomicLong();
+
+        resetTree();
+        if (!expand(ROOT, board)) {
+            throw new IllegalArgumentException(NegamaxSearch.NO_MOVES_ERROR_MESSAGE);
+        }
+
+        // Every thread gets its own board and random generator
+        List<Future<?>> results = new ArrayList<Future<?>>();
+        for (int i = 1; i < threads; i++) {
+            Worker worker = new Worker(board.copy(), rootPlayer, seedRandom.split());
+            results.add(helpers.submit(() -> worker.run(playouts, maxPlayouts, deadline)));
+        }
+        Worker main = new Worker(board.copy(), rootPlayer, seedRandom.split());
+        try {
+            main.run(playouts, maxPlayouts, deadline);
+        } finally {
+            waitFor(results);
+        }
+
+        int bestChild = mostVisitedChild(ROOT);
+        int score = 0;
+        if (visits[bestChild] > 0) {
+            score = (int) Math.round(1000 * rewards[bestChild * players.length + rootPlayer] / visits[bestChild]);
+        }
+        long finishedPlayouts = Math.min(playouts.get(), maxPlayouts);
+        statistics = new SearchStatistics(moves[bestChild], score, treeDepth, finishedPlayouts,
+                System.nanoTime() - start);
+        return moves[bestChild];
+    }
+
+    /**
+     * Stops the helper threads. The search can't be used afterwards. Helper
+     * threads never keep the program running, so this is only needed to free
+     * them early.
+     */
+    public void shutdown() {
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+    }
+
+    /**
+     * Empties the tree, leaving only the root. The node pool is created the
+     * first time it is needed, so unused searches take no memory.
+     */
+    private void resetTree() {
+        if (parents == null) {
+            parents = new int[capacity];
+            firstChildren = new int[capacity];
+            childCounts = new int[capacity];
+            moves = new int[capacity];
+            visits = new int[capacity];
+            virtualLosses = new int[capacity];
+            outcomes = new byte[capacity];
+            rewards = new double[capacity * players.length];
+        }
+        nodeCount = 0;
+        treeDepth = 0;
+        newNode(-1, -1);
+    }
+
+    /**
+     * Adds a node to the pool.
+     * @param parent The parent of the node.
+     * @param move The column played to reach the node.
+     * @return The index of the node.
+     */
+    private int newNode(int parent, int move) {
+        int node = nodeCount++;
+        parents[node] = parent;
+        firstChildren[node] = 0;
+        childCounts[node] = 0;
+        moves[node] = move;
+        visits[node] = 0;
+        virtualLosses[node] = 0;
+        outcomes[node] = UNDECIDED;
+        for (int i = node * players.length; i < (node + 1) * players.length; i++) {
+            rewards[i] = 0;
+        }
+        return node;
+    }
+
+    /**
+     * Adds a child to a node for every column which isn't full. The tree
+     * lock must be held, unless no other thread is using the tree.
+     * @param node The node being expanded.
+     * @param position A board holding the position of the node.
+     * @return True if the node now has children. False if the pool is full or
+     *     there are no moves.
+     */
+    private boolean expand(int node, GameBoard position) {
+        if (nodeCount + position.getWidth() > capacity) {
+            return false;
+        }
+        int first = nodeCount;
+        for (int col = 0; col < position.getWidth(); col++) {
+            if (!position.isColumnFull(col)) {
+                newNode(node, col);
+            }
+        }
+        firstChildren[node] = first;
+        childCounts[node] = nodeCount - first;
+        return childCounts[node] > 0;
+    }
+
+    /**
+     * Chooses the child of a node with the best upper confidence bound for
+     * the player to move. Unfinished playouts count as losses. The tree lock
+     * must be held.
+     * @param node The node whose child is chosen.
+     * @param player The index of the player to move at the node.
+     * @return The chosen child.
+     */
+    private int selectChild(int node, int player) {
+        double logVisits = Math.log(Math.max(1, visits[node] + virtualLosses[node]));
+        int best = -1;
+        double bestBound = Double.NEGATIVE_INFINITY;
+        int end = firstChildren[node] + childCounts[node];
+        for (int child = firstChildren[node]; child < end; child++) {
+            int childVisits = visits[child] + virtualLosses[child];
+            if (childVisits == 0) {
+                return child; // every move is tried once first
+            }
+            double bound = rewards[child * players.length + player] / childVisits
+                + EXPLORATION * Math.sqrt(logVisits / childVisits);
+            if (bound > bestBound) {
+                bestBound = bound;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Finds the child of a node with the most finished playouts.
+     * @param node The node whose child is found.
+     * @return The most visited child.
+     */
+    private int mostVisitedChild(int node) {
+        int best = firstChildren[node];
+        int end = firstChildren[node] + childCounts[node];
+        for (int child = best + 1; child < end; child++) {
+            if (visits[child] > visits[best]) {
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Finds the index of the given player in the players of this search.
+     * @param player The player being found.
+     * @return The index of the player.
+     * @throws IllegalArgumentException When the player is not part of this
+     *     search.
+     */
+    private int indexOf(Player player) {
+        for (int i = 0; i < players.length; i++) {
+            if (players[i].equals(player)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException(NegamaxSearch.UNKNOWN_PLAYER_ERROR_MESSAGE);
+    }
+
+    /**
+     * Waits for every helper to finish its playouts.
+     * @param results The results of the helpers.
+     */
+    private static void waitFor(List<Future<?>> results) {
+        for (Future<?> result : results) {
+            try {
+                result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * The state of one thread of playouts: its own copy of the board, its own
+     * random generator, and reusable arrays for the moves it makes, so that
+     * playouts don't create any objects.
+     * @author Eli W. Hunter
+     */
+    private class Worker {
+
+        /** The thread's copy of the board, which holds the root position between playouts. */
+        private final GameBoard position;
+        /** The index of the player to move at the root. */
+        private final int rootPlayer;
+        /** The thread's random generator. */
+        private final SplittableRandom random;
+        /** The nodes of the current playout's path through the tree. */
+        private final int[] path;
+        /** The columns played in the current playout, in order. */
+        private final int[] playedColumns;
+        /** The reward of each player for the current playout. */
+        private final double[] reward;
+        /** The number of columns played in the current playout. */
+        private int moveCount;
+
+        /**
+         * Creates a worker for the given copy of the board.
+         * @param position The thread's copy of the board.
+         * @param rootPlayer The index of the player to move at the root.
+         * @param random The thread's random generator.
+         */
+        public Worker(GameBoard position, int rootPlayer, SplittableRandom random) {
+            this.position = position;
+            this.rootPlayer = rootPlayer;
+            this.random = random;
+            int emptyCells = position.getMaxNumberOfTokens() - position.getNumberOfTokens();
+            this.path = new int[emptyCells + 1];
+            this.playedColumns = new int[emptyCells];
+            this.reward = new double[players.length];
+        }
+
+        /**
+         * Plays out games until the budget runs out.
+         * @param playouts The number of playouts started by every thread.
+         * @param maxPlayouts The number of playouts that may be started.
+         * @param deadline The System.nanoTime() at which playouts must stop.
+         */
+        public void run(AtomicLong playouts, long maxPlayouts, long deadline) {
+            while (playouts.getAndIncrement() < maxPlayouts && System.nanoTime() < deadline) {
+                playOut();
+            }
+        }
+
+        /**
+         * Plays out a single game from the root, and adds its result to the
+         * tree.
+         */
+        private void playOut() {
+            int pathLength = 0;
+            moveCount = 0;
+            int player = rootPlayer;
+            int node = ROOT;
+            int winner = -1;
+            boolean finished = false;
+
+            synchronized (treeLock) {
+                path[pathLength++] = node;
+                virtualLosses[node]++;
+                while (true) {
+                    if (outcomes[node] != UNDECIDED) {
+                        finished = true;
+                        if (outcomes[node] == WON) {
+                            winner = previousPlayer(player);
+                        }
+                        break;
+                    }
+                    if (childCounts[node] == 0
+                            && ((node != ROOT && visits[node] == 0) || !expand(node, position))) {
+                        break; // this is the edge of the tree
+                    }
+
+                    node = selectChild(node, player);
+                    playedColumns[moveCount++] = moves[node];
+                    if (position.addToken(tokens[player], moves[node])) {
+                        outcomes[node] = WON;
+                    } else if (position.getNumberOfTokens() >= position.getMaxNumberOfTokens()) {
+                        outcomes[node] = DRAWN;
+                    }
+                    player = nextPlayer(player);
+                    path[pathLength++] = node;
+                    virtualLosses[node]++;
+                }
+                treeDepth = Math.max(treeDepth, pathLength - 1);
+            }
+
+            if (!finished) {
+                winner = rollOut(player);
+            }
+            for (int i = moveCount - 1; i >= 0; i--) {
+                position.removeToken(playedColumns[i]);
+            }
+
+            setReward(winner);
+            synchronized (treeLock) {
+                for (int i = 0; i < pathLength; i++) {
+                    int pathNode = path[i];
+                    virtualLosses[pathNode]--;
+                    visits[pathNode]++;
+                    int offset = pathNode * players.length;
+                    for (int p = 0; p < reward.length; p++) {
+                        rewards[offset + p] += reward[p];
+                    }
+                }
+            }
+        }
+
+        /**
+         * Plays random moves until the game ends, recording them after the
+         * moves already made in playedColumns.
+         * @param player The index of the player to move.
+         * @return The index of the winner, or -1 for a draw.
+         */
+        private int rollOut(int player) {
+            // The board keeps its legal moves, so each pick takes constant time
+            int col = position.getRandomLegalMove(random);
+            while (col != GameBoard.NO_LEGAL_MOVE) {
+                playedColumns[moveCount++] = col;
+                if (position.addToken(tokens[player], col)) {
+                    return player;
+                }
+                player = nextPlayer(player);
+                col = position.getRandomLegalMove(random);
+            }
+            return -1;
+        }
+
+        /**
+         * Fills in the reward of each player for a playout.
+         * @param winner The index of the winner, or -1 for a draw.
+         */
+        private void setReward(int winner) {
+            for (int p = 0; p < reward.length; p++) {
+                if (winner < 0) {
+                    reward[p] = 1.0 / reward.length;
+                } else {
+                    reward[p] = (p == winner) ? 1 : 0;
+                }
+            }
+        }
+
+        /**
+         * Finds the index of the player who moves after the given player.
+         */
+        private int nextPlayer(int player) {
+            return (player + 1) % players.length;
+        }
+
+        /**
+         * Finds the index of the player who moved before the given player.
+         */
+        private int previousPlayer(int player) {
+            return (player + players.length - 1) % players.length;
+        }
+
+    }
+
+}
@@ -0,0 +1,279 @@
+import java.util.Arrays;
+
+/**
+ * Decides the order a search tries the moves of a position in, so that the
+ * best move tends to be searched first and the rest can be cut off.<br>
+ * Four heuristics are combined, from strongest to weakest:
+ * <ul>
+ * <li>{@link #TABLE_MOVE}: the best move of the position from the
+ *     transposition table is tried first.</li>
+ * <li>{@link #KILLERS}: the last {@value #KILLERS_PER_PLY} moves which caused
+ *     a cutoff at the same ply are tried next, since sibling positions are
+ *     often refuted by the same move.</li>
+ * <li>{@link #HISTORY}: the remaining moves are sorted by how much they have
+ *     caused cutoffs anywhere in the search, counted per player and cell.</li>
+ * <li>{@link #CENTRE}: ties are broken from the centre column outwards, since
+ *     central tokens are part of the most lines.</li>
+ * </ul>
+ * Each heuristic can be turned on or off to measure how much it helps, and the
+ * ordering counts how often the first move tried was the one to cause a
+ * cutoff.
+ * @author Eli W. Hunter
+ */
+public class MoveOrdering {
+
+    /** Defines the transposition table heuristic, as a bit of the heuristics flags. */
+    public static final int TABLE_MOVE = 1;
+    /** Defines the killer move heuristic, as a bit of the heuristics flags. */
+    public static final int KILLERS = 1 << 1;
+    /** Defines the history heuristic, as a bit of the heuristics flags. */
+    public static final int HISTORY = 1 << 2;
+    /** Defines the centre-first heuristic, as a bit of the heuristics flags. */
+    public static final int CENTRE = 1 << 3;
+    /** Every heuristic. */
+    public static final int ALL = TABLE_MOVE | KILLERS | HISTORY | CENTRE;
+    /** No heuristics, so moves are tried from left to right. */
+    public static final int NONE = 0;
+    /**
+     * The heuristics used unless others are set. The history heuristic is
+     * left out, since MoveOrderingBenchmark shows it adds nodes on top of the
+     * killer moves on standard boards.
+     */
+    public static final int DEFAULT_HEURISTICS = TABLE_MOVE | KILLERS | CENTRE;
+
+    /** The number of killer moves remembered at each ply. */
+    public static final int KILLERS_PER_PLY = 2;
+    /** The value used for a missing move. */
+    public static final int NO_MOVE = -1;
+
+    // ERROR MESSAGES
+    /** The error message displayed when the heuristics flags aren't recognized. */
+    public static final String HEURISTICS_ERROR_MESSAGE = "Invalid move ordering heuristics.";
+
+    /** The sort key of the table move, above every other move. */
+    private static final long TABLE_MOVE_KEY = Long.MAX_VALUE;
+    /** The sort key of the first killer move, above every move but the table move. */
+    private static final long FIRST_KILLER_KEY = Long.MAX_VALUE - 1;
+
+    /** The number of centre ranks for each column, which are measured in half columns. */
+    private static final int RANKS_PER_COLUMN = 2;
+
+    /** The width of the board. */
+    private final int width;
+    /** The height of the board. */
+    private final int height;
+    /** The rank of each column from the centre outwards, where 0 is the centre. */
+    private final int[] centreRanks;
+    /** The killer moves of each ply, most recent first. */
+    private final int[][] killers;
+    /** How much each move has caused cutoffs, indexed by (player * width + col) * height + row. */
+    private final long[] history;
+    /** The ordered moves of each ply. */
+    private final int[][] moves;
+    /** The sort keys of the ordered moves of each ply. */
+    private final long[][] keys;
+    /** The heuristics in use, as bit flags. */
+    private int heuristics;
+    /** The number of cutoffs since the counters were reset. */
+    private long cutoffs;
+    /** The number of cutoffs caused by the first move tried since the counters were reset. */
+    private long firstMoveCutoffs;
+
+    /**
+     * Creates a move ordering for searches of the given board, with the
+     * default heuristics.
+     * @param board The game board that is searched.
+     * @param numberOfPlayers The number of players of the game.
+     */
+    public MoveOrdering(GameBoard board, int numberOfPlayers) {
+        this.width = board.getWidth();
+        this.height = board.getHeight();
+        this.centreRanks = new int[width];
+        for (int col = 0; col < width; col++) {
+            // Measured in half columns, with the left column first among equals, as in Solver
+            int distance = Math.abs(2 * col - (width - 1));
+            centreRanks[col] = 2 * distance + (2 * col > width - 1 ? 1 : 0);
+        }
+        int plies = board.getMaxNumberOfTokens() + 1;
+        this.killers = new int[plies][KILLERS_PER_PLY];
+        this.history = new long[numberOfPlayers * width * height];
+        this.moves = new int[plies][width];
+        this.keys = new long[plies][width];
+        this.heuristics = DEFAULT_HEURISTICS;
+        clear();
+    }
+
+    /**
+     * Accessor Method
+     * @return The heuristics in use, as bit flags.
+     */
+    public int getHeuristics() {
+        return heuristics;
+    }
+
+    /**
+     * Mutator Method
+     * @param heuristics The heuristics to use, as bit flags. (e.g. KILLERS |
+     *     HISTORY)
+     * @throws IllegalArgumentException When the flags include unknown bits.
+     */
+    public void setHeuristics(int heuristics) {
+        if ((heuristics & ~ALL) != 0) {
+            throw new IllegalArgumentException(HEURISTICS_ERROR_MESSAGE);
+        }
+        this.heuristics = heuristics;
+    }
+
+    /**
+     * Accessor Method
+     * @return The number of cutoffs since the counters were reset.
+     */
+    public long getCutoffs() {
+        return cutoffs;
+    }
+
+    /**
+     * Accessor Method
+     * @return The number of cutoffs caused by the first move tried since the
+     *     counters were reset.
+     */
+    public long getFirstMoveCutoffs() {
+        return firstMoveCutoffs;
+    }
+
+    /**
+     * Finds how often the first move tried caused the cutoff. The closer to 1
+     * this is, the better the ordering.
+     * @return The fraction of cutoffs caused by the first move, or 0 if there
+     *     haven't been any cutoffs.
+     */
+    public double getFirstMoveCutoffRate() {
+        return cutoffs == 0 ? 0 : (double) firstMoveCutoffs / cutoffs;
+    }
+
+    /**
+     * Resets the cutoff counters.
+     */
+    public void resetCounters() {
+        cutoffs = 0;
+        firstMoveCutoffs = 0;
+    }
+
+    /**
+     * Forgets every killer move and the whole history.
+     */
+    public void clear() {
+        for (int[] plyKillers : killers) {
+            Arrays.fill(plyKillers, NO_MOVE);
+        }
+        Arrays.fill(history, 0);
+    }
+
+    /**
+     * Prepares for a new search. The killer moves are forgotten, since plies
+     * are counted from a new root, and the history is halved so that it
+     * favours what was learned recently.
+     */
+    public void startSearch() {
+        for (int[] plyKillers : killers) {
+            Arrays.fill(plyKillers, NO_MOVE);
+        }
+        for (int i = 0; i < history.length; i++) {
+            history[i] >>= 1;
+        }
+        resetCounters();
+    }
+
+    /**
+     * Orders the legal moves of the current position.
+     * @param board The game board that is searched.
+     * @param player The index of the player whose move it is.
+     * @param ply The number of moves made since the root of the search.
+     * @param tableMove The best move from the transposition table, or
+     *     {@value #NO_MOVE} if there isn't one.
+     * @return The number of legal moves, which are in getMoves(ply), best
+     *     first.
+     */
+    public int order(GameBoard board, int player, int ply, int tableMove) {
+        int[] plyMoves = moves[ply];
+        long[] plyKeys = keys[ply];
+        int count = 0;
+        for (int col = 0; col < width; col++) {
+            if (board.isColumnFull(col)) {
+                continue;
+            }
+            long key = keyOf(board, player, ply, col, tableMove);
+
+            // Insertion sort, best first, keeping the earlier move first among equals
+            int i = count++;
+            while (i > 0 && plyKeys[i - 1] < key) {
+                plyMoves[i] = plyMoves[i - 1];
+                plyKeys[i] = plyKeys[i - 1];
+                i--;
+            }
+            plyMoves[i] = col;
+            plyKeys[i] = key;
+        }
+        return count;
+    }
+
+    /**
+     * Accessor Method
+     * @param ply The number of moves made since the root of the search.
+     * @return The moves ordered by the last call to order() at the ply.
+     */
+    public int[] getMoves(int ply) {
+        return moves[ply];
+    }
+
+    /**
+     * Records that a move caused a cutoff, so that it is tried earlier in
+     * similar positions. This must be called before the move is unmade or
+     * after, but with the row it was played in.
+     * @param player The index of the player who made the move.
+     * @param ply The number of moves made since the root of the search.
+     * @param col The column of the move.
+     * @param row The row the move's token was placed in.
+     * @param depth The number of moves that were left to search, including
+     *     the move. Deeper cutoffs save more work, so they count for more.
+     * @param moveNumber How many moves were tried before this one.
+     */
+    public void recordCutoff(int player, int ply, int col, int row, int depth, int moveNumber) {
+        cutoffs++;
+        if (moveNumber == 0) {
+            firstMoveCutoffs++;
+        }
+
+        int[] plyKillers = killers[ply];
+        if (plyKillers[0] != col) {
+            System.arraycopy(plyKillers, 0, plyKillers, 1, KILLERS_PER_PLY - 1);
+            plyKillers[0] = col;
+        }
+        history[(player * width + col) * height + row] += (long) depth * depth;
+    }
+
+    /**
+     * Finds the sort key of a move, where higher keys are tried first.
+     */
+    private long keyOf(GameBoard board, int player, int ply, int col, int tableMove) {
+        if ((heuristics & TABLE_MOVE) != 0 && col == tableMove) {
+            return TABLE_MOVE_KEY;
+        }
+        if ((heuristics & KILLERS) != 0) {
+            for (int i = 0; i < KILLERS_PER_PLY; i++) {
+                if (killers[ply][i] == col) {
+                    return FIRST_KILLER_KEY - i;
+                }
+            }
+        }
+
+        long key = 0;
+        if ((heuristics & HISTORY) != 0) {
+            key = history[(player * width + col) * height + board.getNextRow(col)] * RANKS_PER_COLUMN * width;
+        }
+        // Break ties from the centre outwards, or else from the left
+        int rank = (heuristics & CENTRE) != 0 ? centreRanks[col] : col;
+        return key + RANKS_PER_COLUMN * width - 1 - rank;
+    }
+
+}
@@ -0,0 +1,72 @@
+/**
+ * Measures how much each move ordering heuristic cuts the number of nodes a
+ * NegamaxSearch needs to reach a fixed depth.<br>
+ * Usage: java MoveOrderingBenchmark [depth]<br>
+ * The same opening position of a standard 7 by 6 board is searched with no
+ * heuristics, and then with each heuristic added in turn, each time with a
+ * fresh search and transposition table. The last row uses every heuristic,
+ * not just the default ones. The node count, time, and rate of cutoffs on
+ * the first move tried are printed for each.
+ * @author Eli W. Hunter
+ */
+public class MoveOrderingBenchmark {
+
+    /** The width of the benchmark board. */
+    private static final int WIDTH = 7;
+    /** The height of the benchmark board. */
+    private static final int HEIGHT = 6;
+    /** The number of tokens to connect on the benchmark board. */
+    private static final int TOKENS_TO_CONNECT = 4;
+    /** The columns played before the search, alternating between players. */
+    private static final int[] OPENING = {3, 3, 2, 4};
+    /** The depth searched if none is given. */
+    private static final int DEFAULT_DEPTH = 10;
+    /** The heuristics searched with, each adding one to the last. */
+    private static final int[] HEURISTICS = {
+        MoveOrdering.NONE,
+        MoveOrdering.CENTRE,
+        MoveOrdering.CENTRE | MoveOrdering.TABLE_MOVE,
+        MoveOrdering.CENTRE | MoveOrdering.TABLE_MOVE | MoveOrdering.KILLERS,
+        MoveOrdering.ALL,
+    };
+    /** The names of the heuristics searched with. */
+    private static final String[] NAMES = {"none", "+centre", "+table move", "+killers", "+history"};
+
+    /**
+     * Runs the benchmark.
+     * @param args The depth, which is optional.
+     */
+    public static void main(String[] args) {
+        int depth = DEFAULT_DEPTH;
+        if (args.length > 0 && Utils.isInt(args[0])) {
+            depth = Integer.parseInt(args[0]);
+        }
+
+        Player[] players = {
+            new Player("First", Player.COMPETITIVE_AI),
+            new Player("Second", Player.COMPETITIVE_AI),
+        };
+        GameBoard board = CLI.createBoard(WIDTH, HEIGHT, TOKENS_TO_CONNECT, true);
+        for (int i = 0; i < OPENING.length; i++) {
+            board.addToken(Token.of(players[i % players.length]), OPENING[i]);
+        }
+        Player toMove = players[OPENING.length % players.length];
+
+        System.out.printf("Depth %d on a %dx%d board%n", depth, WIDTH, HEIGHT);
+        System.out.printf("%-12s %8s %14s %10s %12s %10s%n", "heuristics", "column", "nodes", "ms", "cutoffs",
+                "first cut");
+
+        for (int i = 0; i < HEURISTICS.length; i++) {
+            NegamaxSearch search = new NegamaxSearch(board, players);
+            search.getMoveOrdering().setHeuristics(HEURISTICS[i]);
+            search.search(toMove, depth);
+
+            SearchStatistics statistics = search.getStatistics();
+            MoveOrdering ordering = search.getMoveOrdering();
+            System.out.printf("%-12s %8d %14d %10.1f %12d %9.1f%%%n", NAMES[i], statistics.getBestColumn(),
+                    statistics.getNodes(), statistics.getElapsedNanos() / 1e6, ordering.getCutoffs(),
+                    100 * ordering.getFirstMoveCutoffRate());
+        }
+    }
+
+}
@@ -0,0 +1,487 @@
+/**
+ * A game tree search for games with any number of players, in one of two
+ * modes.<br>
+ * In {@link #MAX_N} mode, every position is scored with a vector holding one
+ * score per player, and every player is assumed to play for their own score.
+ * Scores are never negative and always add up to at most {@value #MAX_SUM},
+ * so a player who is already sure of a large enough score can stop searching
+ * once the player before them can't do any better (shallow pruning).<br>
+ * In {@link #PARANOID} mode, every other player is assumed to play against the
+ * searching player, so the game becomes a two-sided one and alpha-beta
+ * pruning applies.<br>
+ * Moves are made and unmade directly on the searched GameBoard, as in
+ * {@link NegamaxSearch}, and positions are scored with an {@link Evaluator}.
+ * Below the root, moves are tried in the order given by a
+ * {@link MoveOrdering}.
+ * @author Eli W. Hunter
+ */
+public class MultiPlayerSearch {
+
+    /** Defines the max^n search mode. The actual value doesn't matter as long as its
+     * consistent. */
+    public static final byte MAX_N = 0;
+    /** Defines the paranoid search mode. The actual value doesn't matter as long as its
+     * consistent. */
+    public static final byte PARANOID = 1;
+
+    /** The default number of moves to search ahead. */
+    public static final int DEFAULT_DEPTH = 4;
+    /** The largest total of the scores of every player in max^n mode. */
+    public static final int MAX_SUM = Evaluator.WIN_SCORE;
+
+    // ERROR MESSAGES
+    /** The error message displayed when the search mode isn't recognized. */
+    public static final String MODE_ERROR_MESSAGE = "Invalid search mode.";
+
+    /** A score higher than any position can have. */
+    private static final int INFINITY = Evaluator.WIN_SCORE + 1;
+    /** The number of nodes searched between checks of the search's budget. */
+    private static final long BUDGET_CHECK_INTERVAL = 1024;
+
+    /** The game board that is searched. */
+    private final GameBoard board;
+    /** The players of the game, in the order they take turns. */
+    private final Player[] players;
+    /** The token of each player. */
+    private final Token[] tokens;
+    /** The owner index of each player. */
+    private final int[] ownerIndexes;
+    /** The evaluator used to score positions at the end of the search. */
+    private final Evaluator evaluator;
+    /** The score of each player, filled in by the evaluator. */
+    private final int[] scores;
+    /** The order moves are tried in below the root. */
+    private final MoveOrdering ordering;
+    /** The search mode. (MAX_N or PARANOID) */
+    private byte mode;
+    /** The score vector of the best move at each ply, reused between searches. */
+    private int[][] vectors;
+    /** The index of the player the current search is for. */
+    private int rootPlayer;
+    /** The number of positions searched so far by the current search. */
+    private long nodes;
+    /** The statistics of the last finished search. */
+    private SearchStatistics statistics;
+
+    /** The score of the best move found by the last search of the root. */
+    private int rootScore;
+    /** Whether or not the current search can run out of budget. */
+    private boolean limited;
+    /** The System.nanoTime() at which the current search runs out of time. */
+    private long deadline;
+    /** The number of nodes after which the current search runs out of budget. */
+    private long nodeLimit;
+    /** Whether or not the current search ran out of budget and was abandoned. */
+    private boolean aborted;
+
+    /**
+     * Creates a search of the given board between the given players.
+     * @param board The game board to search.
+     * @param players The players of the game, in the order they take turns.
+     * @param mode The search mode. (MAX_N or PARANOID)
+     * @throws IllegalArgumentException When the mode isn't recognized.
+     */
+    public MultiPlayerSearch(GameBoard board, Player[] players, byte mode) {
+        this.board = board;
+        this.players = players;
+        this.tokens = new Token[players.length];
+        this.ownerIndexes = new int[players.length];
+        for (int i = 0; i < players.length; i++) {
+            tokens[i] = Token.of(players[i]);
+            ownerIndexes[i] = tokens[i].getOwnerIndex();
+        }
+        this.evaluator = new Evaluator(board.getWidth(), board.getHeight(), board.getTokensToConnect());
+        this.scores = new int[players.length];
+        this.ordering = new MoveOrdering(board, players.length);
+        this.vectors = new int[0][];
+        setMode(mode);
+    }
+
+    /**
+     * Accessor Method
+     * @return The search mode. (MAX_N or PARANOID)
+     */
+    public byte getMode() {
+        return mode;
+    }
+
+    /**
+     * Accessor Method
+     * @return The move ordering used below the root, whose cutoff counters
+     *     cover the last search.
+     */
+    public MoveOrdering getMoveOrdering() {
+        return ordering;
+    }
+
+    /**
+     * Mutator Method
+     * @param mode The search mode. (MAX_N or PARANOID)
+     * @throws IllegalArgumentException When the mode isn't recognized.
+     */
+    public void setMode(byte mode) {
+        checkMode(mode);
+        this.mode = mode;
+    }
+
+    /**
+     * Checks that the given search mode is recognized.
+     * @param mode The search mode.
+     * @throws IllegalArgumentException When the mode isn't MAX_N or PARANOID.
+     */
+    public static void checkMode(byte mode) {
+        if (mode != MAX_N && mode != PARANOID) {
+            throw new IllegalArgumentException(MODE_ERROR_MESSAGE);
+        }
+    }
+
+    /**
+     * Accessor Method
+     * @return The statistics of the last finished search, or null if there
+     *     has not been one.
+     */
+    public SearchStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Searches the given number of moves ahead to find the best column for
+     * the given player to play.
+     * @param player The player whose move it is.
+     * @param depth The number of moves to search ahead.
+     * @return The best column for the player.
+     * @throws IllegalArgumentException When the player is not part of this
+     *     search, when the depth is out of range, or when there are no legal
+     *     moves.
+     */
+    public int search(Player player, int depth) {
+        return searchIteratively(player, depth, depth, NegamaxSearch.NO_LIMIT, NegamaxSearch.NO_LIMIT);
+    }
+
+    /**
+     * Searches one move ahead, then two, and so on, until the maximum depth is
+     * reached or the budget runs out, like
+     * NegamaxSearch.searchIteratively(Player, int, long, long).
+     * @param player The player whose move it is.
+     * @param maxDepth The largest number of moves to search ahead.
+     * @param timeLimitNanos How long the search may take, in nanoseconds, or
+     *     {@value NegamaxSearch#NO_LIMIT} for no limit.
+     * @param nodeLimit How many nodes the search may search, or {@value
+     *     NegamaxSearch#NO_LIMIT} for no limit.
+     * @return The best column for the player.
+     * @throws IllegalArgumentException When the player is not part of this
+     *     search, when the depth is out of range, or when there are no legal
+     *     moves.
+     */
+    public int searchIteratively(Player player, int maxDepth, long timeLimitNanos, long nodeLimit) {
+        return searchIteratively(player, NegamaxSearch.MIN_DEPTH, maxDepth, timeLimitNanos, nodeLimit);
+    }
+
+    /**
+     * Searches every depth from minDepth to maxDepth, keeping the best column
+     * of the deepest search that finished. The first depth always finishes.
+     */
+    private int searchIteratively(Player player, int minDepth, int maxDepth, long timeLimitNanos, long nodeLimit) {
+        NegamaxSearch.checkDepth(maxDepth);
+        rootPlayer = indexOf(player);
+
+        long start = System.nanoTime();
+        nodes = 0;
+        aborted = false;
+        ordering.startSearch();
+        this.deadline = (timeLimitNanos == NegamaxSearch.NO_LIMIT) ? Long.MAX_VALUE : start + timeLimitNanos;
+        this.nodeLimit = (nodeLimit == NegamaxSearch.NO_LIMIT) ? Long.MAX_VALUE : nodeLimit;
+        // Searching past the last empty cell can't find anything new
+        int emptyCells = board.getMaxNumberOfTokens() - board.getNumberOfTokens();
+        maxDepth = Math.min(maxDepth, Math.max(NegamaxSearch.MIN_DEPTH, emptyCells));
+        minDepth = Math.min(minDepth, maxDepth);
+        if (vectors.length < maxDepth + 2) {
+            vectors = new int[maxDepth + 2][players.length];
+        }
+
+        int bestColumn = -1;
+        int bestScore = 0;
+        int completedDepth = 0;
+        for (int depth = minDepth; depth <= maxDepth; depth++) {
+            limited = depth > minDepth;
+            int column = searchRoot(depth);
+            if (aborted) {
+                break;
+            }
+
+            bestColumn = column;
+            bestScore = rootScore;
+            completedDepth = depth;
+            if (Math.abs(bestScore) > Evaluator.MAX_HEURISTIC_SCORE || isOutOfBudget()) {
+                break; // the game is decided, or there's no time for more
+            }
+        }
+        limited = false;
+
+        statistics = new SearchStatistics(bestColumn, bestScore, completedDepth, nodes,
+                System.nanoTime() - start);
+        return bestColumn;
+    }
+
+    /**
+     * Searches the current position for the root player, storing the score
+     * of the best move in rootScore.
+     * @param depth The number of moves to search ahead.
+     * @return The best column, which is meaningless if the search was aborted.
+     * @throws IllegalArgumentException When there are no legal moves.
+     */
+    private int searchRoot(int depth) {
+        int bestColumn = -1;
+        int best = -INFINITY;
+        int alpha = -INFINITY;
+        for (int col = 0; col < board.getWidth(); col++) {
+            if (board.isColumnFull(col)) {
+                continue;
+            }
+
+            int score;
+            if (mode == MAX_N) {
+                scoreMaxN(rootPlayer, col, depth, 0, bestColumn < 0 ? -1 : best);
+                score = vectors[1][rootPlayer];
+            } else {
+                score = scoreParanoid(rootPlayer, col, depth, 0, alpha, INFINITY);
+                alpha = Math.max(alpha, score);
+            }
+            if (aborted) {
+                return bestColumn;
+            }
+            if (score > best) {
+                best = score;
+                bestColumn = col;
+            }
+        }
+        if (bestColumn < 0) {
+            throw new IllegalArgumentException(NegamaxSearch.NO_MOVES_ERROR_MESSAGE);
+        }
+
+        rootScore = best;
+        return bestColumn;
+    }
+
+    /**
+     * Finds the max^n score vector of the current position, and stores it in
+     * vectors[ply].
+     * @param player The index of the player whose move it is.
+     * @param depth The number of moves left to search.
+     * @param ply The number of moves made since the root of the search.
+     * @param bound The best score the previous player is already sure of, or
+     *     -1 if they aren't sure of anything yet.
+     */
+    private void maxN(int player, int depth, int ply, int bound) {
+        int[] result = vectors[ply];
+        if (depth == 0) {
+            evaluateVector(result);
+            return;
+        }
+
+        boolean moved = false;
+        int count = ordering.order(board, player, ply, MoveOrdering.NO_MOVE);
+        int[] moves = ordering.getMoves(ply);
+        for (int i = 0; i < count; i++) {
+            int col = moves[i];
+            scoreMaxN(player, col, depth, ply, moved ? result[player] : -1);
+            if (aborted) {
+                return;
+            }
+            int[] child = vectors[ply + 1];
+            if (!moved || child[player] > result[player]) {
+                System.arraycopy(child, 0, result, 0, result.length);
+                moved = true;
+            }
+            // The previous player can get at most MAX_SUM minus this player's score
+            if (bound >= 0 && result[player] >= MAX_SUM - bound) {
+                ordering.recordCutoff(player, ply, col, board.getNextRow(col), depth, i);
+                break;
+            }
+        }
+
+        if (!moved) {
+            fillDraw(result); // the board is full
+        }
+    }
+
+    /**
+     * Makes a move, stores the max^n score vector of the resulting position in
+     * vectors[ply + 1], and unmakes the move.
+     * @param player The index of the player making the move.
+     * @param col The column of the move.
+     * @param depth The number of moves left to search, including this one.
+     * @param ply The number of moves made since the root of the search.
+     * @param bound The best score the moving player is already sure of, or -1
+     *     if they aren't sure of anything yet.
+     */
+    private void scoreMaxN(int player, int col, int depth, int ply, int bound) {
+        if (countNode()) {
+            return;
+        }
+        int[] child = vectors[ply + 1];
+        if (board.addToken(tokens[player], col)) {
+            fillWin(child, player, ply + 1);
+        } else if (board.getNumberOfTokens() >= board.getMaxNumberOfTokens()) {
+            fillDraw(child);
+        } else {
+            maxN(nextPlayer(player), depth - 1, ply + 1, bound);
+        }
+        board.removeToken(col);
+    }
+
+    /**
+     * Finds the paranoid score of the current position for the root player.
+     * The root player maximizes it, and every other player minimizes it.
+     * @param player The index of the player whose move it is.
+     * @param depth The number of moves left to search.
+     * @param ply The number of moves made since the root of the search.
+     * @param alpha The score the root player is already guaranteed.
+     * @param beta The score the other players can already hold the root
+     *     player to.
+     * @return The score of the position for the root player.
+     */
+    private int paranoid(int player, int depth, int ply, int alpha, int beta) {
+        if (depth == 0) {
+            return evaluator.evaluate(board, ownerIndexes, rootPlayer);
+        }
+
+        boolean maximizing = player == rootPlayer;
+        int best = maximizing ? -INFINITY : INFINITY;
+        int count = ordering.order(board, player, ply, MoveOrdering.NO_MOVE);
+        int[] moves = ordering.getMoves(ply);
+        for (int i = 0; i < count; i++) {
+            int col = moves[i];
+            int score = scoreParanoid(player, col, depth, ply, alpha, beta);
+            if (aborted) {
+                return 0; // the result is thrown away
+            }
+            if (maximizing) {
+                best = Math.max(best, score);
+                alpha = Math.max(alpha, score);
+            } else {
+                best = Math.min(best, score);
+                beta = Math.min(beta, score);
+            }
+            if (alpha >= beta) {
+                ordering.recordCutoff(player, ply, col, board.getNextRow(col), depth, i);
+                break;
+            }
+        }
+
+        // No legal moves means the board is full
+        return Math.abs(best) == INFINITY ? 0 : best;
+    }
+
+    /**
+     * Makes a move, finds the paranoid score of the resulting position, and
+     * unmakes the move.
+     * @param player The index of the player making the move.
+     * @param col The column of the move.
+     * @param depth The number of moves left to search, including this one.
+     * @param ply The number of moves made since the root of the search.
+     * @param alpha The score the root player is already guaranteed.
+     * @param beta The score the other players can hold the root player to.
+     * @return The score of the move for the root player.
+     */
+    private int scoreParanoid(int player, int col, int depth, int ply, int alpha, int beta) {
+        if (countNode()) {
+            return 0;
+        }
+        int score;
+        if (board.addToken(tokens[player], col)) {
+            int win = Evaluator.WIN_SCORE - (ply + 1);
+            score = (player == rootPlayer) ? win : -win;
+        } else if (board.getNumberOfTokens() >= board.getMaxNumberOfTokens()) {
+            score = 0;
+        } else {
+            score = paranoid(nextPlayer(player), depth - 1, ply + 1, alpha, beta);
+        }
+        board.removeToken(col);
+        return score;
+    }
+
+    /**
+     * Scores the current position for every player, as their share of
+     * {@value Evaluator#MAX_HEURISTIC_SCORE} in proportion to the scores of
+     * their open lines.
+     * @param result The array the score of each player is written to.
+     */
+    private void evaluateVector(int[] result) {
+        evaluator.scoreLines(board, ownerIndexes, scores);
+        long total = 0;
+        for (int score : scores) {
+            total += score;
+        }
+        for (int p = 0; p < result.length; p++) {
+            result[p] = (total == 0) ? 0 : (int) ((long) Evaluator.MAX_HEURISTIC_SCORE * scores[p] / total);
+        }
+    }
+
+    /**
+     * Fills a score vector with a win for the given player.
+     * @param result The score vector.
+     * @param winner The index of the winner.
+     * @param ply The number of moves made since the root, so quicker wins
+     *     score higher.
+     */
+    private static void fillWin(int[] result, int winner, int ply) {
+        for (int p = 0; p < result.length; p++) {
+            result[p] = (p == winner) ? Evaluator.WIN_SCORE - ply : 0;
+        }
+    }
+
+    /**
+     * Fills a score vector with a draw.
+     * @param result The score vector.
+     */
+    private static void fillDraw(int[] result) {
+        for (int p = 0; p < result.length; p++) {
+            result[p] = 0;
+        }
+    }
+
+    /**
+     * Counts a node, and checks whether the search has run out of budget.
+     * @return True if the search was aborted.
+     */
+    private boolean countNode() {
+        nodes++;
+        if (limited && nodes % BUDGET_CHECK_INTERVAL == 0 && isOutOfBudget()) {
+            aborted = true;
+        }
+        return aborted;
+    }
+
+    /**
+     * Determines whether or not the current search has run out of budget.
+     * @return True if the search should stop.
+     */
+    private boolean isOutOfBudget() {
+        return nodes >= nodeLimit || System.nanoTime() >= deadline;
+    }
+
+    /**
+     * Finds the index of the player who moves after the given player.
+     */
+    private int nextPlayer(int player) {
+        return (player + 1) % players.length;
+    }
+
+    /**
+     * Finds the index of the given player in the players of this search.
+     * @param player The player being found.
+     * @return The index of the player.
+     * @throws IllegalArgumentException When the player is not part of this
+     *     search.
+     */
+    private int indexOf(Player player) {
+        for (int i = 0; i < players.length; i++) {
+            if (players[i].equals(player)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException(NegamaxSearch.UNKNOWN_PLAYER_ERROR_MESSAGE);
+    }
+
+}
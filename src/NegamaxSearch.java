@@ -0,0 +1,524 @@
+/**
+ * A two-player game tree search using negamax with alpha-beta pruning.<br>
+ * Moves are made and unmade directly on the searched GameBoard with
+ * addToken() and removeToken(), so the board is left exactly as it was found.
+ * Positions at the end of the search are scored by an {@link Evaluator}, and
+ * won positions are scored so that quicker wins are preferred.<br>
+ * Results are kept in a {@link TranspositionTable}, so positions reached
+ * through a different order of moves aren't searched again, and the best move
+ * of a position is searched first when it is seen again. Below the root, the
+ * other moves are ordered by a {@link MoveOrdering}.<br>
+ * A search can either go to a fixed depth, or deepen one move at a time
+ * until a time or node budget runs out, keeping the best move of the deepest
+ * search that finished.
+ * @author Eli W. Hunter
+ */
+public class NegamaxSearch {
+
+    /** The default number of moves to search ahead. */
+    public static final int DEFAULT_DEPTH = 6;
+    /** The minimum number of moves that can be searched ahead. */
+    public static final int MIN_DEPTH = 1;
+    /** The largest number of moves that can be searched ahead. */
+    public static final int MAX_DEPTH = TranspositionTable.MAX_DEPTH;
+    /** The value of a time or node budget which means there is no limit. */
+    public static final long NO_LIMIT = 0;
+    /** The number of players this search supports. */
+    public static final int NUMBER_OF_PLAYERS = 2;
+
+    // ERROR MESSAGES
+    /** The error message displayed when the number of players isn't supported. */
+    public static final String PLAYERS_ERROR_MESSAGE =
+        "A negamax search needs exactly " + NUMBER_OF_PLAYERS + " players.";
+    /** The error message displayed when the depth is out of range. */
+    public static final String DEPTH_ERROR_MESSAGE =
+        "The search depth must be between " + MIN_DEPTH + " and " + MAX_DEPTH + ".";
+    /** The error message displayed when there are no legal moves. */
+    public static final String NO_MOVES_ERROR_MESSAGE =
+        "There are no legal moves on the board.";
+    /** The error message displayed when the searching player isn't playing. */
+    public static final String UNKNOWN_PLAYER_ERROR_MESSAGE =
+        "The player is not part of this search.";
+
+    /** A score higher than any position can have. */
+    protected static final int INFINITY = Evaluator.WIN_SCORE + 1;
+    /**
+     * The key exclusive-ored into the hash of positions where the second
+     * player is to move. Empty cells are never hashed, so this key is never
+     * part of a board's hash.
+     */
+    protected static final long SECOND_PLAYER_KEY = ZobristKeys.generateKey(Token.EMPTY_INDEX, 0);
+    /** The number of nodes searched between checks of the search's budget. */
+    private static final long BUDGET_CHECK_INTERVAL = 1024;
+
+    /** The game board that is searched. */
+    protected final GameBoard board;
+    /** The players of the game, in the order they take turns. */
+    protected final Player[] players;
+    /** The token of each player. */
+    protected final Token[] tokens;
+    /** The owner index of each player. */
+    protected final int[] ownerIndexes;
+    /** The evaluator used to score positions at the end of the search. */
+    protected final Evaluator evaluator;
+    /** The table of results of positions that have been searched. */
+    protected final TranspositionTable table;
+    /** The order moves are tried in below the root. */
+    protected final MoveOrdering ordering;
+    /** The number of positions searched so far by the current search. */
+    protected long nodes;
+    /** The statistics of the last finished search. */
+    private SearchStatistics statistics;
+    /** The score of the best move found by the last search of the root. */
+    private int rootScore;
+    /** The column the root's moves are searched from, after the table's move. */
+    private int rootRotation;
+    /** Whether or not iterative searches always finish their first depth. */
+    private boolean finishesFirstDepth = true;
+    /** Whether or not the current search can run out of budget. */
+    private boolean limited;
+    /** The System.nanoTime() at which the current search runs out of time. */
+    private long deadline;
+    /** The number of nodes after which the current search runs out of budget. */
+    private long nodeLimit;
+    /** Whether or not the current search has been asked to stop. */
+    private volatile boolean stopRequested;
+    /** Whether or not the current search ran out of budget and was abandoned. */
+    protected boolean aborted;
+
+    /**
+     * Creates a search of the given board between the given players, with a
+     * transposition table of the default size.
+     * @param board The game board to search.
+     * @param players The two players of the game, in the order they take turns.
+     * @throws IllegalArgumentException When there are not exactly two players.
+     */
+    public NegamaxSearch(GameBoard board, Player[] players) {
+        this(board, players, new TranspositionTable());
+    }
+
+    /**
+     * Creates a search of the given board between the given players.
+     * @param board The game board to search.
+     * @param players The two players of the game, in the order they take turns.
+     * @param table The transposition table to keep results in.
+     * @throws IllegalArgumentException When there are not exactly two players.
+     */
+    public NegamaxSearch(GameBoard board, Player[] players, TranspositionTable table) {
+        if (players.length != NUMBER_OF_PLAYERS) {
+            throw new IllegalArgumentException(PLAYERS_ERROR_MESSAGE);
+        }
+
+        this.board = board;
+        this.players = players;
+        this.tokens = new Token[players.length];
+        this.ownerIndexes = new int[players.length];
+        for (int i = 0; i < players.length; i++) {
+            tokens[i] = Token.of(players[i]);
+            ownerIndexes[i] = tokens[i].getOwnerIndex();
+        }
+        this.evaluator = new Evaluator(board.getWidth(), board.getHeight(), board.getTokensToConnect());
+        this.table = table;
+        this.ordering = new MoveOrdering(board, players.length);
+    }
+
+    /**
+     * Accessor Method
+     * @return The transposition table the search keeps its results in.
+     */
+    public TranspositionTable getTranspositionTable() {
+        return table;
+    }
+
+    /**
+     * Accessor Method
+     * @return The move ordering used below the root, whose cutoff counters
+     *     cover the last search.
+     */
+    public MoveOrdering getMoveOrdering() {
+        return ordering;
+    }
+
+    /**
+     * Accessor Method
+     * @return The statistics of the last finished search, or null if there
+     *     has not been one.
+     */
+    public SearchStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Searches the given number of moves ahead to find the best column for
+     * the given player to play.
+     * @param player The player whose move it is.
+     * @param depth The number of moves to search ahead.
+     * @return The best column for the player.
+     * @throws IllegalArgumentException When the player is not part of this
+     *     search, when the depth is out of range, or when there are no legal
+     *     moves.
+     */
+    public int search(Player player, int depth) {
+        checkDepth(depth);
+        int playerIndex = indexOf(player);
+
+        long start = System.nanoTime();
+        nodes = 0;
+        limited = false;
+        aborted = false;
+        ordering.startSearch();
+
+        int bestColumn = searchRoot(playerIndex, depth);
+        statistics = new SearchStatistics(bestColumn, rootScore, depth, nodes, System.nanoTime() - start);
+        return bestColumn;
+    }
+
+    /**
+     * Searches one move ahead, then two, and so on, until the maximum depth is
+     * reached, the result is certain, or the budget runs out. A search that
+     * runs out of budget is abandoned, and the best column of the deepest
+     * finished search is returned. The first move ahead is always searched, so
+     * there is always a column to return.
+     * @param player The player whose move it is.
+     * @param maxDepth The largest number of moves to search ahead.
+     * @param timeLimitNanos How long the search may take, in nanoseconds, or
+     *     {@value #NO_LIMIT} for no limit.
+     * @param nodeLimit How many nodes the search may search, or {@value
+     *     #NO_LIMIT} for no limit.
+     * @return The best column for the player.
+     * @throws IllegalArgumentException When the player is not part of this
+     *     search, when the depth is out of range, or when there are no legal
+     *     moves.
+     */
+    public int searchIteratively(Player player, int maxDepth, long timeLimitNanos, long nodeLimit) {
+        return searchIteratively(player, MIN_DEPTH, maxDepth, timeLimitNanos, nodeLimit);
+    }
+
+    /**
+     * Searches like searchIteratively(Player, int, long, long), but starts
+     * from the given depth instead of one move ahead. The first depth is
+     * always searched, so there is always a column to return.
+     * @param player The player whose move it is.
+     * @param minDepth The first number of moves to search ahead.
+     * @param maxDepth The largest number of moves to search ahead.
+     * @param timeLimitNanos How long the search may take, in nanoseconds, or
+     *     {@value #NO_LIMIT} for no limit.
+     * @param nodeLimit How many nodes the search may search, or {@value
+     *     #NO_LIMIT} for no limit.
+     * @return The best column for the player.
+     * @throws IllegalArgumentException When the player is not part of this
+     *     search, when a depth is out of range, or when there are no legal
+     *     moves.
+     */
+    public int searchIteratively(Player player, int minDepth, int maxDepth, long timeLimitNanos, long nodeLimit) {
+        checkDepth(minDepth);
+        checkDepth(maxDepth);
+        int playerIndex = indexOf(player);
+
+        long start = System.nanoTime();
+        nodes = 0;
+        aborted = false;
+        ordering.startSearch();
+        this.deadline = (timeLimitNanos == NO_LIMIT) ? Long.MAX_VALUE : start + timeLimitNanos;
+        this.nodeLimit = (nodeLimit == NO_LIMIT) ? Long.MAX_VALUE : nodeLimit;
+
+        // Searching past the last empty cell can't find anything new
+        int emptyCells = board.getMaxNumberOfTokens() - board.getNumberOfTokens();
+        maxDepth = Math.min(maxDepth, Math.max(MIN_DEPTH, emptyCells));
+        minDepth = Math.min(minDepth, maxDepth);
+
+        int bestColumn = -1;
+        int bestScore = 0;
+        int completedDepth = 0;
+        for (int depth = minDepth; depth <= maxDepth; depth++) {
+            limited = depth > minDepth || !finishesFirstDepth;
+            int column = searchRoot(playerIndex, depth);
+            if (aborted) {
+                break;
+            }
+
+            bestColumn = column;
+            bestScore = rootScore;
+            completedDepth = depth;
+            if (Math.abs(bestScore) > Evaluator.MAX_HEURISTIC_SCORE || isOutOfBudget()) {
+                break; // the game is decided, or there's no time for more
+            }
+        }
+        limited = false;
+        stopRequested = false;
+
+        statistics = new SearchStatistics(bestColumn, bestScore, completedDepth, nodes,
+                System.nanoTime() - start);
+        return bestColumn;
+    }
+
+    /**
+     * Asks a search with a budget to stop as soon as possible, as if it ran
+     * out of budget. This can be called from any thread, including before the
+     * search starts, and has no effect on searches to a fixed depth.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Mutator Method. Parallel searches give each thread a different rotation
+     * so that they search different moves first.
+     * @param rotation The column the root's moves are searched from, after
+     *     the move from the transposition table.
+     */
+    protected void setRootRotation(int rotation) {
+        this.rootRotation = Math.floorMod(rotation, board.getWidth());
+    }
+
+    /**
+     * Mutator Method. Helper threads of a parallel search don't need to
+     * return a column, so they can be stopped during their first depth.
+     * @param finishesFirstDepth Whether or not iterative searches always
+     *     finish their first depth.
+     */
+    protected void setFinishesFirstDepth(boolean finishesFirstDepth) {
+        this.finishesFirstDepth = finishesFirstDepth;
+    }
+
+    /**
+     * Searches the current position for the given player, storing the score
+     * of the best move in rootScore.
+     * @param player The index of the player whose move it is.
+     * @param depth The number of moves to search ahead.
+     * @return The best column for the player, which is meaningless if the
+     *     search was aborted.
+     * @throws IllegalArgumentException When there are no legal moves.
+     */
+    protected int searchRoot(int player, int depth) {
+        long key = keyOf(player);
+        int tableMove = TranspositionTable.getMove(table.probe(key));
+
+        int bestColumn = -1;
+        int alpha = -INFINITY;
+        // The move from the table is tried first, then every other column
+        for (int i = -1; i < board.getWidth(); i++) {
+            int col = (i < 0) ? tableMove : (i + rootRotation) % board.getWidth();
+            if (col < 0 || (i >= 0 && col == tableMove) || board.isColumnFull(col)) {
+                continue;
+            }
+
+            int score = scoreMove(player, col, depth, 0, alpha, INFINITY);
+            if (aborted) {
+                return bestColumn;
+            }
+            if (bestColumn < 0 || score > alpha) {
+                alpha = score;
+                bestColumn = col;
+            }
+        }
+        if (bestColumn < 0) {
+            throw new IllegalArgumentException(NO_MOVES_ERROR_MESSAGE);
+        }
+        table.store(key, depth, TranspositionTable.EXACT, toTableScore(alpha, 0), bestColumn);
+
+        rootScore = alpha;
+        return bestColumn;
+    }
+
+    /**
+     * Finds the negamax score of the current position for the given player.
+     * @param player The index of the player whose move it is.
+     * @param depth The number of moves left to search.
+     * @param ply The number of moves made since the root of the search.
+     * @param alpha The score the player is already guaranteed.
+     * @param beta The score the opponent is already guaranteed, which the
+     *     player can't be allowed to beat.
+     * @return The score of the position for the player.
+     */
+    protected int negamax(int player, int depth, int ply, int alpha, int beta) {
+        if (depth == 0) {
+            return evaluate(player);
+        }
+
+        long key = keyOf(player);
+        long entry = table.probe(key);
+        int tableMove = MoveOrdering.NO_MOVE;
+        if (entry != TranspositionTable.MISS) {
+            tableMove = TranspositionTable.getMove(entry);
+            if (TranspositionTable.getDepth(entry) >= depth) {
+                int score = fromTableScore(TranspositionTable.getScore(entry), ply);
+                int bound = TranspositionTable.getBound(entry);
+                if (bound == TranspositionTable.EXACT) {
+                    return score;
+                } else if (bound == TranspositionTable.LOWER_BOUND) {
+                    alpha = Math.max(alpha, score);
+                } else {
+                    beta = Math.min(beta, score);
+                }
+                if (alpha >= beta) {
+                    return score;
+                }
+            }
+        }
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestColumn = -1;
+        int count = ordering.order(board, player, ply, tableMove);
+        int[] moves = ordering.getMoves(ply);
+        for (int i = 0; i < count; i++) {
+            int col = moves[i];
+            int score = scoreMove(player, col, depth, ply, alpha, beta);
+            if (aborted) {
+                return 0; // the result is thrown away
+            }
+            if (score > best) {
+                best = score;
+                bestColumn = col;
+                alpha = Math.max(alpha, score);
+                if (alpha >= beta) {
+                    ordering.recordCutoff(player, ply, col, board.getNextRow(col), depth, i);
+                    break; // the opponent won't allow this position
+                }
+            }
+        }
+
+        // No legal moves means the board is full
+        if (bestColumn < 0) {
+            return 0;
+        }
+
+        int bound;
+        if (best <= originalAlpha) {
+            bound = TranspositionTable.UPPER_BOUND;
+        } else if (best >= beta) {
+            bound = TranspositionTable.LOWER_BOUND;
+        } else {
+            bound = TranspositionTable.EXACT;
+        }
+        table.store(key, depth, bound, toTableScore(best, ply), bestColumn);
+        return best;
+    }
+
+    /**
+     * Finds the transposition table key of the current position.
+     * @param player The index of the player whose move it is.
+     * @return The key of the position with that player to move.
+     */
+    protected long keyOf(int player) {
+        return player == 0 ? board.getHash() : board.getHash() ^ SECOND_PLAYER_KEY;
+    }
+
+    /**
+     * Converts a score to be stored in the transposition table. Win scores
+     * count moves from the root of the search, but a stored position can be
+     * reached at any ply, so they are stored counting moves from the position.
+     * @param score The score, with wins counted from the root.
+     * @param ply The number of moves made since the root of the search.
+     * @return The score, with wins counted from the position.
+     */
+    protected static int toTableScore(int score, int ply) {
+        if (score > Evaluator.MAX_HEURISTIC_SCORE) {
+            return score + ply;
+        } else if (score < -Evaluator.MAX_HEURISTIC_SCORE) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    /**
+     * Converts a score read from the transposition table back to counting
+     * wins from the root of the search.
+     * @param score The score, with wins counted from the position.
+     * @param ply The number of moves made since the root of the search.
+     * @return The score, with wins counted from the root.
+     */
+    protected static int fromTableScore(int score, int ply) {
+        if (score > Evaluator.MAX_HEURISTIC_SCORE) {
+            return score - ply;
+        } else if (score < -Evaluator.MAX_HEURISTIC_SCORE) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * Makes a move, scores the resulting position for the player who made
+     * it, and unmakes the move.
+     * @param player The index of the player making the move.
+     * @param col The column of the move.
+     * @param depth The number of moves left to search, including this one.
+     * @param ply The number of moves made since the root of the search.
+     * @param alpha The score the player is already guaranteed.
+     * @param beta The score the player can't be allowed to beat.
+     * @return The score of the move for the player who made it.
+     */
+    protected int scoreMove(int player, int col, int depth, int ply, int alpha, int beta) {
+        nodes++;
+        if (limited && nodes % BUDGET_CHECK_INTERVAL == 0 && isOutOfBudget()) {
+            aborted = true;
+            return 0;
+        }
+        int score;
+        if (board.addToken(tokens[player], col)) {
+            score = Evaluator.WIN_SCORE - (ply + 1);
+        } else if (board.getNumberOfTokens() >= board.getMaxNumberOfTokens()) {
+            score = 0;
+        } else {
+            score = -negamax(nextPlayer(player), depth - 1, ply + 1, -beta, -alpha);
+        }
+        board.removeToken(col);
+        return score;
+    }
+
+    /**
+     * Scores the current position for the given player with the evaluator.
+     * @param player The index of the player.
+     * @return The heuristic score of the position for the player.
+     */
+    protected int evaluate(int player) {
+        return evaluator.evaluate(board, ownerIndexes, player);
+    }
+
+    /**
+     * Determines whether or not the current search has run out of budget or
+     * been asked to stop.
+     * @return True if the search should stop.
+     */
+    protected boolean isOutOfBudget() {
+        return stopRequested || nodes >= nodeLimit || System.nanoTime() >= deadline;
+    }
+
+    /**
+     * Checks that the given depth can be searched.
+     * @param depth The number of moves to search ahead.
+     * @throws IllegalArgumentException When the depth is out of range.
+     */
+    protected static void checkDepth(int depth) {
+        if (depth < MIN_DEPTH || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException(DEPTH_ERROR_MESSAGE);
+        }
+    }
+
+    /**
+     * Finds the index of the player who moves after the given player.
+     * @param player The index of a player.
+     * @return The index of the next player.
+     */
+    protected int nextPlayer(int player) {
+        return (player + 1) % players.length;
+    }
+
+    /**
+     * Finds the index of the given player in the players of this search.
+     * @param player The player being found.
+     * @return The index of the player.
+     * @throws IllegalArgumentException When the player is not part of this
+     *     search.
+     */
+    protected int indexOf(Player player) {
+        for (int i = 0; i < players.length; i++) {
+            if (players[i].equals(player)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException(UNKNOWN_PLAYER_ERROR_MESSAGE);
+    }
+
+}
@@ -0,0 +1,264 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A read-only book of the best moves of early positions, written by the
+ * OpeningBookGenerator.<br>
+ * The book file has a short header describing the game it was made for,
+ * followed by fixed-size records of (position key, best column, score),
+ * sorted by key. The file is memory-mapped instead of read, so opening a book
+ * takes the same short time no matter how large it is; the operating system
+ * only loads the pages that lookups actually touch. Lookups binary search the
+ * records, and may be made from any number of threads at once.<br>
+ * Positions are keyed by the order the players take turns, not by which
+ * players they are, so a book works for every game on a board of its size.
+ * @author Eli W. Hunter
+ */
+public class OpeningBook {
+
+    /** The first 4 bytes of every book file. */
+    public static final int MAGIC = 0x434E4F42; // "CNOB"
+    /** The version of the book file format. */
+    public static final int VERSION = 1;
+    /** The number of bytes before the first record. */
+    public static final int HEADER_BYTES = 6 * Integer.BYTES;
+    /** The number of bytes in each record: the key, the column and the score. */
+    public static final int RECORD_BYTES = Long.BYTES + 2 * Integer.BYTES;
+    /** The value returned when a position isn't in the book. */
+    public static final int NOT_FOUND = -1;
+
+    // ERROR MESSAGES
+    /** The error message displayed when a file isn't a book. */
+    public static final String FORMAT_ERROR_MESSAGE = "The file is not an opening book.";
+    /** The error message displayed when a book is too large to map. */
+    public static final String SIZE_ERROR_MESSAGE = "The opening book is too large.";
+
+    /** The contents of the book file. Only absolute reads are used, so it can be shared. */
+    private final ByteBuffer buffer;
+    /** The width of the boards the book was made for. */
+    private final int width;
+    /** The height of the boards the book was made for. */
+    private final int height;
+    /** The number of tokens to connect on the boards the book was made for. */
+    private final int tokensToConnect;
+    /** The number of players of the games the book was made for. */
+    private final int numberOfPlayers;
+    /** The number of records in the book. */
+    private final int size;
+
+    /**
+     * Creates a book from the contents of a book file.
+     * @param buffer The contents of the book file.
+     * @throws IllegalArgumentException When the contents aren't a book.
+     */
+    private OpeningBook(ByteBuffer buffer) {
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(Integer.BYTES) != VERSION
+                || (buffer.capacity() - HEADER_BYTES) % RECORD_BYTES != 0) {
+            throw new IllegalArgumentException(FORMAT_ERROR_MESSAGE);
+        }
+
+        this.buffer = buffer;
+        this.width = buffer.getInt(2 * Integer.BYTES);
+        this.height = buffer.getInt(3 * Integer.BYTES);
+        this.tokensToConnect = buffer.getInt(4 * Integer.BYTES);
+        this.numberOfPlayers = buffer.getInt(5 * Integer.BYTES);
+        this.size = (buffer.capacity() - HEADER_BYTES) / RECORD_BYTES;
+    }
+
+    /**
+     * Opens a book file by mapping it into memory. The file isn't read until
+     * it is looked up.
+     * @param file The book file.
+     * @return The opened book.
+     * @throws IOException When the file can't be opened.
+     * @throws IllegalArgumentException When the file isn't a book, or is too
+     *     large to map.
+     */
+    public static OpeningBook open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException(SIZE_ERROR_MESSAGE);
+            }
+            // The mapping stays valid after the channel is closed
+            return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Finds the usual name of the book file for a board, so books can be
+     * found without being named.
+     * @param width The width of the board.
+     * @param height The height of the board.
+     * @param tokensToConnect The number of tokens to connect on the board.
+     * @return The name of the book file.
+     */
+    public static String defaultFileName(int width, int height, int tokensToConnect) {
+        return String.format("book-%dx%dx%d.bin", width, height, tokensToConnect);
+    }
+
+    /**
+     * Finds the key of a position in a book. The key is the Zobrist hash the
+     * position would have if the players' owner indexes were their places in
+     * the turn order, plus 1.
+     * @param board The game board.
+     * @param players The players of the game, in the order they take turns.
+     * @return The key of the position.
+     */
+    public static long keyOf(GameBoard board, Player[] players) {
+        boolean inTurnOrder = true;
+        for (int i = 0; i < players.length; i++) {
+            inTurnOrder &= Token.indexOf(players[i]) == i + 1;
+        }
+        if (inTurnOrder) {
+            return board.getHash(); // usually true, since players are numbered as they're created
+        }
+
+        long key = 0;
+        for (int col = 0; col < board.getWidth(); col++) {
+            for (int row = 0; row < board.getNextRow(col); row++) {
+                int owner = board.getOwnerIndex(row, col);
+                for (int i = 0; i < players.length; i++) {
+                    if (Token.indexOf(players[i]) == owner) {
+                        key ^= ZobristKeys.generateKey(i + 1, col * board.getHeight() + row);
+                    }
+                }
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Accessor Method
+     * @return The width of the boards the book was made for.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Accessor Method
+     * @return The height of the boards the book was made for.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Accessor Method
+     * @return The number of tokens to connect on the boards the book was made
+     *     for.
+     */
+    public int getTokensToConnect() {
+        return tokensToConnect;
+    }
+
+    /**
+     * Accessor Method
+     * @return The number of players of the games the book was made for.
+     */
+    public int getNumberOfPlayers() {
+        return numberOfPlayers;
+    }
+
+    /**
+     * Accessor Method
+     * @return The number of positions in the book.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Determines whether the book was made for a game on the given board
+     * between the given players.
+     * @param board The game board.
+     * @param players The players of the game.
+     * @return True if the book can be used for the game.
+     */
+    public boolean matches(GameBoard board, Player[] players) {
+        return board.getWidth() == width && board.getHeight() == height
+            && board.getTokensToConnect() == tokensToConnect
+            && players != null && players.length == numberOfPlayers;
+    }
+
+    /**
+     * Finds the best column in a position, if the position is in the book.
+     * @param board The game board.
+     * @param players The players of the game, in the order they take turns.
+     * @return The best column, or {@value #NOT_FOUND} if the book wasn't made
+     *     for the game or doesn't have the position.
+     */
+    public int findMove(GameBoard board, Player[] players) {
+        if (!matches(board, players)) {
+            return NOT_FOUND;
+        }
+        int record = find(keyOf(board, players));
+        if (record == NOT_FOUND) {
+            return NOT_FOUND;
+        }
+        int col = getMove(record);
+        return board.isColumnFull(col) ? NOT_FOUND : col; // never trust a colliding key
+    }
+
+    /**
+     * Finds the record of a position by binary searching the keys.
+     * @param key The key of the position. See keyOf().
+     * @return The index of the record, or {@value #NOT_FOUND} if the position
+     *     isn't in the book.
+     */
+    public int find(long key) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleKey = getKey(middle);
+            if (middleKey < key) {
+                low = middle + 1;
+            } else if (middleKey > key) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Finds the key of a record.
+     * @param record The index of the record.
+     * @return The key of the record's position.
+     */
+    public long getKey(int record) {
+        return buffer.getLong(offsetOf(record));
+    }
+
+    /**
+     * Finds the best column of a record.
+     * @param record The index of the record.
+     * @return The best column in the record's position.
+     */
+    public int getMove(int record) {
+        return buffer.getInt(offsetOf(record) + Long.BYTES);
+    }
+
+    /**
+     * Finds the score of a record.
+     * @param record The index of the record.
+     * @return The score of the best column, from the point of view of the
+     *     player to move, as scored by the search which made the book.
+     */
+    public int getScore(int record) {
+        return buffer.getInt(offsetOf(record) + Long.BYTES + Integer.BYTES);
+    }
+
+    /**
+     * Finds where a record starts in the file.
+     */
+    private static int offsetOf(int record) {
+        return HEADER_BYTES + record * RECORD_BYTES;
+    }
+
+}
@@ -0,0 +1,173 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates an OpeningBook for two player games on a board of any size.<br>
+ * Usage: java OpeningBookGenerator width height tokensToConnect plies
+ * [millis per position] [file]<br>
+ * Every position that can be reached in fewer than the given number of moves
+ * (plies) is searched once, with an iterative deepening NegamaxSearch limited
+ * to the given time, and its best column and score are written to the book.
+ * Positions which are already won are left out. By default, the book is
+ * written to the file named by OpeningBook.defaultFileName() in the working
+ * directory, where the CLI looks for it.
+ * @author Eli W. Hunter
+ */
+public class OpeningBookGenerator {
+
+    /** The number of players of the games books are made for. */
+    public static final int NUMBER_OF_PLAYERS = NegamaxSearch.NUMBER_OF_PLAYERS;
+    /** The time each position is searched for if none is given. */
+    public static final long DEFAULT_MILLIS_PER_POSITION = 100;
+
+    // ERROR MESSAGES
+    /** The error message displayed when the arguments can't be understood. */
+    public static final String USAGE_ERROR_MESSAGE =
+        "USAGE: java OpeningBookGenerator width height tokensToConnect plies [millis per position] [file]";
+    /** The error message displayed when the number of plies is negative. */
+    public static final String PLIES_ERROR_MESSAGE = "The number of plies cannot be negative.";
+
+    /** The game board the positions are played on. */
+    private final GameBoard board;
+    /** The players of the game, in the order they take turns. */
+    private final Player[] players;
+    /** The search used to score each position. */
+    private final NegamaxSearch search;
+    /** How long each position is searched for, in nanoseconds. */
+    private final long timeLimitNanos;
+    /** The best column and score of every position searched so far, by key. */
+    private final Map<Long, int[]> records;
+
+    /**
+     * Creates a generator for the given board.
+     * @param board The empty game board to generate the book on.
+     * @param timeLimitNanos How long each position is searched for, in
+     *     nanoseconds.
+     */
+    public OpeningBookGenerator(GameBoard board, long timeLimitNanos) {
+        this.board = board;
+        this.players = new Player[NUMBER_OF_PLAYERS];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = new Player("Book" + i, Player.COMPETITIVE_AI);
+        }
+        this.search = new NegamaxSearch(board, players);
+        this.timeLimitNanos = timeLimitNanos;
+        this.records = new HashMap<Long, int[]>();
+    }
+
+    /**
+     * Runs the generator.
+     * @param args The width, height, tokens to connect and plies, then
+     *     optionally the milliseconds per position and the file.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4 || args.length > 6) {
+            System.out.println(USAGE_ERROR_MESSAGE);
+            System.exit(1);
+        }
+        for (int i = 0; i < Math.min(args.length, 5); i++) {
+            if (!Utils.isInt(args[i])) {
+                System.out.println(USAGE_ERROR_MESSAGE);
+                System.exit(1);
+            }
+        }
+
+        int width = Integer.parseInt(args[0]);
+        int height = Integer.parseInt(args[1]);
+        int tokensToConnect = Integer.parseInt(args[2]);
+        int plies = Integer.parseInt(args[3]);
+        long millis = args.length > 4 ? Integer.parseInt(args[4]) : DEFAULT_MILLIS_PER_POSITION;
+        Path file = Paths.get(args.length > 5 ? args[5] : OpeningBook.defaultFileName(width, height, tokensToConnect));
+
+        GameBoard board = CLI.createBoard(width, height, tokensToConnect, true);
+        OpeningBookGenerator generator = new OpeningBookGenerator(board, TimeUnit.MILLISECONDS.toNanos(millis));
+        long start = System.nanoTime();
+        int size = generator.generate(plies);
+        generator.write(file);
+        System.out.printf("Wrote %d positions to %s in %.1f s%n", size, file,
+                (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Searches every position that can be reached in fewer than the given
+     * number of moves.
+     * @param plies The number of moves the book covers.
+     * @return The number of positions in the book.
+     * @throws IllegalArgumentException When the number of plies is negative.
+     */
+    public int generate(int plies) {
+        if (plies < 0) {
+            throw new IllegalArgumentException(PLIES_ERROR_MESSAGE);
+        }
+        addPositions(plies);
+        return records.size();
+    }
+
+    /**
+     * Writes the book, sorted by key.
+     * @param file The file to write the book to.
+     * @throws IOException When the file can't be written.
+     */
+    public void write(Path file) throws IOException {
+        long[] keys = new long[records.size()];
+        int i = 0;
+        for (long key : records.keySet()) {
+            keys[i++] = key;
+        }
+        Arrays.sort(keys); // the order OpeningBook.find() searches in
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(OpeningBook.MAGIC);
+            out.writeInt(OpeningBook.VERSION);
+            out.writeInt(board.getWidth());
+            out.writeInt(board.getHeight());
+            out.writeInt(board.getTokensToConnect());
+            out.writeInt(NUMBER_OF_PLAYERS);
+            for (long key : keys) {
+                int[] record = records.get(key);
+                out.writeLong(key);
+                out.writeInt(record[0]);
+                out.writeInt(record[1]);
+            }
+        }
+    }
+
+    /**
+     * Searches the current position and every position after it, until the
+     * number of moves left runs out.
+     * @param pliesLeft The number of moves left to cover.
+     */
+    private void addPositions(int pliesLeft) {
+        if (pliesLeft == 0 || board.getNumberOfTokens() == board.getMaxNumberOfTokens()) {
+            return;
+        }
+        long key = OpeningBook.keyOf(board, players);
+        if (records.containsKey(key)) {
+            return; // already reached by other moves
+        }
+
+        Player player = players[board.getNumberOfTokens() % players.length];
+        int col = search.searchIteratively(player, NegamaxSearch.MAX_DEPTH, timeLimitNanos, NegamaxSearch.NO_LIMIT);
+        records.put(key, new int[] {col, search.getStatistics().getScore()});
+
+        for (int next = 0; next < board.getWidth(); next++) {
+            if (board.isColumnFull(next)) {
+                continue;
+            }
+            boolean won = board.addToken(Token.of(player), next);
+            if (!won) {
+                addPositions(pliesLeft - 1);
+            }
+            board.removeToken(next);
+        }
+    }
+
+}
@@ -0,0 +1,223 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A two-player search which uses several threads at once, in the "lazy SMP"
+ * style.<br>
+ * Every thread runs its own iterative deepening NegamaxSearch of the same
+ * position, on its own copy of the game board, so the real board is never
+ * changed by the search. The threads share a single TranspositionTable, so
+ * the results each thread finds speed up the others. Helper threads start
+ * one move deeper on alternate threads and try the root's moves in a
+ * different order, so that they don't all search the same positions at once.
+ * When the main thread finishes, the helpers are stopped, and the best column
+ * of the deepest finished search of any thread is chosen.
+ * @author Eli W. Hunter
+ */
+public class ParallelSearch {
+
+    /** The smallest number of threads a search can use. */
+    public static final int MIN_THREADS = 1;
+
+    // ERROR MESSAGES
+    /** The error message displayed when the number of threads is too low. */
+    public static final String THREADS_ERROR_MESSAGE =
+        "A parallel search needs at least " + MIN_THREADS + " thread.";
+
+    /** The game board that is searched. */
+    private final GameBoard board;
+    /** The players of the game, in the order they take turns. */
+    private final Player[] players;
+    /** The number of threads used, including the calling thread. */
+    private final int threads;
+    /** The table of results shared by every thread. */
+    private final TranspositionTable table;
+    /** The threads that run the helper searches, or null if there are none. */
+    private final ExecutorService helpers;
+    /** The statistics of the last finished search. */
+    private SearchStatistics statistics;
+
+    /**
+     * Creates a parallel search of the given board between the given players,
+     * with a shared transposition table of the default size.
+     * @param board The game board to search.
+     * @param players The two players of the game, in the order they take turns.
+     * @param threads The number of threads to use, including the calling
+     *     thread.
+     * @throws IllegalArgumentException When there are not exactly two players,
+     *     or when the number of threads is too low.
+     */
+    public ParallelSearch(GameBoard board, Player[] players, int threads) {
+        this(board, players, threads, new TranspositionTable());
+    }
+
+    /**
+     * Creates a parallel search of the given board between the given players.
+     * @param board The game board to search.
+     * @param players The two players of the game, in the order they take turns.
+     * @param threads The number of threads to use, including the calling
+     *     thread.
+     * @param table The transposition table shared by every thread.
+     * @throws IllegalArgumentException When there are not exactly two players,
+     *     or when the number of threads is too low.
+     */
+    public ParallelSearch(GameBoard board, Player[] players, int threads, TranspositionTable table) {
+        if (players.length != NegamaxSearch.NUMBER_OF_PLAYERS) {
+            throw new IllegalArgumentException(NegamaxSearch.PLAYERS_ERROR_MESSAGE);
+        }
+        if (threads < MIN_THREADS) {
+            throw new IllegalArgumentException(THREADS_ERROR_MESSAGE);
+        }
+
+        this.board = board;
+        this.players = players;
+        this.threads = threads;
+        this.table = table;
+        if (threads > 1) {
+            this.helpers = Executors.newFixedThreadPool(threads - 1, runnable -> {
+                Thread thread = new Thread(runnable, "search-helper");
+                thread.setDaemon(true); // never keep the game running
+                return thread;
+            });
+        } else {
+            this.helpers = null;
+        }
+    }
+
+    /**
+     * Accessor Method
+     * @return The number of threads used, including the calling thread.
+     */
+    public int getThreadCount() {
+        return threads;
+    }
+
+    /**
+     * Accessor Method
+     * @return The transposition table shared by every thread.
+     */
+    public TranspositionTable getTranspositionTable() {
+        return table;
+    }
+
+    /**
+     * Accessor Method
+     * @return The statistics of the last finished search, or null if there
+     *     has not been one. The nodes are those of every thread, and the depth
+     *     is that of the deepest finished search of any thread.
+     */
+    public SearchStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Searches the given number of moves ahead to find the best column for
+     * the given player to play.
+     * @param player The player whose move it is.
+     * @param depth The number of moves to search ahead.
+     * @return The best column for the player.
+     * @throws IllegalArgumentException When the player is not part of this
+     *     search, when the depth is out of range, or when there are no legal
+     *     moves.
+     */
+    public int search(Player player, int depth) {
+        return searchIteratively(player, depth, NegamaxSearch.NO_LIMIT, NegamaxSearch.NO_LIMIT);
+    }
+
+    /**
+     * Searches deeper and deeper with every thread until the main thread
+     * reaches the maximum depth, finds a certain result, or runs out of budget.
+     * See NegamaxSearch.searchIteratively().
+     * @param player The player whose move it is.
+     * @param maxDepth The largest number of moves to search ahead.
+     * @param timeLimitNanos How long the search may take, in nanoseconds, or
+     *     {@value NegamaxSearch#NO_LIMIT} for no limit.
+     * @param nodeLimit How many nodes the main thread may search, or {@value
+     *     NegamaxSearch#NO_LIMIT} for no limit.
+     * @return The best column for the player.
+     * @throws IllegalArgumentException When the player is not part of this
+     *     search, when the depth is out of range, or when there are no legal
+     *     moves.
+     */
+    public int searchIteratively(Player player, int maxDepth, long timeLimitNanos, long nodeLimit) {
+        long start = System.nanoTime();
+
+        // Every helper gets its own board and search, since both hold state
+        List<NegamaxSearch> helperSearches = new ArrayList<NegamaxSearch>();
+        List<Future<?>> results = new ArrayList<Future<?>>();
+        for (int i = 1; i < threads; i++) {
+            NegamaxSearch helper = new NegamaxSearch(board.copy(), players, table);
+            helper.setRootRotation(i);
+            helper.setFinishesFirstDepth(false);
+            int minDepth = Math.min(maxDepth, NegamaxSearch.MIN_DEPTH + i % 2);
+            helperSearches.add(helper);
+            results.add(helpers.submit(() -> helper.searchIteratively(player, minDepth, maxDepth,
+                    NegamaxSearch.NO_LIMIT, NegamaxSearch.NO_LIMIT)));
+        }
+
+        NegamaxSearch main = new NegamaxSearch(board.copy(), players, table);
+        try {
+            main.searchIteratively(player, maxDepth, timeLimitNanos, nodeLimit);
+        } finally {
+            for (NegamaxSearch helper : helperSearches) {
+                helper.stop();
+            }
+            waitFor(results);
+        }
+
+        SearchStatistics best = main.getStatistics();
+        long nodes = best.getNodes();
+        for (NegamaxSearch helper : helperSearches) {
+            SearchStatistics helperStatistics = helper.getStatistics();
+            if (helperStatistics == null) {
+                continue; // the helper never ran
+            }
+            nodes += helperStatistics.getNodes();
+            if (helperStatistics.getDepth() > best.getDepth()) {
+                best = helperStatistics;
+            }
+        }
+
+        statistics = new SearchStatistics(best.getBestColumn(), best.getScore(), best.getDepth(), nodes,
+                System.nanoTime() - start);
+        return best.getBestColumn();
+    }
+
+    /**
+     * Stops the helper threads. The search can't be used afterwards. Helper
+     * threads never keep the program running, so this is only needed to free
+     * them early.
+     */
+    public void shutdown() {
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+    }
+
+    /**
+     * Waits for every helper search to finish.
+     * @param results The results of the helper searches.
+     * @throws IllegalArgumentException When a helper search failed, with the
+     *     same message.
+     */
+    private static void waitFor(List<Future<?>> results) {
+        for (Future<?> result : results) {
+            try {
+                result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IllegalArgumentException) {
+                    throw (IllegalArgumentException) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+
+}
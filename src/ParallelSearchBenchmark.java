@@ -0,0 +1,87 @@
+/**
+ * Measures how much faster a ParallelSearch reaches a fixed depth as more
+ * threads are used.<br>
+ * Usage: java ParallelSearchBenchmark [max threads] [depth]<br>
+ * The same opening position of a standard 7 by 6 board is searched with 1,
+ * 2, 4, ... threads, up to the given maximum (by default the number of
+ * processors), each time with a fresh transposition table. The time, node
+ * count and speedup over a single thread are printed for each.
+ * @author Eli W. Hunter
+ */
+public class ParallelSearchBenchmark {
+
+    /** The width of the benchmark board. */
+    private static final int WIDTH = 7;
+    /** The height of the benchmark board. */
+    private static final int HEIGHT = 6;
+    /** The number of tokens to connect on the benchmark board. */
+    private static final int TOKENS_TO_CONNECT = 4;
+    /** The columns played before the search, alternating between players. */
+    private static final int[] OPENING = {3, 3, 2, 4};
+    /** The depth searched if none is given. */
+    private static final int DEFAULT_DEPTH = 12;
+    /** The number of times each thread count is searched, keeping the fastest. */
+    private static final int RUNS = 3;
+
+    /**
+     * Runs the benchmark.
+     * @param args The maximum number of threads and the depth, both optional.
+     */
+    public static void main(String[] args) {
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        int depth = DEFAULT_DEPTH;
+        if (args.length > 0 && Utils.isInt(args[0])) {
+            maxThreads = Integer.parseInt(args[0]);
+        }
+        if (args.length > 1 && Utils.isInt(args[1])) {
+            depth = Integer.parseInt(args[1]);
+        }
+
+        Player[] players = {
+            new Player("First", Player.COMPETITIVE_AI),
+            new Player("Second", Player.COMPETITIVE_AI),
+        };
+        GameBoard board = CLI.createBoard(WIDTH, HEIGHT, TOKENS_TO_CONNECT, true);
+        for (int i = 0; i < OPENING.length; i++) {
+            board.addToken(Token.of(players[i % players.length]), OPENING[i]);
+        }
+        Player toMove = players[OPENING.length % players.length];
+
+        System.out.printf("Depth %d on a %dx%d board, %d processors%n",
+                depth, WIDTH, HEIGHT, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%8s %8s %12s %14s %8s%n", "threads", "column", "ms", "nodes/s", "speedup");
+
+        double singleThreadMillis = 0;
+        for (int threads = 1; threads <= maxThreads; threads = nextThreadCount(threads, maxThreads)) {
+            SearchStatistics fastest = null;
+            for (int run = 0; run < RUNS; run++) {
+                ParallelSearch search = new ParallelSearch(board, players, threads);
+                search.search(toMove, depth);
+                search.shutdown();
+                SearchStatistics statistics = search.getStatistics();
+                if (fastest == null || statistics.getElapsedNanos() < fastest.getElapsedNanos()) {
+                    fastest = statistics;
+                }
+            }
+
+            double millis = fastest.getElapsedNanos() / 1e6;
+            if (threads == 1) {
+                singleThreadMillis = millis;
+            }
+            System.out.printf("%8d %8d %12.1f %14d %7.2fx%n", threads, fastest.getBestColumn(), millis,
+                    fastest.getNodesPerSecond(), singleThreadMillis / millis);
+        }
+    }
+
+    /**
+     * Finds the next number of threads to benchmark, doubling each time but
+     * always ending on the maximum.
+     */
+    private static int nextThreadCount(int threads, int maxThreads) {
+        if (threads < maxThreads && threads * 2 > maxThreads) {
+            return maxThreads;
+        }
+        return threads * 2;
+    }
+
+}
@@ -37,6 +37,15 @@ public class Player {
     /** Defines the Competitive AI player type. The actual value doesn't matter as long as its
      * consistent. */
     public static final byte COMPETITIVE_AI = 4;
+    /** Defines the Monte Carlo AI player type. The actual value doesn't matter as long as its
+     * consistent. */
+    public static final byte MONTE_CARLO_AI = 5;
+    /** Defines the Perfect AI player type. The actual value doesn't matter as long as its
+     * consistent. */
+    public static final byte PERFECT_AI = 6;
+    /** Defines the Belligerent AI player type. The actual value doesn't matter as long as its
+     * consistent. */
+    public static final byte BELLIGERENT_AI = 7;
 
     /**
      * A Player's unique ID, which cannot be changed. This is used to determine
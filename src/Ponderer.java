@@ -0,0 +1,307 @@
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Searches on the opponent's time in two-player games.<br>
+ * While the opponent decides their move, the ponderer guesses it with a short
+ * search, plays the guess on a private copy of the game board, and searches
+ * the resulting position for the player on a background thread. When the
+ * player's turn comes, the real board is compared with the guessed one. If the
+ * guess was right (a ponder hit), the background search is finished and its
+ * column is played, so the time already spent on it is saved. Otherwise (a
+ * ponder miss) the search is cancelled and the player searches as usual. The
+ * ponderer shares its transposition table with the player's own search, so
+ * even a miss leaves useful results behind.
+ * @author Eli W. Hunter
+ */
+public class Ponderer {
+
+    /** The value returned when there is no pondered column to play. */
+    public static final int NO_RESULT = -1;
+    /** The largest number of positions searched to guess the opponent's move. */
+    public static final long PREDICTION_NODE_LIMIT = 20_000;
+    /** The deepest search used to guess the opponent's move. */
+    public static final int PREDICTION_DEPTH = 4;
+
+    /** The game board of the game. */
+    private final GameBoard board;
+    /** The players of the game, in the order they take turns. */
+    private final Player[] players;
+    /** The table of results shared with the player's own search. */
+    private final TranspositionTable table;
+    /** The thread that runs the background search. */
+    private final ExecutorService thread;
+    /** The background search, or null if there isn't one. */
+    private NegamaxSearch search;
+    /** The result of the background search, or null if there isn't one. */
+    private Future<?> result;
+    /** The player the background search is for. */
+    private Player player;
+    /** The hash of the board the background search was started from. */
+    private long startHash;
+    /** The hash of the board after the guessed move. */
+    private long predictedHash;
+    /** The column the opponent is guessed to play. */
+    private int predictedColumn;
+    /** When the background search started, as given by System.nanoTime(). */
+    private long startNanos;
+    /** The statistics of the last ponder hit. */
+    private SearchStatistics statistics;
+    /** The number of ponder hits. */
+    private long hits;
+    /** The number of ponder misses. */
+    private long misses;
+    /** The total time saved by ponder hits, in nanoseconds. */
+    private long savedNanos;
+
+    /**
+     * Creates a ponderer for the given board and players.
+     * @param board The game board of the game, which is copied, but never
+     *     changed.
+     * @param players The two players of the game, in the order they take turns.
+     * @param table The transposition table shared with the player's own
+     *     search.
+     * @throws IllegalArgumentException When there are not exactly two players.
+     */
+    public Ponderer(GameBoard board, Player[] players, TranspositionTable table) {
+        if (players.length != NegamaxSearch.NUMBER_OF_PLAYERS) {
+            throw new IllegalArgumentException(NegamaxSearch.PLAYERS_ERROR_MESSAGE);
+        }
+        this.board = board;
+        this.players = players;
+        this.table = table;
+        this.thread = Executors.newSingleThreadExecutor(runnable -> {
+            Thread ponderThread = new Thread(runnable, "ponder");
+            ponderThread.setDaemon(true); // never keep the game running
+            return ponderThread;
+        });
+        this.predictedColumn = NO_RESULT;
+    }
+
+    /**
+     * Accessor Method
+     * @return Whether or not a background search has been started and not yet
+     *     finished or cancelled.
+     */
+    public boolean isPondering() {
+        return result != null;
+    }
+
+    /**
+     * Accessor Method
+     * @return The column the opponent is guessed to play, or {@value
+     *     #NO_RESULT} if the ponderer isn't pondering.
+     */
+    public int getPredictedColumn() {
+        return isPondering() ? predictedColumn : NO_RESULT;
+    }
+
+    /**
+     * Accessor Method
+     * @return The statistics of the last ponder hit, or null if there has not
+     *     been one. The elapsed time is only the time spent waiting for the
+     *     search after the opponent moved.
+     */
+    public SearchStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Accessor Method
+     * @return The number of times the opponent played the guessed move.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Accessor Method
+     * @return The number of times the opponent didn't play the guessed move.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Finds how often the opponent played the guessed move.
+     * @return The fraction of guesses which were right, or 0 if there haven't
+     *     been any.
+     */
+    public double getHitRate() {
+        long guesses = hits + misses;
+        return guesses == 0 ? 0 : (double) hits / guesses;
+    }
+
+    /**
+     * Accessor Method
+     * @return The total time ponder hits saved the player, in nanoseconds.
+     *     This is the time the background searches spent before the
+     *     opponent moved.
+     */
+    public long getSavedNanos() {
+        return savedNanos;
+    }
+
+    /**
+     * Starts pondering for the given player, who moves after the opponent
+     * whose turn it is. The opponent's move is guessed right away with a
+     * short search, and the search of the resulting position runs in the
+     * background until the player's turn. Nothing happens if the ponderer is
+     * already pondering this position for the player, or pondering for the
+     * opponent, whose turn it is. Any other background search is cancelled.
+     * @param player The player to search for, whose turn is next.
+     * @param maxDepth The largest number of moves to search ahead.
+     * @param nodeLimit How many positions the search may search, or {@value
+     *     NegamaxSearch#NO_LIMIT} for no limit.
+     * @throws IllegalArgumentException When the player is not part of the
+     *     game or the depth is out of range.
+     */
+    public void start(Player player, int maxDepth, long nodeLimit) {
+        NegamaxSearch.checkDepth(maxDepth);
+        Player opponent = opponentOf(player);
+        if (isPondering() && player.equals(this.player) && board.getHash() == startHash) {
+            return; // the opponent hasn't moved yet
+        }
+        if (isPondering() && opponent.equals(this.player)) {
+            return; // the opponent's own pondering is about to be used
+        }
+        cancel();
+        if (board.getNumberOfTokens() >= board.getMaxNumberOfTokens()) {
+            return;
+        }
+
+        long hash = board.getHash();
+        GameBoard copy = board.copy();
+        NegamaxSearch ponderSearch = new NegamaxSearch(copy, players, table);
+        int guess = ponderSearch.searchIteratively(opponent, NegamaxSearch.MIN_DEPTH, PREDICTION_DEPTH,
+                NegamaxSearch.NO_LIMIT, PREDICTION_NODE_LIMIT);
+        boolean opponentWins = copy.addToken(Token.of(opponent), guess);
+        if (opponentWins || copy.getNumberOfTokens() >= copy.getMaxNumberOfTokens()) {
+            return; // the game would be over, so there is nothing to search
+        }
+
+        this.search = ponderSearch;
+        this.player = player;
+        this.predictedColumn = guess;
+        this.startHash = hash;
+        this.predictedHash = copy.getHash();
+        this.startNanos = System.nanoTime();
+        this.result = thread.submit(() -> ponderSearch.searchIteratively(player, NegamaxSearch.MIN_DEPTH,
+                maxDepth, NegamaxSearch.NO_LIMIT, nodeLimit));
+    }
+
+    /**
+     * Finishes pondering now that it is the given player's turn. On a ponder
+     * hit, the background search is given whatever is left of the time limit
+     * and its column is returned. On a ponder miss, it is cancelled. Nothing
+     * happens if the ponderer is pondering for another player.
+     * @param player The player whose turn it is.
+     * @param timeLimitNanos How long the search may take in total, including
+     *     the time spent pondering, in nanoseconds, or {@value
+     *     NegamaxSearch#NO_LIMIT} for no limit.
+     * @return The column found by the background search, or {@value
+     *     #NO_RESULT} if there wasn't one for the current position.
+     */
+    public int finish(Player player, long timeLimitNanos) {
+        if (!isPondering()) {
+            return NO_RESULT;
+        }
+        if (!player.equals(this.player)) {
+            return NO_RESULT; // another player is moving first, so keep pondering
+        }
+        if (board.getHash() != predictedHash) {
+            misses++;
+            cancel();
+            return NO_RESULT;
+        }
+
+        long arrivalNanos = System.nanoTime();
+        long ponderedNanos = arrivalNanos - startNanos;
+        if (timeLimitNanos != NegamaxSearch.NO_LIMIT) {
+            waitFor(timeLimitNanos - ponderedNanos);
+            search.stop();
+        }
+        waitFor(Long.MAX_VALUE);
+        result = null;
+
+        SearchStatistics pondered = search.getStatistics();
+        if (pondered == null) {
+            return NO_RESULT; // interrupted before the search could finish
+        }
+        long waitedNanos = System.nanoTime() - arrivalNanos;
+        statistics = new SearchStatistics(pondered.getBestColumn(), pondered.getScore(), pondered.getDepth(),
+                pondered.getNodes(), waitedNanos);
+        hits++;
+        savedNanos += Math.min(ponderedNanos, pondered.getElapsedNanos());
+        return pondered.getBestColumn();
+    }
+
+    /**
+     * Stops the background search, if there is one, without counting it as a
+     * hit or a miss, and waits for it to end.
+     */
+    public void cancel() {
+        if (!isPondering()) {
+            return;
+        }
+        search.stop();
+        waitFor(Long.MAX_VALUE);
+        result = null;
+    }
+
+    /**
+     * Stops the background thread. The ponderer can't be used afterwards. The
+     * thread never keeps the program running, so this is only needed to free
+     * it early.
+     */
+    public void shutdown() {
+        if (search != null) {
+            search.stop();
+        }
+        thread.shutdownNow();
+    }
+
+    /**
+     * Waits for the background search to end, for at most the given time.
+     * @param nanos The longest time to wait, in nanoseconds. Nothing happens
+     *     if it isn't positive.
+     * @throws IllegalArgumentException When the search failed, with the same
+     *     message.
+     */
+    private void waitFor(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            result.get(nanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return; // still searching
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            result = null;
+            if (e.getCause() instanceof IllegalArgumentException) {
+                throw (IllegalArgumentException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Finds the other player of the game.
+     * @throws IllegalArgumentException When the player is not part of the game.
+     */
+    private Player opponentOf(Player player) {
+        if (players[0].equals(player)) {
+            return players[1];
+        } else if (players[1].equals(player)) {
+            return players[0];
+        }
+        throw new IllegalArgumentException(NegamaxSearch.UNKNOWN_PLAYER_ERROR_MESSAGE);
+    }
+
+}
@@ -0,0 +1,130 @@
+import java.util.SplittableRandom;
+
+/**
+ * Hands out the random number generators used by the AIs and simulations, so
+ * that every random choice made in a run can be replayed.<br>
+ * A run has a single master seed, which is read from the {@value
+ * #SEED_PROPERTY} system property, or picked at random if it isn't set. Every
+ * generator is split from a root generator seeded with the master seed, so
+ * each game, AI and thread gets its own independent stream without sharing
+ * or locking a generator. When the streams are split in the same order, which
+ * they are while a game is played on one thread, running again with the same
+ * master seed makes the same choices.<br>
+ * Streams are made once and then reused, so drawing a random number never
+ * creates any objects.
+ * @author Eli W. Hunter
+ */
+public class RandomService {
+
+    /** The system property which the master seed is read from. */
+    public static final String SEED_PROPERTY = "connectn.seed";
+
+    // ERROR MESSAGES
+    /** The error message displayed when a seed isn't a number. */
+    public static final String SEED_ERROR_MESSAGE = "The seed must be a whole number.";
+
+    /** The lock which must be held to split from or replace the root. */
+    private static final Object ROOT_LOCK = new Object();
+
+    /** The stream of each thread, made the first time it is used. */
+    private static final ThreadLocal<ThreadStream> THREAD_STREAMS = ThreadLocal.withInitial(ThreadStream::new);
+
+    /** The seed that every stream of this run is split from. */
+    private static long masterSeed;
+    /** The generator that every stream is split from. */
+    private static SplittableRandom root;
+    /** How many times the master seed has been set, so old thread streams are replaced. */
+    private static volatile int generation;
+
+    static {
+        String property = System.getProperty(SEED_PROPERTY);
+        setMasterSeed(property == null ? new SplittableRandom().nextLong() : parseSeed(property));
+    }
+
+    /**
+     * The service is never instantiated, since there is only one per run.
+     */
+    private RandomService() {
+    }
+
+    /**
+     * Accessor Method
+     * @return The seed that every stream of this run is split from, which
+     *     replays the run when it is set again.
+     */
+    public static long getMasterSeed() {
+        synchronized (ROOT_LOCK) {
+            return masterSeed;
+        }
+    }
+
+    /**
+     * Mutator Method<br>
+     * Restarts every stream from the given seed. Streams split before this
+     * aren't changed, but each thread's stream is split again the next time
+     * it is used.
+     * @param seed The seed that every stream is split from.
+     */
+    public static void setMasterSeed(long seed) {
+        synchronized (ROOT_LOCK) {
+            masterSeed = seed;
+            root = new SplittableRandom(seed);
+            generation++;
+        }
+    }
+
+    /**
+     * Turns text into a seed.
+     * @param text The seed, in decimal.
+     * @return The seed.
+     * @throws IllegalArgumentException When the text isn't a long.
+     */
+    public static long parseSeed(String text) {
+        try {
+            return Long.parseLong(text.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(SEED_ERROR_MESSAGE);
+        }
+    }
+
+    /**
+     * Makes a new stream which is independent of every other stream. This
+     * should be called once for each game, AI or worker, and the stream then
+     * kept by its owner, which mustn't share it with other threads.
+     * @return The next stream split from the root.
+     */
+    public static SplittableRandom split() {
+        synchronized (ROOT_LOCK) {
+            return root.split();
+        }
+    }
+
+    /**
+     * Finds the stream of the calling thread, for code which doesn't keep a
+     * stream of its own.
+     * @return The calling thread's stream, which mustn't be shared with other
+     *     threads.
+     */
+    public static SplittableRandom current() {
+        ThreadStream stream = THREAD_STREAMS.get();
+        if (stream.generation != generation) {
+            stream.random = split();
+            stream.generation = generation;
+        }
+        return stream.random;
+    }
+
+    /**
+     * The stream of one thread, and the generation of the master seed it was
+     * split from.
+     */
+    private static class ThreadStream {
+
+        /** The generation of the master seed the stream was split from, or 0 if it hasn't been. */
+        private int generation;
+        /** The thread's stream. */
+        private SplittableRandom random;
+
+    }
+
+}
@@ -0,0 +1,334 @@
+import java.util.Arrays;
+
+/**
+ * Keeps track of the length of every sequence of same-owner tokens on a board,
+ * in all four directions, so that the length of the sequence through any cell
+ * can be looked up rather than found by walking the board.<br>
+ * For every cell and direction, the index stores the id of the sequence the
+ * cell is in, and for every id, the first cell and length of its sequence.
+ * Looking up the length through any cell, at the ends of a sequence or in
+ * the middle of it, is therefore constant time.<br>
+ * A token added next to one sequence joins it, which only changes that
+ * sequence's first cell or length. A token added between two sequences
+ * joins them under the id of the longer one, and only the cells of the
+ * shorter one are given the new id. Adding a token is constant time unless
+ * it joins two sequences, when it takes time in proportion to the shorter
+ * one. A cell only ever moves to a sequence at least twice as long as its
+ * old one, so a whole game of adds moves each cell a logarithmic number of
+ * times.<br>
+ * Removing the most recently added token undoes its changes from a journal,
+ * in the time it took to add it. Removing any other token (which games and
+ * AIs never do) rebuilds the whole index in linear time.
+ * @author Eli W. Hunter
+ */
+public class RunLengthIndex {
+
+    /** The direction of sequences in a single column. (i.e. |) */
+    public static final int VERTICAL = 0;
+    /** The direction of sequences in a single row. (i.e. -) */
+    public static final int HORIZONTAL = 1;
+    /** The direction of sequences where the row increases with the column. (i.e. /) */
+    public static final int POSITIVE_DIAGONAL = 2;
+    /** The direction of sequences where the row decreases with the column. (i.e. \) */
+    public static final int NEGATIVE_DIAGONAL = 3;
+    /** The number of directions sequences can be in. */
+    public static final int NUMBER_OF_DIRECTIONS = 4;
+
+    /** The owner of an empty cell. This matches the owner index of an empty token. */
+    public static final int EMPTY_OWNER = Token.EMPTY_INDEX;
+
+    /** The row step size of each direction. */
+    private static final int[] ROW_STEPS = {1, 0, 1, 1};
+    /** The column step size of each direction. */
+    private static final int[] COL_STEPS = {0, 1, 1, -1};
+    /**
+     * The number of journal entries recorded for each direction of an added
+     * token: the id of the sequence it joined, that sequence's old first cell
+     * and old length, and the old id, first cell and length of the sequence
+     * whose cells were given the new id (with a length of 0 if there wasn't
+     * one).
+     */
+    private static final int DIRECTION_ENTRY_SIZE = 6;
+    /** The number of journal entries recorded for each added token. One for the cell, and then
+     * the entries of each direction. */
+    private static final int JOURNAL_ENTRY_SIZE = 1 + DIRECTION_ENTRY_SIZE * NUMBER_OF_DIRECTIONS;
+
+    /** The width of the board being indexed. */
+    private final int width;
+    /** The height of the board being indexed. */
+    private final int height;
+    /** The number of cells in the board being indexed. */
+    private final int numberOfCells;
+    /** The owner of every cell, indexed by row * width + col. */
+    private int[] owners;
+    /**
+     * The id of the sequence every occupied cell is in, in each direction,
+     * indexed by direction * numberOfCells + cell. Each id is one of the
+     * cells of its sequence, so the ids of different sequences never clash.
+     */
+    private int[] runIds;
+    /**
+     * The first cell of the sequence with each id in each direction, indexed
+     * by direction * numberOfCells + id.
+     */
+    private int[] runStarts;
+    /**
+     * The length of the sequence with each id in each direction, indexed by
+     * direction * numberOfCells + id.
+     */
+    private int[] runLengths;
+    /** The changes made by each added token, so that they can be undone. */
+    private int[] journal;
+    /** The number of entries in the journal. */
+    private int journalSize;
+
+    /**
+     * Creates an empty index for a board of the given size.
+     * @param width The width of the board.
+     * @param height The height of the board.
+     */
+    public RunLengthIndex(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.numberOfCells = width * height;
+        this.owners = new int[numberOfCells];
+        this.runIds = new int[NUMBER_OF_DIRECTIONS * numberOfCells];
+        this.runStarts = new int[NUMBER_OF_DIRECTIONS * numberOfCells];
+        this.runLengths = new int[NUMBER_OF_DIRECTIONS * numberOfCells];
+        this.journal = new int[JOURNAL_ENTRY_SIZE * width];
+        this.journalSize = 0;
+    }
+
+    /**
+     * Finds the row step size of the given direction.
+     * @param direction The direction. (e.g. HORIZONTAL)
+     * @return How much the row changes from each cell of a sequence in the
+     *     direction to the next.
+     */
+    public static int getRowStep(int direction) {
+        return ROW_STEPS[direction];
+    }
+
+    /**
+     * Finds the column step size of the given direction.
+     * @param direction The direction. (e.g. HORIZONTAL)
+     * @return How much the column changes from each cell of a sequence in the
+     *     direction to the next.
+     */
+    public static int getColStep(int direction) {
+        return COL_STEPS[direction];
+    }
+
+    /**
+     * Finds the owner of the given cell.<br>
+     * Precondition: The row and column are valid.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return The owner of the cell, or {@value #EMPTY_OWNER} if it is empty.
+     */
+    public int getOwner(int row, int col) {
+        return owners[row * width + col];
+    }
+
+    /**
+     * Records a token being added to the given cell, joining it to the
+     * sequences of the same owner on either side of it.<br>
+     * Precondition: The row and column are valid and the cell is empty.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @param owner The owner of the token. This must not be
+     *     {@value #EMPTY_OWNER}.
+     */
+    public void add(int row, int col, int owner) {
+        int cell = row * width + col;
+        owners[cell] = owner;
+
+        if (journalSize + JOURNAL_ENTRY_SIZE > journal.length) {
+            journal = Arrays.copyOf(journal, journal.length * 2);
+        }
+        journal[journalSize++] = cell;
+
+        for (int direction = 0; direction < NUMBER_OF_DIRECTIONS; direction++) {
+            int rowStep = ROW_STEPS[direction];
+            int colStep = COL_STEPS[direction];
+            int step = rowStep * width + colStep;
+            int offset = direction * numberOfCells;
+
+            int beforeId = isOwnedBy(row - rowStep, col - colStep, owner) ? runIds[offset + cell - step] : -1;
+            int afterId = isOwnedBy(row + rowStep, col + colStep, owner) ? runIds[offset + cell + step] : -1;
+
+            // Join the longer neighboring sequence, and move the shorter one into it
+            int id;
+            int moved = -1;
+            if (beforeId < 0 && afterId < 0) {
+                id = cell;
+            } else if (afterId < 0) {
+                id = beforeId;
+            } else if (beforeId < 0) {
+                id = afterId;
+            } else if (runLengths[offset + beforeId] >= runLengths[offset + afterId]) {
+                id = beforeId;
+                moved = afterId;
+            } else {
+                id = afterId;
+                moved = beforeId;
+            }
+
+            journal[journalSize++] = id;
+            journal[journalSize++] = runStarts[offset + id];
+            journal[journalSize++] = (id == cell) ? 0 : runLengths[offset + id];
+            journal[journalSize++] = moved;
+            journal[journalSize++] = (moved < 0) ? 0 : runStarts[offset + moved];
+            journal[journalSize++] = (moved < 0) ? 0 : runLengths[offset + moved];
+
+            int start = (beforeId < 0) ? cell : runStarts[offset + beforeId];
+            int length = 1;
+            length += (beforeId < 0) ? 0 : runLengths[offset + beforeId];
+            length += (afterId < 0) ? 0 : runLengths[offset + afterId];
+            if (moved >= 0) {
+                relabel(offset, runStarts[offset + moved], runLengths[offset + moved], step, id);
+            }
+            runIds[offset + cell] = id;
+            runStarts[offset + id] = start;
+            runLengths[offset + id] = length;
+        }
+    }
+
+    /**
+     * Records the token at the given cell being removed.<br>
+     * Precondition: The row and column are valid.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     */
+    public void remove(int row, int col) {
+        int cell = row * width + col;
+        int entry = journalSize - JOURNAL_ENTRY_SIZE;
+        if (entry < 0 || journal[entry] != cell) {
+            owners[cell] = EMPTY_OWNER;
+            rebuild();
+            return;
+        }
+
+        for (int direction = 0; direction < NUMBER_OF_DIRECTIONS; direction++) {
+            int step = ROW_STEPS[direction] * width + COL_STEPS[direction];
+            int offset = direction * numberOfCells;
+            int position = entry + 1 + DIRECTION_ENTRY_SIZE * direction;
+            int id = journal[position];
+            runStarts[offset + id] = journal[position + 1];
+            runLengths[offset + id] = journal[position + 2];
+            int moved = journal[position + 3];
+            if (moved >= 0) {
+                // The moved sequence's own start and length were never changed
+                relabel(offset, journal[position + 4], journal[position + 5], step, moved);
+            }
+        }
+        owners[cell] = EMPTY_OWNER;
+        journalSize = entry;
+    }
+
+    /**
+     * Removes every token from the index.
+     */
+    public void clear() {
+        Arrays.fill(owners, EMPTY_OWNER);
+        journalSize = 0;
+    }
+
+    /**
+     * Finds the length of the sequence through the given cell in the given
+     * direction.<br>
+     * Precondition: The row and column are valid.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @param direction The direction of the sequence.
+     * @return The length of the sequence, or 0 if the cell is empty.
+     */
+    public int runLength(int row, int col, int direction) {
+        int cell = row * width + col;
+        int owner = owners[cell];
+        if (owner == EMPTY_OWNER) {
+            return 0;
+        }
+
+        int offset = direction * numberOfCells;
+        return runLengths[offset + runIds[offset + cell]];
+    }
+
+    /**
+     * Finds the length of the longest sequence through the given cell in any
+     * direction.<br>
+     * Precondition: The row and column are valid.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return The length of the longest sequence, or 0 if the cell is empty.
+     */
+    public int longestRun(int row, int col) {
+        int longest = 0;
+        for (int direction = 0; direction < NUMBER_OF_DIRECTIONS; direction++) {
+            longest = Math.max(longest, runLength(row, col, direction));
+        }
+        return longest;
+    }
+
+    /**
+     * Gives the cells of a sequence a new id.
+     * @param offset The offset of the sequence's direction.
+     * @param first The first cell of the sequence.
+     * @param length The length of the sequence.
+     * @param step The distance between adjacent cells of the sequence.
+     * @param id The new id.
+     */
+    private void relabel(int offset, int first, int length, int step, int id) {
+        for (int i = 0, cell = first; i < length; i++, cell += step) {
+            runIds[offset + cell] = id;
+        }
+    }
+
+    /**
+     * Recalculates the sequences of every cell from the owners of every cell.
+     */
+    private void rebuild() {
+        journalSize = 0;
+
+        for (int direction = 0; direction < NUMBER_OF_DIRECTIONS; direction++) {
+            int rowStep = ROW_STEPS[direction];
+            int colStep = COL_STEPS[direction];
+            int step = rowStep * width + colStep;
+            int offset = direction * numberOfCells;
+
+            // Every direction steps forward in either the row or the column,
+            // so going through the rows and columns in order always visits the
+            // previous cell first
+            for (int cell = 0; cell < numberOfCells; cell++) {
+                int row = cell / width;
+                int col = cell % width;
+                if (owners[cell] == EMPTY_OWNER) {
+                    continue;
+                }
+                if (isOwnedBy(row - rowStep, col - colStep, owners[cell])) {
+                    int id = runIds[offset + cell - step];
+                    runIds[offset + cell] = id;
+                    runLengths[offset + id]++;
+                } else {
+                    runIds[offset + cell] = cell;
+                    runStarts[offset + cell] = cell;
+                    runLengths[offset + cell] = 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Determines if the given cell is on the board and owned by the given
+     * owner.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @param owner The owner being checked for.
+     * @return True if the cell is in bounds and has the given owner.
+     */
+    private boolean isOwnedBy(int row, int col, int owner) {
+        return row >= 0 && row < height && col >= 0 && col < width
+               && owners[row * width + col] == owner;
+    }
+
+}
@@ -0,0 +1,115 @@
+/**
+ * Scores open windows one cell at a time. Each line of the board is walked
+ * once, sliding a window along it and keeping count of the tokens of each
+ * player in the window, so every cell is looked at once per direction.
+ * @author Eli W. Hunter
+ */
+public class ScalarEvaluationKernel extends EvaluationKernel {
+
+    /** The row step size of each direction. (|, -, /, \) */
+    private static final int[] ROW_STEPS = {1, 0, 1, 1};
+    /** The column step size of each direction. (|, -, /, \) */
+    private static final int[] COL_STEPS = {0, 1, 1, -1};
+
+    /** The number of tokens of each player in the current window. */
+    private int[] counts;
+
+    /**
+     * Creates a scalar kernel for boards with the given dimensions.
+     * @param width The width of the boards.
+     * @param height The height of the boards.
+     * @param tokensToConnect The number of tokens that must be connected.
+     */
+    public ScalarEvaluationKernel(int width, int height, int tokensToConnect) {
+        super(width, height, tokensToConnect);
+        this.counts = new int[BLOCKED + 1];
+    }
+
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+
+    @Override
+    public void scoreWindows(byte[] cells, int players, int[] scores) {
+        for (int direction = 0; direction < ROW_STEPS.length; direction++) {
+            int rowStep = ROW_STEPS[direction];
+            int colStep = COL_STEPS[direction];
+            // Every line begins at a cell whose previous cell is off the board
+            for (int row = 0; row < height; row++) {
+                for (int col = 0; col < width; col++) {
+                    if (isOnBoard(row - rowStep, col - colStep)) {
+                        continue;
+                    }
+                    scoreLine(cells, row, col, direction, players, scores);
+                }
+            }
+        }
+    }
+
+    /**
+     * Slides a window of tokensToConnect cells along a single line, adding
+     * the score of every open window to its player.
+     * @param cells The cells of the board.
+     * @param row The row of the first cell of the line.
+     * @param col The column of the first cell of the line.
+     * @param direction The direction of the line.
+     * @param players The number of players being scored.
+     * @param scores The score of each player.
+     */
+    private void scoreLine(byte[] cells, int row, int col, int direction, int players, int[] scores) {
+        int step = steps[direction];
+        int length = lineLength(row, col, ROW_STEPS[direction], COL_STEPS[direction]);
+        if (length < tokensToConnect) {
+            return;
+        }
+
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = 0;
+        }
+        int first = cellIndex(row, col);
+        // The number of different players with a token in the window
+        int playersInWindow = 0;
+        // The exclusive-or of every player in the window, which is the player
+        // itself when there is only one
+        int windowPlayer = 0;
+
+        for (int i = 0; i < length; i++) {
+            int entering = cells[first + i * step];
+            if (entering != EMPTY && counts[entering]++ == 0) {
+                playersInWindow++;
+                windowPlayer ^= entering;
+            }
+            if (i >= tokensToConnect) {
+                int leaving = cells[first + (i - tokensToConnect) * step];
+                if (leaving != EMPTY && --counts[leaving] == 0) {
+                    playersInWindow--;
+                    windowPlayer ^= leaving;
+                }
+            }
+
+            if (i >= tokensToConnect - 1 && playersInWindow == 1 && windowPlayer <= players) {
+                scores[windowPlayer - 1] += lineScores[counts[windowPlayer]];
+            }
+        }
+    }
+
+    /**
+     * Finds the number of cells in the line starting at the given cell.
+     */
+    private int lineLength(int row, int col, int rowStep, int colStep) {
+        int length = 0;
+        while (isOnBoard(row + length * rowStep, col + length * colStep)) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Determines whether the given cell is on the board.
+     */
+    private boolean isOnBoard(int row, int col) {
+        return row >= 0 && row < height && col >= 0 && col < width;
+    }
+
+}
@@ -0,0 +1,99 @@
+/**
+ * Describes the result of a single AI search: the chosen column, its score,
+ * how deep the search went, and how much work it took.
+ * @author Eli W. Hunter
+ */
+public class SearchStatistics {
+
+    /** The number of nanoseconds in a second. */
+    private static final long NANOSECONDS_PER_SECOND = 1_000_000_000L;
+
+    /** The column the search chose. */
+    private final int bestColumn;
+    /** The score of the chosen column, from the searching player's point of view. */
+    private final int score;
+    /** The depth (in moves) of the deepest completed search. */
+    private final int depth;
+    /** The number of positions that were searched. */
+    private final long nodes;
+    /** How long the search took, in nanoseconds. */
+    private final long elapsedNanos;
+
+    /**
+     * Creates the statistics of a finished search.
+     * @param bestColumn The column the search chose.
+     * @param score The score of the chosen column.
+     * @param depth The depth of the deepest completed search.
+     * @param nodes The number of positions that were searched.
+     * @param elapsedNanos How long the search took, in nanoseconds.
+     */
+    public SearchStatistics(int bestColumn, int score, int depth, long nodes, long elapsedNanos) {
+        this.bestColumn = bestColumn;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Accessor Method
+     * @return The column the search chose.
+     */
+    public int getBestColumn() {
+        return bestColumn;
+    }
+
+    /**
+     * Accessor Method
+     * @return The score of the chosen column, from the searching player's point
+     *     of view.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Accessor Method
+     * @return The depth (in moves) of the deepest completed search.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Accessor Method
+     * @return The number of positions that were searched.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Accessor Method
+     * @return How long the search took, in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Finds how many positions were searched each second.
+     * @return The number of nodes per second, or 0 if no time was measured.
+     */
+    public long getNodesPerSecond() {
+        if (elapsedNanos <= 0) {
+            return 0;
+        }
+        return (long) ((double) nodes * NANOSECONDS_PER_SECOND / elapsedNanos);
+    }
+
+    /**
+     * Describes the statistics in a single line.
+     * @return A human-readable description of the search.
+     */
+    public String toString() {
+        return String.format("column %d, score %d, depth %d, %d nodes in %.1f ms (%d nodes/s)",
+                bestColumn, score, depth, nodes, elapsedNanos / 1e6, getNodesPerSecond());
+    }
+
+}
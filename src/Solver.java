@@ -0,0 +1,453 @@
+/**
+ * A perfect solver for the standard game: two players connecting 4 on a 7 by
+ * 6 board.<br>
+ * Positions are held in their own compact bitboard: one long with the tokens
+ * of the player to move, and one with every token, so a move is just two
+ * operations and the pair never has to be copied back. The solver runs an
+ * alpha-beta negamax search to the end of the game with a zero-width window,
+ * and narrows the window around the true score like a binary search.
+ * Positions are looked up in a {@link TranspositionTable}, moves which let
+ * the opponent win immediately are never searched, and the remaining moves
+ * are searched in order of how many winning threats they create.<br>
+ * Scores are from the point of view of the player to move: positive if they
+ * can force a win, negative if they lose against perfect play, and 0 for a
+ * draw. The size of a win or loss is the number of the winner's tokens that
+ * will still be unplayed when the game ends, plus 1, so quicker wins score
+ * higher.
+ * @author Eli W. Hunter
+ */
+public class Solver {
+
+    /** The width of the boards the solver can solve. */
+    public static final int WIDTH = 7;
+    /** The height of the boards the solver can solve. */
+    public static final int HEIGHT = 6;
+    /** The number of tokens to connect on the boards the solver can solve. */
+    public static final int TOKENS_TO_CONNECT = 4;
+    /** The number of players of the games the solver can solve. */
+    public static final int NUMBER_OF_PLAYERS = 2;
+    /** The lowest score a position can have. */
+    public static final int MIN_SCORE = -(WIDTH * HEIGHT) / 2 + 3;
+    /** The highest score a position can have. */
+    public static final int MAX_SCORE = (WIDTH * HEIGHT + 1) / 2 - 3;
+    /** The default number of entries in the solver's transposition table, which takes 64 MiB. */
+    public static final int DEFAULT_TABLE_CAPACITY = 1 << 22;
+
+    // ERROR MESSAGES
+    /** The error message displayed when the game isn't the standard one. */
+    public static final String UNSUPPORTED_ERROR_MESSAGE = String.format(
+        "The solver only solves %d player games of connect %d on a %dx%d board.",
+        NUMBER_OF_PLAYERS, TOKENS_TO_CONNECT, WIDTH, HEIGHT);
+
+    /** The number of cells on the board. */
+    private static final int CELLS = WIDTH * HEIGHT;
+    /** The number of bits used by each column, including a separator bit on top. */
+    private static final int COLUMN_STRIDE = HEIGHT + 1;
+    /** The bottom cell of every column. */
+    private static final long BOTTOM_MASK = bottomMask();
+    /** Every cell of the board. */
+    private static final long BOARD_MASK = BOTTOM_MASK * ((1L << HEIGHT) - 1);
+    /** The order columns are searched in, from the centre outwards. */
+    private static final int[] COLUMN_ORDER = columnOrder();
+
+    /** The table of bounds of positions that have been searched. */
+    private final TranspositionTable table;
+    /** The columns to search at each ply, sorted best first. */
+    private final long[][] sortedMoves;
+    /** The number of threats of each move at each ply. */
+    private final int[][] sortedScores;
+    /** The number of positions searched so far. */
+    private long nodes;
+    /** The statistics of the last call to bestMove(). */
+    private SearchStatistics statistics;
+
+    /**
+     * Creates a solver with a transposition table of the default size.
+     */
+    public Solver() {
+        this(new TranspositionTable(DEFAULT_TABLE_CAPACITY));
+    }
+
+    /**
+     * Creates a solver which keeps its results in the given table.
+     * @param table The transposition table to keep results in. It must not
+     *     be shared with other kinds of searches, whose keys and scores mean
+     *     something else.
+     */
+    public Solver(TranspositionTable table) {
+        this.table = table;
+        this.sortedMoves = new long[CELLS + 1][WIDTH];
+        this.sortedScores = new int[CELLS + 1][WIDTH];
+    }
+
+    /**
+     * Determines whether the solver can solve a game on the given board
+     * between the given players.
+     * @param board The game board.
+     * @param players The players of the game.
+     * @return True if the game is two players connecting 4 on a 7x6 board.
+     */
+    public static boolean canSolve(GameBoard board, Player[] players) {
+        return board.getWidth() == WIDTH && board.getHeight() == HEIGHT
+            && board.getTokensToConnect() == TOKENS_TO_CONNECT
+            && players != null && players.length == NUMBER_OF_PLAYERS;
+    }
+
+    /**
+     * Accessor Method
+     * @return The number of positions searched since the solver was created.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Accessor Method
+     * @return The statistics of the last call to bestMove(), or null if there
+     *     has not been one. The depth is the number of empty cells.
+     */
+    public SearchStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Finds the exact score of the position for the given player, assuming it
+     * is their move.
+     * @param board The game board, which must not already be won.
+     * @param player The player to move.
+     * @return The score of the position for the player.
+     * @throws IllegalArgumentException When the board isn't a 7x6 connect 4
+     *     board.
+     */
+    public int solve(GameBoard board, Player player) {
+        checkBoard(board);
+        int owner = Token.indexOf(player);
+        return solve(positionOf(board, owner), maskOf(board), board.getNumberOfTokens());
+    }
+
+    /**
+     * Finds the best column for the given player, which is the one with the
+     * highest score. Ties are broken towards the centre.
+     * @param board The game board, which must not already be won.
+     * @param player The player to move.
+     * @return The best column.
+     * @throws IllegalArgumentException When the board isn't a 7x6 connect 4
+     *     board, or when it is full.
+     */
+    public int bestMove(GameBoard board, Player player) {
+        checkBoard(board);
+        long start = System.nanoTime();
+        long startNodes = nodes;
+
+        long position = positionOf(board, Token.indexOf(player));
+        long mask = maskOf(board);
+        int moves = board.getNumberOfTokens();
+
+        int bestColumn = -1;
+        int bestScore = Integer.MIN_VALUE;
+        for (int col : COLUMN_ORDER) {
+            long move = (mask + bottomMaskOf(col)) & columnMask(col);
+            if ((move & BOARD_MASK) == 0) {
+                continue; // the column is full
+            }
+
+            int score;
+            if ((winningPositions(position, mask) & move) != 0) {
+                score = (CELLS + 1 - moves) / 2;
+            } else {
+                score = -solve(position ^ mask, mask | move, moves + 1);
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestColumn = col;
+            }
+        }
+        if (bestColumn < 0) {
+            throw new IllegalArgumentException(NegamaxSearch.NO_MOVES_ERROR_MESSAGE);
+        }
+
+        statistics = new SearchStatistics(bestColumn, bestScore, CELLS - moves, nodes - startNodes,
+                System.nanoTime() - start);
+        return bestColumn;
+    }
+
+    /**
+     * Finds the exact score of a position by narrowing a zero-width window
+     * around it.
+     * @param position The tokens of the player to move.
+     * @param mask Every token on the board.
+     * @param moves The number of tokens on the board.
+     * @return The score of the position for the player to move.
+     */
+    private int solve(long position, long mask, int moves) {
+        if ((winningPositions(position, mask) & possibleMoves(mask)) != 0) {
+            return (CELLS + 1 - moves) / 2;
+        }
+        if (moves >= CELLS) {
+            return 0;
+        }
+
+        int min = -(CELLS - moves) / 2;
+        int max = (CELLS + 1 - moves) / 2;
+        while (min < max) {
+            int middle = min + (max - min) / 2;
+            // Try scores near 0 first, since most positions are close
+            if (middle <= 0 && min / 2 < middle) {
+                middle = min / 2;
+            } else if (middle >= 0 && max / 2 > middle) {
+                middle = max / 2;
+            }
+            int score = negamax(position, mask, moves, middle, middle + 1);
+            if (score <= middle) {
+                max = score;
+            } else {
+                min = score;
+            }
+        }
+        return min;
+    }
+
+    /**
+     * Finds the score of a position within the given window. The player to
+     * move must not be able to win immediately.
+     * @param position The tokens of the player to move.
+     * @param mask Every token on the board.
+     * @param moves The number of tokens on the board.
+     * @param alpha The score the player to move is already guaranteed.
+     * @param beta The score the opponent can already hold the player to.
+     * @return The exact score if it is within the window, at most alpha if
+     *     the score is at most alpha, or at least beta if it is at least beta.
+     */
+    private int negamax(long position, long mask, int moves, int alpha, int beta) {
+        nodes++;
+
+        long next = nonLosingMoves(position, mask);
+        if (next == 0) {
+            return -(CELLS - moves) / 2; // every move lets the opponent win
+        }
+        if (moves >= CELLS - 2) {
+            return 0; // nobody can win with the last two tokens
+        }
+
+        // The opponent can't win on their next move, so the player can't lose before then
+        int min = -(CELLS - 2 - moves) / 2;
+        if (alpha < min) {
+            alpha = min;
+            if (alpha >= beta) {
+                return alpha;
+            }
+        }
+        // The player can't win on this move, so they can't win before their next one
+        int max = (CELLS - 1 - moves) / 2;
+
+        long key = keyOf(position, mask);
+        long entry = table.probe(key);
+        if (entry != TranspositionTable.MISS) {
+            int score = TranspositionTable.getScore(entry);
+            if (TranspositionTable.getBound(entry) == TranspositionTable.LOWER_BOUND) {
+                min = score;
+                if (alpha < min) {
+                    alpha = min;
+                    if (alpha >= beta) {
+                        return alpha;
+                    }
+                }
+            } else {
+                max = score;
+            }
+        }
+        if (beta > max) {
+            beta = max;
+            if (alpha >= beta) {
+                return beta;
+            }
+        }
+
+        int count = sortMoves(position, mask, next, moves);
+        long[] ordered = sortedMoves[moves];
+        for (int i = 0; i < count; i++) {
+            long move = ordered[i];
+            int score = -negamax(position ^ mask, mask | move, moves + 1, -beta, -alpha);
+            if (score >= beta) {
+                table.store(key, CELLS - moves, TranspositionTable.LOWER_BOUND, score, -1);
+                return score;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+        }
+
+        table.store(key, CELLS - moves, TranspositionTable.UPPER_BOUND, alpha, -1);
+        return alpha;
+    }
+
+    /**
+     * Sorts the given moves by the number of winning threats they create,
+     * breaking ties towards the centre.
+     * @param position The tokens of the player to move.
+     * @param mask Every token on the board.
+     * @param next The moves to sort, one bit per move.
+     * @param moves The number of tokens on the board, which picks the arrays.
+     * @return The number of moves, which are in sortedMoves[moves].
+     */
+    private int sortMoves(long position, long mask, long next, int moves) {
+        long[] ordered = sortedMoves[moves];
+        int[] scores = sortedScores[moves];
+        int count = 0;
+        for (int col : COLUMN_ORDER) {
+            long move = next & columnMask(col);
+            if (move == 0) {
+                continue;
+            }
+            int score = Long.bitCount(winningPositions(position | move, mask));
+
+            // Insertion sort, keeping earlier (more central) columns first among equals
+            int i = count++;
+            while (i > 0 && scores[i - 1] < score) {
+                ordered[i] = ordered[i - 1];
+                scores[i] = scores[i - 1];
+                i--;
+            }
+            ordered[i] = move;
+            scores[i] = score;
+        }
+        return count;
+    }
+
+    /**
+     * Finds the moves which don't let the opponent win on their next move.
+     * @param position The tokens of the player to move.
+     * @param mask Every token on the board.
+     * @return The moves, one bit per move, or 0 if every move loses.
+     */
+    private static long nonLosingMoves(long position, long mask) {
+        long possible = possibleMoves(mask);
+        long opponentWins = winningPositions(position ^ mask, mask);
+        long forced = possible & opponentWins;
+        if (forced != 0) {
+            if ((forced & (forced - 1)) != 0) {
+                return 0; // the opponent has two threats, which can't both be blocked
+            }
+            possible = forced;
+        }
+        // Never play directly below a cell where the opponent would win
+        return possible & ~(opponentWins >>> 1);
+    }
+
+    /**
+     * Finds the empty cells that would complete a line of the given player's
+     * tokens, whether they can be played into yet or not.
+     * @param position The tokens of a player.
+     * @param mask Every token on the board.
+     * @return The winning cells of the player.
+     */
+    private static long winningPositions(long position, long mask) {
+        // vertical
+        long result = (position << 1) & (position << 2) & (position << 3);
+
+        // horizontal, then each diagonal
+        for (int shift = HEIGHT; shift <= HEIGHT + 2; shift++) {
+            long pair = (position << shift) & (position << 2 * shift);
+            result |= pair & (position << 3 * shift);
+            result |= pair & (position >>> shift);
+            pair = (position >>> shift) & (position >>> 2 * shift);
+            result |= pair & (position << shift);
+            result |= pair & (position >>> 3 * shift);
+        }
+
+        return result & (BOARD_MASK ^ mask);
+    }
+
+    /**
+     * Finds the lowest empty cell of every column which isn't full.
+     * @param mask Every token on the board.
+     * @return The playable cells.
+     */
+    private static long possibleMoves(long mask) {
+        return (mask + BOTTOM_MASK) & BOARD_MASK;
+    }
+
+    /**
+     * Finds a unique key for a position, spread over every bit so it can be
+     * used with the transposition table.
+     */
+    private static long keyOf(long position, long mask) {
+        // position + mask is unique, and multiplying by an odd number keeps it unique
+        return (position + mask) * 0x9E3779B97F4A7C15L;
+    }
+
+    /**
+     * Finds the bits of every cell in a column.
+     */
+    private static long columnMask(int col) {
+        return ((1L << HEIGHT) - 1) << col * COLUMN_STRIDE;
+    }
+
+    /**
+     * Finds the bit of the bottom cell of a column.
+     */
+    private static long bottomMaskOf(int col) {
+        return 1L << col * COLUMN_STRIDE;
+    }
+
+    /**
+     * Finds the bits of the bottom cell of every column.
+     */
+    private static long bottomMask() {
+        long mask = 0;
+        for (int col = 0; col < WIDTH; col++) {
+            mask |= bottomMaskOf(col);
+        }
+        return mask;
+    }
+
+    /**
+     * Finds the order columns are searched in, from the centre outwards.
+     */
+    private static int[] columnOrder() {
+        int[] order = new int[WIDTH];
+        for (int i = 0; i < WIDTH; i++) {
+            order[i] = WIDTH / 2 + (1 - 2 * (i % 2)) * (i + 1) / 2;
+        }
+        return order;
+    }
+
+    /**
+     * Finds the bits of the given owner's tokens on a game board.
+     */
+    private static long positionOf(GameBoard board, int owner) {
+        long position = 0;
+        for (int col = 0; col < WIDTH; col++) {
+            for (int row = 0; row < board.getNextRow(col); row++) {
+                if (board.getOwnerIndex(row, col) == owner) {
+                    position |= 1L << (col * COLUMN_STRIDE + row);
+                }
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Finds the bits of every token on a game board.
+     */
+    private static long maskOf(GameBoard board) {
+        long mask = 0;
+        for (int col = 0; col < WIDTH; col++) {
+            mask |= ((1L << board.getNextRow(col)) - 1) << col * COLUMN_STRIDE;
+        }
+        return mask;
+    }
+
+    /**
+     * Checks that the given board can be solved.
+     * @throws IllegalArgumentException When the board isn't a 7x6 connect 4
+     *     board.
+     */
+    private static void checkBoard(GameBoard board) {
+        if (board.getWidth() != WIDTH || board.getHeight() != HEIGHT
+                || board.getTokensToConnect() != TOKENS_TO_CONNECT) {
+            throw new IllegalArgumentException(UNSUPPORTED_ERROR_MESSAGE);
+        }
+    }
+
+}
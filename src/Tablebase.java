@@ -0,0 +1,454 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A read-only endgame tablebase for two player games on a small board,
+ * written by the TablebaseGenerator.<br>
+ * The tablebase holds the exact result (win, loss or draw for the player to
+ * move) and the number of moves until the game ends with perfect play, of
+ * every reachable position with at least a threshold number of tokens.<br>
+ * Each position is keyed by packing it into width * (height + 1) bits: every
+ * column has a bit for each cell set if the first player owns it, plus one
+ * more set bit just above the top token. Each entry of the file is a key
+ * followed by an 8-bit value, packed into as few bits as possible and sorted
+ * by key. Like an OpeningBook, the file is memory-mapped, and lookups binary
+ * search it.
+ * @author Eli W. Hunter
+ */
+public class Tablebase {
+
+    /** The first 4 bytes of every tablebase file. */
+    public static final int MAGIC = 0x434E5442; // "CNTB"
+    /** The version of the tablebase file format. */
+    public static final int VERSION = 1;
+    /** The number of players of the games tablebases are made for. */
+    public static final int NUMBER_OF_PLAYERS = 2;
+    /** The largest number of bits a key can have, so entries sort as longs. */
+    public static final int MAX_KEY_BITS = Long.SIZE - Byte.SIZE - 1;
+    /** The number of bytes before the first entry. */
+    public static final int HEADER_BYTES = 7 * Integer.BYTES + Long.BYTES;
+    /** The value returned when a position isn't in the tablebase. */
+    public static final int NOT_FOUND = -1;
+
+    /** Defines the loss result. Results are ordered from worst to best, and must fit in 2 bits. */
+    public static final int LOSS = 0;
+    /** Defines the draw result. Results are ordered from worst to best, and must fit in 2 bits. */
+    public static final int DRAW = 1;
+    /** Defines the win result. Results are ordered from worst to best, and must fit in 2 bits. */
+    public static final int WIN = 2;
+
+    // ERROR MESSAGES
+    /** The error message displayed when a file isn't a tablebase. */
+    public static final String FORMAT_ERROR_MESSAGE = "The file is not a tablebase.";
+    /** The error message displayed when a tablebase is too large to map. */
+    public static final String SIZE_ERROR_MESSAGE = "The tablebase is too large.";
+    /** The error message displayed when a board is too large for a tablebase. */
+    public static final String BOARD_ERROR_MESSAGE =
+        "Tablebases can only be made for boards with width * (height + 1) <= " + MAX_KEY_BITS + ".";
+
+    /** The number of bits of the distance in a value. */
+    private static final int DISTANCE_BITS = 6;
+    /** The bits of the distance in a value. */
+    private static final int DISTANCE_MASK = (1 << DISTANCE_BITS) - 1;
+
+    /** The contents of the tablebase file. Only absolute reads are used, so it can be shared. */
+    private final ByteBuffer buffer;
+    /** The width of the boards the tablebase was made for. */
+    private final int width;
+    /** The height of the boards the tablebase was made for. */
+    private final int height;
+    /** The number of tokens to connect on the boards the tablebase was made for. */
+    private final int tokensToConnect;
+    /** The fewest tokens a position in the tablebase has. */
+    private final int threshold;
+    /** The number of bits in each entry. */
+    private final int entryBits;
+    /** The number of entries in the tablebase. */
+    private final long size;
+
+    /**
+     * Creates a tablebase from the contents of a tablebase file.
+     * @param buffer The contents of the tablebase file.
+     * @throws IllegalArgumentException When the contents aren't a tablebase.
+     */
+    private Tablebase(ByteBuffer buffer) {
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC
+                || buffer.getInt(Integer.BYTES) != VERSION) {
+            throw new IllegalArgumentException(FORMAT_ERROR_MESSAGE);
+        }
+
+        this.buffer = buffer;
+        this.width = buffer.getInt(2 * Integer.BYTES);
+        this.height = buffer.getInt(3 * Integer.BYTES);
+        this.tokensToConnect = buffer.getInt(4 * Integer.BYTES);
+        this.threshold = buffer.getInt(5 * Integer.BYTES);
+        this.entryBits = buffer.getInt(6 * Integer.BYTES);
+        this.size = buffer.getLong(7 * Integer.BYTES);
+        if (entryBits != keyBits(width, height) + Byte.SIZE
+                || buffer.capacity() != HEADER_BYTES + (long) wordsFor(size, entryBits) * Long.BYTES) {
+            throw new IllegalArgumentException(FORMAT_ERROR_MESSAGE);
+        }
+    }
+
+    /**
+     * Opens a tablebase file by mapping it into memory. The file isn't read
+     * until it is probed.
+     * @param file The tablebase file.
+     * @return The opened tablebase.
+     * @throws IOException When the file can't be opened.
+     * @throws IllegalArgumentException When the file isn't a tablebase, or is
+     *     too large to map.
+     */
+    public static Tablebase open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException(SIZE_ERROR_MESSAGE);
+            }
+            // The mapping stays valid after the channel is closed
+            return new Tablebase(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Finds the usual name of the tablebase file for a board.
+     * @param width The width of the board.
+     * @param height The height of the board.
+     * @param tokensToConnect The number of tokens to connect on the board.
+     * @return The name of the tablebase file.
+     */
+    public static String defaultFileName(int width, int height, int tokensToConnect) {
+        return String.format("tablebase-%dx%dx%d.bin", width, height, tokensToConnect);
+    }
+
+    /**
+     * Determines whether a tablebase can be made for a board of the given size.
+     * @param width The width of the board.
+     * @param height The height of the board.
+     * @return True if the keys of the board fit in {@value #MAX_KEY_BITS} bits.
+     */
+    public static boolean fits(int width, int height) {
+        return keyBits(width, height) <= MAX_KEY_BITS;
+    }
+
+    /**
+     * Accessor Method
+     * @return The width of the boards the tablebase was made for.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Accessor Method
+     * @return The height of the boards the tablebase was made for.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Accessor Method
+     * @return The number of tokens to connect on the boards the tablebase was
+     *     made for.
+     */
+    public int getTokensToConnect() {
+        return tokensToConnect;
+    }
+
+    /**
+     * Accessor Method
+     * @return The fewest tokens a position in the tablebase has.
+     */
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Accessor Method
+     * @return The number of positions in the tablebase.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Determines whether the tablebase covers the current position of a game.
+     * @param board The game board.
+     * @param players The players of the game.
+     * @return True if the tablebase was made for the game, and the board has
+     *     enough tokens.
+     */
+    public boolean covers(GameBoard board, Player[] players) {
+        return board.getWidth() == width && board.getHeight() == height
+            && board.getTokensToConnect() == tokensToConnect
+            && players != null && players.length == NUMBER_OF_PLAYERS
+            && board.getNumberOfTokens() >= threshold;
+    }
+
+    /**
+     * Finds the value of the current position of a game.
+     * @param board The game board, which must not already be won.
+     * @param players The players of the game, in the order they take turns.
+     * @return The value of the position for the player to move, or {@value
+     *     #NOT_FOUND} if the tablebase doesn't cover it. See getResult() and
+     *     getDistance().
+     */
+    public int probe(GameBoard board, Player[] players) {
+        if (!covers(board, players)) {
+            return NOT_FOUND;
+        }
+        return find(keyOf(board, players));
+    }
+
+    /**
+     * Finds the best column in the current position of a game: the quickest
+     * win, else a draw, else the slowest loss.
+     * @param board The game board, which must not already be won.
+     * @param players The players of the game, in the order they take turns.
+     * @return The best column, or {@value #NOT_FOUND} if the tablebase doesn't
+     *     cover the position.
+     */
+    public int bestMove(GameBoard board, Player[] players) {
+        if (!covers(board, players)) {
+            return NOT_FOUND;
+        }
+
+        long key = keyOf(board, players);
+        int bestColumn = NOT_FOUND;
+        int bestValue = NOT_FOUND;
+        for (int col = 0; col < width; col++) {
+            long child = play(key, col, width, height);
+            if (child == NOT_FOUND) {
+                continue; // the column is full
+            }
+
+            int value;
+            if (isWin(child, col, width, height, tokensToConnect)) {
+                value = valueOf(WIN, 1);
+            } else {
+                int childValue = find(child);
+                if (childValue == NOT_FOUND) {
+                    return NOT_FOUND; // only possible if the file doesn't match the game
+                }
+                value = parentValue(childValue);
+            }
+            if (bestValue == NOT_FOUND || compare(value, bestValue) > 0) {
+                bestValue = value;
+                bestColumn = col;
+            }
+        }
+        return bestColumn;
+    }
+
+    /**
+     * Finds the value of a position by binary searching the entries.
+     * @param key The key of the position.
+     * @return The value of the position, or {@value #NOT_FOUND} if it isn't
+     *     in the tablebase.
+     */
+    public int find(long key) {
+        long low = 0;
+        long high = size - 1;
+        while (low <= high) {
+            long middle = (low + high) >>> 1;
+            long entry = getEntry(middle);
+            long middleKey = entry >>> Byte.SIZE;
+            if (middleKey < key) {
+                low = middle + 1;
+            } else if (middleKey > key) {
+                high = middle - 1;
+            } else {
+                return (int) (entry & 0xFF);
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Reads an entry from the file.
+     * @param index The index of the entry.
+     * @return The entry, which is the key followed by the value.
+     */
+    private long getEntry(long index) {
+        long bit = index * entryBits;
+        int word = (int) (bit >>> 6);
+        int shift = (int) (bit & (Long.SIZE - 1));
+        long value = buffer.getLong(HEADER_BYTES + word * Long.BYTES) >>> shift;
+        if (shift + entryBits > Long.SIZE) {
+            value |= buffer.getLong(HEADER_BYTES + (word + 1) * Long.BYTES) << (Long.SIZE - shift);
+        }
+        return value & ((1L << entryBits) - 1);
+    }
+
+    /**
+     * Finds the result part of a value.
+     * @param value The value of a position.
+     * @return {@value #WIN}, {@value #LOSS} or {@value #DRAW}, for the player
+     *     to move.
+     */
+    public static int getResult(int value) {
+        return value >>> DISTANCE_BITS;
+    }
+
+    /**
+     * Finds the distance part of a value.
+     * @param value The value of a position.
+     * @return The number of moves until the game ends with perfect play.
+     */
+    public static int getDistance(int value) {
+        return value & DISTANCE_MASK;
+    }
+
+    /**
+     * Packs a result and distance into a value.
+     * @param result The result for the player to move.
+     * @param distance The number of moves until the game ends.
+     * @return The value.
+     */
+    static int valueOf(int result, int distance) {
+        return result << DISTANCE_BITS | distance;
+    }
+
+    /**
+     * Finds the value of a position from the value of the position after a
+     * move, which is from the other player's point of view.
+     * @param childValue The value after the move.
+     * @return The value before the move.
+     */
+    static int parentValue(int childValue) {
+        return valueOf(WIN + LOSS - getResult(childValue), getDistance(childValue) + 1);
+    }
+
+    /**
+     * Compares two values from the point of view of the player to move.
+     * @return A positive number if the first value is better, a negative
+     *     number if it is worse, or 0 if they are equally good.
+     */
+    static int compare(int value, int otherValue) {
+        int result = getResult(value);
+        if (result != getResult(otherValue)) {
+            return Integer.compare(result, getResult(otherValue));
+        }
+        int distance = getDistance(value);
+        int otherDistance = getDistance(otherValue);
+        // Win quickly, lose slowly
+        return result == WIN ? Integer.compare(otherDistance, distance) : Integer.compare(distance, otherDistance);
+    }
+
+    /**
+     * Finds the number of bits in the keys of a board.
+     */
+    static int keyBits(int width, int height) {
+        return width * (height + 1);
+    }
+
+    /**
+     * Finds the number of longs needed to hold the given entries, plus one so
+     * that every entry can be read as a pair of longs.
+     */
+    static int wordsFor(long size, int entryBits) {
+        return (int) ((size * entryBits + Long.SIZE - 1) / Long.SIZE) + 1;
+    }
+
+    /**
+     * Finds the key of the current position of a game.
+     * @param board The game board.
+     * @param players The players of the game, in the order they take turns.
+     * @return The key of the position.
+     */
+    public static long keyOf(GameBoard board, Player[] players) {
+        int first = Token.indexOf(players[0]);
+        long key = 0;
+        for (int col = 0; col < board.getWidth(); col++) {
+            int shift = col * (board.getHeight() + 1);
+            key |= 1L << (shift + board.getNextRow(col)); // the bit above the top token
+            for (int row = 0; row < board.getNextRow(col); row++) {
+                if (board.getOwnerIndex(row, col) == first) {
+                    key |= 1L << (shift + row);
+                }
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Finds the number of tokens in a column of a key.
+     */
+    static int columnHeight(long key, int col, int height) {
+        long column = (key >>> col * (height + 1)) & ((1L << (height + 1)) - 1);
+        return Long.SIZE - 1 - Long.numberOfLeadingZeros(column);
+    }
+
+    /**
+     * Finds the number of tokens in a key.
+     */
+    static int numberOfTokens(long key, int width, int height) {
+        int tokens = 0;
+        for (int col = 0; col < width; col++) {
+            tokens += columnHeight(key, col, height);
+        }
+        return tokens;
+    }
+
+    /**
+     * Finds the key after the player to move plays in a column.
+     * @return The new key, or {@value #NOT_FOUND} if the column is full.
+     */
+    static long play(long key, int col, int width, int height) {
+        int row = columnHeight(key, col, height);
+        if (row == height) {
+            return NOT_FOUND;
+        }
+        int top = col * (height + 1) + row;
+        boolean firstToMove = numberOfTokens(key, width, height) % NUMBER_OF_PLAYERS == 0;
+        // Adding carries the marker bit up a row, leaving an empty bit for a second player's token
+        key += 1L << top;
+        if (firstToMove) {
+            key |= 1L << top;
+        }
+        return key;
+    }
+
+    /**
+     * Determines whether the last token played in a column completed a line.
+     * @param key The key after the token was played.
+     * @param col The column of the token.
+     */
+    static boolean isWin(long key, int col, int width, int height, int tokensToConnect) {
+        long marker = 0;
+        for (int c = 0; c < width; c++) {
+            marker |= 1L << (c * (height + 1) + columnHeight(key, c, height));
+        }
+        long first = key & ~marker;
+        long mask = marker - bottomRow(width, height);
+        boolean firstPlayed = (first >>> (col * (height + 1) + columnHeight(key, col, height) - 1) & 1) != 0;
+        long tokens = firstPlayed ? first : first ^ mask;
+
+        int[] shifts = {1, height + 1, height, height + 2};
+        for (int shift : shifts) {
+            long line = tokens;
+            for (int i = 1; i < tokensToConnect && line != 0; i++) {
+                line &= tokens >>> shift * i;
+            }
+            if (line != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the bits of the bottom cell of every column.
+     */
+    static long bottomRow(int width, int height) {
+        long row = 0;
+        for (int col = 0; col < width; col++) {
+            row |= 1L << col * (height + 1);
+        }
+        return row;
+    }
+
+}
@@ -0,0 +1,362 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates a Tablebase for two player games on a small board by retrograde
+ * analysis.<br>
+ * Usage: java TablebaseGenerator width height tokensToConnect threshold
+ * [threads] [file]<br>
+ * First, every reachable position is found level by level, where a level is
+ * every position with the same number of tokens: the positions of each level
+ * are the ones reached by a move from the level before, without a win. Then
+ * the levels are solved backwards, from the full board down to the threshold,
+ * since every move from a position leads to a win or into the next level.
+ * Both passes split each level between all the threads. Progress and memory
+ * use are printed after every level.
+ * @author Eli W. Hunter
+ */
+public class TablebaseGenerator {
+
+    /** The smallest number of threads a generator can use. */
+    public static final int MIN_THREADS = 1;
+    /** The number of pieces each thread's share of a level is split into, to even out the work. */
+    private static final int TASKS_PER_THREAD = 4;
+    /** The number of bytes in a mebibyte. */
+    private static final long BYTES_PER_MEBIBYTE = 1 << 20;
+
+    // ERROR MESSAGES
+    /** The error message displayed when the arguments can't be understood. */
+    public static final String USAGE_ERROR_MESSAGE =
+        "USAGE: java TablebaseGenerator width height tokensToConnect threshold [threads] [file]";
+    /** The error message displayed when the threshold is out of range. */
+    public static final String THRESHOLD_ERROR_MESSAGE =
+        "The threshold must be between 0 and the number of cells on the board.";
+    /** The error message displayed when the number of threads is too low. */
+    public static final String THREADS_ERROR_MESSAGE =
+        "A tablebase generator needs at least " + MIN_THREADS + " thread.";
+
+    /** The width of the board. */
+    private final int width;
+    /** The height of the board. */
+    private final int height;
+    /** The number of tokens to connect on the board. */
+    private final int tokensToConnect;
+    /** The number of threads used. */
+    private final int threads;
+    /** Where progress is printed. */
+    private final PrintStream progress;
+    /** The fewest tokens a position in the generated tablebase has. */
+    private int threshold;
+    /** The sorted keys of every level, by number of tokens. Levels below the threshold are dropped. */
+    private long[][] levelKeys;
+    /** The values of the positions of every level, in the same order as the keys. */
+    private byte[][] levelValues;
+    /** When generation started, in nanoseconds. */
+    private long start;
+
+    /**
+     * Creates a generator for the given board.
+     * @param width The width of the board.
+     * @param height The height of the board.
+     * @param tokensToConnect The number of tokens to connect on the board.
+     * @param threads The number of threads to use.
+     * @param progress Where progress is printed.
+     * @throws IllegalArgumentException When the board is too large, or when
+     *     the number of threads is too low.
+     */
+    public TablebaseGenerator(int width, int height, int tokensToConnect, int threads, PrintStream progress) {
+        if (!Tablebase.fits(width, height)) {
+            throw new IllegalArgumentException(Tablebase.BOARD_ERROR_MESSAGE);
+        }
+        if (threads < MIN_THREADS) {
+            throw new IllegalArgumentException(THREADS_ERROR_MESSAGE);
+        }
+
+        this.width = width;
+        this.height = height;
+        this.tokensToConnect = tokensToConnect;
+        this.threads = threads;
+        this.progress = progress;
+    }
+
+    /**
+     * Runs the generator.
+     * @param args The width, height, tokens to connect and threshold, then
+     *     optionally the number of threads and the file.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4 || args.length > 6) {
+            System.out.println(USAGE_ERROR_MESSAGE);
+            System.exit(1);
+        }
+        for (int i = 0; i < Math.min(args.length, 5); i++) {
+            if (!Utils.isInt(args[i])) {
+                System.out.println(USAGE_ERROR_MESSAGE);
+                System.exit(1);
+            }
+        }
+
+        int width = Integer.parseInt(args[0]);
+        int height = Integer.parseInt(args[1]);
+        int tokensToConnect = Integer.parseInt(args[2]);
+        int threshold = Integer.parseInt(args[3]);
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        Path file = Paths.get(args.length > 5 ? args[5] : Tablebase.defaultFileName(width, height, tokensToConnect));
+
+        TablebaseGenerator generator = new TablebaseGenerator(width, height, tokensToConnect, threads, System.out);
+        long size = generator.generate(threshold);
+        generator.write(file);
+        System.out.printf("Wrote %d positions to %s (%d MiB)%n", size, file,
+                Files.size(file) / BYTES_PER_MEBIBYTE);
+    }
+
+    /**
+     * Finds and solves every reachable position with at least the given
+     * number of tokens.
+     * @param threshold The fewest tokens a position in the tablebase has.
+     * @return The number of positions in the tablebase.
+     * @throws IllegalArgumentException When the threshold is out of range.
+     */
+    public long generate(int threshold) {
+        int cells = width * height;
+        if (threshold < 0 || threshold > cells) {
+            throw new IllegalArgumentException(THRESHOLD_ERROR_MESSAGE);
+        }
+        this.threshold = threshold;
+        this.start = System.nanoTime();
+        this.levelKeys = new long[cells + 1][];
+        this.levelValues = new byte[cells + 1][];
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "tablebase-worker");
+            thread.setDaemon(true); // never keep the program running
+            return thread;
+        });
+        try {
+            levelKeys[0] = new long[] {Tablebase.bottomRow(width, height)}; // the empty board
+            for (int tokens = 0; tokens < cells; tokens++) {
+                levelKeys[tokens + 1] = expand(pool, levelKeys[tokens]);
+                if (tokens < threshold) {
+                    levelKeys[tokens] = null; // only needed to find the next level
+                }
+                report("Found", tokens + 1, levelKeys[tokens + 1].length);
+            }
+
+            long size = 0;
+            for (int tokens = cells; tokens >= threshold; tokens--) {
+                levelValues[tokens] = solve(pool, tokens);
+                size += levelKeys[tokens].length;
+                report("Solved", tokens, levelKeys[tokens].length);
+            }
+            return size;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Writes the tablebase, sorted by key.
+     * @param file The file to write the tablebase to.
+     * @throws IOException When the file can't be written.
+     */
+    public void write(Path file) throws IOException {
+        int size = 0;
+        for (int tokens = threshold; tokens < levelKeys.length; tokens++) {
+            size += levelKeys[tokens].length;
+        }
+        long[] entries = new long[size];
+        int i = 0;
+        for (int tokens = threshold; tokens < levelKeys.length; tokens++) {
+            for (int j = 0; j < levelKeys[tokens].length; j++) {
+                entries[i++] = levelKeys[tokens][j] << Byte.SIZE | (levelValues[tokens][j] & 0xFF);
+            }
+        }
+        Arrays.parallelSort(entries); // every level is sorted, but they're mixed together
+
+        int entryBits = Tablebase.keyBits(width, height) + Byte.SIZE;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(Tablebase.MAGIC);
+            out.writeInt(Tablebase.VERSION);
+            out.writeInt(width);
+            out.writeInt(height);
+            out.writeInt(tokensToConnect);
+            out.writeInt(threshold);
+            out.writeInt(entryBits);
+            out.writeLong(size);
+
+            // Pack the entries from the lowest bit of each word up, spilling into the next word
+            int words = 0;
+            long word = 0;
+            int used = 0;
+            for (long entry : entries) {
+                word |= entry << used;
+                used += entryBits;
+                if (used >= Long.SIZE) {
+                    out.writeLong(word);
+                    words++;
+                    used -= Long.SIZE;
+                    word = used == 0 ? 0 : entry >>> (entryBits - used);
+                }
+            }
+            for (; words < Tablebase.wordsFor(size, entryBits); words++) {
+                out.writeLong(word);
+                word = 0;
+            }
+        }
+    }
+
+    /**
+     * Finds every position reached by a move from the given level that
+     * doesn't win.
+     * @param pool The threads to use.
+     * @param parents The sorted keys of a level.
+     * @return The sorted keys of the next level.
+     */
+    private long[] expand(ExecutorService pool, long[] parents) {
+        List<long[]> pieces = runInPieces(pool, parents.length, (from, to) -> {
+            long[] children = new long[Math.max(1, (to - from) * width)];
+            int count = 0;
+            for (int i = from; i < to; i++) {
+                for (int col = 0; col < width; col++) {
+                    long child = Tablebase.play(parents[i], col, width, height);
+                    if (child != Tablebase.NOT_FOUND && !Tablebase.isWin(child, col, width, height, tokensToConnect)) {
+                        children[count++] = child;
+                    }
+                }
+            }
+            return Arrays.copyOf(children, count);
+        });
+
+        int size = 0;
+        for (long[] piece : pieces) {
+            size += piece.length;
+        }
+        long[] children = new long[size];
+        int offset = 0;
+        for (long[] piece : pieces) {
+            System.arraycopy(piece, 0, children, offset, piece.length);
+            offset += piece.length;
+        }
+
+        // Positions reached by different moves are only kept once
+        Arrays.parallelSort(children);
+        int unique = 0;
+        for (int i = 0; i < children.length; i++) {
+            if (unique == 0 || children[i] != children[unique - 1]) {
+                children[unique++] = children[i];
+            }
+        }
+        return Arrays.copyOf(children, unique);
+    }
+
+    /**
+     * Solves every position of a level from the values of the next level.
+     * @param pool The threads to use.
+     * @param tokens The number of tokens in the level.
+     * @return The values of the level, in the same order as its keys.
+     */
+    private byte[] solve(ExecutorService pool, int tokens) {
+        long[] keys = levelKeys[tokens];
+        byte[] values = new byte[keys.length];
+        if (tokens == width * height) {
+            Arrays.fill(values, (byte) Tablebase.valueOf(Tablebase.DRAW, 0)); // the board is full
+            return values;
+        }
+
+        long[] childKeys = levelKeys[tokens + 1];
+        byte[] childValues = levelValues[tokens + 1];
+        runInPieces(pool, keys.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int best = Tablebase.NOT_FOUND;
+                for (int col = 0; col < width; col++) {
+                    long child = Tablebase.play(keys[i], col, width, height);
+                    if (child == Tablebase.NOT_FOUND) {
+                        continue;
+                    }
+                    int value;
+                    if (Tablebase.isWin(child, col, width, height, tokensToConnect)) {
+                        value = Tablebase.valueOf(Tablebase.WIN, 1);
+                    } else {
+                        value = Tablebase.parentValue(childValues[Arrays.binarySearch(childKeys, child)] & 0xFF);
+                    }
+                    if (best == Tablebase.NOT_FOUND || Tablebase.compare(value, best) > 0) {
+                        best = value;
+                    }
+                }
+                values[i] = (byte) best;
+            }
+            return null;
+        });
+        return values;
+    }
+
+    /**
+     * A piece of work on a range of a level.
+     * @param <T> The result of the work.
+     */
+    private interface Piece<T> {
+        /**
+         * Does the work on a range of a level.
+         * @param from The first index of the range.
+         * @param to One more than the last index of the range.
+         * @return The result of the work.
+         */
+        T run(int from, int to);
+    }
+
+    /**
+     * Splits a level into pieces, runs them on the threads, and waits for
+     * them all to finish.
+     * @param pool The threads to use.
+     * @param length The number of positions in the level.
+     * @param piece The work to do on each piece.
+     * @return The results of the pieces, in order.
+     */
+    private <T> List<T> runInPieces(ExecutorService pool, int length, Piece<T> piece) {
+        int pieces = Math.max(1, Math.min(length, threads * TASKS_PER_THREAD));
+        List<Future<T>> futures = new ArrayList<Future<T>>();
+        for (int i = 0; i < pieces; i++) {
+            int from = (int) ((long) length * i / pieces);
+            int to = (int) ((long) length * (i + 1) / pieces);
+            Callable<T> task = () -> piece.run(from, to);
+            futures.add(pool.submit(task));
+        }
+
+        List<T> results = new ArrayList<T>();
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        return results;
+    }
+
+    /**
+     * Prints the progress of a level, with the time so far and the memory in use.
+     */
+    private void report(String step, int tokens, int positions) {
+        Runtime runtime = Runtime.getRuntime();
+        long used = (runtime.totalMemory() - runtime.freeMemory()) / BYTES_PER_MEBIBYTE;
+        progress.printf("%-6s level %3d: %,14d positions %9.1f s %8d MiB used of %d MiB%n", step, tokens, positions,
+                (System.nanoTime() - start) / 1e9, used, runtime.maxMemory() / BYTES_PER_MEBIBYTE);
+    }
+
+}
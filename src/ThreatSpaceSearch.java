@@ -0,0 +1,266 @@
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A search for forced wins in two-player games, which only looks at threats:
+ * moves that leave a playable cell which would complete a line (that is,
+ * which make N - 1 in a row with the last cell open).<br>
+ * The attacker may only play moves which make a threat, so the defender's
+ * reply is always forced: with two threats the defender can't block both,
+ * and with one the defender must block it, unless they can win first. When
+ * the defender threatens to win, the attacker's only move is to block, and
+ * the block must make a threat of its own. Since every defender move is
+ * forced, the tree is narrow, and wins many moves deep can be proven on
+ * boards where a full search can't reach them.<br>
+ * The search never claims a win that isn't forced, but can miss forced wins
+ * that need quiet moves.
+ * @author Eli W. Hunter
+ */
+public class ThreatSpaceSearch {
+
+    /** The default largest number of threats the attacker may make. */
+    public static final int DEFAULT_MAX_THREATS = 20;
+    /** The default largest number of positions a search may look at. */
+    public static final long DEFAULT_NODE_LIMIT = 200_000;
+    /** The value returned when no forced win is found. */
+    public static final int NO_WIN = -1;
+
+    /** The value used when a player can win in more than one column. */
+    private static final int SEVERAL = -2;
+
+    /** The game board that is searched. */
+    private final GameBoard board;
+    /** The players of the game, in the order they take turns. */
+    private final Player[] players;
+    /** The deepest search that failed from each position, by hash, with the attacker to move. */
+    private final Map<Long, Integer> failures;
+    /** The largest number of positions a search may look at. */
+    private long nodeLimit;
+    /** The number of positions searched so far by the current search. */
+    private long nodes;
+    /** The statistics of the last search. */
+    private SearchStatistics statistics;
+
+    /**
+     * Creates a threat-space search of the given board between the given
+     * players.
+     * @param board The game board to search.
+     * @param players The two players of the game, in the order they take turns.
+     * @throws IllegalArgumentException When there are not exactly two players.
+     */
+    public ThreatSpaceSearch(GameBoard board, Player[] players) {
+        if (players.length != NegamaxSearch.NUMBER_OF_PLAYERS) {
+            throw new IllegalArgumentException(NegamaxSearch.PLAYERS_ERROR_MESSAGE);
+        }
+        this.board = board;
+        this.players = players;
+        this.failures = new HashMap<Long, Integer>();
+        this.nodeLimit = DEFAULT_NODE_LIMIT;
+    }
+
+    /**
+     * Accessor Method
+     * @return The statistics of the last search, or null if there has not
+     *     been one. The depth is the number of moves until the win, including
+     *     the defender's, or 0 if no win was found.
+     */
+    public SearchStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Mutator Method
+     * @param nodeLimit The largest number of positions a search may look at,
+     *     or {@value NegamaxSearch#NO_LIMIT} for no limit.
+     * @throws IllegalArgumentException When the node limit is negative.
+     */
+    public void setNodeLimit(long nodeLimit) {
+        if (nodeLimit < 0) {
+            throw new IllegalArgumentException("The node limit cannot be negative.");
+        }
+        this.nodeLimit = nodeLimit;
+    }
+
+    /**
+     * Looks for a forced win of at most the default number of threats.
+     * @param player The player whose move it is.
+     * @return The first column of a forced win, or {@value #NO_WIN}.
+     * @throws IllegalArgumentException When the player is not part of this
+     *     search.
+     */
+    public int findWin(Player player) {
+        return findWin(player, DEFAULT_MAX_THREATS);
+    }
+
+    /**
+     * Looks for a forced win for the player to move, made of at most the
+     * given number of threats. The board is left as it was found.
+     * @param player The player whose move it is.
+     * @param maxThreats The largest number of moves the player may make
+     *     before the winning one.
+     * @return The first column of a forced win, or {@value #NO_WIN}.
+     * @throws IllegalArgumentException When the player is not part of this
+     *     search.
+     */
+    public int findWin(Player player, int maxThreats) {
+        Token attacker = Token.of(player);
+        Token defender;
+        if (players[0].equals(player)) {
+            defender = Token.of(players[1]);
+        } else if (players[1].equals(player)) {
+            defender = Token.of(players[0]);
+        } else {
+            throw new IllegalArgumentException(NegamaxSearch.UNKNOWN_PLAYER_ERROR_MESSAGE);
+        }
+
+        long start = System.nanoTime();
+        nodes = 0;
+        failures.clear();
+
+        int bestColumn = NO_WIN;
+        int plies = 0;
+        int winningColumn = winningColumn(attacker);
+        if (winningColumn != NO_WIN) {
+            bestColumn = (winningColumn == SEVERAL) ? firstWinningColumn(attacker) : winningColumn;
+            plies = 1;
+        } else {
+            // Try shorter wins first, so the quickest one found is played
+            for (int threats = 1; threats <= maxThreats && bestColumn == NO_WIN && !isOutOfBudget(); threats++) {
+                for (int col = 0; col < board.getWidth(); col++) {
+                    int length = proveThreat(attacker, defender, col, threats);
+                    if (length > 0) {
+                        bestColumn = col;
+                        plies = length;
+                        break;
+                    }
+                }
+            }
+        }
+
+        int score = (bestColumn == NO_WIN) ? 0 : Evaluator.WIN_SCORE - plies;
+        statistics = new SearchStatistics(bestColumn, score, plies, nodes, System.nanoTime() - start);
+        return bestColumn;
+    }
+
+    /**
+     * Determines whether the attacker, to move, can force a win with threats.
+     * The attacker must not be able to win immediately.
+     * @param attacker The token of the attacker.
+     * @param defender The token of the defender.
+     * @param threats The largest number of threats the attacker may make.
+     * @return The number of moves until the win, or 0 if none was found.
+     */
+    private int prove(Token attacker, Token defender, int threats) {
+        if (threats == 0 || isOutOfBudget()) {
+            return 0;
+        }
+        Integer failedThreats = failures.get(board.getHash());
+        if (failedThreats != null && failedThreats >= threats) {
+            return 0;
+        }
+
+        for (int col = 0; col < board.getWidth(); col++) {
+            int length = proveThreat(attacker, defender, col, threats);
+            if (length > 0) {
+                return length;
+            }
+        }
+        failures.put(board.getHash(), threats);
+        return 0;
+    }
+
+    /**
+     * Determines whether a move of the attacker makes a threat that forces a
+     * win, and unmakes it. The attacker must not be able to win immediately.
+     * @param attacker The token of the attacker.
+     * @param defender The token of the defender.
+     * @param col The column of the attacker's move.
+     * @param threats The largest number of threats the attacker may make,
+     *     including this one.
+     * @return The number of moves until the win, including this one, or 0
+     *     if the move doesn't force a win.
+     */
+    private int proveThreat(Token attacker, Token defender, int col, int threats) {
+        if (board.isColumnFull(col)) {
+            return 0;
+        }
+        // When the defender threatens to win, only blocking can be forced
+        int defenderWin = winningColumn(defender);
+        if (defenderWin == SEVERAL || (defenderWin != NO_WIN && defenderWin != col)) {
+            return 0;
+        }
+
+        nodes++;
+        board.addToken(attacker, col);
+        int length = 0;
+        int threat = winningColumn(attacker);
+        if (threat != NO_WIN && winningColumn(defender) == NO_WIN) {
+            if (threat == SEVERAL) {
+                length = 3; // the threat, any reply, and the win
+            } else {
+                board.addToken(defender, threat); // the only move that doesn't lose
+                int win = winningColumn(attacker);
+                if (win != NO_WIN) {
+                    length = 3;
+                } else {
+                    int rest = prove(attacker, defender, threats - 1);
+                    length = (rest > 0) ? rest + 2 : 0;
+                }
+                board.removeToken(threat);
+            }
+        }
+        board.removeToken(col);
+        return length;
+    }
+
+    /**
+     * Finds the columns in which a player could win with their next token.
+     * @param token The token of the player.
+     * @return The winning column, {@value #NO_WIN} if there isn't one, or
+     *     SEVERAL if there is more than one.
+     */
+    private int winningColumn(Token token) {
+        int found = NO_WIN;
+        for (int col = 0; col < board.getWidth(); col++) {
+            if (board.isColumnFull(col)) {
+                continue;
+            }
+            boolean wins = board.addToken(token, col);
+            board.removeToken(col);
+            if (wins) {
+                if (found != NO_WIN) {
+                    return SEVERAL;
+                }
+                found = col;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Finds the first column in which a player could win with their next
+     * token.
+     * @param token The token of the player.
+     * @return The winning column, or {@value #NO_WIN} if there isn't one.
+     */
+    private int firstWinningColumn(Token token) {
+        for (int col = 0; col < board.getWidth(); col++) {
+            if (!board.isColumnFull(col)) {
+                boolean wins = board.addToken(token, col);
+                board.removeToken(col);
+                if (wins) {
+                    return col;
+                }
+            }
+        }
+        return NO_WIN;
+    }
+
+    /**
+     * Determines whether the current search has looked at too many positions.
+     */
+    private boolean isOutOfBudget() {
+        return nodeLimit != NegamaxSearch.NO_LIMIT && nodes >= nodeLimit;
+    }
+
+}
@@ -1,13 +1,40 @@
+import java.util.Arrays; // For growing the flyweight cache
+
 /**
  * Defines all the information associated with a token, which is owned by a player.
+ * <br>
+ * Boards store tokens as the index of their owner (see {@link #getOwnerIndex()})
+ * rather than as Token objects, and each board turns the indexes back into
+ * tokens with its own TokenTable. Owner indexes are reused by every game, so
+ * they are never turned into tokens here. {@link #of(Player)} shares a single
+ * Token for every player, so deciding moves doesn't create tokens.
  * @author Eli W. Hunter
  */
 public class Token {
 
     public static final Token EMPTY = new Token(Player.NONE);
 
+    /** The owner index of an empty token. */
+    public static final int EMPTY_INDEX = 0;
+    /** The largest owner index that can be stored by a Column or shared by of(). */
+    public static final int MAX_INDEX = Short.MAX_VALUE;
+
+    /** The error message displayed when a player's index is too large to be stored. */
+    public static final String INDEX_TOO_LARGE_ERROR_MESSAGE =
+        "Too many players have been created to be stored on a board. "
+        + "Player.resetCounter() should be called before each game.";
+
+    /**
+     * The shared token of the last player given each owner index, indexed by
+     * their owner index. This is only ever replaced, never modified after
+     * being shared, so it can be read without locking.
+     */
+    private static volatile Token[] cache = {EMPTY};
+
     /** The owner of this Token object, which cannot be changed after creation. */
     private final Player owner;
+    /** The index of the owner of this Token object. */
+    private final int ownerIndex;
 
     /**
      * Creates a Token object with the given owner.
@@ -15,6 +42,69 @@ public class Token {
      */
     public Token(Player owner) {
         this.owner = owner;
+        this.ownerIndex = indexOf(owner);
+    }
+
+    /**
+     * Finds the owner index of the given player. This is unique to every
+     * player in a game, and is {@value #EMPTY_INDEX} for Player.NONE.
+     * @param player The player whose index is being found.
+     * @return The player's owner index.
+     */
+    public static int indexOf(Player player) {
+        return player.getId() + 1;
+    }
+
+    /**
+     * Finds the shared token of the given player, creating it if the player
+     * does not have one yet.
+     * @param owner The owner of the token.
+     * @return A token owned by the given player.
+     * @throws IllegalArgumentException When the player's owner index is too
+     *     large to be stored.
+     */
+    public static Token of(Player owner) {
+        int index = indexOf(owner);
+        Token[] tokens = cache;
+        if (index < tokens.length) {
+            Token token = tokens[index];
+            if (token != null && token.owner == owner) {
+                return token;
+            }
+        }
+        return share(new Token(owner));
+    }
+
+    /**
+     * Makes the given token the shared token of its owner, unless it already
+     * is. A player from an earlier game with the same owner index loses their
+     * shared token, but tokens already handed out keep their owner.
+     * @param token The token to share.
+     * @return The shared token of the token's owner.
+     * @throws IllegalArgumentException When the token's owner index is too
+     *     large to be stored.
+     */
+    private static Token share(Token token) {
+        int index = token.ownerIndex;
+        Token[] tokens = cache;
+        if (index < tokens.length && tokens[index] != null && tokens[index].owner == token.owner) {
+            return tokens[index];
+        }
+        if (index > MAX_INDEX) {
+            throw new IllegalArgumentException(INDEX_TOO_LARGE_ERROR_MESSAGE);
+        }
+
+        synchronized (Token.class) {
+            tokens = cache;
+            if (index >= tokens.length) {
+                tokens = Arrays.copyOf(tokens, Math.max(index + 1, tokens.length * 2));
+            } else {
+                tokens = tokens.clone();
+            }
+            tokens[index] = token;
+            cache = tokens;
+        }
+        return token;
     }
 
     /**
@@ -25,6 +115,14 @@ public class Token {
         return owner;
     }
 
+    /**
+     * Accessor Method for ownerIndex.
+     * @return The index of the owner of this token.
+     */
+    public int getOwnerIndex() {
+        return ownerIndex;
+    }
+
     /**
      * Determines whether two tokens are equal or not by seeing if they are both tokens
      * and have the same player.
@@ -32,11 +130,18 @@ public class Token {
      */
     public boolean equals(Object other) {
         if (other instanceof Token) {
-            Token otherToken = (Token) other;
-            return this.owner.equals(otherToken.owner);
+            return this.ownerIndex == ((Token) other).ownerIndex;
         } else {
             return false;
         }
     }
 
+    /**
+     * Finds a hash code that is consistent with {@link #equals(Object)}.
+     * @return The owner index of this token.
+     */
+    public int hashCode() {
+        return ownerIndex;
+    }
+
 }
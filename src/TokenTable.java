@@ -0,0 +1,61 @@
+import java.util.Arrays; // For growing the table
+
+/**
+ * Turns the owner indexes stored by the Columns of a board back into the
+ * tokens that were added to it.<br>
+ * Owner indexes come from player ids, which start again whenever
+ * Player.resetCounter() is called, so the same index belongs to different
+ * players in different games. Every board therefore keeps its own table,
+ * shared by its Columns, and a token read from a board is always owned by
+ * the player whose token was added to it.
+ * @author Eli W. Hunter
+ */
+public class TokenTable {
+
+    /** The token added for each owner index, or null if there hasn't been one. */
+    private Token[] tokens;
+
+    /**
+     * Creates a table which only knows the empty token.
+     */
+    public TokenTable() {
+        this.tokens = new Token[] {Token.EMPTY};
+    }
+
+    /**
+     * Remembers the given token as the token of its owner index, so that the
+     * index can be turned back into it.
+     * @param token The token being stored.
+     * @return The owner index of the token.
+     * @throws IllegalArgumentException When the token's owner index is too
+     *     large to be stored.
+     */
+    public int add(Token token) {
+        int index = token.getOwnerIndex();
+        if (index > Token.MAX_INDEX) {
+            throw new IllegalArgumentException(Token.INDEX_TOO_LARGE_ERROR_MESSAGE);
+        }
+        if (index >= tokens.length) {
+            tokens = Arrays.copyOf(tokens, Math.max(index + 1, tokens.length * 2));
+        }
+        if (tokens[index] == null || tokens[index].getOwner() != token.getOwner()) {
+            tokens[index] = token;
+        }
+        return index;
+    }
+
+    /**
+     * Finds the token stored for the given owner index.
+     * @param index The owner index of the token.
+     * @return The token that was added with the given owner index.
+     * @throws IllegalArgumentException When no token has been added with the
+     *     given owner index.
+     */
+    public Token get(int index) {
+        if (index < 0 || index >= tokens.length || tokens[index] == null) {
+            throw new IllegalArgumentException("No token exists for owner index " + index);
+        }
+        return tokens[index];
+    }
+
+}
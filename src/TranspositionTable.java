@@ -0,0 +1,285 @@
+import java.util.Arrays;
+
+/**
+ * A fixed-size table of search results, indexed by position hash, so that
+ * searches don't re-search positions reached through a different order of
+ * moves.<br>
+ * The table is made of two flat arrays, one of keys and one of entries, with
+ * every entry packed into a single long. Entries are grouped into buckets of
+ * two: the first slot only accepts results that searched at least as deep as
+ * the one it holds, and the second slot always accepts the newest result.<br>
+ * Each key is stored exclusive-ored with its entry, so an entry torn by two
+ * threads writing at once never matches its key and is read as a miss. This
+ * lets the table be shared between threads without locking. The counters
+ * aren't synchronized, so they are only approximate when the table is shared.
+ * @author Eli W. Hunter
+ */
+public class TranspositionTable {
+
+    /** The default number of entries in a table, which takes 16 MiB. */
+    public static final int DEFAULT_CAPACITY = 1 << 20;
+    /** The smallest number of entries in a table. */
+    public static final int MIN_CAPACITY = 2;
+    /** The largest number of entries in a table. */
+    public static final int MAX_CAPACITY = 1 << 30;
+    /** The number of bytes each entry takes. */
+    public static final int BYTES_PER_ENTRY = 2 * Long.BYTES;
+
+    /** The value returned by probe() when a position isn't in the table. */
+    public static final long MISS = 0;
+
+    /** The bound type of a score which is exact. */
+    public static final int EXACT = 1;
+    /** The bound type of a score which is at least the true score. */
+    public static final int LOWER_BOUND = 2;
+    /** The bound type of a score which is at most the true score. */
+    public static final int UPPER_BOUND = 3;
+
+    /** The largest depth that can be stored. */
+    public static final int MAX_DEPTH = 0xFF;
+    /** The largest move that can be stored. */
+    public static final int MAX_MOVE = 0xFFFE;
+
+    // ERROR MESSAGES
+    /** The error message displayed when the capacity is out of range. */
+    public static final String CAPACITY_ERROR_MESSAGE =
+        "The capacity must be between " + MIN_CAPACITY + " and " + MAX_CAPACITY + ".";
+
+    // ENTRY LAYOUT
+    // bits  0-31: score
+    // bits 32-47: best move + 1 (0 for none)
+    // bits 48-55: depth
+    // bits 56-57: bound type (0 for an empty slot)
+    private static final int MOVE_SHIFT = 32;
+    private static final int DEPTH_SHIFT = 48;
+    private static final int BOUND_SHIFT = 56;
+    private static final long MOVE_MASK = 0xFFFF;
+    private static final long DEPTH_MASK = 0xFF;
+    private static final long BOUND_MASK = 0x3;
+
+    /** The key of every slot, exclusive-ored with its entry. */
+    private final long[] keys;
+    /** The packed entry of every slot. */
+    private final long[] entries;
+    /** The bucket bits of a key, since the number of buckets is a power of two. */
+    private final int bucketMask;
+
+    /** The number of times the table has been probed. */
+    private long probes;
+    /** The number of probes that found their position. */
+    private long hits;
+    /** The number of results stored. */
+    private long stores;
+    /** The number of slots which hold an entry. */
+    private int usedSlots;
+
+    /**
+     * Creates a table with the default capacity ({@value #DEFAULT_CAPACITY}).
+     */
+    public TranspositionTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a table with the given capacity, rounded down to a power of two.
+     * @param capacity The number of entries in the table.
+     * @throws IllegalArgumentException When the capacity is out of range.
+     */
+    public TranspositionTable(int capacity) {
+        if (capacity < MIN_CAPACITY || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException(CAPACITY_ERROR_MESSAGE);
+        }
+        capacity = Integer.highestOneBit(capacity);
+        this.keys = new long[capacity];
+        this.entries = new long[capacity];
+        this.bucketMask = capacity / 2 - 1;
+    }
+
+    /**
+     * Finds the capacity of the largest table that fits in the given memory.
+     * @param bytes The number of bytes the table may take.
+     * @return The largest power of two capacity that fits, which is at least
+     *     {@value #MIN_CAPACITY} and at most {@value #MAX_CAPACITY}.
+     */
+    public static int capacityFor(long bytes) {
+        long capacity = Math.max(MIN_CAPACITY, Math.min(MAX_CAPACITY, bytes / BYTES_PER_ENTRY));
+        return Integer.highestOneBit((int) capacity);
+    }
+
+    /**
+     * Accessor Method
+     * @return The number of entries in the table.
+     */
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    /**
+     * Looks up the entry of the given position.
+     * @param key The hash of the position.
+     * @return The packed entry of the position, or {@value #MISS} if it isn't
+     *     in the table. The entry is read with getScore(), getMove(),
+     *     getDepth() and getBound().
+     */
+    public long probe(long key) {
+        probes++;
+        int slot = slotOf(key);
+        for (int i = slot; i < slot + 2; i++) {
+            long entry = entries[i];
+            if (entry != MISS && (keys[i] ^ entry) == key) {
+                hits++;
+                return entry;
+            }
+        }
+        return MISS;
+    }
+
+    /**
+     * Stores the result of searching the given position.
+     * @param key The hash of the position.
+     * @param depth The number of moves that were searched ahead.
+     * @param bound The bound type of the score (EXACT, LOWER_BOUND or
+     *     UPPER_BOUND).
+     * @param score The score of the position.
+     * @param move The best move found, or -1 if there wasn't one.
+     */
+    public void store(long key, int depth, int bound, int score, int move) {
+        stores++;
+        long entry = pack(depth, bound, score, move);
+        int slot = slotOf(key);
+
+        long deepEntry = entries[slot];
+        boolean sameKey = deepEntry != MISS && (keys[slot] ^ deepEntry) == key;
+        if (deepEntry == MISS || sameKey || depth >= getDepth(deepEntry)) {
+            write(slot, key, entry);
+        } else {
+            write(slot + 1, key, entry);
+        }
+    }
+
+    /**
+     * Empties every slot of the table and resets its counters.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(entries, MISS);
+        probes = 0;
+        hits = 0;
+        stores = 0;
+        usedSlots = 0;
+    }
+
+    /**
+     * Accessor Method
+     * @return The number of times the table has been probed.
+     */
+    public long getProbes() {
+        return probes;
+    }
+
+    /**
+     * Accessor Method
+     * @return The number of probes that found their position.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Accessor Method
+     * @return The number of results stored.
+     */
+    public long getStores() {
+        return stores;
+    }
+
+    /**
+     * Finds the fraction of probes that found their position.
+     * @return The hit rate, from 0 to 1, or 0 if there were no probes.
+     */
+    public double getHitRate() {
+        return probes == 0 ? 0 : (double) hits / probes;
+    }
+
+    /**
+     * Finds the fraction of slots that hold an entry.
+     * @return The occupancy of the table, from 0 to 1.
+     */
+    public double getOccupancy() {
+        return (double) usedSlots / keys.length;
+    }
+
+    /**
+     * Accessor Method
+     * @param entry A packed entry.
+     * @return The score of the entry.
+     */
+    public static int getScore(long entry) {
+        return (int) entry;
+    }
+
+    /**
+     * Accessor Method
+     * @param entry A packed entry.
+     * @return The best move of the entry, or -1 if it has none.
+     */
+    public static int getMove(long entry) {
+        return (int) ((entry >>> MOVE_SHIFT) & MOVE_MASK) - 1;
+    }
+
+    /**
+     * Accessor Method
+     * @param entry A packed entry.
+     * @return The number of moves searched ahead for the entry.
+     */
+    public static int getDepth(long entry) {
+        return (int) ((entry >>> DEPTH_SHIFT) & DEPTH_MASK);
+    }
+
+    /**
+     * Accessor Method
+     * @param entry A packed entry.
+     * @return The bound type of the entry's score.
+     */
+    public static int getBound(long entry) {
+        return (int) ((entry >>> BOUND_SHIFT) & BOUND_MASK);
+    }
+
+    /**
+     * Packs a search result into a single long.
+     * @param depth The number of moves searched ahead, capped at {@value
+     *     #MAX_DEPTH}.
+     * @param bound The bound type of the score.
+     * @param score The score.
+     * @param move The best move, or -1 for none. Moves past {@value
+     *     #MAX_MOVE} are stored as none.
+     * @return The packed entry.
+     */
+    private static long pack(int depth, int bound, int score, int move) {
+        long storedMove = (move < 0 || move > MAX_MOVE) ? 0 : move + 1;
+        return (score & 0xFFFFFFFFL)
+            | (storedMove << MOVE_SHIFT)
+            | ((long) Math.min(depth, MAX_DEPTH) << DEPTH_SHIFT)
+            | (((long) bound & BOUND_MASK) << BOUND_SHIFT);
+    }
+
+    /**
+     * Writes an entry into a slot.
+     */
+    private void write(int slot, long key, long entry) {
+        if (entries[slot] == MISS) {
+            usedSlots++;
+        }
+        entries[slot] = entry;
+        keys[slot] = key ^ entry;
+    }
+
+    /**
+     * Finds the first slot of the bucket of the given key.
+     */
+    private int slotOf(long key) {
+        // The high bits are the best mixed in a Zobrist hash
+        return ((int) (key >>> 32) & bucketMask) * 2;
+    }
+
+}
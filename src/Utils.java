@@ -1,7 +1,7 @@
 import java.util.Scanner;
 import java.util.InputMismatchException;
 import java.util.Arrays;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 import java.io.PrintStream;
 
 /**
@@ -142,14 +142,25 @@ public class Utils {
     }
 
     /**
-     * Picks a random integer from the given array.
+     * Picks a random integer from the given array, using the calling thread's
+     * stream from the RandomService.
      * @param array[] The integer array from which a random value is being
      *     chosen.
      * @return A randomly chosen integer from the given integer array.
      */
     public static int randomPick(int[] array) {
-        Random rand = new Random();
-        int randomIndex = rand.nextInt(array.length);
+        return randomPick(array, RandomService.current());
+    }
+
+    /**
+     * Picks a random integer from the given array.
+     * @param array[] The integer array from which a random value is being
+     *     chosen.
+     * @param random The random number generator used to pick the integer.
+     * @return A randomly chosen integer from the given integer array.
+     */
+    public static int randomPick(int[] array, RandomGenerator random) {
+        int randomIndex = random.nextInt(array.length);
         return array[randomIndex];
     }
 
@@ -0,0 +1,90 @@
+import java.util.Arrays;
+
+/**
+ * The table of random keys used to hash board positions, with one key for
+ * every pair of cell and owner index.<br>
+ * The hash of a position is the exclusive-or of the keys of every token on
+ * the board, so it can be updated in constant time as tokens are added and
+ * removed, and the empty board always hashes to 0.<br>
+ * Every key is generated from a fixed seed by the SplitMix64 function, so the
+ * same position always has the same hash, regardless of the run or of the
+ * order the table was filled in. This lets hashes be written to disk.
+ * @author Eli W. Hunter
+ */
+public class ZobristKeys {
+
+    /** The seed that every key is generated from. This must never change. */
+    public static final long SEED = 0x636F6E6E6563744EL; // "connectN"
+
+    /** The increment of the SplitMix64 generator. */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /** The number of cells on the board being hashed. */
+    private final int numberOfCells;
+    /**
+     * The keys of every cell, indexed by owner index and then cell. Rows are
+     * generated the first time an owner index is used. The array is only ever
+     * replaced, never modified after being shared, so it can be read without
+     * locking.
+     */
+    private volatile long[][] keys;
+
+    /**
+     * Creates a key table for a board with the given number of cells.
+     * @param numberOfCells The number of cells on the board.
+     */
+    public ZobristKeys(int numberOfCells) {
+        this.numberOfCells = numberOfCells;
+        this.keys = new long[0][];
+    }
+
+    /**
+     * Finds the key of a token with the given owner at the given cell.
+     * @param ownerIndex The owner index of the token.
+     * @param cell The index of the cell, which is col * height + row.
+     * @return The key of the token at that cell.
+     */
+    public long getKey(int ownerIndex, int cell) {
+        long[][] rows = keys;
+        if (ownerIndex < rows.length && rows[ownerIndex] != null) {
+            return rows[ownerIndex][cell];
+        }
+        return generateRow(ownerIndex)[cell];
+    }
+
+    /**
+     * Generates and shares the keys of every cell for the given owner index.
+     * @param ownerIndex The owner index whose keys are being generated.
+     * @return The keys of every cell for the owner index.
+     */
+    private synchronized long[] generateRow(int ownerIndex) {
+        long[][] rows = keys;
+        if (ownerIndex < rows.length && rows[ownerIndex] != null) {
+            return rows[ownerIndex];
+        }
+
+        long[] row = new long[numberOfCells];
+        for (int cell = 0; cell < numberOfCells; cell++) {
+            row[cell] = generateKey(ownerIndex, cell);
+        }
+
+        long[][] newRows = Arrays.copyOf(rows, Math.max(rows.length, ownerIndex + 1));
+        newRows[ownerIndex] = row;
+        keys = newRows;
+        return row;
+    }
+
+    /**
+     * Generates the key of a token with the given owner at the given cell.
+     * @param ownerIndex The owner index of the token.
+     * @param cell The index of the cell.
+     * @return The key of the token at that cell.
+     */
+    public static long generateKey(int ownerIndex, int cell) {
+        long z = SEED + (((long) ownerIndex << Integer.SIZE) | cell) * GOLDEN_GAMMA;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+}
@@ -0,0 +1,106 @@
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Scores open windows many at a time with the jdk.incubator.vector module.<br>
+ * Each lane of a vector is the window starting at a different cell, so the
+ * k-th cells of a whole vector of windows are consecutive in the cells, and
+ * are loaded at once. Over the tokensToConnect loads of a direction, each
+ * lane keeps the largest player in its window, the smallest player (with
+ * empty cells counted as blocked), and the number of tokens. A window is
+ * open when the largest and smallest player are the same scored player, and
+ * the open windows of each player are counted by their number of tokens.<br>
+ * This class is not built with the rest of the program. Compile it with:
+ * javac --add-modules jdk.incubator.vector -d bin -cp bin src/vector/*.java
+ * and run the program with --add-modules jdk.incubator.vector to use it.
+ * @author Eli W. Hunter
+ */
+public class VectorEvaluationKernel extends EvaluationKernel {
+
+    /** The shape of the vectors used, which is the widest the processor supports. */
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+    /**
+     * Creates a vector kernel for boards with the given dimensions.
+     * @param width The width of the boards.
+     * @param height The height of the boards.
+     * @param tokensToConnect The number of tokens that must be connected,
+     *     which must be at most {@value EvaluationKernel#MAX_VECTOR_WINDOW}.
+     * @throws IllegalArgumentException When the windows are too long.
+     */
+    public VectorEvaluationKernel(int width, int height, int tokensToConnect) {
+        super(width, height, tokensToConnect);
+        if (tokensToConnect > MAX_VECTOR_WINDOW) {
+            throw new IllegalArgumentException("Windows can be at most " + MAX_VECTOR_WINDOW + " long.");
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "vector (" + SPECIES.length() + " lanes)";
+    }
+
+    /**
+     * Accessor Method
+     * @return The number of blocked cells after the blocked rows. The last
+     *     vector starts just before the blocked rows, and its last lane reads
+     *     the diagonal up to tokensToConnect - 1 cells past them, so its
+     *     last load ends within a vector and a window of their end.
+     */
+    @Override
+    protected int getMargin() {
+        return SPECIES.length() + tokensToConnect;
+    }
+
+    @Override
+    public void scoreWindows(byte[] cells, int players, int[] scores) {
+        // Lanes starting past the last row read blocked cells, so they are never open
+        int end = height * stride;
+        for (int start = 0; start < end; start += SPECIES.length()) {
+            for (int step : steps) {
+                scoreVector(cells, start, step, players, scores);
+            }
+        }
+    }
+
+    /**
+     * Scores a vector of windows in a single direction, starting at
+     * consecutive cells.
+     * @param cells The cells of the board.
+     * @param start The index of the first cell of the first window.
+     * @param step The distance between adjacent cells of each window.
+     * @param players The number of players being scored.
+     * @param scores The score of each player.
+     */
+    private void scoreVector(byte[] cells, int start, int step, int players, int[] scores) {
+        ByteVector largest = ByteVector.zero(SPECIES);
+        ByteVector smallest = ByteVector.broadcast(SPECIES, BLOCKED);
+        ByteVector tokens = ByteVector.zero(SPECIES);
+        for (int k = 0; k < tokensToConnect; k++) {
+            ByteVector cell = ByteVector.fromArray(SPECIES, cells, start + k * step);
+            VectorMask<Byte> taken = cell.compare(VectorOperators.NE, EMPTY);
+            largest = largest.max(cell);
+            smallest = smallest.min(cell.blend(BLOCKED, taken.not()));
+            tokens = tokens.add((byte) 1, taken);
+        }
+
+        VectorMask<Byte> open = largest.compare(VectorOperators.EQ, smallest)
+            .and(largest.compare(VectorOperators.LE, (byte) players));
+        if (!open.anyTrue()) {
+            return;
+        }
+        for (int player = 1; player <= players; player++) {
+            VectorMask<Byte> owned = open.and(largest.compare(VectorOperators.EQ, (byte) player));
+            if (!owned.anyTrue()) {
+                continue;
+            }
+            for (int count = 1; count <= tokensToConnect; count++) {
+                int windows = owned.and(tokens.compare(VectorOperators.EQ, (byte) count)).trueCount();
+                scores[player - 1] += windows * lineScores[count];
+            }
+        }
+    }
+
+}
@@ -0,0 +1,177 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+import java.util.Random;
+
+/**
+ * Tests BitBoard class.
+ * @author Eli W. Hunter
+ */
+public class BitBoardTest extends TestCase {
+
+    /** The width for the testing game board */
+    private static int WIDTH = 7;
+    /** The height for the testing game board */
+    private static int HEIGHT = 6;
+    /** The number of tokens to connect for the testing game board */
+    private static int TOKENS_TO_CONNECT = 4;
+    /** The number of random games played when comparing against GameBoard */
+    private static int RANDOM_GAMES = 200;
+
+    /** Player Alice for testing */
+    private Player alice;
+    /** Player Cyborg for testing */
+    private Player cyborg;
+    /** Alice's Token for testing */
+    private Token aliceToken;
+    /** Cyborg's Token for testing */
+    private Token cyborgToken;
+    /** Testing game board */
+    private BitBoard board;
+
+    @Before
+    public void setUp() {
+        Player.resetCounter();
+        alice = new Player("Alice", Player.HUMAN);
+        cyborg = new Player("Cyborg", Player.RANDOM_AI);
+        aliceToken = new Token(alice);
+        cyborgToken = new Token(cyborg);
+        board = new BitBoard(WIDTH, HEIGHT, TOKENS_TO_CONNECT);
+    }
+
+    @Test
+    public void testFits() {
+        assertTrue("7x6 fits", BitBoard.fits(7, 6));
+        assertTrue("8x7 fits", BitBoard.fits(8, 7));
+        assertFalse("9x7 doesn't fit", BitBoard.fits(9, 7));
+        try {
+            new BitBoard(10, 10, 4);
+            fail(); // The test failed/was incomplete
+        } catch (IllegalArgumentException e) {
+            assertEquals("Correct too large error message",
+                    BitBoard.TOO_LARGE_ERROR_MESSAGE, e.getMessage());
+        }
+    }
+
+    @Test
+    public void testCopy() {
+        board.addToken(aliceToken, 3);
+        board.addToken(cyborgToken, 3);
+        board.addToken(aliceToken, 4);
+
+        GameBoard copy = board.copy();
+        assertTrue("Same kind of board", copy instanceof BitBoard);
+        assertEquals("Same hash", board.getHash(), copy.getHash());
+        assertEquals("Same number of tokens", board.getNumberOfTokens(), copy.getNumberOfTokens());
+        assertEquals("Same token", cyborgToken, copy.getToken(1, 3));
+
+        copy.addToken(cyborgToken, 0);
+        assertEquals("Original unchanged", 0, board.getNextRow(0));
+        assertTrue("Copy of a large board", new LargeBitBoard(WIDTH, HEIGHT, TOKENS_TO_CONNECT).copy()
+                instanceof LargeBitBoard);
+    }
+
+    @Test
+    public void testAddTokenAndGetToken() {
+        board.addToken(aliceToken, 1);
+        board.addToken(cyborgToken, 1);
+        assertEquals("First token (alice)", aliceToken, board.getToken(0, 1));
+        assertEquals("Second token (cyborg)", cyborgToken, board.getToken(1, 1));
+        assertEquals("Empty token", Token.EMPTY, board.getToken(2, 1));
+        assertEquals("Next row", 2, board.getNextRow(1));
+        assertEquals("Number of tokens", 2, board.getNumberOfTokens());
+
+        board.removeToken(1);
+        assertEquals("Removed token", Token.EMPTY, board.getToken(1, 1));
+        assertEquals("Next row after removal", 1, board.getNextRow(1));
+        assertEquals("Number of tokens after removal", 1, board.getNumberOfTokens());
+    }
+
+    @Test
+    public void testFullColumn() {
+        for (int row = 0; row < HEIGHT; row++) {
+            board.addToken(row % 2 == 0 ? aliceToken : cyborgToken, 0);
+        }
+        assertTrue("Column is full", board.isColumnFull(0));
+        try {
+            board.addToken(aliceToken, 0);
+            fail(); // The test failed/was incomplete
+        } catch (IllegalArgumentException e) {
+            assertEquals("Correct full column error message",
+                    Column.FULL_COLUMN_ERROR_MESSAGE, e.getMessage());
+        }
+    }
+
+    @Test
+    public void testWinningDirections() {
+        // Vertical
+        for (int i = 0; i < TOKENS_TO_CONNECT - 1; i++) {
+            assertFalse("Vertical not yet won", board.addToken(aliceToken, 0));
+        }
+        assertTrue("Vertical win", board.addToken(aliceToken, 0));
+
+        // Horizontal, across the column separators
+        board.empty();
+        for (int col = 0; col < TOKENS_TO_CONNECT - 1; col++) {
+            assertFalse("Horizontal not yet won", board.addToken(aliceToken, col));
+        }
+        assertTrue("Horizontal win", board.addToken(aliceToken, TOKENS_TO_CONNECT - 1));
+
+        // Positive diagonal
+        board.empty();
+        for (int col = 0; col < TOKENS_TO_CONNECT; col++) {
+            for (int row = 0; row < col; row++) {
+                board.addToken(cyborgToken, col);
+            }
+        }
+        for (int col = 0; col < TOKENS_TO_CONNECT - 1; col++) {
+            assertFalse("Positive diagonal not yet won", board.addToken(aliceToken, col));
+        }
+        assertTrue("Positive diagonal win", board.addToken(aliceToken, TOKENS_TO_CONNECT - 1));
+
+        // Negative diagonal
+        board.empty();
+        for (int col = 0; col < TOKENS_TO_CONNECT; col++) {
+            for (int row = 0; row < TOKENS_TO_CONNECT - 1 - col; row++) {
+                board.addToken(cyborgToken, col);
+            }
+        }
+        for (int col = 0; col < TOKENS_TO_CONNECT - 1; col++) {
+            assertFalse("Negative diagonal not yet won", board.addToken(aliceToken, col));
+        }
+        assertTrue("Negative diagonal win", board.addToken(aliceToken, TOKENS_TO_CONNECT - 1));
+    }
+
+    @Test
+    public void testMatchesGameBoard() {
+        Random rand = new Random(0);
+        GameBoard arrayBoard = new GameBoard(WIDTH, HEIGHT, TOKENS_TO_CONNECT);
+        for (int game = 0; game < RANDOM_GAMES; game++) {
+            board.empty();
+            arrayBoard.empty();
+            for (int turn = 0; turn < WIDTH * HEIGHT; turn++) {
+                int col = rand.nextInt(WIDTH);
+                if (arrayBoard.isColumnFull(col)) {
+                    continue;
+                }
+                Token token = turn % 2 == 0 ? aliceToken : cyborgToken;
+                assertEquals("Same result from addToken",
+                        arrayBoard.addToken(token, col), board.addToken(token, col));
+            }
+            for (int row = 0; row < HEIGHT; row++) {
+                for (int col = 0; col < WIDTH; col++) {
+                    String position = String.format("Token (%d,%d)", row, col);
+                    assertEquals(position, arrayBoard.getToken(row, col), board.getToken(row, col));
+                    for (int length = GameBoard.MIN_SEQUENCE_LENGTH; length <= HEIGHT; length++) {
+                        assertEquals(position + " sequence of " + length,
+                                arrayBoard.hasSequence(row, col, length),
+                                board.hasSequence(row, col, length));
+                    }
+                }
+            }
+        }
+    }
+
+}
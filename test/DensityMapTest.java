@@ -0,0 +1,152 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+import java.util.Random;
+
+/**
+ * Tests DensityMap class
+ * @author Eli W. Hunter
+ */
+public class DensityMapTest extends TestCase {
+
+    /** The width of the testing board */
+    private static int WIDTH = 9;
+    /** The height of the testing board */
+    private static int HEIGHT = 7;
+    /** The number of tokens to connect on the testing board */
+    private static int TOKENS_TO_CONNECT = 4;
+    /** The weights of the testing map, with a radius of 3 */
+    private static int[] WEIGHTS = {5, 4, 2, 1};
+
+    /** The board for testing */
+    private GameBoard board;
+    /** The players for testing */
+    private Player[] players;
+    /** The map for testing */
+    private DensityMap map;
+
+    @Before
+    public void setUp() {
+        Player.resetCounter();
+        players = new Player[] {
+            new Player("Alice", Player.SIMPLE_AI),
+            new Player("Cyborg", Player.SIMPLE_AI),
+            new Player("Bob", Player.SIMPLE_AI),
+        };
+        board = new GameBoard(WIDTH, HEIGHT, TOKENS_TO_CONNECT);
+        map = new DensityMap(board, WEIGHTS);
+    }
+
+    @Test
+    public void testSingleToken() {
+        board.addToken(Token.of(players[0]), 4);
+        map.update();
+        int alice = Token.indexOf(players[0]);
+        assertEquals("Radius", 3, map.getRadius());
+        assertEquals("Own cell", 5, map.getDensity(alice, 0, 4));
+        assertEquals("Above", 4, map.getDensity(alice, 1, 4));
+        assertEquals("Diagonal", 2, map.getDensity(alice, 2, 6));
+        assertEquals("Edge of radius", 1, map.getDensity(alice, 3, 1));
+        assertEquals("Past radius", 0, map.getDensity(alice, 0, 0));
+        assertEquals("Other player", 0, map.getDensity(Token.indexOf(players[1]), 1, 4));
+
+        board.removeToken(4);
+        map.update();
+        assertEquals("Removed", 0, map.getDensity(alice, 1, 4));
+    }
+
+    @Test
+    public void testMatchesNeighbourhood() {
+        Random random = new Random(173);
+        for (int move = 0; move < 300; move++) {
+            int col = random.nextInt(WIDTH);
+            if (random.nextInt(3) == 0 && board.getNextRow(col) > 0) {
+                board.removeToken(col);
+            } else if (!board.isColumnFull(col)) {
+                board.addToken(Token.of(players[move % players.length]), col);
+            }
+            // Let several moves pass between some updates
+            if (random.nextBoolean()) {
+                map.update();
+                assertDensities("After move " + move);
+            }
+        }
+
+        board.empty();
+        map.update();
+        assertDensities("Emptied");
+    }
+
+    @Test
+    public void testChangeBelowTop() {
+        board.addToken(Token.of(players[0]), 2);
+        board.addToken(Token.of(players[1]), 2);
+        map.update();
+
+        // Replace both tokens, keeping the same top token
+        board.removeToken(2);
+        board.removeToken(2);
+        board.addToken(Token.of(players[2]), 2);
+        board.addToken(Token.of(players[1]), 2);
+        map.update();
+        assertDensities("Found by the hash");
+    }
+
+    @Test
+    public void testHugeRadius() {
+        int[] weights = new int[100];
+        weights[0] = 1;
+        weights[99] = 7;
+        map = new DensityMap(board, weights);
+        board.addToken(Token.of(players[0]), 0);
+        map.update();
+        assertEquals("Own cell", 1, map.getDensity(Token.indexOf(players[0]), 0, 0));
+        assertEquals("Within the board", 0, map.getDensity(Token.indexOf(players[0]), HEIGHT - 1, WIDTH - 1));
+    }
+
+    @Test
+    public void testBadWeights() {
+        try {
+            new DensityMap(board, new int[0]);
+            fail("No weights");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Weights error", DensityMap.WEIGHTS_ERROR_MESSAGE, e.getMessage());
+        }
+    }
+
+    /**
+     * Asserts that every density matches the weighted tokens found by looking
+     * at the whole neighbourhood of each cell.
+     */
+    private void assertDensities(String message) {
+        for (Player player : players) {
+            int owner = Token.indexOf(player);
+            for (int row = 0; row < HEIGHT; row++) {
+                for (int col = 0; col < WIDTH; col++) {
+                    assertEquals(message, neighbourhood(owner, row, col), map.getDensity(owner, row, col));
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds up the weights of an owner's tokens around a cell, one cell at a
+     * time.
+     */
+    private int neighbourhood(int owner, int row, int col) {
+        int radius = WEIGHTS.length - 1;
+        int density = 0;
+        for (int r = row - radius; r <= row + radius; r++) {
+            for (int c = col - radius; c <= col + radius; c++) {
+                if (r >= 0 && r < HEIGHT && c >= 0 && c < WIDTH && r < board.getNextRow(c)
+                        && board.getOwnerIndex(r, c) == owner) {
+                    density += WEIGHTS[Math.max(Math.abs(r - row), Math.abs(c - col))];
+                }
+            }
+        }
+        return density;
+    }
+
+}
@@ -0,0 +1,245 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+import java.util.Random;
+
+/**
+ * Tests DropScanner class and GameBoard.getRunLength()
+ * @author Eli W. Hunter
+ */
+public class DropScannerTest extends TestCase {
+
+    /** The width for the testing game board */
+    private static int WIDTH = 9;
+    /** The height for the testing game board */
+    private static int HEIGHT = 7;
+    /** The number of tokens to connect for the testing game board */
+    private static int TOKENS_TO_CONNECT = 5;
+    /** The number of random positions compared against placing tokens */
+    private static int RANDOM_POSITIONS = 200;
+
+    /** Player Alice for testing */
+    private Player alice;
+    /** Player Bob for testing */
+    private Player bob;
+    /** Player Cyborg for testing */
+    private Player cyborg;
+    /** A player who isn't playing, for testing */
+    private Player stranger;
+    /** The players for testing, in the order they take turns */
+    private Player[] players;
+    /** Testing game board, which uses a run length index */
+    private GameBoard board;
+    /** Testing multi-word bitboard, which finds sequences by walking the board */
+    private GameBoard bitBoard;
+
+    @Before
+    public void setUp() {
+        Player.resetCounter();
+        alice = new Player("Alice", Player.BELLIGERENT_AI);
+        bob = new Player("Bob", Player.HUMAN);
+        cyborg = new Player("Cyborg", Player.RANDOM_AI);
+        stranger = new Player("Stranger", Player.HUMAN);
+        players = new Player[] {alice, bob, cyborg};
+        board = new GameBoard(WIDTH, HEIGHT, TOKENS_TO_CONNECT);
+        bitBoard = new LargeBitBoard(WIDTH, HEIGHT, TOKENS_TO_CONNECT);
+    }
+
+    @Test
+    public void testMatchesPlacingTokens() {
+        Random random = new Random(173);
+        DropScanner scanner = new DropScanner(board, players);
+        DropScanner bitScanner = new DropScanner(bitBoard, players);
+        for (int position = 0; position < RANDOM_POSITIONS; position++) {
+            playRandomly(random, random.nextInt(WIDTH * HEIGHT));
+            scanner.scan();
+            bitScanner.scan();
+
+            for (int col = 0; col < WIDTH; col++) {
+                for (Player player : players) {
+                    int length = longestAfterPlacing(player, col);
+                    assertEquals("Same as placing a token", length, scanner.getLength(col, player));
+                    assertEquals("Same on a bitboard", length, bitScanner.getLength(col, player));
+                    assertEquals("Same as placing two tokens", longestAbove(player, col),
+                            scanner.getLengthAbove(col, player));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLongestColumns() {
+        Random random = new Random(173);
+        DropScanner scanner = new DropScanner(board, players);
+        for (int position = 0; position < RANDOM_POSITIONS; position++) {
+            playRandomly(random, random.nextInt(WIDTH * HEIGHT));
+            scanner.scan();
+
+            for (Player player : players) {
+                int[] expected = filterBySequence(player, Utils.range(WIDTH), 2);
+                int longest = scanner.getLongestLength(player);
+                int[] actual = (longest < 2) ? Utils.range(WIDTH) : scanner.getColumnsWithLength(player, longest);
+                assertEquals("Same number of columns as filtering", expected.length, actual.length);
+                for (int i = 0; i < expected.length; i++) {
+                    assertEquals("Same columns as filtering", expected[i], actual[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testOpponents() {
+        // Bob has three in the bottom row, and Cyborg two in column 8
+        int[] columns = {0, 1, 8, 5, 2, 8, 6, 3, 7};
+        for (int i = 0; i < columns.length; i++) {
+            board.addToken(Token.of(players[i % players.length]), columns[i]);
+        }
+        DropScanner scanner = new DropScanner(board, players);
+        scanner.scan();
+
+        assertEquals("Bob would make four", 4, scanner.getLength(4, bob));
+        assertEquals("Alice would make three", 3, scanner.getLength(4, alice));
+        assertEquals("Bob is Alice's longest opponent", 4, scanner.getLongestOpponentLength(4, alice));
+        assertEquals("Cyborg would make three", 3, scanner.getLongestOpponentLength(8, bob));
+        assertEquals("Blocking Bob leaves Cyborg's three", 3, scanner.getLongestOpponentLengthAfter(4, alice));
+        assertEquals("Not blocking Bob leaves his four", 4, scanner.getLongestOpponentLengthAfter(8, alice));
+    }
+
+    @Test
+    public void testFullColumn() {
+        for (int row = 0; row < HEIGHT; row++) {
+            board.addToken(Token.of(players[row % players.length]), 0);
+        }
+        board.addToken(Token.of(alice), 1);
+        for (int row = 0; row < HEIGHT - 1; row++) {
+            board.addToken(Token.of(bob), 2);
+        }
+        DropScanner scanner = new DropScanner(board, players);
+        scanner.scan();
+
+        assertEquals("Full column", DropScanner.NO_CELL, scanner.getLength(0, alice));
+        assertEquals("Full column", DropScanner.NO_CELL, scanner.getLengthAbove(0, alice));
+        assertEquals("One cell left", DropScanner.NO_CELL, scanner.getLengthAbove(2, alice));
+        assertEquals("Bob's column", HEIGHT, scanner.getLength(2, bob));
+    }
+
+    @Test
+    public void testRunLength() {
+        Random random = new Random(173);
+        for (int position = 0; position < RANDOM_POSITIONS; position++) {
+            playRandomly(random, random.nextInt(WIDTH * HEIGHT));
+            for (int row = 0; row < HEIGHT; row++) {
+                for (int col = 0; col < WIDTH; col++) {
+                    for (int direction = 0; direction < RunLengthIndex.NUMBER_OF_DIRECTIONS; direction++) {
+                        assertEquals("Same with and without an index", board.getRunLength(row, col, direction),
+                                bitBoard.getRunLength(row, col, direction));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testBadArguments() {
+        DropScanner scanner = new DropScanner(board, new Player[] {alice, bob});
+        scanner.scan();
+        try {
+            scanner.getLength(0, cyborg);
+            fail("Unknown player");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Unknown player", NegamaxSearch.UNKNOWN_PLAYER_ERROR_MESSAGE, e.getMessage());
+        }
+        try {
+            board.getRunLength(0, 0, RunLengthIndex.NUMBER_OF_DIRECTIONS);
+            fail("Bad direction");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Bad direction", GameBoard.INVALID_DIRECTION_ERROR_MESSAGE, e.getMessage());
+        }
+        try {
+            bitBoard.getRunLength(HEIGHT, 0, RunLengthIndex.VERTICAL);
+            fail("Bad row");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Bad row", Column.INVALID_ROW_ERROR_MESSAGE, e.getMessage());
+        }
+    }
+
+    /**
+     * Empties both boards and plays the same random moves on them, with the
+     * players taking turns.
+     */
+    private void playRandomly(Random random, int tokens) {
+        board.empty();
+        bitBoard.empty();
+        while (board.getNumberOfTokens() < tokens) {
+            int col = random.nextInt(WIDTH);
+            if (!board.isColumnFull(col)) {
+                Token token = Token.of(players[board.getNumberOfTokens() % players.length]);
+                board.addToken(token, col);
+                bitBoard.addToken(token, col);
+            }
+        }
+    }
+
+    /**
+     * Finds the longest sequence through a cell of the board, in any direction.
+     */
+    private int longestAt(int row, int col) {
+        int longest = 0;
+        for (int direction = 0; direction < RunLengthIndex.NUMBER_OF_DIRECTIONS; direction++) {
+            longest = Math.max(longest, board.getRunLength(row, col, direction));
+        }
+        return longest;
+    }
+
+    /**
+     * Places a token of the player in the column, finds its longest sequence,
+     * and removes it.
+     */
+    private int longestAfterPlacing(Player player, int col) {
+        if (board.isColumnFull(col)) {
+            return DropScanner.NO_CELL;
+        }
+        int row = board.getNextRow(col);
+        board.addToken(Token.of(player), col);
+        int longest = longestAt(row, col);
+        board.removeToken(col);
+        return longest;
+    }
+
+    /**
+     * Keeps the columns where placing a token makes a sequence of the given
+     * length, and then of longer and longer lengths, until none are left.
+     * This is how the intelligent AI used to choose its columns.
+     */
+    private int[] filterBySequence(Player player, int[] columns, int length) {
+        boolean[] hasSequence = new boolean[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            int col = columns[i];
+            if (!board.isColumnFull(col)) {
+                int row = board.getNextRow(col);
+                board.addToken(Token.of(player), col);
+                hasSequence[i] = board.hasSequence(row, col, length);
+                board.removeToken(col);
+            }
+        }
+        int[] goodColumns = Utils.filter(columns, hasSequence);
+        return (goodColumns.length == 0) ? columns : filterBySequence(player, goodColumns, length + 1);
+    }
+
+    /**
+     * Places a token of nobody in the players in the column, then one of the
+     * player on top, and finds the second token's longest sequence.
+     */
+    private int longestAbove(Player player, int col) {
+        if (board.getNextRow(col) + 2 > HEIGHT) {
+            return DropScanner.NO_CELL;
+        }
+        board.addToken(Token.of(stranger), col);
+        int longest = longestAfterPlacing(player, col);
+        board.removeToken(col);
+        return longest;
+    }
+
+}
@@ -0,0 +1,116 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests EvaluationCache class
+ * @author Eli W. Hunter
+ */
+public class EvaluationCacheTest extends TestCase {
+
+    /** The capacity of the testing cache, which is a single set */
+    private static int CAPACITY = EvaluationCache.WAYS;
+
+    /** The cache for testing */
+    private EvaluationCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new EvaluationCache(CAPACITY);
+    }
+
+    @Test
+    public void testCapacity() {
+        assertEquals("Power of two", CAPACITY, cache.getCapacity());
+        assertEquals("Rounded down", 16, new EvaluationCache(31).getCapacity());
+
+        try {
+            new EvaluationCache(EvaluationCache.WAYS - 1);
+            fail("Capacity smaller than a set");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Capacity error", EvaluationCache.CAPACITY_ERROR_MESSAGE, e.getMessage());
+        }
+    }
+
+    @Test
+    public void testStoreAndProbe() {
+        assertFalse("Empty cache", EvaluationCache.isHit(cache.probe(42)));
+
+        cache.store(42, -1234);
+        long entry = cache.probe(42);
+        assertTrue("Stored", EvaluationCache.isHit(entry));
+        assertEquals("Score", -1234, EvaluationCache.getScore(entry));
+
+        cache.store(0, 0);
+        assertEquals("Key and score of 0", 0, EvaluationCache.getScore(cache.probe(0)));
+        cache.store(42, 77);
+        assertEquals("Replaced score", 77, EvaluationCache.getScore(cache.probe(42)));
+
+        assertEquals("Probes", 4, cache.getProbes());
+        assertEquals("Hits", 3, cache.getHits());
+        assertEquals("Misses", 1, cache.getMisses());
+        assertEquals("Hit rate", 3.0 / 4, cache.getHitRate(), 1e-9);
+        assertEquals("Occupancy", 2.0 / CAPACITY, cache.getOccupancy(), 1e-9);
+
+        cache.clear();
+        assertFalse("Cleared", EvaluationCache.isHit(cache.probe(42)));
+        assertEquals("Cleared occupancy", 0.0, cache.getOccupancy());
+    }
+
+    @Test
+    public void testClockEviction() {
+        for (int key = 1; key <= CAPACITY; key++) {
+            cache.store(key, key);
+        }
+        cache.probe(1);
+        cache.probe(2);
+
+        // 1 and 2 were read, so they get a second chance and 3 is replaced
+        cache.store(5, 5);
+        assertEquals("Evictions", 1, cache.getEvictions());
+        assertFalse("Unread entry replaced", EvaluationCache.isHit(cache.probe(3)));
+        assertTrue("Read entry kept", EvaluationCache.isHit(cache.probe(1)));
+        assertTrue("Read entry kept", EvaluationCache.isHit(cache.probe(2)));
+
+        // The hand moved on from 3, so 4 is next, even though 1 was just read
+        cache.store(6, 6);
+        assertFalse("Next entry replaced", EvaluationCache.isHit(cache.probe(4)));
+        assertTrue("New entry kept", EvaluationCache.isHit(cache.probe(5)));
+    }
+
+    @Test
+    public void testEvaluator() {
+        Player.resetCounter();
+        Player alice = new Player("Alice", Player.COMPETITIVE_AI);
+        Player cyborg = new Player("Cyborg", Player.COMPETITIVE_AI);
+        GameBoard board = new GameBoard(7, 6, 4);
+        board.addToken(Token.of(alice), 3);
+        board.addToken(Token.of(alice), 2);
+        board.addToken(Token.of(cyborg), 3);
+        int[] ownerIndexes = {Token.indexOf(alice), Token.indexOf(cyborg)};
+
+        Evaluator uncached = new Evaluator(7, 6, 4);
+        uncached.setCache(null);
+        Evaluator evaluator = new Evaluator(7, 6, 4);
+        evaluator.setCache(cache);
+        int alicesScore = uncached.evaluate(board, ownerIndexes, 0);
+        int cyborgsScore = uncached.evaluate(board, ownerIndexes, 1);
+
+        assertEquals("Miss", alicesScore, evaluator.evaluate(board, ownerIndexes, 0));
+        assertEquals("Hit", alicesScore, evaluator.evaluate(board, ownerIndexes, 0));
+        assertEquals("Other player", cyborgsScore, evaluator.evaluate(board, ownerIndexes, 1));
+        assertEquals("One hit", 1, cache.getHits());
+
+        // The same position on a bigger board scores differently
+        GameBoard bigBoard = new GameBoard(9, 7, 4);
+        bigBoard.addToken(Token.of(alice), 3);
+        bigBoard.addToken(Token.of(alice), 2);
+        bigBoard.addToken(Token.of(cyborg), 3);
+        Evaluator bigEvaluator = new Evaluator(9, 7, 4);
+        bigEvaluator.setCache(cache);
+        bigEvaluator.evaluate(bigBoard, ownerIndexes, 0);
+        assertEquals("Different board", 1, cache.getHits());
+    }
+
+}
@@ -0,0 +1,205 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+import java.util.Random;
+
+/**
+ * Tests EvaluationKernel, ScalarEvaluationKernel and VectorEvaluationKernel
+ * classes. The vector kernel is only tested when it is available.
+ * @author Eli W. Hunter
+ */
+public class EvaluationKernelTest extends TestCase {
+
+    /** The width, height and number of tokens to connect of each testing board */
+    private static int[][] BOARDS = {{7, 6, 4}, {4, 4, 4}, {13, 9, 5}, {70, 3, 3}};
+    /** The number of random boards scored for each size */
+    private static int RANDOM_BOARDS = 50;
+    /** The largest width and height of the boards swept through */
+    private static int MAX_SWEPT_SIZE = 16;
+    /** The largest number of tokens to connect of the boards swept through */
+    private static int MAX_SWEPT_TOKENS = 8;
+    /** The number of random boards scored for each swept size */
+    private static int SWEPT_BOARDS = 3;
+    /** The number of players being scored on the testing boards */
+    private static int PLAYERS = 3;
+
+    /** The random number generator for the testing boards */
+    private Random random;
+
+    @Before
+    public void setUp() {
+        random = new Random(173);
+    }
+
+    @Test
+    public void testScalarMatchesEveryWindow() {
+        for (int[] dimensions : BOARDS) {
+            EvaluationKernel kernel = EvaluationKernel.createScalar(dimensions[0], dimensions[1], dimensions[2]);
+            for (int board = 0; board < RANDOM_BOARDS; board++) {
+                byte[][] grid = randomGrid(dimensions[0], dimensions[1]);
+                assertScores("Same as checking every window", scoreEveryWindow(grid, dimensions[2]),
+                        score(kernel, grid));
+            }
+        }
+    }
+
+    @Test
+    public void testVectorMatchesScalar() {
+        if (!EvaluationKernel.isVectorAvailable()) {
+            return; // run with --add-modules jdk.incubator.vector to test it
+        }
+        for (int[] dimensions : BOARDS) {
+            EvaluationKernel scalar = EvaluationKernel.createScalar(dimensions[0], dimensions[1], dimensions[2]);
+            EvaluationKernel vector = EvaluationKernel.create(dimensions[0], dimensions[1], dimensions[2]);
+            assertFalse("Vector kernel is used", vector instanceof ScalarEvaluationKernel);
+            for (int board = 0; board < RANDOM_BOARDS; board++) {
+                byte[][] grid = randomGrid(dimensions[0], dimensions[1]);
+                assertScores("Same as the scalar kernel", score(scalar, grid), score(vector, grid));
+            }
+        }
+    }
+
+    @Test
+    public void testVectorMatchesScalarForEverySize() {
+        if (!EvaluationKernel.isVectorAvailable()) {
+            return; // run with --add-modules jdk.incubator.vector to test it
+        }
+        // The last vector of a board reads past it by a different amount for every size
+        for (int tokensToConnect = 2; tokensToConnect <= MAX_SWEPT_TOKENS; tokensToConnect++) {
+            for (int width = 1; width <= MAX_SWEPT_SIZE; width++) {
+                for (int height = 1; height <= MAX_SWEPT_SIZE; height++) {
+                    EvaluationKernel scalar = EvaluationKernel.createScalar(width, height, tokensToConnect);
+                    EvaluationKernel vector = EvaluationKernel.create(width, height, tokensToConnect);
+                    for (int board = 0; board < SWEPT_BOARDS; board++) {
+                        byte[][] grid = randomGrid(width, height);
+                        assertScores("Same as the scalar kernel on " + width + "x" + height + " connect "
+                                + tokensToConnect, score(scalar, grid), score(vector, grid));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testBenchmarkCells() {
+        int[][] benchmarkBoards = {{7, 6, 4}, {100, 100, 5}};
+        for (int[] dimensions : benchmarkBoards) {
+            int width = dimensions[0];
+            int height = dimensions[1];
+            EvaluationKernel scalar = EvaluationKernel.createScalar(width, height, dimensions[2]);
+            // The vector kernel when it is available, so it is scored through its own padding
+            EvaluationKernel fastest = EvaluationKernel.create(width, height, dimensions[2]);
+            int[] scalarScores = new int[PLAYERS];
+            int[] fastestScores = new int[PLAYERS];
+            scalar.scoreWindows(EvaluationBenchmark.randomCells(scalar, width, height), PLAYERS, scalarScores);
+            fastest.scoreWindows(EvaluationBenchmark.randomCells(fastest, width, height), PLAYERS, fastestScores);
+            assertScores("Same benchmark scores on " + width + "x" + height, scalarScores, fastestScores);
+            assertTrue("Board has tokens", scalarScores[0] > 0);
+        }
+    }
+
+    @Test
+    public void testEvaluator() {
+        Player.resetCounter();
+        Player alice = new Player("Alice", Player.COMPETITIVE_AI);
+        Player cyborg = new Player("Cyborg", Player.COMPETITIVE_AI);
+        GameBoard board = new GameBoard(7, 6, 4);
+        board.addToken(Token.of(alice), 3);
+        board.addToken(Token.of(cyborg), 0);
+        int[] ownerIndexes = {Token.indexOf(alice), Token.indexOf(cyborg)};
+
+        Evaluator evaluator = new Evaluator(7, 6, 4);
+        Evaluator scalar = new Evaluator(7, 6, 4, EvaluationKernel.createScalar(7, 6, 4));
+        // Without caches, so both kernels really score the board
+        evaluator.setCache(null);
+        scalar.setCache(null);
+        int[] scores = new int[2];
+        evaluator.scoreLines(board, ownerIndexes, scores);
+        // Each token is alone in its open windows, except the row they share
+        assertEquals("Alice's windows", 6, scores[0]);
+        assertEquals("Cyborg's windows", 2, scores[1]);
+        assertEquals("Same with either kernel", evaluator.evaluate(board, ownerIndexes, 0),
+                scalar.evaluate(board, ownerIndexes, 0));
+    }
+
+    /**
+     * Asserts that two arrays of scores are equal.
+     */
+    private void assertScores(String message, int[] expected, int[] actual) {
+        for (int player = 0; player < PLAYERS; player++) {
+            assertEquals(message, expected[player], actual[player]);
+        }
+    }
+
+    /**
+     * Makes a board of random columns, where each token is one of the players
+     * or somebody who isn't scored.
+     * @return The player of each cell, indexed by row and then column.
+     */
+    private byte[][] randomGrid(int width, int height) {
+        byte[][] grid = new byte[height][width];
+        for (int col = 0; col < width; col++) {
+            int tokens = random.nextInt(height + 1);
+            for (int row = 0; row < tokens; row++) {
+                grid[row][col] = (byte) (1 + random.nextInt(PLAYERS + 1));
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Scores a board with the given kernel.
+     */
+    private int[] score(EvaluationKernel kernel, byte[][] grid) {
+        byte[] cells = kernel.createCells();
+        for (int row = 0; row < grid.length; row++) {
+            for (int col = 0; col < grid[row].length; col++) {
+                cells[kernel.cellIndex(row, col)] = grid[row][col];
+            }
+        }
+        int[] scores = new int[PLAYERS];
+        kernel.scoreWindows(cells, PLAYERS, scores);
+        return scores;
+    }
+
+    /**
+     * Scores a board by checking every window of every direction on its own.
+     */
+    private int[] scoreEveryWindow(byte[][] grid, int tokensToConnect) {
+        int[][] directions = {{1, 0}, {0, 1}, {1, 1}, {1, -1}};
+        int height = grid.length;
+        int width = grid[0].length;
+        int[] scores = new int[PLAYERS];
+        for (int[] direction : directions) {
+            for (int row = 0; row < height; row++) {
+                for (int col = 0; col < width; col++) {
+                    int lastRow = row + (tokensToConnect - 1) * direction[0];
+                    int lastCol = col + (tokensToConnect - 1) * direction[1];
+                    if (lastRow >= height || lastCol < 0 || lastCol >= width) {
+                        continue;
+                    }
+
+                    int player = 0;
+                    int count = 0;
+                    boolean open = true;
+                    for (int k = 0; k < tokensToConnect; k++) {
+                        int cell = grid[row + k * direction[0]][col + k * direction[1]];
+                        if (cell == 0) {
+                            continue;
+                        }
+                        open &= (player == 0 || player == cell) && cell <= PLAYERS;
+                        player = cell;
+                        count++;
+                    }
+                    if (open && count > 0) {
+                        scores[player - 1] += count * count * count;
+                    }
+                }
+            }
+        }
+        return scores;
+    }
+
+}
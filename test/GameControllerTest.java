@@ -0,0 +1,151 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * Tests GameController and Action classes
+ * @author Eli W. Hunter
+ */
+public class GameControllerTest extends TestCase {
+
+    /** The width for the testing game board */
+    private static int WIDTH = 4;
+    /** The height for the testing game board */
+    private static int HEIGHT = 3;
+    /** The number of tokens to connect for the testing game board */
+    private static int TOKENS_TO_CONNECT = 3;
+
+    /** Player Alice for testing */
+    private Player alice;
+    /** Player Bob for testing */
+    private Player bob;
+    /** Testing game board */
+    private GameBoard board;
+    /** Testing game controller */
+    private GameController controller;
+    /** Testing interface, which plays scripted actions */
+    private ScriptedInterface client;
+
+    @Before
+    public void setUp() {
+        Player.resetCounter();
+        alice = new Player("Alice", Player.HUMAN);
+        bob = new Player("Bob", Player.HUMAN);
+        board = new GameBoard(WIDTH, HEIGHT, TOKENS_TO_CONNECT);
+        controller = new GameController(board, new Player[] {alice, bob});
+        client = new ScriptedInterface();
+        controller.setInterface(client);
+    }
+
+    @Test
+    public void testMoves() {
+        assertEquals("Moved", GameController.MOVED, play(Action.move(0)));
+        assertEquals("Bob's turn", bob, controller.getCurrentPlayer());
+        assertEquals("Moved", GameController.MOVED, play(Action.move(1)));
+        assertEquals("Moved", GameController.MOVED, play(Action.move(0)));
+        assertEquals("Moved", GameController.MOVED, play(Action.move(1)));
+        assertEquals("Won", GameController.WON, play(Action.move(0)));
+        assertEquals("Winner displayed", alice, client.winner);
+        assertFalse("Game over", controller.isRunning());
+    }
+
+    @Test
+    public void testIllegalMoves() {
+        assertEquals("Off the board", GameController.INVALID_COLUMN, play(Action.move(WIDTH)));
+        assertEquals("Off the board", GameController.INVALID_COLUMN, play(Action.move(-1)));
+        assertTrue("Illegal", GameController.isIllegal(GameController.INVALID_COLUMN));
+        assertEquals("Still Alice's turn", alice, controller.getCurrentPlayer());
+
+        for (int row = 0; row < HEIGHT; row++) {
+            play(Action.move(2));
+        }
+        assertEquals("Full", GameController.FULL_COLUMN, play(Action.move(2)));
+        assertEquals("Still Bob's turn", bob, controller.getCurrentPlayer());
+        assertEquals("Nothing added", HEIGHT, board.getNumberOfTokens());
+    }
+
+    @Test
+    public void testControlActions() {
+        assertEquals("Help", GameController.CONTROLLED, play(Action.HELP_ACTION));
+        assertEquals("Display", GameController.CONTROLLED, play(Action.DISPLAY_ACTION));
+        assertEquals("Both displayed", 2, client.displays);
+        assertEquals("Still Alice's turn", alice, controller.getCurrentPlayer());
+        assertFalse("Legal", GameController.isIllegal(GameController.CONTROLLED));
+
+        assertEquals("Quit", GameController.QUIT, play(Action.QUIT_ACTION));
+        assertFalse("Game over", controller.isRunning());
+    }
+
+    @Test
+    public void testActions() {
+        assertTrue("Shared moves", Action.move(3) == Action.move(3));
+        assertEquals("Unshared moves", Action.move(Action.SHARED_MOVES), Action.move(Action.SHARED_MOVES));
+        assertEquals("Column", 3, Action.move(3).getColumn());
+        assertTrue("Move", Action.move(3).isMove());
+        assertFalse("Not a move", Action.QUIT_ACTION.isMove());
+        assertEquals("No column", Action.NO_COLUMN, Action.HELP_ACTION.getColumn());
+
+        assertEquals("Parsed move", Action.move(12), CLI.parseAction("12"));
+        assertEquals("Parsed help", Action.HELP_ACTION, CLI.parseAction("h"));
+        assertEquals("Parsed display", Action.DISPLAY_ACTION, CLI.parseAction("D"));
+        assertEquals("Parsed quit", Action.QUIT_ACTION, CLI.parseAction("q"));
+        assertNull("Misunderstood", CLI.parseAction("x"));
+    }
+
+    /**
+     * Takes a turn for the current player with the given action.
+     */
+    private byte play(Action action) {
+        client.actions.add(action);
+        return controller.takeTurn();
+    }
+
+    /**
+     * A user interface which plays the actions it is given, and remembers
+     * what it displayed.
+     */
+    private static class ScriptedInterface extends GameInterface {
+
+        /** The actions still to be played */
+        private Queue<Action> actions = new ArrayDeque<>();
+        /** The number of times the board or help was displayed */
+        private int displays;
+        /** The player who won, or null */
+        private Player winner;
+
+        @Override
+        public void displayBoard() {
+            displays++;
+        }
+
+        @Override
+        public Action requestUserAction() {
+            return actions.remove();
+        }
+
+        @Override
+        public Player[] requestPlayers() {
+            return new Player[0];
+        }
+
+        @Override
+        public void displayHelp() {
+            displays++;
+        }
+
+        @Override
+        public void displayWin(Player winningPlayer) {
+            winner = winningPlayer;
+        }
+
+        @Override
+        public void displayGameOver() {
+        }
+
+    }
+
+}
@@ -0,0 +1,119 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+import java.util.Random;
+
+/**
+ * Tests LargeBitBoard class.
+ * @author Eli W. Hunter
+ */
+public class LargeBitBoardTest extends TestCase {
+
+    /** The width for the large testing game board */
+    private static int WIDTH = 200;
+    /** The height for the large testing game board */
+    private static int HEIGHT = 100;
+    /** The number of tokens to connect for the large testing game board */
+    private static int TOKENS_TO_CONNECT = 8;
+    /** The number of random games played when comparing against GameBoard */
+    private static int RANDOM_GAMES = 20;
+
+    /** Player Alice for testing */
+    private Player alice;
+    /** Player Cyborg for testing */
+    private Player cyborg;
+    /** Player 3 for testing */
+    private Player player3;
+    /** Alice's Token for testing */
+    private Token aliceToken;
+    /** Cyborg's Token for testing */
+    private Token cyborgToken;
+    /** Player 3's Token for testing */
+    private Token player3Token;
+    /** Testing game board */
+    private LargeBitBoard board;
+
+    @Before
+    public void setUp() {
+        Player.resetCounter();
+        alice = new Player("Alice", Player.HUMAN);
+        cyborg = new Player("Cyborg", Player.RANDOM_AI);
+        player3 = new Player(Player.RANDOM_AI);
+        aliceToken = new Token(alice);
+        cyborgToken = new Token(cyborg);
+        player3Token = new Token(player3);
+        board = new LargeBitBoard(WIDTH, HEIGHT, TOKENS_TO_CONNECT);
+    }
+
+    @Test
+    public void testHorizontalAcrossWords() {
+        // Each column takes 101 bits, so every horizontal step crosses a word
+        for (int col = WIDTH - TOKENS_TO_CONNECT; col < WIDTH - 1; col++) {
+            assertFalse("Horizontal not yet won", board.addToken(aliceToken, col));
+        }
+        assertTrue("Horizontal win", board.addToken(aliceToken, WIDTH - 1));
+        assertTrue("Leftmost token is winning",
+                board.isWinningPosition(0, WIDTH - TOKENS_TO_CONNECT));
+        board.removeToken(WIDTH - 1);
+        assertFalse("No longer winning after removal",
+                board.isWinningPosition(0, WIDTH - TOKENS_TO_CONNECT));
+    }
+
+    @Test
+    public void testVerticalAtTop() {
+        for (int row = 0; row < HEIGHT - TOKENS_TO_CONNECT; row++) {
+            board.addToken(cyborgToken, 3);
+        }
+        for (int i = 0; i < TOKENS_TO_CONNECT - 1; i++) {
+            assertFalse("Vertical not yet won", board.addToken(aliceToken, 3));
+        }
+        assertTrue("Vertical win in the top row", board.addToken(aliceToken, 3));
+        assertTrue("Column is full", board.isColumnFull(3));
+        assertFalse("Next column is untouched", board.isWinningPosition(0, 4));
+    }
+
+    @Test
+    public void testMatchesGameBoard() {
+        compareWithGameBoard(WIDTH, HEIGHT, TOKENS_TO_CONNECT, WIDTH * 10);
+        compareWithGameBoard(13, 11, 5, 13 * 11);
+    }
+
+    /**
+     * Plays random games with three players on both a LargeBitBoard and a
+     * GameBoard, comparing every win and every sequence length.
+     */
+    private void compareWithGameBoard(int width, int height, int tokensToConnect, int turns) {
+        Random rand = new Random(0);
+        Token[] tokens = {aliceToken, cyborgToken, player3Token};
+        LargeBitBoard bitBoard = new LargeBitBoard(width, height, tokensToConnect);
+        GameBoard arrayBoard = new GameBoard(width, height, tokensToConnect);
+        for (int game = 0; game < RANDOM_GAMES; game++) {
+            bitBoard.empty();
+            arrayBoard.empty();
+            for (int turn = 0; turn < turns; turn++) {
+                // Favor a few columns so that long sequences actually form
+                int col = rand.nextInt(Math.min(width, tokensToConnect * 2));
+                if (arrayBoard.isColumnFull(col)) {
+                    continue;
+                }
+                Token token = tokens[rand.nextInt(tokens.length)];
+                assertEquals("Same result from addToken",
+                        arrayBoard.addToken(token, col), bitBoard.addToken(token, col));
+            }
+            for (int row = 0; row < height; row++) {
+                for (int col = 0; col < Math.min(width, tokensToConnect * 2); col++) {
+                    String position = String.format("Token (%d,%d)", row, col);
+                    assertEquals(position, arrayBoard.getToken(row, col), bitBoard.getToken(row, col));
+                    for (int length = GameBoard.MIN_SEQUENCE_LENGTH; length <= tokensToConnect; length++) {
+                        assertEquals(position + " sequence of " + length,
+                                arrayBoard.hasSequence(row, col, length),
+                                bitBoard.hasSequence(row, col, length));
+                    }
+                }
+            }
+        }
+    }
+
+}
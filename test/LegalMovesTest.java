@@ -0,0 +1,113 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+import java.util.Random;
+
+/**
+ * Tests the legal moves of GameBoard, BitBoard and LargeBitBoard classes
+ * @author Eli W. Hunter
+ */
+public class LegalMovesTest extends TestCase {
+
+    /** The width for the testing game boards */
+    private static int WIDTH = 7;
+    /** The height for the testing game boards */
+    private static int HEIGHT = 3;
+    /** The number of tokens to connect for the testing game boards */
+    private static int TOKENS_TO_CONNECT = 3;
+    /** The number of random moves made on the testing game boards */
+    private static int RANDOM_MOVES = 2000;
+
+    /** Player Alice for testing */
+    private Player alice;
+    /** Testing game boards of every kind */
+    private GameBoard[] boards;
+
+    @Before
+    public void setUp() {
+        Player.resetCounter();
+        alice = new Player("Alice", Player.RANDOM_AI);
+        boards = new GameBoard[] {
+            new GameBoard(WIDTH, HEIGHT, TOKENS_TO_CONNECT),
+            new BitBoard(WIDTH, HEIGHT, TOKENS_TO_CONNECT),
+            new LargeBitBoard(WIDTH, HEIGHT, TOKENS_TO_CONNECT),
+        };
+    }
+
+    @Test
+    public void testFillAndUnfill() {
+        for (GameBoard board : boards) {
+            assertEquals("Every column", WIDTH, board.getNumberOfLegalMoves());
+            fill(board, 3);
+            assertFalse("Full column", board.isLegalMove(3));
+            assertEquals("One fewer", WIDTH - 1, board.getNumberOfLegalMoves());
+            for (int i = 0; i < board.getNumberOfLegalMoves(); i++) {
+                assertTrue("Listed moves are legal", board.isLegalMove(board.getLegalMove(i)));
+            }
+
+            board.removeToken(3);
+            assertTrue("Unfilled column", board.isLegalMove(3));
+            assertEquals("Every column again", WIDTH, board.getNumberOfLegalMoves());
+
+            fill(board, 0);
+            board.empty();
+            assertEquals("Emptied", WIDTH, board.getNumberOfLegalMoves());
+            assertFalse("Off the board", board.isLegalMove(WIDTH));
+            assertFalse("Off the board", board.isLegalMove(-1));
+        }
+    }
+
+    @Test
+    public void testMatchesFullColumns() {
+        Random random = new Random(173);
+        for (GameBoard board : boards) {
+            for (int move = 0; move < RANDOM_MOVES; move++) {
+                int col = random.nextInt(WIDTH);
+                if (random.nextInt(3) == 0 && board.getNextRow(col) > 0) {
+                    board.removeToken(col);
+                } else if (!board.isColumnFull(col)) {
+                    board.addToken(Token.of(alice), col);
+                }
+
+                int legal = 0;
+                for (int c = 0; c < WIDTH; c++) {
+                    assertEquals("Legal when not full", !board.isColumnFull(c), board.isLegalMove(c));
+                    legal += board.isColumnFull(c) ? 0 : 1;
+                }
+                assertEquals("Number of legal moves", legal, board.getNumberOfLegalMoves());
+                assertEquals("Copied moves", legal, board.getLegalMoves().length);
+            }
+        }
+    }
+
+    @Test
+    public void testRandomLegalMove() {
+        Random random = new Random(173);
+        for (GameBoard board : boards) {
+            for (int col = 1; col < WIDTH; col++) {
+                fill(board, col);
+            }
+            assertEquals("Only column", 0, board.getRandomLegalMove(random));
+            fill(board, 0);
+            assertEquals("No legal moves", GameBoard.NO_LEGAL_MOVE, board.getRandomLegalMove(random));
+            try {
+                board.getLegalMove(0);
+                fail("No legal moves");
+            } catch (IllegalArgumentException e) {
+                assertEquals("Legal move error", GameBoard.INVALID_LEGAL_MOVE_ERROR_MESSAGE, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Fills a column of the board with Alice's tokens.
+     */
+    private void fill(GameBoard board, int col) {
+        while (!board.isColumnFull(col)) {
+            board.addToken(Token.of(alice), col);
+        }
+    }
+
+}
@@ -0,0 +1,83 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests MonteCarloSearch class
+ * @author Eli W. Hunter
+ */
+public class MonteCarloSearchTest extends TestCase {
+
+    /** The width for the testing game board */
+    private static int WIDTH = 7;
+    /** The height for the testing game board */
+    private static int HEIGHT = 6;
+    /** The number of tokens to connect for the testing game board */
+    private static int TOKENS_TO_CONNECT = 4;
+    /** The number of playouts for each testing search */
+    private static long PLAYOUTS = 5000;
+
+    /** Alice for testing */
+    private Player alice;
+    /** Bob for testing */
+    private Player bob;
+    /** Cyborg for testing */
+    private Player cyborg;
+    /** The game board for testing */
+    private GameBoard board;
+
+    @Before
+    public void setUp() {
+        Player.resetCounter();
+        alice = new Player("Alice", Player.MONTE_CARLO_AI);
+        bob = new Player("Bob", Player.MONTE_CARLO_AI);
+        cyborg = new Player("Cyborg", Player.MONTE_CARLO_AI);
+        board = new GameBoard(WIDTH, HEIGHT, TOKENS_TO_CONNECT);
+    }
+
+    @Test
+    public void testTakesWin() {
+        for (int col = 0; col < 3; col++) {
+            board.addToken(Token.of(alice), col);
+            board.addToken(Token.of(cyborg), col);
+        }
+        long hash = board.getHash();
+
+        MonteCarloSearch search = new MonteCarloSearch(board, new Player[] {alice, cyborg});
+        assertEquals("Completes the row", 3, search.search(alice, MonteCarloSearch.NO_LIMIT, PLAYOUTS));
+        assertEquals("Board is never changed", hash, board.getHash());
+        assertEquals("Counts playouts", PLAYOUTS, search.getStatistics().getNodes());
+    }
+
+    @Test
+    public void testThreePlayers() {
+        // Bob threatens to complete the bottom row, and moves right after Alice
+        int[] columns = {6, 1, 0, 6, 2, 6, 5, 3, 5};
+        Player[] players = {alice, bob, cyborg};
+        for (int i = 0; i < columns.length; i++) {
+            board.addToken(Token.of(players[i % players.length]), columns[i]);
+        }
+
+        MonteCarloSearch search = new MonteCarloSearch(board, players, 2, MonteCarloSearch.DEFAULT_NODE_CAPACITY);
+        assertEquals("Blocks the open end of the row", 4, search.search(alice, MonteCarloSearch.NO_LIMIT, 4 * PLAYOUTS));
+        assertTrue("Grew a tree", search.getStatistics().getDepth() > 1);
+        search.shutdown();
+    }
+
+    @Test
+    public void testTimeLimit() {
+        MonteCarloSearch search = new MonteCarloSearch(board, new Player[] {alice, cyborg});
+        long limit = 20_000_000L;
+        search.search(alice, limit, MonteCarloSearch.NO_LIMIT);
+        assertTrue("Stopped near the time limit", search.getStatistics().getElapsedNanos() < 5 * limit);
+
+        try {
+            search.search(alice, MonteCarloSearch.NO_LIMIT, MonteCarloSearch.NO_LIMIT);
+            fail("No budget");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Budget error", MonteCarloSearch.BUDGET_ERROR_MESSAGE, e.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,114 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests MoveOrdering class
+ * @author Eli W. Hunter
+ */
+public class MoveOrderingTest extends TestCase {
+
+    /** The width for the testing game board */
+    private static int WIDTH = 7;
+    /** The height for the testing game board */
+    private static int HEIGHT = 6;
+    /** The number of tokens to connect for the testing game board */
+    private static int TOKENS_TO_CONNECT = 4;
+    /** The number of players for testing */
+    private static int PLAYERS = 2;
+
+    /** The game board for testing */
+    private GameBoard board;
+    /** The move ordering for testing */
+    private MoveOrdering ordering;
+
+    @Before
+    public void setUp() {
+        Player.resetCounter();
+        board = new GameBoard(WIDTH, HEIGHT, TOKENS_TO_CONNECT);
+        ordering = new MoveOrdering(board, PLAYERS);
+    }
+
+    @Test
+    public void testCentreFirst() {
+        assertEquals("Every column", WIDTH, ordering.order(board, 0, 0, MoveOrdering.NO_MOVE));
+        int[] expected = {3, 2, 4, 1, 5, 0, 6};
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals("Centre outwards", expected[i], ordering.getMoves(0)[i]);
+        }
+
+        ordering.setHeuristics(MoveOrdering.NONE);
+        ordering.order(board, 0, 0, MoveOrdering.NO_MOVE);
+        for (int i = 0; i < WIDTH; i++) {
+            assertEquals("Left to right", i, ordering.getMoves(0)[i]);
+        }
+    }
+
+    @Test
+    public void testTableMoveAndKillers() {
+        ordering.recordCutoff(0, 1, 6, 0, 3, 2);
+        ordering.recordCutoff(0, 1, 5, 0, 3, 0);
+        ordering.order(board, 0, 1, 0);
+        assertEquals("Table move first", 0, ordering.getMoves(1)[0]);
+        assertEquals("Latest killer next", 5, ordering.getMoves(1)[1]);
+        assertEquals("Older killer next", 6, ordering.getMoves(1)[2]);
+        assertEquals("Then the centre", 3, ordering.getMoves(1)[3]);
+
+        ordering.order(board, 0, 2, MoveOrdering.NO_MOVE);
+        assertEquals("Killers are per ply", 3, ordering.getMoves(2)[0]);
+
+        assertEquals("Counts cutoffs", 2, ordering.getCutoffs());
+        assertEquals("Counts first move cutoffs", 1, ordering.getFirstMoveCutoffs());
+        assertEquals("First move cutoff rate", 0.5, ordering.getFirstMoveCutoffRate(), 1e-9);
+        ordering.startSearch();
+        assertEquals("Counters reset", 0, ordering.getCutoffs());
+        ordering.order(board, 0, 1, MoveOrdering.NO_MOVE);
+        assertEquals("Killers forgotten", 3, ordering.getMoves(1)[0]);
+    }
+
+    @Test
+    public void testHistory() {
+        ordering.setHeuristics(MoveOrdering.HISTORY | MoveOrdering.CENTRE);
+        ordering.recordCutoff(1, 4, 0, 0, 5, 1);
+        ordering.order(board, 1, 0, MoveOrdering.NO_MOVE);
+        assertEquals("History first", 0, ordering.getMoves(0)[0]);
+        ordering.order(board, 0, 0, MoveOrdering.NO_MOVE);
+        assertEquals("History is per player", 3, ordering.getMoves(0)[0]);
+
+        board.addToken(Token.of(new Player("Alice", Player.HUMAN)), 0);
+        ordering.order(board, 1, 0, MoveOrdering.NO_MOVE);
+        assertEquals("History is per cell", 3, ordering.getMoves(0)[0]);
+    }
+
+    @Test
+    public void testSkipsFullColumns() {
+        Player alice = new Player("Alice", Player.HUMAN);
+        for (int row = 0; row < HEIGHT; row++) {
+            board.addToken(Token.of(alice), 3);
+        }
+        assertEquals("One column full", WIDTH - 1, ordering.order(board, 0, 0, 3));
+        assertEquals("Full table move skipped", 2, ordering.getMoves(0)[0]);
+    }
+
+    @Test
+    public void testSearchCountsCutoffs() {
+        Player alice = new Player("Alice", Player.COMPETITIVE_AI);
+        Player cyborg = new Player("Cyborg", Player.COMPETITIVE_AI);
+        NegamaxSearch search = new NegamaxSearch(board, new Player[] {alice, cyborg});
+        search.search(alice, 6);
+        assertTrue("Cutoffs counted", search.getMoveOrdering().getCutoffs() > 0);
+        assertTrue("Mostly on the first move", search.getMoveOrdering().getFirstMoveCutoffRate() > 0.5);
+    }
+
+    @Test
+    public void testBadHeuristics() {
+        try {
+            ordering.setHeuristics(MoveOrdering.ALL + 1);
+            fail("Unknown heuristic");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Unknown heuristic", MoveOrdering.HEURISTICS_ERROR_MESSAGE, e.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,92 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests MultiPlayerSearch class
+ * @author Eli W. Hunter
+ */
+public class MultiPlayerSearchTest extends TestCase {
+
+    /** The width for the testing game board */
+    private static int WIDTH = 7;
+    /** The height for the testing game board */
+    private static int HEIGHT = 6;
+    /** The number of tokens to connect for the testing game board */
+    private static int TOKENS_TO_CONNECT = 4;
+
+    /** Alice for testing */
+    private Player alice;
+    /** Bob for testing */
+    private Player bob;
+    /** Cyborg for testing */
+    private Player cyborg;
+    /** The players for testing, in the order they take turns */
+    private Player[] players;
+    /** The game board for testing */
+    private GameBoard board;
+
+    @Before
+    public void setUp() {
+        Player.resetCounter();
+        alice = new Player("Alice", Player.COMPETITIVE_AI);
+        bob = new Player("Bob", Player.COMPETITIVE_AI);
+        cyborg = new Player("Cyborg", Player.COMPETITIVE_AI);
+        players = new Player[] {alice, bob, cyborg};
+        board = new GameBoard(WIDTH, HEIGHT, TOKENS_TO_CONNECT);
+    }
+
+    /**
+     * Plays the given columns, with the players taking turns.
+     */
+    private void play(int... columns) {
+        for (int i = 0; i < columns.length; i++) {
+            board.addToken(Token.of(players[i % players.length]), columns[i]);
+        }
+    }
+
+    @Test
+    public void testTakesWin() {
+        // Alice has three in the bottom row, and it's her turn again
+        play(1, 6, 6, 2, 6, 5, 3, 5, 5);
+        long hash = board.getHash();
+
+        for (byte mode : new byte[] {MultiPlayerSearch.MAX_N, MultiPlayerSearch.PARANOID}) {
+            MultiPlayerSearch search = new MultiPlayerSearch(board, players, mode);
+            int col = search.search(alice, 3);
+            assertTrue("Completes the row", col == 0 || col == 4);
+            assertEquals("Board is restored", hash, board.getHash());
+            assertEquals("Quickest win score", Evaluator.WIN_SCORE - 1, search.getStatistics().getScore());
+        }
+    }
+
+    @Test
+    public void testBlocksNextPlayer() {
+        // Bob threatens the bottom row, and moves right after Alice
+        play(6, 1, 0, 6, 2, 6, 5, 3, 5);
+
+        for (byte mode : new byte[] {MultiPlayerSearch.MAX_N, MultiPlayerSearch.PARANOID}) {
+            MultiPlayerSearch search = new MultiPlayerSearch(board, players, mode);
+            assertEquals("Blocks the open end of the row", 4, search.search(alice, 4));
+            assertTrue("Counts nodes", search.getStatistics().getNodes() > 0);
+        }
+    }
+
+    @Test
+    public void testBudget() {
+        MultiPlayerSearch search = new MultiPlayerSearch(board, players, MultiPlayerSearch.PARANOID);
+        search.searchIteratively(alice, NegamaxSearch.MAX_DEPTH, NegamaxSearch.NO_LIMIT, 5000);
+        assertTrue("Finished some depth", search.getStatistics().getDepth() >= NegamaxSearch.MIN_DEPTH);
+        assertTrue("Stopped near the node limit", search.getStatistics().getNodes() < 5000 + 1024);
+        assertEquals("Board is restored", 0, board.getNumberOfTokens());
+
+        try {
+            search.setMode((byte) 7);
+            fail("Invalid mode");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Mode error", MultiPlayerSearch.MODE_ERROR_MESSAGE, e.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,113 @@
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests NegamaxSearch class
+ * @author Eli W. Hunter
+ */
+public class NegamaxSearchTest extends TestCase {
+
+    /** The width for the testing game board */
+    private static int WIDTH = 7;
+    /** The height for the testing game board */
+    private static int HEIGHT = 6;
+    /** The number of tokens to connect for the testing game board */
+    private static int TOKENS_TO_CONNECT = 4;
+
+    /** Alice for testing */
+    private Player alice;
+    /** Cyborg for testing */
+    private Player cyborg;
+    /** The game board for testing */
+    private GameBoard board;
+    /** The search for testing */
+    private NegamaxSearch search;
+
+    @Before
+    public void setUp() {
+        Player.resetCounter();
+        alice = new Player("Alice", Player.COMPETITIVE_AI);
+        cyborg = new Player("Cyborg", Player.COMPETITIVE_AI);
+        board = new GameBoard(WIDTH, HEIGHT, TOKENS_TO_CONNECT);
+        search = new NegamaxSearch(board, new Player[] {alice, cyborg});
+    }
+
+    @Test
+    public void testTakesWin() {
+        for (int col = 0; col < 3; col++) {
+            board.addToken(Token.of(alice), col);
+            board.addToken(Token.of(cyborg), col);
+        }
+        long hash = board.getHash();
+
+        assertEquals("Completes the row", 3, search.search(alice, 4));
+        assertEquals("Board is restored", hash, board.getHash());
+        assertEquals("Quickest win score", Evaluator.WIN_SCORE - 1, search.getStatistics().getScore());
+        assertTrue("Counts nodes", search.getStatistics().getNodes() > 0);
+    }
+
+    @Test
+    public void testBlocksWin() {
+        board.addToken(Token.of(alice), 1);
+        board.addToken(Token.of(cyborg), 6);
+        board.addToken(Token.of(alice), 2);
+        board.addToken(Token.of(cyborg), 6);
+        board.addToken(Token.of(alice), 3);
+
+        int col = search.search(cyborg, 3);
+        assertTrue("Blocks an end of the row", col == 0 || col == 4);
+    }
+
+    @Test
+    public void testIterativeDeepening() {
+        for (int col = 0; col < 3; col++) {
+            board.addToken(Token.of(alice), col);
+            board.addToken(Token.of(cyborg), col);
+        }
+
+        int col = search.searchIteratively(alice, NegamaxSearch.MAX_DEPTH,
+                NegamaxSearch.NO_LIMIT, NegamaxSearch.NO_LIMIT);
+        assertEquals("Completes the row", 3, col);
+        assertEquals("Stops once the win is found", 1, search.getStatistics().getDepth());
+    }
+
+    @Test
+    public void testBudgets() {
+        long hash = board.getHash();
+
+        int col = search.searchIteratively(alice, NegamaxSearch.MAX_DEPTH, NegamaxSearch.NO_LIMIT, 5000);
+        SearchStatistics statistics = search.getStatistics();
+        assertEquals("Column of the deepest search", statistics.getBestColumn(), col);
+        assertTrue("Finished some depth", statistics.getDepth() >= NegamaxSearch.MIN_DEPTH);
+        assertTrue("Didn't finish every depth", statistics.getDepth() < NegamaxSearch.MAX_DEPTH);
+        assertTrue("Stopped near the node limit", statistics.getNodes() < 5000 + 1024);
+        assertEquals("Board is restored", hash, board.getHash());
+
+        long limit = TimeUnit.MILLISECONDS.toNanos(50);
+        search.searchIteratively(alice, NegamaxSearch.MAX_DEPTH, limit, NegamaxSearch.NO_LIMIT);
+        assertTrue("Stopped near the time limit", search.getStatistics().getElapsedNanos() < 4 * limit);
+        assertEquals("Board is restored after a timeout", hash, board.getHash());
+    }
+
+    @Test
+    public void testBadArguments() {
+        try {
+            search.search(alice, 0);
+            fail("Depth of 0");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Depth error", NegamaxSearch.DEPTH_ERROR_MESSAGE, e.getMessage());
+        }
+
+        try {
+            new NegamaxSearch(board, new Player[] {alice});
+            fail("One player");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Players error", NegamaxSearch.PLAYERS_ERROR_MESSAGE, e.getMessage());
+        }
+    }
+
+}
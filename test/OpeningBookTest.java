@@ -0,0 +1,120 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests OpeningBook and OpeningBookGenerator classes
+ * @author Eli W. Hunter
+ */
+public class OpeningBookTest extends TestCase {
+
+    /** The width for the testing game board */
+    private static int WIDTH = 7;
+    /** The height for the testing game board */
+    private static int HEIGHT = 6;
+    /** The number of tokens to connect for the testing game board */
+    private static int TOKENS_TO_CONNECT = 4;
+    /** The number of moves covered by the testing book */
+    private static int PLIES = 3;
+    /** The number of positions in the testing book: the empty board, 7 after one move and 49 after two */
+    private static int POSITIONS = 1 + WIDTH + WIDTH * WIDTH;
+    /** How long each position of the testing book is searched for */
+    private static long MILLIS_PER_POSITION = 5;
+
+    /** Alice for testing */
+    private Player alice;
+    /** Cyborg for testing */
+    private Player cyborg;
+    /** The game board for testing */
+    private GameBoard board;
+    /** The book file for testing */
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        Player.resetCounter();
+        alice = new Player("Alice", Player.COMPETITIVE_AI);
+        cyborg = new Player("Cyborg", Player.COMPETITIVE_AI);
+        board = new GameBoard(WIDTH, HEIGHT, TOKENS_TO_CONNECT);
+        file = Files.createTempFile("book", ".bin");
+        file.toFile().deleteOnExit();
+    }
+
+    @Test
+    public void testGenerateAndOpen() throws IOException {
+        OpeningBookGenerator generator = new OpeningBookGenerator(new BitBoard(WIDTH, HEIGHT, TOKENS_TO_CONNECT),
+                TimeUnit.MILLISECONDS.toNanos(MILLIS_PER_POSITION));
+        assertEquals("Every position", POSITIONS, generator.generate(PLIES));
+        generator.write(file);
+
+        OpeningBook book = OpeningBook.open(file);
+        assertEquals("Every position", POSITIONS, book.size());
+        assertEquals("Same width", WIDTH, book.getWidth());
+        assertEquals("Same height", HEIGHT, book.getHeight());
+        assertEquals("Same tokens to connect", TOKENS_TO_CONNECT, book.getTokensToConnect());
+        for (int record = 1; record < book.size(); record++) {
+            assertTrue("Sorted keys", book.getKey(record - 1) < book.getKey(record));
+        }
+
+        Player[] players = {alice, cyborg};
+        assertTrue("Made for the game", book.matches(board, players));
+        assertTrue("Has the empty board", book.findMove(board, players) != OpeningBook.NOT_FOUND);
+        board.addToken(Token.of(alice), 3);
+        board.addToken(Token.of(cyborg), 3);
+        assertTrue("Has two moves", book.findMove(board, players) != OpeningBook.NOT_FOUND);
+        board.addToken(Token.of(alice), 3);
+        assertEquals("Doesn't have three moves", OpeningBook.NOT_FOUND, book.findMove(board, players));
+        assertEquals("Not made for three players", OpeningBook.NOT_FOUND,
+                book.findMove(board, new Player[] {alice, cyborg, alice}));
+    }
+
+    @Test
+    public void testKeyOf() {
+        board.addToken(Token.of(alice), 2);
+        board.addToken(Token.of(cyborg), 4);
+        long key = OpeningBook.keyOf(board, new Player[] {alice, cyborg});
+
+        // The same position between other players
+        Player bob = new Player("Bob", Player.COMPETITIVE_AI);
+        Player dave = new Player("Dave", Player.COMPETITIVE_AI);
+        GameBoard other = new GameBoard(WIDTH, HEIGHT, TOKENS_TO_CONNECT);
+        other.addToken(Token.of(bob), 2);
+        other.addToken(Token.of(dave), 4);
+        assertEquals("Keyed by turn order", key, OpeningBook.keyOf(other, new Player[] {bob, dave}));
+        assertFalse("Turn order matters", key == OpeningBook.keyOf(other, new Player[] {dave, bob}));
+    }
+
+    @Test
+    public void testAIUsesBook() throws IOException {
+        OpeningBookGenerator generator = new OpeningBookGenerator(new GameBoard(WIDTH, HEIGHT, TOKENS_TO_CONNECT),
+                TimeUnit.MILLISECONDS.toNanos(MILLIS_PER_POSITION));
+        generator.generate(1);
+        generator.write(file);
+        OpeningBook book = OpeningBook.open(file);
+
+        Player[] players = {alice, cyborg};
+        AI ai = new AI(board, players);
+        ai.setOpeningBook(book);
+        Action action = ai.decideAction(alice);
+        assertEquals("Plays the book's move", Action.move(book.getMove(0)), action);
+        assertEquals("Searches nothing", 0, ai.getLastStatistics().getNodes());
+    }
+
+    @Test
+    public void testBadFile() throws IOException {
+        Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+        try {
+            OpeningBook.open(file);
+            fail("Not a book");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Not a book", OpeningBook.FORMAT_ERROR_MESSAGE, e.getMessage());
+        }
+    }
+
+}
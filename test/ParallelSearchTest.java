@@ -0,0 +1,79 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests ParallelSearch class
+ * @author Eli W. Hunter
+ */
+public class ParallelSearchTest extends TestCase {
+
+    /** The width for the testing game board */
+    private static int WIDTH = 7;
+    /** The height for the testing game board */
+    private static int HEIGHT = 6;
+    /** The number of tokens to connect for the testing game board */
+    private static int TOKENS_TO_CONNECT = 4;
+    /** The number of threads for the testing search */
+    private static int THREADS = 4;
+
+    /** Alice for testing */
+    private Player alice;
+    /** Cyborg for testing */
+    private Player cyborg;
+    /** The game board for testing */
+    private GameBoard board;
+    /** The search for testing */
+    private ParallelSearch search;
+
+    @Before
+    public void setUp() {
+        Player.resetCounter();
+        alice = new Player("Alice", Player.COMPETITIVE_AI);
+        cyborg = new Player("Cyborg", Player.COMPETITIVE_AI);
+        board = new BitBoard(WIDTH, HEIGHT, TOKENS_TO_CONNECT);
+        search = new ParallelSearch(board, new Player[] {alice, cyborg}, THREADS,
+                new TranspositionTable(1 << 16));
+    }
+
+    @Test
+    public void testTakesWin() {
+        for (int col = 0; col < 3; col++) {
+            board.addToken(Token.of(alice), col);
+            board.addToken(Token.of(cyborg), col);
+        }
+        long hash = board.getHash();
+
+        assertEquals("Completes the row", 3, search.search(alice, 6));
+        assertEquals("Board is never changed", hash, board.getHash());
+        assertEquals("Quickest win score", Evaluator.WIN_SCORE - 1, search.getStatistics().getScore());
+        search.shutdown();
+    }
+
+    @Test
+    public void testReachesDepth() {
+        board.addToken(Token.of(alice), 3);
+        board.addToken(Token.of(cyborg), 2);
+        board.addToken(Token.of(alice), 3);
+        board.addToken(Token.of(cyborg), 3);
+
+        int col = search.search(alice, 6);
+        assertTrue("Reached the depth", search.getStatistics().getDepth() >= 6);
+        assertTrue("Counts every thread's nodes", search.getStatistics().getNodes() > 0);
+        assertTrue("Legal column", col >= 0 && col < WIDTH && !board.isColumnFull(col));
+        assertEquals("Board is never changed", 4, board.getNumberOfTokens());
+        search.shutdown();
+    }
+
+    @Test
+    public void testBadArguments() {
+        try {
+            new ParallelSearch(board, new Player[] {alice, cyborg}, 0);
+            fail("No threads");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Threads error", ParallelSearch.THREADS_ERROR_MESSAGE, e.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,147 @@
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests Ponderer class
+ * @author Eli W. Hunter
+ */
+public class PondererTest extends TestCase {
+
+    /** The width for the testing game board */
+    private static int WIDTH = 7;
+    /** The height for the testing game board */
+    private static int HEIGHT = 6;
+    /** The number of tokens to connect for the testing game board */
+    private static int TOKENS_TO_CONNECT = 4;
+    /** The search depth for testing */
+    private static int DEPTH = 6;
+
+    /** Alice for testing */
+    private Player alice;
+    /** Cyborg for testing */
+    private Player cyborg;
+    /** The players for testing, in the order they take turns */
+    private Player[] players;
+    /** The game board for testing */
+    private GameBoard board;
+    /** The ponderer for testing */
+    private Ponderer ponderer;
+
+    @Before
+    public void setUp() {
+        Player.resetCounter();
+        alice = new Player("Alice", Player.COMPETITIVE_AI);
+        cyborg = new Player("Cyborg", Player.HUMAN);
+        players = new Player[] {alice, cyborg};
+        board = new GameBoard(WIDTH, HEIGHT, TOKENS_TO_CONNECT);
+        ponderer = new Ponderer(board, players, new TranspositionTable());
+
+        // Alice has moved, so it is Cyborg's turn
+        board.addToken(Token.of(alice), 3);
+    }
+
+    @Test
+    public void testAICreatesPondererWhenUsed() {
+        AI ai = new AI(board, players);
+        ai.setPondering(true);
+        assertNull("Nothing made before searching", ai.getPonderer());
+
+        ai.startPondering(alice);
+        assertNotNull("Made when pondering starts", ai.getPonderer());
+        assertTrue("Pondering", ai.getPonderer().isPondering());
+        ai.stopPondering();
+    }
+
+    @Test
+    public void testHit() {
+        ponderer.start(alice, DEPTH, NegamaxSearch.NO_LIMIT);
+        assertTrue("Pondering", ponderer.isPondering());
+        int guess = ponderer.getPredictedColumn();
+        assertTrue("Guesses a column", guess >= 0 && guess < WIDTH);
+        assertEquals("Alice isn't moving yet", Ponderer.NO_RESULT, ponderer.finish(cyborg, NegamaxSearch.NO_LIMIT));
+        assertTrue("Still pondering", ponderer.isPondering());
+
+        board.addToken(Token.of(cyborg), guess);
+        int col = ponderer.finish(alice, NegamaxSearch.NO_LIMIT);
+        assertFalse("Done pondering", ponderer.isPondering());
+        assertEquals("One hit", 1, ponderer.getHits());
+        assertEquals("No misses", 0, ponderer.getMisses());
+        assertEquals("Every guess was right", 1.0, ponderer.getHitRate());
+        assertTrue("Saves time", ponderer.getSavedNanos() >= 0);
+
+        NegamaxSearch search = new NegamaxSearch(board, players);
+        search.search(alice, DEPTH);
+        assertEquals("Searched as deep", DEPTH, ponderer.getStatistics().getDepth());
+        assertEquals("Same score as searching", search.getStatistics().getScore(), ponderer.getStatistics().getScore());
+        assertEquals("Same column", col, ponderer.getStatistics().getBestColumn());
+    }
+
+    @Test
+    public void testMiss() {
+        ponderer.start(alice, DEPTH, NegamaxSearch.NO_LIMIT);
+        int other = (ponderer.getPredictedColumn() + 1) % WIDTH;
+        board.addToken(Token.of(cyborg), other);
+        long hash = board.getHash();
+
+        assertEquals("Wrong guess", Ponderer.NO_RESULT, ponderer.finish(alice, NegamaxSearch.NO_LIMIT));
+        assertFalse("Cancelled", ponderer.isPondering());
+        assertEquals("No hits", 0, ponderer.getHits());
+        assertEquals("One miss", 1, ponderer.getMisses());
+        assertEquals("No guess was right", 0.0, ponderer.getHitRate());
+        assertEquals("Board is never changed", hash, board.getHash());
+    }
+
+    @Test
+    public void testTimeLimit() {
+        ponderer.start(alice, NegamaxSearch.MAX_DEPTH, NegamaxSearch.NO_LIMIT);
+        board.addToken(Token.of(cyborg), ponderer.getPredictedColumn());
+
+        long limit = TimeUnit.MILLISECONDS.toNanos(100);
+        long start = System.nanoTime();
+        int col = ponderer.finish(alice, limit);
+        assertTrue("Finds a column", col >= 0 && col < WIDTH);
+        assertTrue("Stops in time", System.nanoTime() - start < 10 * limit);
+        assertTrue("Saves at most the search", ponderer.getSavedNanos() <= 2 * limit);
+    }
+
+    @Test
+    public void testNotPondering() {
+        assertFalse("Not started", ponderer.isPondering());
+        assertEquals("No guess", Ponderer.NO_RESULT, ponderer.getPredictedColumn());
+        assertEquals("Nothing to finish", Ponderer.NO_RESULT, ponderer.finish(alice, NegamaxSearch.NO_LIMIT));
+        assertEquals("Not a miss", 0, ponderer.getMisses());
+
+        ponderer.start(alice, DEPTH, NegamaxSearch.NO_LIMIT);
+        ponderer.cancel();
+        assertFalse("Cancelled", ponderer.isPondering());
+        assertEquals("Not a hit", 0, ponderer.getHits());
+        assertEquals("Not a miss", 0, ponderer.getMisses());
+    }
+
+    @Test
+    public void testBadArguments() {
+        try {
+            new Ponderer(board, new Player[] {alice, cyborg, alice}, new TranspositionTable());
+            fail("Three players");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Three players", NegamaxSearch.PLAYERS_ERROR_MESSAGE, e.getMessage());
+        }
+        try {
+            ponderer.start(new Player("Bob", Player.COMPETITIVE_AI), DEPTH, NegamaxSearch.NO_LIMIT);
+            fail("Unknown player");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Unknown player", NegamaxSearch.UNKNOWN_PLAYER_ERROR_MESSAGE, e.getMessage());
+        }
+        try {
+            ponderer.start(alice, 0, NegamaxSearch.NO_LIMIT);
+            fail("Depth too low");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Depth too low", NegamaxSearch.DEPTH_ERROR_MESSAGE, e.getMessage());
+        }
+    }
+
+}
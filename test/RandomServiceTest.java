@@ -0,0 +1,114 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Tests RandomService class
+ * @author Eli W. Hunter
+ */
+public class RandomServiceTest extends TestCase {
+
+    /** The master seed for testing */
+    private static long SEED = 42;
+    /** The width for the testing game board */
+    private static int WIDTH = 7;
+    /** The height for the testing game board */
+    private static int HEIGHT = 6;
+    /** The number of tokens to connect for the testing game board */
+    private static int TOKENS_TO_CONNECT = 4;
+
+    @Before
+    public void setUp() {
+        RandomService.setMasterSeed(SEED);
+    }
+
+    @Test
+    public void testMasterSeed() {
+        assertEquals("Master seed", SEED, RandomService.getMasterSeed());
+        long first = RandomService.split().nextLong();
+        long second = RandomService.split().nextLong();
+        assertFalse("Independent streams", first == second);
+
+        RandomService.setMasterSeed(SEED);
+        assertEquals("Replayed stream", first, RandomService.split().nextLong());
+        assertEquals("Replayed stream", second, RandomService.split().nextLong());
+
+        assertEquals("Parsed seed", -7L, RandomService.parseSeed(" -7"));
+        try {
+            RandomService.parseSeed("seven");
+            fail("Seed isn't a number");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Seed error", RandomService.SEED_ERROR_MESSAGE, e.getMessage());
+        }
+    }
+
+    @Test
+    public void testCurrent() {
+        SplittableRandom current = RandomService.current();
+        assertTrue("Reused stream", current == RandomService.current());
+        int[] picks = pickAll();
+
+        RandomService.setMasterSeed(SEED);
+        assertFalse("Stream replaced", current == RandomService.current());
+        assertTrue("Replayed picks", Arrays.equals(picks, pickAll()));
+    }
+
+    @Test
+    public void testRandomPick() {
+        int[] array = {3, 5, 8};
+        SplittableRandom random = new SplittableRandom(SEED);
+        SplittableRandom same = new SplittableRandom(SEED);
+        for (int i = 0; i < 100; i++) {
+            int pick = Utils.randomPick(array, random);
+            assertEquals("Same generator", pick, Utils.randomPick(array, same));
+            assertTrue("Picked from array", pick == 3 || pick == 5 || pick == 8);
+        }
+    }
+
+    @Test
+    public void testReplayedGame() {
+        String moves = playGame();
+        RandomService.setMasterSeed(SEED);
+        assertEquals("Replayed game", moves, playGame());
+    }
+
+    /**
+     * Picks from an array many times with the calling thread's stream.
+     */
+    private int[] pickAll() {
+        int[] array = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+        int[] picks = new int[100];
+        for (int i = 0; i < picks.length; i++) {
+            picks[i] = Utils.randomPick(array);
+        }
+        return picks;
+    }
+
+    /**
+     * Plays a game between random and simple AIs until the board is full,
+     * even after somebody has won.
+     * @return The columns that were played, in order.
+     */
+    private String playGame() {
+        Player.resetCounter();
+        Player randomPlayer = new Player("Random", Player.RANDOM_AI);
+        Player simplePlayer = new Player("Simple", Player.SIMPLE_AI);
+        Player[] players = {randomPlayer, simplePlayer};
+        GameBoard board = new GameBoard(WIDTH, HEIGHT, TOKENS_TO_CONNECT);
+        AI ai = new AI(board, players);
+
+        StringBuilder moves = new StringBuilder();
+        for (int turn = 0; board.getNumberOfLegalMoves() > 0; turn++) {
+            Player player = players[turn % players.length];
+            int col = ai.decideAction(player).getColumn();
+            board.addToken(Token.of(player), col);
+            moves.append(col);
+        }
+        return moves.toString();
+    }
+
+}
@@ -0,0 +1,156 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+import java.util.Random;
+
+/**
+ * Tests RunLengthIndex class.
+ * @author Eli W. Hunter
+ */
+public class RunLengthIndexTest extends TestCase {
+
+    /** The width for the testing game board */
+    private static int WIDTH = 9;
+    /** The height for the testing game board */
+    private static int HEIGHT = 7;
+    /** The number of tokens to connect for the testing game board */
+    private static int TOKENS_TO_CONNECT = 4;
+    /** The number of random moves made when comparing against cell walks */
+    private static int RANDOM_MOVES = 5000;
+
+    /** Player Alice for testing */
+    private Player alice;
+    /** Player Cyborg for testing */
+    private Player cyborg;
+    /** Alice's Token for testing */
+    private Token aliceToken;
+    /** Cyborg's Token for testing */
+    private Token cyborgToken;
+    /** Testing game board, which uses a run length index */
+    private GameBoard board;
+
+    @Before
+    public void setUp() {
+        Player.resetCounter();
+        alice = new Player("Alice", Player.HUMAN);
+        cyborg = new Player("Cyborg", Player.RANDOM_AI);
+        aliceToken = new Token(alice);
+        cyborgToken = new Token(cyborg);
+        board = new GameBoard(WIDTH, HEIGHT, TOKENS_TO_CONNECT);
+    }
+
+    @Test
+    public void testMergeAndUndo() {
+        RunLengthIndex index = new RunLengthIndex(WIDTH, HEIGHT);
+        index.add(0, 0, 1);
+        index.add(0, 2, 1);
+        assertEquals("Separate sequences", 1, index.runLength(0, 0, RunLengthIndex.HORIZONTAL));
+        index.add(0, 1, 1);
+        assertEquals("Joined sequence from the left", 3, index.runLength(0, 0, RunLengthIndex.HORIZONTAL));
+        assertEquals("Joined sequence from the middle", 3, index.runLength(0, 1, RunLengthIndex.HORIZONTAL));
+        assertEquals("Joined sequence from the right", 3, index.runLength(0, 2, RunLengthIndex.HORIZONTAL));
+        index.add(0, 3, 2);
+        assertEquals("Other owner doesn't join", 1, index.runLength(0, 3, RunLengthIndex.HORIZONTAL));
+
+        index.remove(0, 3);
+        index.remove(0, 1);
+        assertEquals("Split sequence on the left", 1, index.runLength(0, 0, RunLengthIndex.HORIZONTAL));
+        assertEquals("Split sequence on the right", 1, index.runLength(0, 2, RunLengthIndex.HORIZONTAL));
+        assertEquals("Removed cell", 0, index.runLength(0, 1, RunLengthIndex.HORIZONTAL));
+    }
+
+    @Test
+    public void testMergeIntoLongerSequence() {
+        RunLengthIndex index = new RunLengthIndex(WIDTH, HEIGHT);
+        index.add(0, 0, 1);
+        for (int col = 2; col < 6; col++) {
+            index.add(0, col, 1);
+        }
+        index.add(0, 1, 1);
+        for (int col = 0; col < 6; col++) {
+            assertEquals("Joined sequence at " + col, 6, index.runLength(0, col, RunLengthIndex.HORIZONTAL));
+        }
+
+        index.remove(0, 1);
+        assertEquals("Shorter part restored", 1, index.runLength(0, 0, RunLengthIndex.HORIZONTAL));
+        for (int col = 2; col < 6; col++) {
+            assertEquals("Longer part restored at " + col, 4, index.runLength(0, col, RunLengthIndex.HORIZONTAL));
+        }
+        index.remove(0, 5);
+        assertEquals("Middle of the longer part", 3, index.runLength(0, 3, RunLengthIndex.HORIZONTAL));
+    }
+
+    @Test
+    public void testOutOfOrderRemoval() {
+        RunLengthIndex index = new RunLengthIndex(WIDTH, HEIGHT);
+        for (int col = 0; col < 5; col++) {
+            index.add(0, col, 1);
+        }
+        index.remove(0, 2);
+        assertEquals("Left part", 2, index.runLength(0, 0, RunLengthIndex.HORIZONTAL));
+        assertEquals("Right part", 2, index.runLength(0, 4, RunLengthIndex.HORIZONTAL));
+        index.add(0, 2, 1);
+        assertEquals("Rejoined", 5, index.longestRun(0, 4));
+    }
+
+    @Test
+    public void testMatchesCellWalk() {
+        Random rand = new Random(0);
+        for (int move = 0; move < RANDOM_MOVES; move++) {
+            int col = rand.nextInt(WIDTH);
+            // Mostly add, sometimes remove, so the board stays partly full
+            boolean remove = rand.nextInt(3) == 0;
+            if (remove && board.getNextRow(col) > 0) {
+                board.removeToken(col);
+            } else if (!board.isColumnFull(col)) {
+                Token token = rand.nextBoolean() ? aliceToken : cyborgToken;
+                int row = board.getNextRow(col);
+                boolean isWinning = board.addToken(token, col);
+                assertEquals("Same result from addToken", isWinningByCellWalk(row, col), isWinning);
+
+                // Probe another column and undo it, the way the AIs do
+                int probeCol = rand.nextInt(WIDTH);
+                if (!board.isColumnFull(probeCol)) {
+                    int probeRow = board.getNextRow(probeCol);
+                    boolean isProbeWinning = board.addToken(token, probeCol);
+                    assertEquals("Same result from probe",
+                            isWinningByCellWalk(probeRow, probeCol), isProbeWinning);
+                    board.removeToken(probeCol);
+                }
+            }
+        }
+
+        for (int row = 0; row < HEIGHT; row++) {
+            for (int col = 0; col < WIDTH; col++) {
+                for (int length = GameBoard.MIN_SEQUENCE_LENGTH; length <= HEIGHT; length++) {
+                    String position = String.format("Token (%d,%d) sequence of %d", row, col, length);
+                    assertEquals(position + " vertical",
+                            board.checkSequence(row, col, 1, 0, length),
+                            board.checkVerticalSequence(row, col, length));
+                    assertEquals(position + " horizontal",
+                            board.checkSequence(row, col, 0, 1, length),
+                            board.checkHorizontalSequence(row, col, length));
+                    assertEquals(position + " positive diagonal",
+                            board.checkSequence(row, col, 1, 1, length),
+                            board.checkPositiveDiagonalSequence(row, col, length));
+                    assertEquals(position + " negative diagonal",
+                            board.checkSequence(row, col, 1, -1, length),
+                            board.checkNegativeDiagonalSequence(row, col, length));
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if the given position is winning by walking the cells.
+     */
+    private boolean isWinningByCellWalk(int row, int col) {
+        return board.checkSequence(row, col, 1, 0, TOKENS_TO_CONNECT)
+               || board.checkSequence(row, col, 0, 1, TOKENS_TO_CONNECT)
+               || board.checkSequence(row, col, 1, 1, TOKENS_TO_CONNECT)
+               || board.checkSequence(row, col, 1, -1, TOKENS_TO_CONNECT);
+    }
+
+}
@@ -0,0 +1,152 @@
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests Solver class
+ * @author Eli W. Hunter
+ */
+public class SolverTest extends TestCase {
+
+    /** The width for the testing game board */
+    private static int WIDTH = 7;
+    /** The height for the testing game board */
+    private static int HEIGHT = 6;
+    /** The number of tokens to connect for the testing game board */
+    private static int TOKENS_TO_CONNECT = 4;
+    /** The number of entries in the testing transposition table */
+    private static int TABLE_CAPACITY = 1 << 16;
+    /** The number of tokens in the random positions compared against other searches */
+    private static int RANDOM_TOKENS = 32;
+
+    /** Alice for testing */
+    private Player alice;
+    /** Cyborg for testing */
+    private Player cyborg;
+    /** The players for testing, in the order they take turns */
+    private Player[] players;
+    /** The game board for testing */
+    private GameBoard board;
+    /** The solver for testing */
+    private Solver solver;
+
+    @Before
+    public void setUp() {
+        Player.resetCounter();
+        alice = new Player("Alice", Player.PERFECT_AI);
+        cyborg = new Player("Cyborg", Player.PERFECT_AI);
+        players = new Player[] {alice, cyborg};
+        board = new GameBoard(WIDTH, HEIGHT, TOKENS_TO_CONNECT);
+        solver = new Solver(new TranspositionTable(TABLE_CAPACITY));
+    }
+
+    @Test
+    public void testKnownPositions() {
+        // Columns are numbered from 1, as they usually are in published positions
+        assertEquals("Loses by one", -1, solve("2252576253462244111563365343671351441"));
+        assertEquals("Wins by one", 1, solve("7422341735647741166133573473242566"));
+        assertEquals("Draws", 0, solve("23163416124767223154467471272416755633"));
+    }
+
+    @Test
+    public void testBestMove() {
+        for (int col = 0; col < 3; col++) {
+            board.addToken(Token.of(alice), col);
+            board.addToken(Token.of(cyborg), col);
+        }
+        long hash = board.getHash();
+
+        assertEquals("Completes the row", 3, solver.bestMove(board, alice));
+        assertEquals("Wins with the 4th token", (WIDTH * HEIGHT + 1 - 6) / 2, solver.solve(board, alice));
+        assertEquals("Blocks the row", 3, solver.bestMove(board, cyborg));
+        assertEquals("Board is never changed", hash, board.getHash());
+        assertEquals("Records the move", 3, solver.getStatistics().getBestColumn());
+    }
+
+    @Test
+    public void testMatchesOtherSearches() {
+        Random random = new Random(173);
+        for (int game = 0; game < 10; game++) {
+            playRandomly(random);
+            Player toMove = players[board.getNumberOfTokens() % players.length];
+            int empty = WIDTH * HEIGHT - board.getNumberOfTokens();
+
+            int score = solver.solve(board, toMove);
+            assertEquals("Same as every game played out", playOut(toMove), score);
+            NegamaxSearch search = new NegamaxSearch(board, players);
+            search.search(toMove, empty);
+            assertEquals("Same result as a full negamax search",
+                    Integer.signum(score), Integer.signum(search.getStatistics().getScore()));
+        }
+    }
+
+    @Test
+    public void testUnsupportedGames() {
+        assertFalse("Three players", Solver.canSolve(board, new Player[] {alice, cyborg, alice}));
+        assertTrue("Two players", Solver.canSolve(board, players));
+
+        GameBoard small = new GameBoard(WIDTH - 1, HEIGHT, TOKENS_TO_CONNECT);
+        assertFalse("Small board", Solver.canSolve(small, players));
+        try {
+            solver.solve(small, alice);
+            fail("Small board");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Small board", Solver.UNSUPPORTED_ERROR_MESSAGE, e.getMessage());
+        }
+    }
+
+    /**
+     * Plays the given columns, numbered from 1, on an empty board and solves
+     * the position for the next player.
+     */
+    private int solve(String columns) {
+        board = new GameBoard(WIDTH, HEIGHT, TOKENS_TO_CONNECT);
+        for (int i = 0; i < columns.length(); i++) {
+            board.addToken(Token.of(players[i % players.length]), columns.charAt(i) - '1');
+        }
+        return solver.solve(board, players[columns.length() % players.length]);
+    }
+
+    /**
+     * Clears the board and plays random moves until it has RANDOM_TOKENS
+     * tokens and nobody has won.
+     */
+    private void playRandomly(Random random) {
+        while (true) {
+            board = new GameBoard(WIDTH, HEIGHT, TOKENS_TO_CONNECT);
+            boolean won = false;
+            while (!won && board.getNumberOfTokens() < RANDOM_TOKENS) {
+                int col = random.nextInt(WIDTH);
+                if (!board.isColumnFull(col)) {
+                    won = board.addToken(Token.of(players[board.getNumberOfTokens() % players.length]), col);
+                }
+            }
+            if (!won) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Finds the score of the board for the given player by playing out every
+     * possible game.
+     */
+    private int playOut(Player player) {
+        Player other = player == alice ? cyborg : alice;
+        int moves = board.getNumberOfTokens();
+        int best = Integer.MIN_VALUE;
+        for (int col = 0; col < WIDTH; col++) {
+            if (board.isColumnFull(col)) {
+                continue;
+            }
+            int score = board.addToken(Token.of(player), col) ? (WIDTH * HEIGHT + 1 - moves) / 2 : -playOut(other);
+            board.removeToken(col);
+            best = Math.max(best, score);
+        }
+        return best == Integer.MIN_VALUE ? 0 : best;
+    }
+
+}
@@ -0,0 +1,192 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests Tablebase and TablebaseGenerator classes
+ * @author Eli W. Hunter
+ */
+public class TablebaseTest extends TestCase {
+
+    /** The width for the testing game board */
+    private static int WIDTH = 4;
+    /** The height for the testing game board */
+    private static int HEIGHT = 4;
+    /** The number of tokens to connect for the testing game board */
+    private static int TOKENS_TO_CONNECT = 3;
+    /** The number of threads for the testing generator */
+    private static int THREADS = 2;
+    /** The fewest tokens in the testing tablebase */
+    private static int THRESHOLD = 4;
+    /** The number of tokens in the random positions compared against every game played out */
+    private static int RANDOM_TOKENS = 6;
+    /** The score of a win at distance 0, when comparing against every game played out */
+    private static int WIN_SCORE = 100;
+
+    /** Alice for testing */
+    private Player alice;
+    /** Cyborg for testing */
+    private Player cyborg;
+    /** The players for testing, in the order they take turns */
+    private Player[] players;
+    /** The game board for testing */
+    private GameBoard board;
+    /** The tablebase for testing */
+    private Tablebase tablebase;
+
+    @Before
+    public void setUp() throws IOException {
+        Player.resetCounter();
+        alice = new Player("Alice", Player.PERFECT_AI);
+        cyborg = new Player("Cyborg", Player.PERFECT_AI);
+        players = new Player[] {alice, cyborg};
+        board = new GameBoard(WIDTH, HEIGHT, TOKENS_TO_CONNECT);
+
+        Path file = Files.createTempFile("tablebase", ".bin");
+        file.toFile().deleteOnExit();
+        TablebaseGenerator generator = new TablebaseGenerator(WIDTH, HEIGHT, TOKENS_TO_CONNECT, THREADS,
+                new PrintStream(OutputStream.nullOutputStream()));
+        generator.generate(THRESHOLD);
+        generator.write(file);
+        tablebase = Tablebase.open(file);
+    }
+
+    @Test
+    public void testMatchesPlayOut() {
+        Random random = new Random(173);
+        for (int game = 0; game < 20; game++) {
+            playRandomly(random);
+            Player toMove = players[board.getNumberOfTokens() % players.length];
+            int value = tablebase.probe(board, players);
+            assertTrue("Covers the position", value != Tablebase.NOT_FOUND);
+            assertEquals("Same as every game played out", playOut(toMove), scoreOf(value));
+        }
+    }
+
+    @Test
+    public void testBestMove() {
+        board.addToken(Token.of(alice), 0);
+        board.addToken(Token.of(cyborg), 3);
+        board.addToken(Token.of(alice), 1);
+        board.addToken(Token.of(cyborg), 3);
+        long hash = board.getHash();
+
+        int value = tablebase.probe(board, players);
+        assertEquals("Alice wins", Tablebase.WIN, Tablebase.getResult(value));
+        assertEquals("Alice wins next move", 1, Tablebase.getDistance(value));
+        assertEquals("Completes the row", 2, tablebase.bestMove(board, players));
+        assertEquals("Board is never changed", hash, board.getHash());
+    }
+
+    @Test
+    public void testThreshold() {
+        board.addToken(Token.of(alice), 0);
+        assertFalse("Too few tokens", tablebase.covers(board, players));
+        assertEquals("Too few tokens", Tablebase.NOT_FOUND, tablebase.probe(board, players));
+        assertEquals("Too few tokens", Tablebase.NOT_FOUND, tablebase.bestMove(board, players));
+
+        GameBoard other = new GameBoard(WIDTH + 1, HEIGHT, TOKENS_TO_CONNECT);
+        assertFalse("Other board", tablebase.covers(other, players));
+    }
+
+    @Test
+    public void testBadArguments() throws IOException {
+        PrintStream quiet = new PrintStream(OutputStream.nullOutputStream());
+        try {
+            new TablebaseGenerator(8, 7, TOKENS_TO_CONNECT, THREADS, quiet);
+            fail("Board too large");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Board too large", Tablebase.BOARD_ERROR_MESSAGE, e.getMessage());
+        }
+        try {
+            new TablebaseGenerator(WIDTH, HEIGHT, TOKENS_TO_CONNECT, 0, quiet);
+            fail("No threads");
+        } catch (IllegalArgumentException e) {
+            assertEquals("No threads", TablebaseGenerator.THREADS_ERROR_MESSAGE, e.getMessage());
+        }
+        try {
+            new TablebaseGenerator(WIDTH, HEIGHT, TOKENS_TO_CONNECT, THREADS, quiet).generate(WIDTH * HEIGHT + 1);
+            fail("Threshold too high");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Threshold too high", TablebaseGenerator.THRESHOLD_ERROR_MESSAGE, e.getMessage());
+        }
+
+        Path file = Files.createTempFile("tablebase", ".bin");
+        file.toFile().deleteOnExit();
+        Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+        try {
+            Tablebase.open(file);
+            fail("Not a tablebase");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Not a tablebase", Tablebase.FORMAT_ERROR_MESSAGE, e.getMessage());
+        }
+    }
+
+    /**
+     * Clears the board and plays random moves until it has RANDOM_TOKENS
+     * tokens and nobody has won.
+     */
+    private void playRandomly(Random random) {
+        while (true) {
+            board = new GameBoard(WIDTH, HEIGHT, TOKENS_TO_CONNECT);
+            boolean won = false;
+            while (!won && board.getNumberOfTokens() < RANDOM_TOKENS) {
+                int col = random.nextInt(WIDTH);
+                if (!board.isColumnFull(col)) {
+                    won = board.addToken(Token.of(players[board.getNumberOfTokens() % players.length]), col);
+                }
+            }
+            if (!won) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Turns a tablebase value into a score which is higher for quicker wins
+     * and slower losses.
+     */
+    private int scoreOf(int value) {
+        int distance = Tablebase.getDistance(value);
+        if (Tablebase.getResult(value) == Tablebase.WIN) {
+            return WIN_SCORE - distance;
+        } else if (Tablebase.getResult(value) == Tablebase.LOSS) {
+            return distance - WIN_SCORE;
+        }
+        return 0;
+    }
+
+    /**
+     * Finds the score of the board for the given player by playing out every
+     * possible game. See scoreOf().
+     */
+    private int playOut(Player player) {
+        Player other = player == alice ? cyborg : alice;
+        int best = Integer.MIN_VALUE;
+        for (int col = 0; col < WIDTH; col++) {
+            if (board.isColumnFull(col)) {
+                continue;
+            }
+            int score;
+            if (board.addToken(Token.of(player), col)) {
+                score = WIN_SCORE - 1;
+            } else {
+                // One move further from the end of the game
+                int childScore = -playOut(other);
+                score = childScore > 0 ? childScore - 1 : childScore < 0 ? childScore + 1 : 0;
+            }
+            board.removeToken(col);
+            best = Math.max(best, score);
+        }
+        return best == Integer.MIN_VALUE ? 0 : best;
+    }
+
+}
@@ -0,0 +1,145 @@
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests ThreatSpaceSearch class
+ * @author Eli W. Hunter
+ */
+public class ThreatSpaceSearchTest extends TestCase {
+
+    /** The width for the testing game board */
+    private static int WIDTH = 7;
+    /** The height for the testing game board */
+    private static int HEIGHT = 6;
+    /** The number of tokens to connect for the testing game board */
+    private static int TOKENS_TO_CONNECT = 4;
+    /** The number of tokens in the random positions checked against a full search */
+    private static int RANDOM_TOKENS = 16;
+
+    /** Alice for testing */
+    private Player alice;
+    /** Cyborg for testing */
+    private Player cyborg;
+    /** The players for testing, in the order they take turns */
+    private Player[] players;
+    /** The game board for testing */
+    private GameBoard board;
+    /** The search for testing */
+    private ThreatSpaceSearch search;
+
+    @Before
+    public void setUp() {
+        Player.resetCounter();
+        alice = new Player("Alice", Player.COMPETITIVE_AI);
+        cyborg = new Player("Cyborg", Player.COMPETITIVE_AI);
+        players = new Player[] {alice, cyborg};
+        board = new GameBoard(WIDTH, HEIGHT, TOKENS_TO_CONNECT);
+        search = new ThreatSpaceSearch(board, players);
+    }
+
+    /**
+     * Plays the given columns, with the players taking turns.
+     */
+    private void play(int... columns) {
+        for (int i = 0; i < columns.length; i++) {
+            board.addToken(Token.of(players[i % players.length]), columns[i]);
+        }
+    }
+
+    @Test
+    public void testDoubleThreat() {
+        // Alice has two in the bottom row with both ends open twice over
+        play(2, 2, 3, 3);
+        long hash = board.getHash();
+
+        int col = search.findWin(alice);
+        assertTrue("Makes an open three", col == 1 || col == 4);
+        assertEquals("Wins in three moves", 3, search.getStatistics().getDepth());
+        assertEquals("Board is never changed", hash, board.getHash());
+    }
+
+    @Test
+    public void testDeepWin() {
+        play(6, 3, 4, 4, 0, 6, 2, 5, 4, 1, 0, 0, 0, 0, 3, 5);
+
+        assertEquals("Starts the threats", 1, search.findWin(alice));
+        assertEquals("Wins in seven moves", 7, search.getStatistics().getDepth());
+        assertEquals("Too deep for fewer threats", ThreatSpaceSearch.NO_WIN, search.findWin(alice, 2));
+
+        NegamaxSearch negamax = new NegamaxSearch(board, players);
+        negamax.search(alice, 7);
+        assertEquals("A full search agrees", Evaluator.WIN_SCORE - 7, negamax.getStatistics().getScore());
+    }
+
+    @Test
+    public void testNoWin() {
+        assertEquals("Empty board", ThreatSpaceSearch.NO_WIN, search.findWin(alice));
+        assertEquals("No win length", 0, search.getStatistics().getDepth());
+
+        // Cyborg's threat must be blocked, and blocking it makes no threat
+        play(0, 3, 0, 4, 6, 5);
+        assertEquals("Must block first", ThreatSpaceSearch.NO_WIN, search.findWin(alice));
+    }
+
+    @Test
+    public void testSoundness() {
+        Random random = new Random(173);
+        int wins = 0;
+        for (int game = 0; game < 40; game++) {
+            playRandomly(random);
+            Player toMove = players[board.getNumberOfTokens() % players.length];
+            ThreatSpaceSearch randomSearch = new ThreatSpaceSearch(board, players);
+            if (randomSearch.findWin(toMove) == ThreatSpaceSearch.NO_WIN) {
+                continue;
+            }
+
+            wins++;
+            int plies = randomSearch.getStatistics().getDepth();
+            NegamaxSearch negamax = new NegamaxSearch(board, players);
+            negamax.search(toMove, plies);
+            assertTrue("Every win is real", negamax.getStatistics().getScore() >= Evaluator.WIN_SCORE - plies);
+        }
+        assertTrue("Found some wins", wins > 0);
+    }
+
+    @Test
+    public void testBadArguments() {
+        try {
+            new ThreatSpaceSearch(board, new Player[] {alice, cyborg, alice});
+            fail("Three players");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Three players", NegamaxSearch.PLAYERS_ERROR_MESSAGE, e.getMessage());
+        }
+        try {
+            search.findWin(new Player("Bob", Player.COMPETITIVE_AI));
+            fail("Unknown player");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Unknown player", NegamaxSearch.UNKNOWN_PLAYER_ERROR_MESSAGE, e.getMessage());
+        }
+    }
+
+    /**
+     * Clears the board and plays random moves until it has RANDOM_TOKENS
+     * tokens and nobody has won.
+     */
+    private void playRandomly(Random random) {
+        while (true) {
+            board = new GameBoard(WIDTH, HEIGHT, TOKENS_TO_CONNECT);
+            boolean won = false;
+            while (!won && board.getNumberOfTokens() < RANDOM_TOKENS) {
+                int col = random.nextInt(WIDTH);
+                if (!board.isColumnFull(col)) {
+                    won = board.addToken(Token.of(players[board.getNumberOfTokens() % players.length]), col);
+                }
+            }
+            if (!won) {
+                return;
+            }
+        }
+    }
+
+}
@@ -42,4 +42,44 @@ public class TokenTest extends TestCase {
         assertTrue("Cyborg's token with Cyborg's Token", cyborgToken.equals(cyborgToken));
     }
 
+    @Test
+    public void testOf() {
+        assertTrue("Alice's shared token is reused", Token.of(alice) == Token.of(alice));
+        assertTrue("Alice's shared token with her other token", aliceToken.equals(Token.of(alice)));
+        assertFalse("Alice's shared token with Cyborg's", Token.of(alice).equals(Token.of(cyborg)));
+    }
+
+    @Test
+    public void testTokenTable() {
+        TokenTable table = new TokenTable();
+        assertEquals("Empty index", Token.EMPTY, table.get(Token.EMPTY_INDEX));
+        assertEquals("Cyborg's index", cyborgToken.getOwnerIndex(), table.add(cyborgToken));
+        assertEquals("Cyborg's owner", cyborg, table.get(cyborgToken.getOwnerIndex()).getOwner());
+        try {
+            table.get(aliceToken.getOwnerIndex());
+            fail("Alice's token wasn't added");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    @Test
+    public void testOwnersAfterReset() {
+        GameBoard board = new GameBoard(4, 4, 3);
+        GameBoard bitBoard = new BitBoard(4, 4, 3);
+        board.addToken(Token.of(alice), 0);
+        bitBoard.addToken(Token.of(alice), 0);
+
+        // The next game's players get the same owner indexes
+        Player.resetCounter();
+        Player carol = new Player("Carol", Player.RANDOM_AI);
+        GameBoard nextBoard = new GameBoard(4, 4, 3);
+        nextBoard.addToken(Token.of(carol), 0);
+
+        assertEquals("Same owner index", Token.indexOf(alice), Token.indexOf(carol));
+        assertEquals("Alice's token is still hers", alice, board.getToken(0, 0).getOwner());
+        assertEquals("Alice's token is still hers", alice, bitBoard.getToken(0, 0).getOwner());
+        assertEquals("Carol's token is hers", carol, nextBoard.getToken(0, 0).getOwner());
+        assertEquals("Copies keep the owner", alice, board.copy().getToken(0, 0).getOwner());
+    }
+
 }
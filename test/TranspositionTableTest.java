@@ -0,0 +1,129 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests TranspositionTable class
+ * @author Eli W. Hunter
+ */
+public class TranspositionTableTest extends TestCase {
+
+    /** The capacity of the testing table */
+    private static int CAPACITY = 16;
+
+    /** The table for testing */
+    private TranspositionTable table;
+
+    @Before
+    public void setUp() {
+        table = new TranspositionTable(CAPACITY);
+    }
+
+    @Test
+    public void testCapacity() {
+        assertEquals("Power of two", CAPACITY, table.getCapacity());
+        assertEquals("Rounded down", 8, new TranspositionTable(15).getCapacity());
+        assertEquals("Capacity for 1 KiB", 64, TranspositionTable.capacityFor(1024));
+
+        try {
+            new TranspositionTable(1);
+            fail("Capacity of 1");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Capacity error", TranspositionTable.CAPACITY_ERROR_MESSAGE, e.getMessage());
+        }
+    }
+
+    @Test
+    public void testStoreAndProbe() {
+        assertEquals("Empty table", TranspositionTable.MISS, table.probe(42));
+
+        table.store(42, 5, TranspositionTable.LOWER_BOUND, -1234, 3);
+        long entry = table.probe(42);
+        assertEquals("Depth", 5, TranspositionTable.getDepth(entry));
+        assertEquals("Bound", TranspositionTable.LOWER_BOUND, TranspositionTable.getBound(entry));
+        assertEquals("Score", -1234, TranspositionTable.getScore(entry));
+        assertEquals("Move", 3, TranspositionTable.getMove(entry));
+
+        table.store(0, 1, TranspositionTable.EXACT, 0, -1);
+        entry = table.probe(0);
+        assertEquals("Key of 0", TranspositionTable.EXACT, TranspositionTable.getBound(entry));
+        assertEquals("No move", -1, TranspositionTable.getMove(entry));
+
+        assertEquals("Hit rate", 2.0 / 3, table.getHitRate(), 1e-9);
+        assertEquals("Occupancy", 2.0 / CAPACITY, table.getOccupancy(), 1e-9);
+
+        table.clear();
+        assertEquals("Cleared", TranspositionTable.MISS, table.probe(42));
+        assertEquals("Cleared occupancy", 0.0, table.getOccupancy());
+    }
+
+    @Test
+    public void testReplacement() {
+        // Every key with the same high bits falls in the same bucket
+        long deep = 1L;
+        long shallow = 2L;
+        long newest = 3L;
+
+        table.store(deep, 8, TranspositionTable.EXACT, 1, 0);
+        table.store(shallow, 2, TranspositionTable.EXACT, 2, 0);
+        assertEquals("Deep entry kept", 1, TranspositionTable.getScore(table.probe(deep)));
+        assertEquals("Shallow entry kept", 2, TranspositionTable.getScore(table.probe(shallow)));
+
+        table.store(newest, 1, TranspositionTable.EXACT, 3, 0);
+        assertEquals("Deep entry still kept", 1, TranspositionTable.getScore(table.probe(deep)));
+        assertEquals("Shallow entry replaced", TranspositionTable.MISS, table.probe(shallow));
+        assertEquals("Newest entry kept", 3, TranspositionTable.getScore(table.probe(newest)));
+
+        table.store(shallow, 9, TranspositionTable.EXACT, 4, 0);
+        assertEquals("Deeper entry replaces", 4, TranspositionTable.getScore(table.probe(shallow)));
+    }
+
+    @Test
+    public void testSearchReusesResults() {
+        Player.resetCounter();
+        Player alice = new Player("Alice", Player.COMPETITIVE_AI);
+        Player cyborg = new Player("Cyborg", Player.COMPETITIVE_AI);
+        GameBoard board = new GameBoard(7, 6, 4);
+        board.addToken(Token.of(alice), 3);
+        board.addToken(Token.of(cyborg), 3);
+
+        NegamaxSearch search = new NegamaxSearch(board, new Player[] {alice, cyborg}, table);
+
+        int col = search.search(alice, 5);
+        long firstNodes = search.getStatistics().getNodes();
+
+        assertEquals("Same column again", col, search.search(alice, 5));
+        assertTrue("Fewer nodes the second time", search.getStatistics().getNodes() < firstNodes);
+        assertTrue("Table was hit", table.getHits() > 0);
+    }
+
+    @Test
+    public void testAITableCapacity() {
+        Player.resetCounter();
+        Player alice = new Player("Alice", Player.COMPETITIVE_AI);
+        Player cyborg = new Player("Cyborg", Player.COMPETITIVE_AI);
+        GameBoard board = new GameBoard(7, 6, 4);
+        AI ai = new AI(board, new Player[] {alice, cyborg});
+        ai.setSearchDepth(4);
+        int capacity = TranspositionTable.capacityFor(1 << 20);
+        ai.setTranspositionTableCapacity(capacity);
+        assertNull("Nothing made before searching", ai.getTranspositionTable());
+
+        ai.decideAction(alice);
+        TranspositionTable aiTable = ai.getTranspositionTable();
+        assertEquals("Chosen capacity", capacity, aiTable.getCapacity());
+        assertTrue("Table was probed", aiTable.getProbes() > 0);
+        assertTrue("Table was filled", aiTable.getOccupancy() > 0);
+
+        ai.setTranspositionTableCapacity(CAPACITY);
+        assertEquals("Replaced table", CAPACITY, ai.getTranspositionTable().getCapacity());
+        try {
+            ai.setTranspositionTableCapacity(1);
+            fail("Capacity of 1");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Capacity error", TranspositionTable.CAPACITY_ERROR_MESSAGE, e.getMessage());
+        }
+    }
+
+}
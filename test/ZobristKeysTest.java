@@ -0,0 +1,76 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests ZobristKeys class and the position hashes of the GameBoards.
+ * @author Eli W. Hunter
+ */
+public class ZobristKeysTest extends TestCase {
+
+    /** The width for the testing game boards */
+    private static int WIDTH = 7;
+    /** The height for the testing game boards */
+    private static int HEIGHT = 6;
+    /** The number of tokens to connect for the testing game boards */
+    private static int TOKENS_TO_CONNECT = 4;
+
+    /** Alice's Token for testing */
+    private Token aliceToken;
+    /** Cyborg's Token for testing */
+    private Token cyborgToken;
+
+    @Before
+    public void setUp() {
+        Player.resetCounter();
+        aliceToken = new Token(new Player("Alice", Player.HUMAN));
+        cyborgToken = new Token(new Player("Cyborg", Player.RANDOM_AI));
+    }
+
+    @Test
+    public void testKeysAreStable() {
+        ZobristKeys keys = new ZobristKeys(WIDTH * HEIGHT);
+        assertEquals("Key from the table", ZobristKeys.generateKey(2, 5), keys.getKey(2, 5));
+        assertEquals("Key from a new table", keys.getKey(1, 0), new ZobristKeys(WIDTH * HEIGHT).getKey(1, 0));
+        assertFalse("Different owners", keys.getKey(1, 0) == keys.getKey(2, 0));
+        assertFalse("Different cells", keys.getKey(1, 0) == keys.getKey(1, 1));
+    }
+
+    @Test
+    public void testTransposition() {
+        GameBoard[] boards = {
+            new GameBoard(WIDTH, HEIGHT, TOKENS_TO_CONNECT),
+            new BitBoard(WIDTH, HEIGHT, TOKENS_TO_CONNECT),
+            new LargeBitBoard(WIDTH, HEIGHT, TOKENS_TO_CONNECT),
+        };
+        long[] hashes = new long[boards.length];
+        for (int i = 0; i < boards.length; i++) {
+            GameBoard board = boards[i];
+            assertEquals("Empty board", 0L, board.getHash());
+
+            board.addToken(aliceToken, 0);
+            board.addToken(cyborgToken, 1);
+            board.addToken(aliceToken, 2);
+            long hash = board.getHash();
+            hashes[i] = hash;
+
+            board.empty();
+            assertEquals("Emptied board", 0L, board.getHash());
+            board.addToken(aliceToken, 2);
+            board.addToken(cyborgToken, 1);
+            board.addToken(aliceToken, 0);
+            assertEquals("Same position in another order", hash, board.getHash());
+            assertEquals("Same hash on every kind of board", hashes[0], hash);
+
+            board.addToken(cyborgToken, 3);
+            board.removeToken(3);
+            assertEquals("Removing restores the hash", hash, board.getHash());
+
+            board.removeToken(0);
+            board.addToken(cyborgToken, 0);
+            assertFalse("Different owner", hash == board.getHash());
+        }
+    }
+
+}